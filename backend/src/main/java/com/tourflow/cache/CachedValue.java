@@ -0,0 +1,32 @@
+package com.tourflow.cache;
+
+import java.io.Serializable;
+
+/**
+ * Valeur mise en cache et date de son chargement, stockée telle quelle dans les deux niveaux :
+ * l'âge de la valeur décide de son rafraîchissement anticipé et de sa fraîcheur, quelle que soit l'instance
+ */
+public final class CachedValue implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Object value;
+
+    // Epoch en millisecondes
+    private final long loadedAt;
+
+    // Constructeurs
+    public CachedValue(Object value, long loadedAt) {
+        this.value = value;
+        this.loadedAt = loadedAt;
+    }
+
+    // Getters
+    public Object getValue() {
+        return value;
+    }
+
+    public long getLoadedAt() {
+        return loadedAt;
+    }
+}
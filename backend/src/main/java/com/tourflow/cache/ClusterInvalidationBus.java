@@ -0,0 +1,77 @@
+package com.tourflow.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Diffusion entre instances des mises à jour des index en mémoire (indisponibilités externes, capacités
+ * libres, recherche...). Les messages passent par le canal d'invalidation des caches à deux niveaux, au même
+ * format ; le sujet est préfixé par "index:" pour ne jamais désigner un cache. Les messages de l'instance
+ * elle-même sont ignorés : elle a déjà appliqué la mise à jour avant de la publier.
+ */
+public class ClusterInvalidationBus implements MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClusterInvalidationBus.class);
+
+    private static final String TOPIC_PREFIX = "index:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final String channel;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final Map<String, Consumer<String>> handlers = new ConcurrentHashMap<>();
+
+    public ClusterInvalidationBus(StringRedisTemplate redisTemplate, String channel) {
+        this.redisTemplate = redisTemplate;
+        this.channel = channel;
+    }
+
+    /**
+     * Enregistre le traitement des messages d'un sujet venant des autres instances
+     */
+    public void subscribe(String topic, Consumer<String> handler) {
+        handlers.put(TOPIC_PREFIX + topic, handler);
+    }
+
+    /**
+     * Annonce une mise à jour aux autres instances ; un échec de Redis est journalisé sans être propagé,
+     * l'appelant ayant déjà validé sa transaction
+     */
+    public void publish(String topic, String payload) {
+        try {
+            redisTemplate.convertAndSend(channel, nodeId + "\n" + TOPIC_PREFIX + topic + "\n" + payload);
+        } catch (RuntimeException e) {
+            logger.warn("Mise à jour de l'index {} non diffusée : {}", topic, e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\n", 3);
+        if (parts.length != 3 || parts[0].equals(nodeId)) {
+            return;
+        }
+        Consumer<String> handler = handlers.get(parts[1]);
+        if (handler == null) {
+            return;
+        }
+        try {
+            handler.accept(parts[2]);
+        } catch (RuntimeException e) {
+            logger.warn("Mise à jour de l'index {} reçue mais non appliquée : {}", parts[1], e.getMessage());
+        }
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+}
@@ -0,0 +1,329 @@
+package com.tourflow.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache à deux niveaux : Caffeine local (L1) devant Redis partagé (L2).
+ * Toute écriture passe par Redis puis est annoncée aux autres instances pour qu'elles vident leur L1.
+ * Une panne de Redis ne fait pas échouer l'appel : le cache se comporte alors comme un simple cache local.
+ * <p>
+ * Les lectures synchronisées (@Cacheable(sync = true)) sont protégées contre les avalanches : un seul chargement
+ * par clé à la fois, rafraîchissement anticipé probabiliste avant l'expiration, et valeur expirée servie si le
+ * rechargement échoue.
+ */
+public class TwoTierCache extends AbstractValueAdaptingCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(TwoTierCache.class);
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> localCache;
+    private final Cache redisCache;
+    private final TwoTierCacheProperties.Policy policy;
+    private final TwoTierCacheManager cacheManager;
+    private final Executor refreshExecutor;
+
+    // Chargements en cours, partagés par les lectures concurrentes de la même clé
+    private final ConcurrentMap<String, CompletableFuture<CachedValue>> loads = new ConcurrentHashMap<>();
+
+    // Moyenne glissante de la durée d'un chargement, qui règle l'avance du rafraîchissement anticipé
+    private final AtomicLong meanLoadNanos = new AtomicLong();
+
+    private final Counter l1HitCounter;
+    private final Counter l2HitCounter;
+    private final Counter missCounter;
+    private final Counter l2ErrorCounter;
+    private final Counter loadCounter;
+    private final Counter coalescedCounter;
+    private final Counter refreshCounter;
+    private final Counter staleCounter;
+
+    public TwoTierCache(String name, com.github.benmanes.caffeine.cache.Cache<String, Object> localCache, Cache redisCache,
+                        TwoTierCacheProperties.Policy policy, TwoTierCacheManager cacheManager, Executor refreshExecutor,
+                        MeterRegistry meterRegistry) {
+        super(false);
+        this.name = name;
+        this.localCache = localCache;
+        this.redisCache = redisCache;
+        this.policy = policy;
+        this.cacheManager = cacheManager;
+        this.refreshExecutor = refreshExecutor;
+        this.l1HitCounter = requestCounter(meterRegistry, "l1_hit");
+        this.l2HitCounter = requestCounter(meterRegistry, "l2_hit");
+        this.missCounter = requestCounter(meterRegistry, "miss");
+        this.l2ErrorCounter = Counter.builder("cache.two_tier.l2.errors")
+                .description("Accès Redis en échec, servis par le seul cache local")
+                .tag("cache", name)
+                .register(meterRegistry);
+        this.loadCounter = loadCounter(meterRegistry, "loaded");
+        this.coalescedCounter = loadCounter(meterRegistry, "coalesced");
+        this.refreshCounter = loadCounter(meterRegistry, "early_refresh");
+        this.staleCounter = loadCounter(meterRegistry, "stale_on_error");
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public com.github.benmanes.caffeine.cache.Cache<String, Object> getNativeCache() {
+        return localCache;
+    }
+
+    public TwoTierCacheProperties.Policy getPolicy() {
+        return policy;
+    }
+
+    public long getL2HitCount() {
+        return (long) l2HitCounter.count();
+    }
+
+    public long getL2ErrorCount() {
+        return (long) l2ErrorCounter.count();
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        long now = System.currentTimeMillis();
+        CachedValue entry = read(key, now);
+        return entry != null && isFresh(entry, now) ? entry.getValue() : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        long now = System.currentTimeMillis();
+        CachedValue entry = read(key, now);
+        if (entry != null && isFresh(entry, now)) {
+            if (shouldRefreshEarly(entry, now)) {
+                refreshAsync(key, valueLoader);
+            }
+            return (T) fromStoreValue(entry.getValue());
+        }
+
+        try {
+            CachedValue loaded = load(key, valueLoader);
+            return loaded == null ? null : (T) fromStoreValue(loaded.getValue());
+        } catch (ValueRetrievalException e) {
+            if (entry != null && isServableOnError(entry, now)) {
+                staleCounter.increment();
+                logger.warn("Cache {} : rechargement de {} impossible, valeur expirée servie ({})",
+                        name, key, e.getCause() == null ? e.getMessage() : e.getCause().getMessage());
+                return (T) fromStoreValue(entry.getValue());
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (value == null) {
+            evict(key);
+            return;
+        }
+        store(key, new CachedValue(value, System.currentTimeMillis()));
+    }
+
+    @Override
+    public void evict(Object key) {
+        try {
+            redisCache.evict(key);
+        } catch (RuntimeException e) {
+            redisFailure("suppression", e);
+        }
+        localCache.invalidate(localKey(key));
+        cacheManager.publishInvalidation(name, localKey(key));
+    }
+
+    @Override
+    public void clear() {
+        try {
+            redisCache.clear();
+        } catch (RuntimeException e) {
+            redisFailure("vidage", e);
+        }
+        localCache.invalidateAll();
+        cacheManager.publishInvalidation(name, null);
+    }
+
+    /**
+     * Retire une entrée du seul cache local, sur message d'une autre instance
+     */
+    void evictLocal(String localKey) {
+        localCache.invalidate(localKey);
+    }
+
+    void clearLocal() {
+        localCache.invalidateAll();
+    }
+
+    /**
+     * Clé du cache local et des messages d'invalidation : sa forme texte, identique sur toutes les instances
+     */
+    static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+
+    /**
+     * Entrée du cache local si elle est fraîche, sinon celle de Redis (rafraîchie par une autre instance) ;
+     * à défaut, la plus récente des deux même expirée, pour servir en cas d'échec du rechargement
+     */
+    private CachedValue read(Object key, long now) {
+        String localKey = localKey(key);
+        CachedValue local = (CachedValue) localCache.getIfPresent(localKey);
+        if (local != null && isFresh(local, now)) {
+            l1HitCounter.increment();
+            return local;
+        }
+
+        CachedValue shared = null;
+        try {
+            ValueWrapper wrapper = redisCache.get(key);
+            // Une valeur d'un autre format (version précédente) est traitée comme absente
+            if (wrapper != null && wrapper.get() instanceof CachedValue) {
+                shared = (CachedValue) wrapper.get();
+            }
+        } catch (RuntimeException e) {
+            redisFailure("lecture", e);
+        }
+        if (shared != null && isFresh(shared, now)) {
+            l2HitCounter.increment();
+            localCache.put(localKey, shared);
+            return shared;
+        }
+
+        missCounter.increment();
+        if (local == null) {
+            return shared;
+        }
+        return shared == null || local.getLoadedAt() >= shared.getLoadedAt() ? local : shared;
+    }
+
+    /**
+     * Charge la valeur une seule fois pour toutes les lectures concurrentes de la clé ; les autres attendent
+     * le même résultat, ou la même erreur
+     */
+    private CachedValue load(Object key, Callable<?> valueLoader) {
+        String localKey = localKey(key);
+        CompletableFuture<CachedValue> future = new CompletableFuture<>();
+        CompletableFuture<CachedValue> inFlight = loads.putIfAbsent(localKey, future);
+        if (inFlight != null) {
+            coalescedCounter.increment();
+            try {
+                return inFlight.join();
+            } catch (CompletionException e) {
+                throw new ValueRetrievalException(key, valueLoader, e.getCause());
+            }
+        }
+
+        try {
+            long start = System.nanoTime();
+            Object value = valueLoader.call();
+            recordLoadTime(System.nanoTime() - start);
+            loadCounter.increment();
+
+            CachedValue entry = value == null ? null : new CachedValue(value, System.currentTimeMillis());
+            if (entry != null) {
+                store(key, entry);
+            }
+            future.complete(entry);
+            return entry;
+        } catch (Exception e) {
+            future.completeExceptionally(e);
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } finally {
+            loads.remove(localKey, future);
+        }
+    }
+
+    private void refreshAsync(Object key, Callable<?> valueLoader) {
+        if (loads.containsKey(localKey(key))) {
+            return;
+        }
+        refreshCounter.increment();
+        refreshExecutor.execute(() -> {
+            try {
+                load(key, valueLoader);
+            } catch (RuntimeException e) {
+                // La valeur actuelle reste servie jusqu'à son expiration
+                logger.warn("Cache {} : rafraîchissement anticipé de {} en échec", name, key, e);
+            }
+        });
+    }
+
+    private void store(Object key, CachedValue entry) {
+        try {
+            redisCache.put(key, entry);
+        } catch (RuntimeException e) {
+            redisFailure("écriture", e);
+        }
+        localCache.put(localKey(key), entry);
+        cacheManager.publishInvalidation(name, localKey(key));
+    }
+
+    private boolean isFresh(CachedValue entry, long now) {
+        return policy.getRedisTtl() == null || now - entry.getLoadedAt() < policy.getRedisTtl().toMillis();
+    }
+
+    private boolean isServableOnError(CachedValue entry, long now) {
+        if (policy.getStaleIfError() == null || policy.getRedisTtl() == null) {
+            return false;
+        }
+        return now - entry.getLoadedAt() < policy.getRedisTtl().plus(policy.getStaleIfError()).toMillis();
+    }
+
+    /**
+     * Rafraîchissement anticipé probabiliste (XFetch) : la probabilité de recharger croît à l'approche de
+     * l'expiration, d'autant plus tôt que le chargement est long, si bien qu'une seule lecture le déclenche
+     * en général avant que toutes ne manquent ensemble
+     */
+    private boolean shouldRefreshEarly(CachedValue entry, long now) {
+        Double beta = policy.getEarlyRefreshBeta();
+        long loadNanos = meanLoadNanos.get();
+        if (beta == null || beta <= 0 || loadNanos == 0 || policy.getRedisTtl() == null) {
+            return false;
+        }
+        double loadMillis = loadNanos / 1_000_000.0;
+        double advance = -loadMillis * beta * Math.log(1.0 - ThreadLocalRandom.current().nextDouble());
+        return now + advance >= entry.getLoadedAt() + policy.getRedisTtl().toMillis();
+    }
+
+    private void recordLoadTime(long nanos) {
+        meanLoadNanos.updateAndGet(mean -> mean == 0 ? Math.max(1, nanos) : (mean * 7 + nanos) / 8);
+    }
+
+    private void redisFailure(String operation, RuntimeException e) {
+        l2ErrorCounter.increment();
+        logger.warn("Cache {} : {} Redis impossible, cache local seul ({})", name, operation, e.getMessage());
+    }
+
+    private Counter requestCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("cache.two_tier.requests")
+                .description("Lectures du cache à deux niveaux par niveau servi")
+                .tag("cache", name)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private Counter loadCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("cache.two_tier.loads")
+                .description("Chargements des lectures synchronisées : effectués, regroupés, anticipés, remplacés par une valeur expirée")
+                .tag("cache", name)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
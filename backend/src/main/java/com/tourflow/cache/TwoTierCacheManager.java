@@ -0,0 +1,142 @@
+package com.tourflow.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Gestionnaire des caches à deux niveaux. Chaque instance s'abonne au canal d'invalidation et vide son cache
+ * local à la réception d'une écriture faite ailleurs ; ses propres messages, reconnus à l'identifiant
+ * d'instance, sont ignorés. Un message perdu est rattrapé par l'expiration du cache local.
+ */
+public class TwoTierCacheManager implements CacheManager, MessageListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(TwoTierCacheManager.class);
+
+    // Marque un vidage complet du cache dans les messages d'invalidation
+    static final String CLEAR = "*";
+
+    private final TwoTierCacheProperties properties;
+    private final RedisCacheManager redisCacheManager;
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Executor refreshExecutor;
+    private final String channel;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    private final ConcurrentMap<String, TwoTierCache> caches = new ConcurrentHashMap<>();
+
+    public TwoTierCacheManager(TwoTierCacheProperties properties, RedisCacheManager redisCacheManager,
+                               StringRedisTemplate redisTemplate, MeterRegistry meterRegistry, Executor refreshExecutor) {
+        this.properties = properties;
+        this.redisCacheManager = redisCacheManager;
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.refreshExecutor = refreshExecutor;
+        this.channel = properties.getInvalidationChannel();
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, this::createCache);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+
+    /**
+     * Caches déjà utilisés, pour l'instrumentation
+     */
+    public Collection<TwoTierCache> getCaches() {
+        return Collections.unmodifiableCollection(caches.values());
+    }
+
+    private TwoTierCache createCache(String name) {
+        TwoTierCacheProperties.Policy policy = properties.policyFor(name);
+        Cache redisCache = redisCacheManager.getCache(name);
+
+        Caffeine<Object, Object> builder = Caffeine.newBuilder().recordStats();
+        if (policy.getMaximumWeight() != null) {
+            builder.maximumWeight(policy.getMaximumWeight())
+                    .weigher((key, value) -> weigh(((CachedValue) value).getValue()));
+        } else if (policy.getMaximumSize() != null) {
+            builder.maximumSize(policy.getMaximumSize());
+        }
+        if (policy.getLocalTtl() != null) {
+            builder.expireAfterWrite(policy.getLocalTtl());
+        }
+
+        com.github.benmanes.caffeine.cache.Cache<String, Object> localCache;
+        if (policy.getRefreshAfterWrite() != null) {
+            // Rafraîchie depuis Redis : une entrée absente de Redis (évincée ailleurs) disparaît du cache local
+            localCache = builder.refreshAfterWrite(policy.getRefreshAfterWrite()).build(localKey -> {
+                Cache.ValueWrapper wrapper = redisCache.get(localKey);
+                return wrapper != null && wrapper.get() instanceof CachedValue ? wrapper.get() : null;
+            });
+        } else {
+            localCache = builder.build();
+        }
+
+        CaffeineCacheMetrics.monitor(meterRegistry, localCache, name);
+        return new TwoTierCache(name, localCache, redisCache, policy, this, refreshExecutor, meterRegistry);
+    }
+
+    private static int weigh(Object value) {
+        return value instanceof Collection ? Math.max(1, ((Collection<?>) value).size()) : 1;
+    }
+
+    /**
+     * Annonce aux autres instances une écriture sur une clé, ou sur tout le cache si la clé est nulle
+     */
+    void publishInvalidation(String cacheName, String localKey) {
+        try {
+            redisTemplate.convertAndSend(channel, encode(nodeId, cacheName, localKey));
+        } catch (RuntimeException e) {
+            logger.warn("Invalidation du cache {} non diffusée : {}", cacheName, e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split("\n", 3);
+        if (parts.length != 3 || parts[0].equals(nodeId)) {
+            return;
+        }
+        TwoTierCache cache = caches.get(parts[1]);
+        if (cache == null) {
+            return;
+        }
+        if (parts[2].equals(CLEAR)) {
+            cache.clearLocal();
+        } else {
+            cache.evictLocal(parts[2].substring(1));
+        }
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    // Clé préfixée pour ne pas confondre une clé "*" avec un vidage complet
+    static String encode(String nodeId, String cacheName, String localKey) {
+        return nodeId + "\n" + cacheName + "\n" + (localKey == null ? CLEAR : "=" + localKey);
+    }
+}
@@ -0,0 +1,160 @@
+package com.tourflow.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Politiques des caches à deux niveaux : une politique par défaut, surchargée champ par champ pour chaque
+ * cache nommé (cache.two-tier.caches[tours].maximum-size=5000)
+ */
+@ConfigurationProperties(prefix = "cache.two-tier")
+public class TwoTierCacheProperties {
+
+    private String invalidationChannel = "tourflow:cache:invalidation";
+
+    private Policy defaults = new Policy();
+
+    private Map<String, Policy> caches = new HashMap<>();
+
+    public TwoTierCacheProperties() {
+        defaults.setMaximumSize(1000L);
+        defaults.setLocalTtl(Duration.ofSeconds(60));
+        defaults.setRedisTtl(Duration.ofMinutes(5));
+    }
+
+    /**
+     * Politique effective d'un cache : celle du cache, complétée par les valeurs par défaut
+     */
+    public Policy policyFor(String cacheName) {
+        Policy specific = caches.get(cacheName);
+        if (specific == null) {
+            return defaults;
+        }
+        Policy merged = new Policy();
+        // Une taille ou un poids propre au cache remplace la borne par défaut, quelle qu'elle soit
+        if (specific.getMaximumSize() != null || specific.getMaximumWeight() != null) {
+            merged.setMaximumSize(specific.getMaximumSize());
+            merged.setMaximumWeight(specific.getMaximumWeight());
+        } else {
+            merged.setMaximumSize(defaults.getMaximumSize());
+            merged.setMaximumWeight(defaults.getMaximumWeight());
+        }
+        merged.setLocalTtl(specific.getLocalTtl() != null ? specific.getLocalTtl() : defaults.getLocalTtl());
+        merged.setRefreshAfterWrite(specific.getRefreshAfterWrite() != null
+                ? specific.getRefreshAfterWrite() : defaults.getRefreshAfterWrite());
+        merged.setRedisTtl(specific.getRedisTtl() != null ? specific.getRedisTtl() : defaults.getRedisTtl());
+        merged.setStaleIfError(specific.getStaleIfError() != null ? specific.getStaleIfError() : defaults.getStaleIfError());
+        merged.setEarlyRefreshBeta(specific.getEarlyRefreshBeta() != null
+                ? specific.getEarlyRefreshBeta() : defaults.getEarlyRefreshBeta());
+        return merged;
+    }
+
+    // Getters et Setters
+    public String getInvalidationChannel() {
+        return invalidationChannel;
+    }
+
+    public void setInvalidationChannel(String invalidationChannel) {
+        this.invalidationChannel = invalidationChannel;
+    }
+
+    public Policy getDefaults() {
+        return defaults;
+    }
+
+    public void setDefaults(Policy defaults) {
+        this.defaults = defaults;
+    }
+
+    public Map<String, Policy> getCaches() {
+        return caches;
+    }
+
+    public void setCaches(Map<String, Policy> caches) {
+        this.caches = caches;
+    }
+
+    public static class Policy {
+
+        // Nombre d'entrées du cache local
+        private Long maximumSize;
+
+        // Alternative à maximumSize : une liste pèse son nombre d'éléments, toute autre valeur pèse 1
+        private Long maximumWeight;
+
+        // Durée de vie dans le cache local, depuis l'écriture
+        private Duration localTtl;
+
+        // Relecture asynchrone depuis Redis d'une entrée locale plus ancienne que ce délai, à son prochain accès
+        private Duration refreshAfterWrite;
+
+        // Durée de fraîcheur d'une valeur, et sa durée de vie dans Redis
+        private Duration redisTtl;
+
+        // Délai après expiration pendant lequel la valeur reste servie si son rechargement échoue
+        private Duration staleIfError;
+
+        // Avance du rafraîchissement anticipé, en multiple de la durée de chargement (0 : désactivé)
+        private Double earlyRefreshBeta;
+
+        // Getters et Setters
+        public Long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(Long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public Long getMaximumWeight() {
+            return maximumWeight;
+        }
+
+        public void setMaximumWeight(Long maximumWeight) {
+            this.maximumWeight = maximumWeight;
+        }
+
+        public Duration getLocalTtl() {
+            return localTtl;
+        }
+
+        public void setLocalTtl(Duration localTtl) {
+            this.localTtl = localTtl;
+        }
+
+        public Duration getRefreshAfterWrite() {
+            return refreshAfterWrite;
+        }
+
+        public void setRefreshAfterWrite(Duration refreshAfterWrite) {
+            this.refreshAfterWrite = refreshAfterWrite;
+        }
+
+        public Duration getRedisTtl() {
+            return redisTtl;
+        }
+
+        public void setRedisTtl(Duration redisTtl) {
+            this.redisTtl = redisTtl;
+        }
+
+        public Duration getStaleIfError() {
+            return staleIfError;
+        }
+
+        public void setStaleIfError(Duration staleIfError) {
+            this.staleIfError = staleIfError;
+        }
+
+        public Double getEarlyRefreshBeta() {
+            return earlyRefreshBeta;
+        }
+
+        public void setEarlyRefreshBeta(Double earlyRefreshBeta) {
+            this.earlyRefreshBeta = earlyRefreshBeta;
+        }
+    }
+}
@@ -1,27 +1,103 @@
 package com.tourflow.config;
 
-import org.springframework.cache.CacheManager;
+import com.tourflow.cache.ClusterInvalidationBus;
+import com.tourflow.cache.TwoTierCacheManager;
+import com.tourflow.cache.TwoTierCacheProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.BatchStrategies;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
-import com.github.benmanes.caffeine.cache.Caffeine;
-
-import java.util.concurrent.TimeUnit;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadPoolExecutor;
 
+/**
+ * Caches applicatifs à deux niveaux : Caffeine local devant Redis partagé, avec invalidation des caches
+ * locaux des autres instances par pub/sub Redis
+ */
 @Configuration
 @EnableCaching
+@EnableConfigurationProperties(TwoTierCacheProperties.class)
 public class CacheConfig {
 
     @Bean
-    public CacheManager cacheManager() {
-        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
-        cacheManager.setCaffeine(Caffeine.newBuilder()
-                .initialCapacity(100)
-                .maximumSize(1000)
-                .expireAfterWrite(30, TimeUnit.MINUTES)
-                .recordStats());
+    public TwoTierCacheManager cacheManager(TwoTierCacheProperties properties, RedisConnectionFactory connectionFactory,
+                                            StringRedisTemplate stringRedisTemplate, MeterRegistry meterRegistry) {
+        // Sérialisation Java par défaut : les valeurs mises en cache sont des copies immuables sérialisables
+        RedisCacheConfiguration redisDefaults = RedisCacheConfiguration.defaultCacheConfig()
+                .disableCachingNullValues()
+                .prefixCacheNameWith("tourflow:cache:");
+
+        Map<String, RedisCacheConfiguration> redisConfigurations = new HashMap<>();
+        properties.getCaches().keySet().forEach(name ->
+                redisConfigurations.put(name, redisDefaults.entryTtl(redisRetention(properties.policyFor(name)))));
+
+        // Vidage d'un cache par SCAN, par lots de 1000 clés : KEYS bloquerait Redis le temps de parcourir tout l'espace
+        RedisCacheWriter cacheWriter = RedisCacheWriter.nonLockingRedisCacheWriter(connectionFactory, BatchStrategies.scan(1000));
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(cacheWriter)
+                .cacheDefaults(redisDefaults.entryTtl(redisRetention(properties.getDefaults())))
+                .withInitialCacheConfigurations(redisConfigurations)
+                .build();
+        redisCacheManager.afterPropertiesSet();
+
+        TwoTierCacheManager cacheManager = new TwoTierCacheManager(properties, redisCacheManager, stringRedisTemplate,
+                meterRegistry, cacheRefreshExecutor());
+        // Caches configurés créés d'emblée : leurs métriques existent avant le premier accès
+        properties.getCaches().keySet().forEach(cacheManager::getCache);
         return cacheManager;
     }
+
+    /**
+     * Mises à jour des index en mémoire, diffusées sur le même canal que les invalidations de cache
+     */
+    @Bean
+    public ClusterInvalidationBus clusterInvalidationBus(TwoTierCacheProperties properties,
+                                                         StringRedisTemplate stringRedisTemplate) {
+        return new ClusterInvalidationBus(stringRedisTemplate, properties.getInvalidationChannel());
+    }
+
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                            TwoTierCacheManager cacheManager,
+                                                                            ClusterInvalidationBus clusterInvalidationBus) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(cacheManager, new ChannelTopic(cacheManager.getChannel()));
+        container.addMessageListener(clusterInvalidationBus, new ChannelTopic(clusterInvalidationBus.getChannel()));
+        return container;
+    }
+
+    /**
+     * Rafraîchissements anticipés : un rafraîchissement refusé faute de place sera retenté à une lecture suivante.
+     * Pas déclaré comme bean pour ne pas devenir l'exécuteur par défaut de @Async.
+     */
+    private Executor cacheRefreshExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(4);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("cache-refresh-");
+        executor.setDaemon(true);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    // Une valeur expirée reste dans Redis le temps de pouvoir être servie si son rechargement échoue
+    private Duration redisRetention(TwoTierCacheProperties.Policy policy) {
+        return policy.getStaleIfError() == null ? policy.getRedisTtl() : policy.getRedisTtl().plus(policy.getStaleIfError());
+    }
 }
@@ -1,11 +1,17 @@
 package com.tourflow.config;
 
+import com.tourflow.security.JwtPrincipal;
+import com.tourflow.security.RateLimitFilter;
+import com.tourflow.security.RateLimitProperties;
 import com.tourflow.service.AuthenticationService;
+import com.tourflow.service.PasswordHashingService;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -15,9 +21,6 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.AuthenticationEntryPoint;
 import org.springframework.security.web.SecurityFilterChain;
@@ -31,17 +34,22 @@ import java.io.IOException;
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity
+@EnableConfigurationProperties(RateLimitProperties.class)
 public class SecurityConfig {
 
     @Autowired
     private AuthenticationService authenticationService;
 
     @Autowired
-    private UserDetailsService userDetailsService;
+    private RateLimitProperties rateLimitProperties;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(PasswordHashingService passwordHashingService) {
+        // Coût calibré au démarrage ; les connexions passent par le pool de PasswordHashingService
+        return passwordHashingService.getEncoder();
     }
 
     @Bean
@@ -58,20 +66,28 @@ public class SecurityConfig {
                 // Endpoints publics
                 .requestMatchers("/api/auth/**").permitAll()
                 .requestMatchers("/api/tours").permitAll()
+                .requestMatchers("/api/tours/catalog").permitAll()
                 .requestMatchers("/api/tours/{id}").permitAll()
                 .requestMatchers("/api/tours/available").permitAll()
+                .requestMatchers("/api/tours/search").permitAll()
+                .requestMatchers("/api/tours/nearby").permitAll()
+                .requestMatchers("/api/tours/bookable").permitAll()
+                .requestMatchers("/api/availability/slots/{tourId}").permitAll()
                 .requestMatchers("/api/bookings").permitAll()
                 .requestMatchers("/api/bookings/{id}").permitAll()
                 .requestMatchers("/api/bookings/customer/{email}").permitAll()
                 .requestMatchers("/api/payments/stripe-publishable-key").permitAll()
                 .requestMatchers("/api/payments/webhook/stripe").permitAll()
                 .requestMatchers("/api/calendar/ics/{guideId}").permitAll()
+                .requestMatchers("/api/calendar/freebusy/{guideId}").permitAll()
                 .requestMatchers("/swagger-ui/**", "/v3/api-docs/**").permitAll()
                 // Endpoints privés
                 .anyRequest().authenticated()
             )
             .exceptionHandling(exception -> exception.authenticationEntryPoint(unauthorizedHandler()))
-            .addFilterBefore(new JwtAuthenticationFilter(authenticationService, userDetailsService), UsernamePasswordAuthenticationFilter.class);
+            .addFilterBefore(new JwtAuthenticationFilter(authenticationService), UsernamePasswordAuthenticationFilter.class)
+            // Après le JWT pour limiter par utilisateur authentifié, avant l'autorisation et les contrôleurs
+            .addFilterAfter(new RateLimitFilter(rateLimitProperties, meterRegistry), JwtAuthenticationFilter.class);
 
         return http.build();
     }
@@ -85,15 +101,17 @@ public class SecurityConfig {
         };
     }
 
+    /**
+     * Authentifie la requête à partir des seuls claims du JWT : une vérification de signature par token
+     * (mise en cache jusqu'à son expiration) et aucune requête en base
+     */
     @Component
     public static class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         private final AuthenticationService authenticationService;
-        private final UserDetailsService userDetailsService;
 
-        public JwtAuthenticationFilter(AuthenticationService authenticationService, UserDetailsService userDetailsService) {
+        public JwtAuthenticationFilter(AuthenticationService authenticationService) {
             this.authenticationService = authenticationService;
-            this.userDetailsService = userDetailsService;
         }
 
         @Override
@@ -102,22 +120,14 @@ public class SecurityConfig {
 
             final String authorizationHeader = request.getHeader("Authorization");
 
-            String username = null;
-            String jwt = null;
-
-            if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")) {
-                jwt = authorizationHeader.substring(7);
-                username = authenticationService.getUserFromToken(jwt) != null ? 
-                        authenticationService.getUserFromToken(jwt).getEmail() : null;
-            }
-
-            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+            if (authorizationHeader != null && authorizationHeader.startsWith("Bearer ")
+                    && SecurityContextHolder.getContext().getAuthentication() == null) {
+                JwtPrincipal principal = authenticationService.authenticate(authorizationHeader.substring(7));
 
-                if (authenticationService.validateToken(jwt)) {
+                if (principal != null) {
                     UsernamePasswordAuthenticationToken authentication = 
                             new UsernamePasswordAuthenticationToken(
-                                    userDetails, null, userDetails.getAuthorities());
+                                    principal, null, principal.getAuthorities());
                     authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authentication);
                 }
@@ -2,8 +2,11 @@ package com.tourflow.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
 import org.springframework.security.web.session.HttpSessionEventPublisher;
 import org.springframework.session.data.redis.config.annotation.web.http.EnableRedisHttpSession;
 import org.springframework.session.web.http.CookieSerializer;
@@ -29,6 +32,22 @@ public class SessionConfig {
         return new GenericJackson2JsonRedisSerializer();
     }
 
+    /**
+     * Accès direct aux sessions (SessionService) avec les mêmes sérialiseurs que Spring Session :
+     * clés et champs en texte, valeurs en JSON
+     */
+    @Bean
+    public RedisTemplate<String, Object> sessionRedisTemplate(RedisConnectionFactory connectionFactory,
+                                                              RedisSerializer<Object> springSessionDefaultRedisSerializer) {
+        RedisTemplate<String, Object> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(StringRedisSerializer.UTF_8);
+        template.setHashKeySerializer(StringRedisSerializer.UTF_8);
+        template.setValueSerializer(springSessionDefaultRedisSerializer);
+        template.setHashValueSerializer(springSessionDefaultRedisSerializer);
+        return template;
+    }
+
     @Bean
     public HttpSessionEventPublisher httpSessionEventPublisher() {
         return new HttpSessionEventPublisher();
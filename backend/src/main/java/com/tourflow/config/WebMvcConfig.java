@@ -1,6 +1,7 @@
 package com.tourflow.config;
 
 import com.tourflow.interceptor.PerformanceInterceptor;
+import com.tourflow.interceptor.ResponseCacheInterceptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
@@ -12,10 +13,16 @@ public class WebMvcConfig implements WebMvcConfigurer {
     @Autowired
     private PerformanceInterceptor performanceInterceptor;
 
+    @Autowired
+    private ResponseCacheInterceptor responseCacheInterceptor;
+
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
         registry.addInterceptor(performanceInterceptor)
                 .addPathPatterns("/api/**")
                 .excludePathPatterns("/api/auth/**", "/api-docs/**", "/swagger-ui/**");
+
+        registry.addInterceptor(responseCacheInterceptor)
+                .addPathPatterns("/api/tours", "/api/tours/*", "/api/availability/slots/*");
     }
 }
@@ -3,8 +3,10 @@ package com.tourflow.controller;
 import com.tourflow.dto.LoginRequest;
 import com.tourflow.dto.LoginResponse;
 import com.tourflow.dto.RegisterRequest;
+import com.tourflow.exception.ServiceOverloadedException;
 import com.tourflow.model.User;
 import com.tourflow.service.AuthenticationService;
+import com.tourflow.service.SessionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
@@ -12,6 +14,10 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -19,6 +25,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/auth")
@@ -26,9 +33,14 @@ import java.util.Map;
 @SecurityRequirement(name = "bearerAuth")
 public class AuthController {
 
+    private static final Logger logger = LoggerFactory.getLogger(AuthController.class);
+
     @Autowired
     private AuthenticationService authenticationService;
 
+    @Autowired
+    private SessionService sessionService;
+
     @Operation(summary = "Inscription d'un nouvel utilisateur")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Utilisateur créé avec succès",
@@ -64,21 +76,43 @@ public class AuthController {
                     content = { @Content(mediaType = "application/json",
                             schema = @Schema(implementation = LoginResponse.class)) }),
             @ApiResponse(responseCode = "401", description = "Identifiants invalides",
+                    content = @Content),
+            @ApiResponse(responseCode = "503", description = "Trop de connexions simultanées",
                     content = @Content)
     })
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody LoginRequest request) {
+    public ResponseEntity<?> login(@RequestBody LoginRequest request, HttpServletRequest httpRequest) {
+        AuthenticationService.LoginResult result;
         try {
-            String token = authenticationService.login(request.getEmail(), request.getPassword());
-
-            Map<String, Object> response = new HashMap<>();
-            response.put("token", token);
-
-            return ResponseEntity.ok(response);
+            result = authenticationService.login(request.getEmail(), request.getPassword());
+        } catch (ServiceOverloadedException e) {
+            Map<String, String> response = new HashMap<>();
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "1").body(response);
         } catch (RuntimeException e) {
             Map<String, String> response = new HashMap<>();
             response.put("error", "Identifiants invalides");
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(response);
         }
+
+        openSession(httpRequest, result.getUserId());
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("token", result.getToken());
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Session ouverte à la connexion et rattachée à l'utilisateur (listée et invalidée par l'administration).
+     * Le token suffit pour utiliser l'API : une panne de Redis ne fait pas échouer la connexion.
+     */
+    private void openSession(HttpServletRequest httpRequest, UUID userId) {
+        try {
+            HttpSession session = httpRequest.getSession(true);
+            sessionService.bindToUser(session.getId(), userId);
+        } catch (RuntimeException e) {
+            logger.warn("Session non rattachée à l'utilisateur {} : {}", userId, e.getMessage());
+        }
     }
 }
@@ -1,10 +1,16 @@
 package com.tourflow.controller;
 
 import com.tourflow.dto.ExternalCalendarRequest;
+import com.tourflow.dto.FreeBusyResponse;
+import com.tourflow.exception.BusinessException;
+import com.tourflow.exception.ResourceNotFoundException;
 import com.tourflow.model.ExternalCalendar;
 import com.tourflow.model.User;
 import com.tourflow.service.AuthenticationService;
+import com.tourflow.service.BookingChangeFeedService;
+import com.tourflow.service.CalendarFeedService;
 import com.tourflow.service.CalendarService;
+import com.tourflow.service.FreeBusyService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -12,13 +18,19 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -29,9 +41,20 @@ import java.util.UUID;
 @Tag(name = "Calendriers", description = "API pour la gestion des calendriers iCal")
 public class CalendarController {
 
+    private static final String TEXT_CALENDAR = "text/calendar";
+
     @Autowired
     private CalendarService calendarService;
 
+    @Autowired
+    private CalendarFeedService calendarFeedService;
+
+    @Autowired
+    private FreeBusyService freeBusyService;
+
+    @Autowired
+    private BookingChangeFeedService bookingChangeFeedService;
+
     @Autowired
     private AuthenticationService authenticationService;
 
@@ -40,26 +63,174 @@ public class CalendarController {
             @ApiResponse(responseCode = "200", description = "Calendrier iCal généré avec succès",
                     content = { @Content(mediaType = "text/calendar",
                             schema = @Schema(type = "string", format = "binary")) }),
+            @ApiResponse(responseCode = "304", description = "Calendrier inchangé depuis la dernière requête"),
             @ApiResponse(responseCode = "404", description = "Guide non trouvé")
     })
-    @GetMapping(value = "/ics/{guideId}", produces = MediaType.TEXT_CALENDAR_VALUE)
-    public ResponseEntity<String> exportICalCalendar(
-            @Parameter(description = "ID du guide") @PathVariable UUID guideId) {
+    @GetMapping(value = "/ics/{guideId}", produces = TEXT_CALENDAR)
+    public void exportICalCalendar(
+            @Parameter(description = "ID du guide") @PathVariable UUID guideId,
+            ServletWebRequest webRequest,
+            HttpServletResponse response) throws IOException {
+        // Requête conditionnelle : répondre 304 sans relire les réservations si la version n'a pas changé
+        CalendarFeedService.FeedVersion version = calendarFeedService.getVersion(guideId);
+        boolean gzip = calendarFeedService.acceptsGzip(webRequest.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (webRequest.checkNotModified(version.getETag(gzip), version.getLastModified())) {
+            calendarFeedService.recordNotModified();
+            return;
+        }
+
+        CalendarFeedService.RenderedFeed feed;
         try {
-            String iCalCalendar = calendarService.generateICalCalendar(guideId);
+            feed = calendarFeedService.getFeed(guideId, version);
+        } catch (ResourceNotFoundException e) {
+            response.reset();
+            response.sendError(HttpStatus.NOT_FOUND.value(), e.getMessage());
+            return;
+        }
+
+        response.setContentType(TEXT_CALENDAR);
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"tourflow-calendar.ics\"");
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+
+        // Flux trop lourd pour le cache : écrit au fil de la lecture des réservations
+        if (feed.isStreamed()) {
+            if (gzip) {
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            }
+            calendarFeedService.writeFeed(guideId, response.getOutputStream(), gzip);
+            return;
+        }
+
+        byte[] body = feed.getContent();
+        if (gzip && feed.getGzipContent() != null) {
+            body = feed.getGzipContent();
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
 
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.TEXT_CALENDAR);
-            headers.setContentDispositionFormData("attachment", "tourflow-calendar.ics");
+    @Operation(summary = "Obtenir les modifications des réservations d'un guide depuis un jeton de synchronisation")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Réservations modifiées et nouveau jeton de synchronisation"),
+            @ApiResponse(responseCode = "400", description = "Jeton de synchronisation invalide"),
+            @ApiResponse(responseCode = "403", description = "Accès réservé au guide et aux administrateurs"),
+            @ApiResponse(responseCode = "404", description = "Guide non trouvé")
+    })
+    @GetMapping("/changes/{guideId}")
+    @PreAuthorize("hasRole('ADMIN') or #guideId == authentication.principal.userId")
+    public ResponseEntity<?> getBookingChanges(
+            @Parameter(description = "ID du guide") @PathVariable UUID guideId,
+            @Parameter(description = "Jeton renvoyé par l'appel précédent (absent pour une synchronisation complète)")
+            @RequestParam(required = false) String syncToken,
+            @Parameter(description = "Nombre maximum de modifications") @RequestParam(defaultValue = "500") int limit) {
+        try {
+            return ResponseEntity.ok(bookingChangeFeedService.getChanges(guideId, syncToken, limit));
+        } catch (ResourceNotFoundException e) {
+            Map<String, String> response = new HashMap<>();
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        } catch (BusinessException e) {
+            // Jeton invalide ; les erreurs de base de données restent des 500 (GlobalExceptionHandler)
+            Map<String, String> response = new HashMap<>();
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
 
-            return new ResponseEntity<>(iCalCalendar, headers, HttpStatus.OK);
+    @Operation(summary = "Exporter les calendriers de plusieurs guides d'une agence")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Calendrier iCal unique ou archive zip (un fichier par guide)"),
+            @ApiResponse(responseCode = "400", description = "Liste de guides invalide"),
+            @ApiResponse(responseCode = "403", description = "Accès refusé"),
+            @ApiResponse(responseCode = "404", description = "Guide non trouvé")
+    })
+    @GetMapping("/agency/ics")
+    @PreAuthorize("hasRole('ADMIN')")
+    public void exportAgencyCalendar(
+            @Parameter(description = "IDs des guides") @RequestParam List<UUID> guideIds,
+            @Parameter(description = "Format de sortie : ics (calendrier unique) ou zip") @RequestParam(defaultValue = "ics") String format,
+            HttpServletResponse response) throws IOException {
+        boolean zip = "zip".equalsIgnoreCase(format);
+        if (!zip && !"ics".equalsIgnoreCase(format)) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "Format inconnu : " + format);
+            return;
+        }
+
+        if (zip) {
+            response.setContentType("application/zip");
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"tourflow-agency-calendars.zip\"");
+        } else {
+            response.setContentType(TEXT_CALENDAR);
+            response.setCharacterEncoding("UTF-8");
+            response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"tourflow-agency-calendar.ics\"");
+        }
+
+        try {
+            calendarService.writeAgencyCalendar(guideIds, zip, response.getOutputStream());
+        } catch (ResourceNotFoundException e) {
+            // Levée avant toute écriture dans la réponse
+            response.reset();
+            response.sendError(HttpStatus.NOT_FOUND.value(), e.getMessage());
         } catch (RuntimeException e) {
+            response.reset();
+            response.sendError(HttpStatus.BAD_REQUEST.value(), e.getMessage());
+        }
+    }
+
+    @Operation(summary = "Obtenir les plages occupées d'un guide sur une période")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Plages occupées fusionnées (JSON ou VFREEBUSY selon l'en-tête Accept)"),
+            @ApiResponse(responseCode = "400", description = "Période invalide"),
+            @ApiResponse(responseCode = "404", description = "Guide non trouvé")
+    })
+    @GetMapping(value = "/freebusy/{guideId}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<?> getFreeBusy(
+            @Parameter(description = "ID du guide") @PathVariable UUID guideId,
+            @Parameter(description = "Date de début (format ISO)") @RequestParam String from,
+            @Parameter(description = "Date de fin (format ISO)") @RequestParam String to) {
+        try {
+            return ResponseEntity.ok(freeBusyService.getFreeBusy(guideId, LocalDateTime.parse(from), LocalDateTime.parse(to)));
+        } catch (ResourceNotFoundException e) {
             Map<String, String> response = new HashMap<>();
             response.put("error", e.getMessage());
-            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response.toString());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        } catch (DateTimeParseException e) {
+            Map<String, String> response = new HashMap<>();
+            response.put("error", "Format de date invalide. Utilisez le format ISO (yyyy-MM-ddTHH:mm:ss)");
+            return ResponseEntity.badRequest().body(response);
+        } catch (RuntimeException e) {
+            Map<String, String> response = new HashMap<>();
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
         }
     }
 
+    @GetMapping(value = "/freebusy/{guideId}", produces = TEXT_CALENDAR)
+    public void exportFreeBusy(
+            @PathVariable UUID guideId,
+            @RequestParam String from,
+            @RequestParam String to,
+            HttpServletResponse response) throws IOException {
+        FreeBusyResponse freeBusy;
+        try {
+            freeBusy = freeBusyService.getFreeBusy(guideId, LocalDateTime.parse(from), LocalDateTime.parse(to));
+        } catch (ResourceNotFoundException e) {
+            response.sendError(HttpStatus.NOT_FOUND.value(), e.getMessage());
+            return;
+        } catch (RuntimeException e) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), e.getMessage());
+            return;
+        }
+
+        response.setContentType(TEXT_CALENDAR);
+        response.setCharacterEncoding("UTF-8");
+        freeBusyService.writeVFreeBusy(freeBusy, response.getOutputStream());
+    }
+
     @Operation(summary = "Ajouter un calendrier externe")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Calendrier externe ajouté avec succès"),
@@ -1,5 +1,7 @@
 package com.tourflow.controller;
 
+import com.tourflow.dto.CacheStatistics;
+import com.tourflow.service.CacheStatisticsService;
 import com.tourflow.service.LoggingService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -12,6 +14,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -22,6 +25,9 @@ public class MetricsController {
     @Autowired
     private LoggingService loggingService;
 
+    @Autowired
+    private CacheStatisticsService cacheStatisticsService;
+
     @Operation(summary = "Obtenir les métriques de performance")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Métriques récupérées avec succès"),
@@ -33,4 +39,15 @@ public class MetricsController {
         Map<String, Object> metrics = loggingService.getPerformanceMetrics();
         return ResponseEntity.ok(metrics);
     }
+
+    @Operation(summary = "Obtenir l'état des caches applicatifs (taux de succès, évictions, mémoire estimée)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Statistiques des caches récupérées avec succès"),
+            @ApiResponse(responseCode = "403", description = "Accès refusé")
+    })
+    @GetMapping("/caches")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<CacheStatistics>> getCacheStatistics() {
+        return ResponseEntity.ok(cacheStatisticsService.getStatistics());
+    }
 }
@@ -2,6 +2,8 @@ package com.tourflow.controller;
 
 import com.tourflow.dto.CheckoutSessionRequest;
 import com.tourflow.model.Payment;
+import com.tourflow.model.ReconciliationCheckpoint;
+import com.tourflow.service.PaymentReconciliationService;
 import com.tourflow.service.PaymentService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -11,8 +13,10 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
@@ -25,6 +29,9 @@ public class PaymentController {
     @Autowired
     private PaymentService paymentService;
 
+    @Autowired
+    private PaymentReconciliationService paymentReconciliationService;
+
     @Operation(summary = "Créer une session de paiement Stripe")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "URL de la session de paiement Stripe"),
@@ -98,5 +105,31 @@ public class PaymentController {
         }
     }
 
+    @Operation(summary = "Rapprocher les paiements avec les transactions Stripe sur une période")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Rapprochement terminé, rapport généré"),
+            @ApiResponse(responseCode = "400", description = "Période invalide"),
+            @ApiResponse(responseCode = "403", description = "Accès refusé")
+    })
+    @PostMapping("/reconciliation")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> reconcilePayments(
+            @Parameter(description = "Date de début (format ISO)") @RequestParam String from,
+            @Parameter(description = "Date de fin exclue (format ISO)") @RequestParam String to) {
+        try {
+            ReconciliationCheckpoint result = paymentReconciliationService.reconcile(
+                    LocalDateTime.parse(from), LocalDateTime.parse(to));
 
+            Map<String, Object> response = new HashMap<>();
+            response.put("reportPath", result.getReportPath());
+            response.put("processedPayments", result.getProcessedPayments());
+            response.put("processedStripeTransactions", result.getProcessedStripeTransactions());
+            response.put("discrepancies", result.getDiscrepancies());
+            return ResponseEntity.ok(response);
+        } catch (RuntimeException e) {
+            Map<String, String> response = new HashMap<>();
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
 }
@@ -13,6 +13,7 @@ import org.springframework.web.bind.annotation.*;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/sessions")
@@ -33,19 +34,12 @@ public class SessionController {
     public ResponseEntity<Map<String, Object>> getSessionInfo(@PathVariable String sessionId) {
         Map<String, Object> response = new HashMap<>();
 
-        if (!sessionService.sessionExists(sessionId)) {
+        // Un seul HGETALL ; l'existence n'est vérifiée que pour une session sans attribut
+        Map<String, Object> sessionData = sessionService.getSessionAttributes(sessionId);
+        if (sessionData.isEmpty() && !sessionService.sessionExists(sessionId)) {
             return ResponseEntity.notFound().build();
         }
 
-        Set<String> sessionKeys = sessionService.getSessionKeys(sessionId);
-        Map<String, Object> sessionData = new HashMap<>();
-
-        for (String key : sessionKeys) {
-            String attributeName = key.substring(key.lastIndexOf(":") + 1);
-            Object attributeValue = sessionService.getSessionValue(sessionId, attributeName);
-            sessionData.put(attributeName, attributeValue);
-        }
-
         response.put("sessionId", sessionId);
         response.put("attributes", sessionData);
 
@@ -95,4 +89,31 @@ public class SessionController {
 
         return ResponseEntity.ok(response);
     }
+
+    @Operation(summary = "Lister les sessions actives d'un utilisateur")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Sessions de l'utilisateur récupérées"),
+            @ApiResponse(responseCode = "403", description = "Accès refusé")
+    })
+    @GetMapping("/user/{userId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Set<String>> getUserSessions(@PathVariable UUID userId) {
+        return ResponseEntity.ok(sessionService.getUserSessions(userId));
+    }
+
+    @Operation(summary = "Invalider toutes les sessions d'un utilisateur")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Sessions invalidées avec succès"),
+            @ApiResponse(responseCode = "403", description = "Accès refusé")
+    })
+    @DeleteMapping("/user/{userId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, String>> invalidateUserSessions(@PathVariable UUID userId) {
+        Map<String, String> response = new HashMap<>();
+
+        sessionService.invalidateUserSessions(userId);
+        response.put("message", "Sessions de l'utilisateur invalidées avec succès");
+
+        return ResponseEntity.ok(response);
+    }
 }
@@ -0,0 +1,67 @@
+package com.tourflow.controller;
+
+import com.tourflow.dto.RevokeTokenRequest;
+import com.tourflow.service.AuthenticationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/admin/tokens")
+@Tag(name = "Révocation", description = "API d'administration pour révoquer des tokens JWT avant leur expiration")
+@SecurityRequirement(name = "bearerAuth")
+public class TokenRevocationController {
+
+    @Autowired
+    private AuthenticationService authenticationService;
+
+    @Operation(summary = "Révoquer un token")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Token révoqué"),
+            @ApiResponse(responseCode = "400", description = "Token invalide, expiré ou sans identifiant"),
+            @ApiResponse(responseCode = "403", description = "Accès refusé")
+    })
+    @PostMapping("/revoke")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> revokeToken(@Valid @RequestBody RevokeTokenRequest request) {
+        try {
+            authenticationService.revokeToken(request.getToken());
+            return ResponseEntity.noContent().build();
+        } catch (RuntimeException e) {
+            Map<String, String> response = new HashMap<>();
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    @Operation(summary = "Révoquer tous les tokens déjà émis pour un utilisateur")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Tokens de l'utilisateur révoqués"),
+            @ApiResponse(responseCode = "404", description = "Utilisateur non trouvé"),
+            @ApiResponse(responseCode = "403", description = "Accès refusé")
+    })
+    @PostMapping("/revoke/user/{userId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> revokeUserTokens(@PathVariable UUID userId) {
+        try {
+            authenticationService.revokeUserTokens(userId);
+            return ResponseEntity.noContent().build();
+        } catch (RuntimeException e) {
+            Map<String, String> response = new HashMap<>();
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+    }
+}
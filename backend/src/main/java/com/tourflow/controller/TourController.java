@@ -1,8 +1,17 @@
 package com.tourflow.controller;
 
+import com.tourflow.dto.NearbyTour;
+import com.tourflow.dto.TourCatalogPage;
+import com.tourflow.dto.TourSearchCriteria;
+import com.tourflow.dto.TourSnapshot;
 import com.tourflow.model.Tour;
 import com.tourflow.model.User;
 import com.tourflow.service.AuthenticationService;
+import com.tourflow.service.FreeCapacityService;
+import com.tourflow.service.ResourceVersionService;
+import com.tourflow.service.TourCatalogService;
+import com.tourflow.service.TourGeoService;
+import com.tourflow.service.TourSearchService;
 import com.tourflow.service.TourService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -14,6 +23,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -27,6 +38,21 @@ public class TourController {
     @Autowired
     private TourService tourService;
 
+    @Autowired
+    private TourSearchService tourSearchService;
+
+    @Autowired
+    private TourGeoService tourGeoService;
+
+    @Autowired
+    private FreeCapacityService freeCapacityService;
+
+    @Autowired
+    private TourCatalogService tourCatalogService;
+
+    @Autowired
+    private ResourceVersionService resourceVersionService;
+
     @Autowired
     private AuthenticationService authenticationService;
 
@@ -118,8 +144,9 @@ public class TourController {
     public ResponseEntity<?> getTourById(
             @Parameter(description = "ID du tour") @PathVariable UUID id) {
         try {
-            Tour tour = tourService.getTourById(id);
-            return ResponseEntity.ok(tour);
+            TourSnapshot tour = tourService.getTourById(id);
+            // ETag de la version effectivement renvoyée (le tour peut venir du cache)
+            return ResponseEntity.ok().eTag(resourceVersionService.tourETag(tour.getUpdatedAt())).body(tour);
         } catch (RuntimeException e) {
             Map<String, String> response = new HashMap<>();
             response.put("error", e.getMessage());
@@ -130,9 +157,134 @@ public class TourController {
     @Operation(summary = "Obtenir tous les tours actifs")
     @ApiResponse(responseCode = "200", description = "Liste des tours actifs")
     @GetMapping
-    public ResponseEntity<List<Tour>> getAllActiveTours() {
-        List<Tour> tours = tourService.getAllActiveTours();
-        return ResponseEntity.ok(tours);
+    public ResponseEntity<List<TourSnapshot>> getAllActiveTours() {
+        return ResponseEntity.ok(tourService.getAllActiveTours());
+    }
+
+    @Operation(summary = "Parcourir le catalogue des tours actifs, du plus récent au plus ancien")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Page du catalogue et curseur de la page suivante"),
+            @ApiResponse(responseCode = "400", description = "Curseur ou taille de page invalide")
+    })
+    @GetMapping("/catalog")
+    public ResponseEntity<?> getCatalog(
+            @Parameter(description = "Curseur renvoyé par la page précédente (absent pour la première page)") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Nombre de tours par page") @RequestParam(defaultValue = "20") int size) {
+        try {
+            TourCatalogPage page = tourCatalogService.getPage(cursor, size);
+            return ResponseEntity.ok().eTag(resourceVersionService.catalogETag(page.getCatalogVersion())).body(page);
+        } catch (RuntimeException e) {
+            Map<String, String> response = new HashMap<>();
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    @Operation(summary = "Rechercher des tours (texte libre, fourchettes de prix et de durée, facettes)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Résultats classés et nombre de tours par langue et par lieu"),
+            @ApiResponse(responseCode = "400", description = "Critères invalides")
+    })
+    @GetMapping("/search")
+    public ResponseEntity<?> searchTours(
+            @Parameter(description = "Texte recherché dans le titre, la description, le lieu et la langue") @RequestParam(required = false) String q,
+            @Parameter(description = "Prix minimum") @RequestParam(required = false) Double minPrice,
+            @Parameter(description = "Prix maximum") @RequestParam(required = false) Double maxPrice,
+            @Parameter(description = "Durée minimum en minutes") @RequestParam(required = false) Integer minDuration,
+            @Parameter(description = "Durée maximum en minutes") @RequestParam(required = false) Integer maxDuration,
+            @Parameter(description = "Langue") @RequestParam(required = false) String language,
+            @Parameter(description = "Lieu") @RequestParam(required = false) String location,
+            @Parameter(description = "Tri : relevance, price_asc, price_desc ou duration_asc") @RequestParam(defaultValue = "relevance") String sort,
+            @Parameter(description = "Numéro de page (à partir de 0)") @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Taille de page") @RequestParam(defaultValue = "20") int size) {
+        try {
+            TourSearchCriteria criteria = new TourSearchCriteria();
+            criteria.setQuery(q);
+            criteria.setMinPrice(minPrice);
+            criteria.setMaxPrice(maxPrice);
+            criteria.setMinDuration(minDuration);
+            criteria.setMaxDuration(maxDuration);
+            criteria.setLanguage(language);
+            criteria.setLocation(location);
+            criteria.setSort(sort);
+            criteria.setPage(page);
+            criteria.setSize(size);
+
+            return ResponseEntity.ok(tourSearchService.search(criteria));
+        } catch (RuntimeException e) {
+            Map<String, String> response = new HashMap<>();
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    @Operation(summary = "Rechercher les tours autour d'un point ou dans une zone de la carte")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Tours triés par distance"),
+            @ApiResponse(responseCode = "400", description = "Paramètres invalides")
+    })
+    @GetMapping("/nearby")
+    public ResponseEntity<?> findNearbyTours(
+            @Parameter(description = "Latitude du point") @RequestParam(required = false) Double lat,
+            @Parameter(description = "Longitude du point") @RequestParam(required = false) Double lng,
+            @Parameter(description = "Rayon en kilomètres") @RequestParam(defaultValue = "5") double radiusKm,
+            @Parameter(description = "Zone : latitude minimum") @RequestParam(required = false) Double minLat,
+            @Parameter(description = "Zone : longitude minimum") @RequestParam(required = false) Double minLng,
+            @Parameter(description = "Zone : latitude maximum") @RequestParam(required = false) Double maxLat,
+            @Parameter(description = "Zone : longitude maximum") @RequestParam(required = false) Double maxLng,
+            @Parameter(description = "Date de début (format ISO) pour ne garder que les tours disponibles") @RequestParam(required = false) String startDate,
+            @Parameter(description = "Date de fin (format ISO)") @RequestParam(required = false) String endDate,
+            @Parameter(description = "Nombre maximum de résultats") @RequestParam(defaultValue = "50") int limit) {
+        try {
+            LocalDateTime start = startDate == null ? null : LocalDateTime.parse(startDate);
+            LocalDateTime end = endDate == null ? null : LocalDateTime.parse(endDate);
+
+            List<NearbyTour> tours;
+            if (lat != null && lng != null) {
+                tours = tourGeoService.findWithinRadius(lat, lng, radiusKm, start, end, limit);
+            } else if (minLat != null && minLng != null && maxLat != null && maxLng != null) {
+                tours = tourGeoService.findWithinBox(minLat, minLng, maxLat, maxLng, start, end, limit);
+            } else {
+                throw new RuntimeException("Indiquez un point (lat, lng) ou une zone (minLat, minLng, maxLat, maxLng)");
+            }
+
+            return ResponseEntity.ok(tours);
+        } catch (DateTimeParseException e) {
+            Map<String, String> response = new HashMap<>();
+            response.put("error", "Format de date invalide. Utilisez le format ISO (yyyy-MM-ddTHH:mm:ss)");
+            return ResponseEntity.badRequest().body(response);
+        } catch (RuntimeException e) {
+            Map<String, String> response = new HashMap<>();
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
+    }
+
+    @Operation(summary = "Rechercher les tours réservables pour un groupe sur une période")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Tours triés par premier créneau disponible, avec leurs créneaux"),
+            @ApiResponse(responseCode = "400", description = "Paramètres invalides")
+    })
+    @GetMapping("/bookable")
+    public ResponseEntity<?> findBookableTours(
+            @Parameter(description = "Date de début (format ISO)") @RequestParam String startDate,
+            @Parameter(description = "Date de fin (format ISO)") @RequestParam String endDate,
+            @Parameter(description = "Nombre de participants") @RequestParam(defaultValue = "1") int participants,
+            @Parameter(description = "Nombre maximum de tours") @RequestParam(defaultValue = "20") int limit) {
+        try {
+            LocalDateTime start = LocalDateTime.parse(startDate);
+            LocalDateTime end = LocalDateTime.parse(endDate);
+
+            return ResponseEntity.ok(freeCapacityService.search(start, end, participants, limit));
+        } catch (DateTimeParseException e) {
+            Map<String, String> response = new HashMap<>();
+            response.put("error", "Format de date invalide. Utilisez le format ISO (yyyy-MM-ddTHH:mm:ss)");
+            return ResponseEntity.badRequest().body(response);
+        } catch (RuntimeException e) {
+            Map<String, String> response = new HashMap<>();
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        }
     }
 
     @Operation(summary = "Obtenir les tours d'un guide")
@@ -148,7 +300,7 @@ public class TourController {
             User guide = authenticationService.getUserFromToken(extractToken(authorizationHeader));
 
             // Obtenir les tours du guide
-            List<Tour> tours = tourService.getToursByGuide(guide);
+            List<TourSnapshot> tours = tourService.getToursByGuide(guide);
 
             return ResponseEntity.ok(tours);
         } catch (RuntimeException e) {
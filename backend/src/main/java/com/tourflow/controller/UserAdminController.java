@@ -0,0 +1,62 @@
+package com.tourflow.controller;
+
+import com.tourflow.service.AuthenticationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/admin/users")
+@Tag(name = "Utilisateurs", description = "API d'administration pour activer ou désactiver des comptes")
+@SecurityRequirement(name = "bearerAuth")
+public class UserAdminController {
+
+    @Autowired
+    private AuthenticationService authenticationService;
+
+    @Operation(summary = "Désactiver un compte", description = "Les tokens déjà émis sont refusés sur toutes les instances")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Compte désactivé"),
+            @ApiResponse(responseCode = "404", description = "Utilisateur non trouvé"),
+            @ApiResponse(responseCode = "403", description = "Accès refusé")
+    })
+    @PostMapping("/{userId}/disable")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> disableUser(@PathVariable UUID userId) {
+        return setUserActive(userId, false);
+    }
+
+    @Operation(summary = "Réactiver un compte")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "204", description = "Compte réactivé"),
+            @ApiResponse(responseCode = "404", description = "Utilisateur non trouvé"),
+            @ApiResponse(responseCode = "403", description = "Accès refusé")
+    })
+    @PostMapping("/{userId}/enable")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> enableUser(@PathVariable UUID userId) {
+        return setUserActive(userId, true);
+    }
+
+    private ResponseEntity<?> setUserActive(UUID userId, boolean active) {
+        try {
+            authenticationService.setUserActive(userId, active);
+            return ResponseEntity.noContent().build();
+        } catch (RuntimeException e) {
+            Map<String, String> response = new HashMap<>();
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+    }
+}
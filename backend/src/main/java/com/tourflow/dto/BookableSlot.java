@@ -0,0 +1,35 @@
+package com.tourflow.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Créneau réservable et nombre de places encore libres
+ */
+public class BookableSlot {
+
+    private final LocalDateTime startTime;
+
+    private final LocalDateTime endTime;
+
+    private final int availablePlaces;
+
+    // Constructeurs
+    public BookableSlot(LocalDateTime startTime, LocalDateTime endTime, int availablePlaces) {
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.availablePlaces = availablePlaces;
+    }
+
+    // Getters
+    public LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    public LocalDateTime getEndTime() {
+        return endTime;
+    }
+
+    public int getAvailablePlaces() {
+        return availablePlaces;
+    }
+}
@@ -0,0 +1,50 @@
+package com.tourflow.dto;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Tour ayant au moins un créneau réservable sur la période demandée, avec ses créneaux
+ */
+public class BookableTour {
+
+    private final UUID tourId;
+
+    private final String title;
+
+    private final String location;
+
+    private final double price;
+
+    private final List<BookableSlot> slots;
+
+    // Constructeurs
+    public BookableTour(UUID tourId, String title, String location, double price, List<BookableSlot> slots) {
+        this.tourId = tourId;
+        this.title = title;
+        this.location = location;
+        this.price = price;
+        this.slots = slots;
+    }
+
+    // Getters
+    public UUID getTourId() {
+        return tourId;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public List<BookableSlot> getSlots() {
+        return slots;
+    }
+}
@@ -0,0 +1,101 @@
+package com.tourflow.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Projection d'une réservation confirmée, limitée aux champs exportés dans le calendrier iCal
+ */
+public class BookingCalendarEntry {
+
+    private final UUID guideId;
+
+    private final UUID bookingId;
+
+    private final LocalDateTime startDate;
+
+    private final LocalDateTime endDate;
+
+    private final int participants;
+
+    private final double totalPrice;
+
+    private final String customerName;
+
+    private final String customerEmail;
+
+    private final String tourTitle;
+
+    private final String tourLocation;
+
+    private final LocalDateTime stampedAt;
+
+    // Constructeurs
+    public BookingCalendarEntry(UUID bookingId, LocalDateTime startDate, LocalDateTime endDate, int participants,
+                                double totalPrice, String customerName, String customerEmail,
+                                String tourTitle, String tourLocation, LocalDateTime stampedAt) {
+        this(null, bookingId, startDate, endDate, participants, totalPrice, customerName, customerEmail,
+                tourTitle, tourLocation, stampedAt);
+    }
+
+    public BookingCalendarEntry(UUID guideId, UUID bookingId, LocalDateTime startDate, LocalDateTime endDate,
+                                int participants, double totalPrice, String customerName, String customerEmail,
+                                String tourTitle, String tourLocation, LocalDateTime stampedAt) {
+        this.guideId = guideId;
+        this.bookingId = bookingId;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.participants = participants;
+        this.totalPrice = totalPrice;
+        this.customerName = customerName;
+        this.customerEmail = customerEmail;
+        this.tourTitle = tourTitle;
+        this.tourLocation = tourLocation;
+        this.stampedAt = stampedAt;
+    }
+
+    // Getters
+    public UUID getGuideId() {
+        return guideId;
+    }
+
+    public UUID getBookingId() {
+        return bookingId;
+    }
+
+    public LocalDateTime getStartDate() {
+        return startDate;
+    }
+
+    public LocalDateTime getEndDate() {
+        return endDate;
+    }
+
+    public int getParticipants() {
+        return participants;
+    }
+
+    public double getTotalPrice() {
+        return totalPrice;
+    }
+
+    public String getCustomerName() {
+        return customerName;
+    }
+
+    public String getCustomerEmail() {
+        return customerEmail;
+    }
+
+    public String getTourTitle() {
+        return tourTitle;
+    }
+
+    public String getTourLocation() {
+        return tourLocation;
+    }
+
+    public LocalDateTime getStampedAt() {
+        return stampedAt;
+    }
+}
@@ -0,0 +1,108 @@
+package com.tourflow.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.tourflow.model.BookingStatus;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Réservation créée, modifiée ou annulée, telle que transmise dans le flux de modifications
+ */
+public class BookingChange {
+
+    private final UUID bookingId;
+
+    private final UUID tourId;
+
+    private final BookingStatus status;
+
+    private final LocalDateTime startDate;
+
+    private final LocalDateTime endDate;
+
+    private final int participants;
+
+    private final String customerName;
+
+    private final String tourTitle;
+
+    private final String tourLocation;
+
+    private final LocalDateTime changedAt;
+
+    // Position dans le flux (transaction, numéro de modification) : encodée dans le jeton de synchronisation,
+    // jamais exposée telle quelle
+    @JsonIgnore
+    private final long changeXid;
+
+    @JsonIgnore
+    private final long changeSeq;
+
+    // Constructeurs
+    public BookingChange(UUID bookingId, UUID tourId, BookingStatus status, LocalDateTime startDate,
+                         LocalDateTime endDate, int participants, String customerName, String tourTitle,
+                         String tourLocation, LocalDateTime changedAt, long changeXid, long changeSeq) {
+        this.bookingId = bookingId;
+        this.tourId = tourId;
+        this.status = status;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.participants = participants;
+        this.customerName = customerName;
+        this.tourTitle = tourTitle;
+        this.tourLocation = tourLocation;
+        this.changedAt = changedAt;
+        this.changeXid = changeXid;
+        this.changeSeq = changeSeq;
+    }
+
+    // Getters
+    public UUID getBookingId() {
+        return bookingId;
+    }
+
+    public UUID getTourId() {
+        return tourId;
+    }
+
+    public BookingStatus getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getStartDate() {
+        return startDate;
+    }
+
+    public LocalDateTime getEndDate() {
+        return endDate;
+    }
+
+    public int getParticipants() {
+        return participants;
+    }
+
+    public String getCustomerName() {
+        return customerName;
+    }
+
+    public String getTourTitle() {
+        return tourTitle;
+    }
+
+    public String getTourLocation() {
+        return tourLocation;
+    }
+
+    public LocalDateTime getChangedAt() {
+        return changedAt;
+    }
+
+    public long getChangeXid() {
+        return changeXid;
+    }
+
+    public long getChangeSeq() {
+        return changeSeq;
+    }
+}
@@ -0,0 +1,36 @@
+package com.tourflow.dto;
+
+import java.util.List;
+
+/**
+ * Page du flux de modifications d'un guide et jeton à renvoyer lors de l'appel suivant
+ */
+public class BookingChangeFeed {
+
+    private final List<BookingChange> changes;
+
+    private final String syncToken;
+
+    // Vrai si d'autres modifications sont disponibles immédiatement avec le nouveau jeton
+    private final boolean hasMore;
+
+    // Constructeurs
+    public BookingChangeFeed(List<BookingChange> changes, String syncToken, boolean hasMore) {
+        this.changes = changes;
+        this.syncToken = syncToken;
+        this.hasMore = hasMore;
+    }
+
+    // Getters
+    public List<BookingChange> getChanges() {
+        return changes;
+    }
+
+    public String getSyncToken() {
+        return syncToken;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+}
@@ -0,0 +1,157 @@
+package com.tourflow.dto;
+
+import com.tourflow.model.Booking;
+import com.tourflow.model.BookingStatus;
+import com.tourflow.model.PaymentStatus;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Copie immuable d'une réservation pour les caches : le tour et le paiement sont réduits à leur identifiant
+ * (et au statut du paiement), sans proxy Hibernate
+ */
+public final class BookingSnapshot implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final UUID id;
+
+    private final LocalDateTime startDate;
+
+    private final LocalDateTime endDate;
+
+    private final int participants;
+
+    private final double totalPrice;
+
+    private final String customerName;
+
+    private final String customerEmail;
+
+    private final String customerPhone;
+
+    private final BookingStatus status;
+
+    private final LocalDateTime createdAt;
+
+    private final LocalDateTime expiresAt;
+
+    private final LocalDateTime confirmedAt;
+
+    private final LocalDateTime cancelledAt;
+
+    private final String cancellationReason;
+
+    private final String specialRequests;
+
+    private final UUID tourId;
+
+    private final UUID paymentId;
+
+    private final PaymentStatus paymentStatus;
+
+    // Constructeurs
+    private BookingSnapshot(Booking booking) {
+        this.id = booking.getId();
+        this.startDate = booking.getStartDate();
+        this.endDate = booking.getEndDate();
+        this.participants = booking.getParticipants();
+        this.totalPrice = booking.getTotalPrice();
+        this.customerName = booking.getCustomerName();
+        this.customerEmail = booking.getCustomerEmail();
+        this.customerPhone = booking.getCustomerPhone();
+        this.status = booking.getStatus();
+        this.createdAt = booking.getCreatedAt();
+        this.expiresAt = booking.getExpiresAt();
+        this.confirmedAt = booking.getConfirmedAt();
+        this.cancelledAt = booking.getCancelledAt();
+        this.cancellationReason = booking.getCancellationReason();
+        this.specialRequests = booking.getSpecialRequests();
+        // L'identifiant d'un proxy se lit sans charger le tour
+        this.tourId = booking.getTour() == null ? null : booking.getTour().getId();
+        this.paymentId = booking.getPayment() == null ? null : booking.getPayment().getId();
+        this.paymentStatus = booking.getPayment() == null ? null : booking.getPayment().getStatus();
+    }
+
+    /**
+     * À appeler dans la transaction de chargement : le paiement est lu à ce moment-là
+     */
+    public static BookingSnapshot of(Booking booking) {
+        return new BookingSnapshot(booking);
+    }
+
+    // Getters
+    public UUID getId() {
+        return id;
+    }
+
+    public LocalDateTime getStartDate() {
+        return startDate;
+    }
+
+    public LocalDateTime getEndDate() {
+        return endDate;
+    }
+
+    public int getParticipants() {
+        return participants;
+    }
+
+    public double getTotalPrice() {
+        return totalPrice;
+    }
+
+    public String getCustomerName() {
+        return customerName;
+    }
+
+    public String getCustomerEmail() {
+        return customerEmail;
+    }
+
+    public String getCustomerPhone() {
+        return customerPhone;
+    }
+
+    public BookingStatus getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public LocalDateTime getConfirmedAt() {
+        return confirmedAt;
+    }
+
+    public LocalDateTime getCancelledAt() {
+        return cancelledAt;
+    }
+
+    public String getCancellationReason() {
+        return cancellationReason;
+    }
+
+    public String getSpecialRequests() {
+        return specialRequests;
+    }
+
+    public UUID getTourId() {
+        return tourId;
+    }
+
+    public UUID getPaymentId() {
+        return paymentId;
+    }
+
+    public PaymentStatus getPaymentStatus() {
+        return paymentStatus;
+    }
+}
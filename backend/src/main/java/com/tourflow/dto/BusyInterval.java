@@ -0,0 +1,35 @@
+package com.tourflow.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Période occupée lue dans un flux iCal externe
+ */
+public class BusyInterval {
+
+    private final String uid;
+
+    private final LocalDateTime start;
+
+    private final LocalDateTime end;
+
+    // Constructeurs
+    public BusyInterval(String uid, LocalDateTime start, LocalDateTime end) {
+        this.uid = uid;
+        this.start = start;
+        this.end = end;
+    }
+
+    // Getters
+    public String getUid() {
+        return uid;
+    }
+
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    public LocalDateTime getEnd() {
+        return end;
+    }
+}
@@ -0,0 +1,28 @@
+package com.tourflow.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Période pendant laquelle un guide est occupé
+ */
+public class BusyPeriod {
+
+    private final LocalDateTime start;
+
+    private final LocalDateTime end;
+
+    // Constructeurs
+    public BusyPeriod(LocalDateTime start, LocalDateTime end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    // Getters
+    public LocalDateTime getStart() {
+        return start;
+    }
+
+    public LocalDateTime getEnd() {
+        return end;
+    }
+}
@@ -0,0 +1,99 @@
+package com.tourflow.dto;
+
+/**
+ * État d'un cache applicatif pour le réglage en production : politique, efficacité et mémoire estimée
+ */
+public class CacheStatistics {
+
+    private final String name;
+
+    private final long entries;
+
+    private final Long maximumSize;
+
+    private final Long maximumWeight;
+
+    private final long l1HitCount;
+
+    private final long l1MissCount;
+
+    private final double l1HitRatio;
+
+    private final long l2HitCount;
+
+    private final long l2ErrorCount;
+
+    // Part des lectures servies par l'un des deux niveaux
+    private final double hitRatio;
+
+    private final long evictionCount;
+
+    private final long estimatedBytes;
+
+    // Constructeurs
+    public CacheStatistics(String name, long entries, Long maximumSize, Long maximumWeight, long l1HitCount,
+                           long l1MissCount, double l1HitRatio, long l2HitCount, long l2ErrorCount, double hitRatio,
+                           long evictionCount, long estimatedBytes) {
+        this.name = name;
+        this.entries = entries;
+        this.maximumSize = maximumSize;
+        this.maximumWeight = maximumWeight;
+        this.l1HitCount = l1HitCount;
+        this.l1MissCount = l1MissCount;
+        this.l1HitRatio = l1HitRatio;
+        this.l2HitCount = l2HitCount;
+        this.l2ErrorCount = l2ErrorCount;
+        this.hitRatio = hitRatio;
+        this.evictionCount = evictionCount;
+        this.estimatedBytes = estimatedBytes;
+    }
+
+    // Getters
+    public String getName() {
+        return name;
+    }
+
+    public long getEntries() {
+        return entries;
+    }
+
+    public Long getMaximumSize() {
+        return maximumSize;
+    }
+
+    public Long getMaximumWeight() {
+        return maximumWeight;
+    }
+
+    public long getL1HitCount() {
+        return l1HitCount;
+    }
+
+    public long getL1MissCount() {
+        return l1MissCount;
+    }
+
+    public double getL1HitRatio() {
+        return l1HitRatio;
+    }
+
+    public long getL2HitCount() {
+        return l2HitCount;
+    }
+
+    public long getL2ErrorCount() {
+        return l2ErrorCount;
+    }
+
+    public double getHitRatio() {
+        return hitRatio;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+}
@@ -0,0 +1,44 @@
+package com.tourflow.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Disponibilités d'un guide sur une période : uniquement les plages occupées, fusionnées
+ */
+public class FreeBusyResponse {
+
+    private final UUID guideId;
+
+    private final LocalDateTime from;
+
+    private final LocalDateTime to;
+
+    private final List<BusyPeriod> busy;
+
+    // Constructeurs
+    public FreeBusyResponse(UUID guideId, LocalDateTime from, LocalDateTime to, List<BusyPeriod> busy) {
+        this.guideId = guideId;
+        this.from = from;
+        this.to = to;
+        this.busy = busy;
+    }
+
+    // Getters
+    public UUID getGuideId() {
+        return guideId;
+    }
+
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    public LocalDateTime getTo() {
+        return to;
+    }
+
+    public List<BusyPeriod> getBusy() {
+        return busy;
+    }
+}
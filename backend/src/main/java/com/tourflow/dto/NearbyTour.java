@@ -0,0 +1,71 @@
+package com.tourflow.dto;
+
+import java.util.UUID;
+
+/**
+ * Tour trouvé par une recherche géographique, avec sa distance au point (ou au centre de la zone) demandé
+ */
+public class NearbyTour {
+
+    private final UUID id;
+
+    private final String title;
+
+    private final String location;
+
+    private final double latitude;
+
+    private final double longitude;
+
+    private final double price;
+
+    private final int durationMinutes;
+
+    private final double distanceKm;
+
+    // Constructeurs
+    public NearbyTour(UUID id, String title, String location, double latitude, double longitude, double price,
+                      int durationMinutes, double distanceKm) {
+        this.id = id;
+        this.title = title;
+        this.location = location;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.price = price;
+        this.durationMinutes = durationMinutes;
+        this.distanceKm = distanceKm;
+    }
+
+    // Getters
+    public UUID getId() {
+        return id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public int getDurationMinutes() {
+        return durationMinutes;
+    }
+
+    public double getDistanceKm() {
+        return distanceKm;
+    }
+}
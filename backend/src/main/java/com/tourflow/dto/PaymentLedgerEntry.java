@@ -0,0 +1,60 @@
+package com.tourflow.dto;
+
+import com.tourflow.model.PaymentStatus;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Projection en lecture seule d'un paiement, utilisée pour le rapprochement avec Stripe
+ */
+public class PaymentLedgerEntry {
+
+    private final UUID paymentId;
+
+    private final String paymentIntentId;
+
+    private final double amount;
+
+    private final String currency;
+
+    private final PaymentStatus status;
+
+    private final LocalDateTime completedAt;
+
+    // Constructeurs
+    public PaymentLedgerEntry(UUID paymentId, String paymentIntentId, double amount, String currency,
+                              PaymentStatus status, LocalDateTime completedAt) {
+        this.paymentId = paymentId;
+        this.paymentIntentId = paymentIntentId;
+        this.amount = amount;
+        this.currency = currency;
+        this.status = status;
+        this.completedAt = completedAt;
+    }
+
+    // Getters
+    public UUID getPaymentId() {
+        return paymentId;
+    }
+
+    public String getPaymentIntentId() {
+        return paymentIntentId;
+    }
+
+    public double getAmount() {
+        return amount;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public PaymentStatus getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+}
@@ -0,0 +1,26 @@
+package com.tourflow.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+public class RevokeTokenRequest {
+
+    @NotBlank(message = "Le token est obligatoire")
+    private String token;
+
+    // Constructeurs
+    public RevokeTokenRequest() {
+    }
+
+    public RevokeTokenRequest(String token) {
+        this.token = token;
+    }
+
+    // Getters et Setters
+    public String getToken() {
+        return token;
+    }
+
+    public void setToken(String token) {
+        this.token = token;
+    }
+}
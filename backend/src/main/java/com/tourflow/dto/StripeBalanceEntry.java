@@ -0,0 +1,50 @@
+package com.tourflow.dto;
+
+import java.time.Instant;
+
+/**
+ * Transaction de solde Stripe réduite aux champs utiles au rapprochement
+ */
+public class StripeBalanceEntry {
+
+    private final String transactionId;
+
+    private final String paymentIntentId;
+
+    private final long amountCents;
+
+    private final String currency;
+
+    private final Instant created;
+
+    // Constructeurs
+    public StripeBalanceEntry(String transactionId, String paymentIntentId, long amountCents,
+                              String currency, Instant created) {
+        this.transactionId = transactionId;
+        this.paymentIntentId = paymentIntentId;
+        this.amountCents = amountCents;
+        this.currency = currency;
+        this.created = created;
+    }
+
+    // Getters
+    public String getTransactionId() {
+        return transactionId;
+    }
+
+    public String getPaymentIntentId() {
+        return paymentIntentId;
+    }
+
+    public long getAmountCents() {
+        return amountCents;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public Instant getCreated() {
+        return created;
+    }
+}
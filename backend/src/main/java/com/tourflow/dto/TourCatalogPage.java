@@ -0,0 +1,56 @@
+package com.tourflow.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Page du catalogue des tours et curseur à renvoyer pour obtenir la page suivante
+ */
+public class TourCatalogPage {
+
+    private final List<TourDto> content;
+
+    private final int size;
+
+    // Null sur la dernière page
+    private final String nextCursor;
+
+    private final boolean hasMore;
+
+    // Dernière modification de tour connue avant la lecture de la page (sert à l'ETag)
+    @JsonIgnore
+    private final LocalDateTime catalogVersion;
+
+    // Constructeurs
+    public TourCatalogPage(List<TourDto> content, int size, String nextCursor, boolean hasMore,
+                           LocalDateTime catalogVersion) {
+        this.content = content;
+        this.size = size;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+        this.catalogVersion = catalogVersion;
+    }
+
+    // Getters
+    public List<TourDto> getContent() {
+        return content;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public LocalDateTime getCatalogVersion() {
+        return catalogVersion;
+    }
+}
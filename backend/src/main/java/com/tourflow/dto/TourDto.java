@@ -5,11 +5,13 @@ import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.Size;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.UUID;
 
 public class TourDto {
 
-    private Long id;
+    private UUID id;
 
     @NotBlank(message = "Le titre est obligatoire")
     @Size(max = 100, message = "Le titre ne doit pas dépasser 100 caractères")
@@ -41,18 +43,36 @@ public class TourDto {
 
     private Boolean active = true;
 
-    private Long guideId;
+    private UUID guideId;
+
+    private LocalDateTime createdAt;
 
     // Constructeurs
     public TourDto() {
     }
 
+    /**
+     * Projection du catalogue : sans description ni photos, chargées avec le détail du tour
+     */
+    public TourDto(UUID id, String title, String location, int durationMinutes, int maxCapacity, double price,
+                   String language, UUID guideId, LocalDateTime createdAt) {
+        this.id = id;
+        this.title = title;
+        this.location = location;
+        this.durationMinutes = durationMinutes;
+        this.maxCapacity = maxCapacity;
+        this.price = price;
+        this.language = language;
+        this.guideId = guideId;
+        this.createdAt = createdAt;
+    }
+
     // Getters et Setters
-    public Long getId() {
+    public UUID getId() {
         return id;
     }
 
-    public void setId(Long id) {
+    public void setId(UUID id) {
         this.id = id;
     }
 
@@ -128,11 +148,19 @@ public class TourDto {
         this.active = active;
     }
 
-    public Long getGuideId() {
+    public UUID getGuideId() {
         return guideId;
     }
 
-    public void setGuideId(Long guideId) {
+    public void setGuideId(UUID guideId) {
         this.guideId = guideId;
     }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
 }
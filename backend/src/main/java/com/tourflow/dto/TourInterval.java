@@ -0,0 +1,50 @@
+package com.tourflow.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Période occupant un tour : réservation (avec son nombre de participants) ou exception de disponibilité
+ */
+public class TourInterval {
+
+    private final UUID tourId;
+
+    private final LocalDateTime startDate;
+
+    private final LocalDateTime endDate;
+
+    private final int participants;
+
+    // Constructeurs
+    public TourInterval(UUID tourId, LocalDateTime startDate, LocalDateTime endDate, int participants) {
+        this.tourId = tourId;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.participants = participants;
+    }
+
+    // Getters
+    public UUID getTourId() {
+        return tourId;
+    }
+
+    public LocalDateTime getStartDate() {
+        return startDate;
+    }
+
+    public LocalDateTime getEndDate() {
+        return endDate;
+    }
+
+    public int getParticipants() {
+        return participants;
+    }
+
+    /**
+     * Même convention que le moteur de créneaux : des périodes qui se touchent se chevauchent
+     */
+    public boolean overlaps(LocalDateTime start, LocalDateTime end) {
+        return !(endDate.isBefore(start) || startDate.isAfter(end));
+    }
+}
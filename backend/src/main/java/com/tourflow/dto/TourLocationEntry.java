@@ -0,0 +1,64 @@
+package com.tourflow.dto;
+
+import java.util.UUID;
+
+/**
+ * Tour actif et ses coordonnées, tel que conservé dans l'index spatial
+ */
+public class TourLocationEntry {
+
+    private final UUID id;
+
+    private final String title;
+
+    private final String location;
+
+    private final Double latitude;
+
+    private final Double longitude;
+
+    private final double price;
+
+    private final int durationMinutes;
+
+    // Constructeurs
+    public TourLocationEntry(UUID id, String title, String location, Double latitude, Double longitude,
+                             double price, int durationMinutes) {
+        this.id = id;
+        this.title = title;
+        this.location = location;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.price = price;
+        this.durationMinutes = durationMinutes;
+    }
+
+    // Getters
+    public UUID getId() {
+        return id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    public Double getLongitude() {
+        return longitude;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public int getDurationMinutes() {
+        return durationMinutes;
+    }
+}
@@ -0,0 +1,113 @@
+package com.tourflow.dto;
+
+/**
+ * Critères de recherche de tours : texte libre, fourchettes de prix et de durée, filtres de facettes, tri et page
+ */
+public class TourSearchCriteria {
+
+    private String query;
+
+    private Double minPrice;
+
+    private Double maxPrice;
+
+    private Integer minDuration;
+
+    private Integer maxDuration;
+
+    private String language;
+
+    private String location;
+
+    // relevance, price_asc, price_desc ou duration_asc
+    private String sort = "relevance";
+
+    private int page = 0;
+
+    private int size = 20;
+
+    // Constructeurs
+    public TourSearchCriteria() {
+    }
+
+    // Getters et Setters
+    public String getQuery() {
+        return query;
+    }
+
+    public void setQuery(String query) {
+        this.query = query;
+    }
+
+    public Double getMinPrice() {
+        return minPrice;
+    }
+
+    public void setMinPrice(Double minPrice) {
+        this.minPrice = minPrice;
+    }
+
+    public Double getMaxPrice() {
+        return maxPrice;
+    }
+
+    public void setMaxPrice(Double maxPrice) {
+        this.maxPrice = maxPrice;
+    }
+
+    public Integer getMinDuration() {
+        return minDuration;
+    }
+
+    public void setMinDuration(Integer minDuration) {
+        this.minDuration = minDuration;
+    }
+
+    public Integer getMaxDuration() {
+        return maxDuration;
+    }
+
+    public void setMaxDuration(Integer maxDuration) {
+        this.maxDuration = maxDuration;
+    }
+
+    public String getLanguage() {
+        return language;
+    }
+
+    public void setLanguage(String language) {
+        this.language = language;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public void setLocation(String location) {
+        this.location = location;
+    }
+
+    public String getSort() {
+        return sort;
+    }
+
+    public void setSort(String sort) {
+        this.sort = sort;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public void setPage(int page) {
+        this.page = page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void setSize(int size) {
+        this.size = size;
+    }
+}
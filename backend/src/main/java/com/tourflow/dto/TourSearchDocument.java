@@ -0,0 +1,79 @@
+package com.tourflow.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Champs d'un tour actif utilisés par l'index de recherche
+ */
+public class TourSearchDocument {
+
+    private final UUID id;
+
+    private final String title;
+
+    private final String description;
+
+    private final String location;
+
+    private final String language;
+
+    private final double price;
+
+    private final int durationMinutes;
+
+    private final LocalDateTime createdAt;
+
+    private final LocalDateTime updatedAt;
+
+    // Constructeurs
+    public TourSearchDocument(UUID id, String title, String description, String location, String language,
+                              double price, int durationMinutes, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.id = id;
+        this.title = title;
+        this.description = description;
+        this.location = location;
+        this.language = language;
+        this.price = price;
+        this.durationMinutes = durationMinutes;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+
+    // Getters
+    public UUID getId() {
+        return id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public String getLanguage() {
+        return language;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public int getDurationMinutes() {
+        return durationMinutes;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+}
@@ -0,0 +1,64 @@
+package com.tourflow.dto;
+
+import java.util.UUID;
+
+/**
+ * Tour trouvé par la recherche, avec son score de pertinence
+ */
+public class TourSearchHit {
+
+    private final UUID id;
+
+    private final String title;
+
+    private final String location;
+
+    private final String language;
+
+    private final double price;
+
+    private final int durationMinutes;
+
+    private final double score;
+
+    // Constructeurs
+    public TourSearchHit(UUID id, String title, String location, String language, double price,
+                         int durationMinutes, double score) {
+        this.id = id;
+        this.title = title;
+        this.location = location;
+        this.language = language;
+        this.price = price;
+        this.durationMinutes = durationMinutes;
+        this.score = score;
+    }
+
+    // Getters
+    public UUID getId() {
+        return id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public String getLanguage() {
+        return language;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public int getDurationMinutes() {
+        return durationMinutes;
+    }
+
+    public double getScore() {
+        return score;
+    }
+}
@@ -0,0 +1,58 @@
+package com.tourflow.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Page de résultats de recherche et facettes (nombre de tours par langue et par lieu)
+ */
+public class TourSearchResult {
+
+    private final List<TourSearchHit> hits;
+
+    private final long totalHits;
+
+    private final int page;
+
+    private final int size;
+
+    private final Map<String, Long> languages;
+
+    private final Map<String, Long> locations;
+
+    // Constructeurs
+    public TourSearchResult(List<TourSearchHit> hits, long totalHits, int page, int size,
+                            Map<String, Long> languages, Map<String, Long> locations) {
+        this.hits = hits;
+        this.totalHits = totalHits;
+        this.page = page;
+        this.size = size;
+        this.languages = languages;
+        this.locations = locations;
+    }
+
+    // Getters
+    public List<TourSearchHit> getHits() {
+        return hits;
+    }
+
+    public long getTotalHits() {
+        return totalHits;
+    }
+
+    public int getPage() {
+        return page;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public Map<String, Long> getLanguages() {
+        return languages;
+    }
+
+    public Map<String, Long> getLocations() {
+        return locations;
+    }
+}
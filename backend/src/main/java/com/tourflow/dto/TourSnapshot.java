@@ -0,0 +1,136 @@
+package com.tourflow.dto;
+
+import com.tourflow.model.Tour;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Copie immuable d'un tour pour les caches : aucune association ni proxy Hibernate, seulement l'identifiant
+ * du guide. Construite une fois au chargement, elle peut être partagée entre threads et instances.
+ */
+public final class TourSnapshot implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final UUID id;
+
+    private final String title;
+
+    private final String description;
+
+    private final int durationMinutes;
+
+    private final String location;
+
+    private final int maxCapacity;
+
+    private final double price;
+
+    private final String language;
+
+    private final String photoUrls;
+
+    private final Double latitude;
+
+    private final Double longitude;
+
+    private final LocalDateTime createdAt;
+
+    private final LocalDateTime updatedAt;
+
+    private final boolean active;
+
+    private final UUID guideId;
+
+    // Constructeurs
+    private TourSnapshot(Tour tour) {
+        this.id = tour.getId();
+        this.title = tour.getTitle();
+        this.description = tour.getDescription();
+        this.durationMinutes = tour.getDurationMinutes();
+        // Peu de valeurs distinctes, répétées dans chaque tour : une seule copie en mémoire
+        this.location = intern(tour.getLocation());
+        this.maxCapacity = tour.getMaxCapacity();
+        this.price = tour.getPrice();
+        this.language = intern(tour.getLanguage());
+        this.photoUrls = tour.getPhotoUrls();
+        this.latitude = tour.getLatitude();
+        this.longitude = tour.getLongitude();
+        this.createdAt = tour.getCreatedAt();
+        this.updatedAt = tour.getUpdatedAt();
+        this.active = tour.isActive();
+        // L'identifiant d'un proxy se lit sans charger le guide
+        this.guideId = tour.getGuide() == null ? null : tour.getGuide().getId();
+    }
+
+    public static TourSnapshot of(Tour tour) {
+        return new TourSnapshot(tour);
+    }
+
+    private static String intern(String value) {
+        return value == null ? null : value.intern();
+    }
+
+    // Getters
+    public UUID getId() {
+        return id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public int getDurationMinutes() {
+        return durationMinutes;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public int getMaxCapacity() {
+        return maxCapacity;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public String getLanguage() {
+        return language;
+    }
+
+    public String getPhotoUrls() {
+        return photoUrls;
+    }
+
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    public Double getLongitude() {
+        return longitude;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public UUID getGuideId() {
+        return guideId;
+    }
+}
@@ -0,0 +1,29 @@
+package com.tourflow.health;
+
+import com.tourflow.service.CacheWarmUpService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hors service tant que le préchargement des caches n'est pas terminé : inclus dans le groupe readiness
+ * pour que l'instance ne reçoive du trafic qu'une fois ses caches chauds
+ */
+@Component
+public class WarmUpHealthIndicator implements HealthIndicator {
+
+    @Autowired
+    private CacheWarmUpService cacheWarmUpService;
+
+    @Override
+    public Health health() {
+        Health.Builder builder = cacheWarmUpService.isFinished() ? Health.up() : Health.outOfService();
+        builder.withDetail("state", cacheWarmUpService.getState().name());
+        if (cacheWarmUpService.getDuration() != null) {
+            builder.withDetail("durationMs", cacheWarmUpService.getDuration().toMillis());
+            builder.withDetail("failures", cacheWarmUpService.getFailures());
+        }
+        return builder.build();
+    }
+}
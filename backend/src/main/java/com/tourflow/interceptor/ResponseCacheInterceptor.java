@@ -0,0 +1,122 @@
+package com.tourflow.interceptor;
+
+import com.tourflow.service.ResourceVersionService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Cache HTTP des lectures publiques (liste des tours, catalogue, détail d'un tour, créneaux disponibles).
+ * La version courante est calculée avant l'appel du contrôleur : si le client ou nginx possède déjà cette
+ * version (If-None-Match), la réponse 304 part sans appeler les services. Sinon la réponse porte le
+ * Cache-Control de la route, ce qui permet à nginx de la garder en cache partagé.
+ * Le catalogue et le détail d'un tour peuvent venir d'un cache applicatif : leur ETag est posé par le
+ * contrôleur d'après la version réellement renvoyée, jamais plus récente que le contenu.
+ */
+@Component
+public class ResponseCacheInterceptor implements HandlerInterceptor {
+
+    @Autowired
+    private ResourceVersionService resourceVersionService;
+
+    @Value("${http.cache.tour-catalog:public, max-age=30, stale-while-revalidate=120}")
+    private String catalogCacheControl;
+
+    @Value("${http.cache.tour-detail:public, max-age=60, stale-while-revalidate=300}")
+    private String tourCacheControl;
+
+    @Value("${http.cache.tour-slots:public, max-age=30, stale-while-revalidate=60}")
+    private String slotsCacheControl;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod())) {
+            return true;
+        }
+
+        String pattern = (String) request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        @SuppressWarnings("unchecked")
+        Map<String, String> variables = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+
+        String etag;
+        String cacheControl;
+        boolean etagFromController;
+        try {
+            switch (pattern == null ? "" : pattern) {
+                case "/api/tours":
+                    // Même liste en cache que celle renvoyée par le contrôleur : l'ETag peut être posé ici
+                    etag = resourceVersionService.activeToursETag();
+                    cacheControl = catalogCacheControl;
+                    etagFromController = false;
+                    break;
+                case "/api/tours/catalog":
+                    etag = resourceVersionService.catalogETag();
+                    cacheControl = catalogCacheControl;
+                    etagFromController = true;
+                    break;
+                case "/api/tours/{id}":
+                    etag = resourceVersionService.tourETag(UUID.fromString(variables.get("id")));
+                    cacheControl = tourCacheControl;
+                    etagFromController = true;
+                    break;
+                case "/api/availability/slots/{tourId}":
+                    // Créneaux calculés en base après la lecture de la version : l'ETag peut être posé ici
+                    etag = resourceVersionService.slotsETag(UUID.fromString(variables.get("tourId")), Instant.now());
+                    cacheControl = slotsCacheControl;
+                    etagFromController = false;
+                    break;
+                default:
+                    return true;
+            }
+        } catch (IllegalArgumentException e) {
+            // Identifiant invalide : le contrôleur répond l'erreur habituelle
+            return true;
+        }
+
+        if (etag == null) {
+            return true;
+        }
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            response.setHeader(HttpHeaders.ETAG, etag);
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return false;
+        }
+        if (!etagFromController) {
+            response.setHeader(HttpHeaders.ETAG, etag);
+        }
+        return true;
+    }
+
+    /**
+     * Comparaison faible (RFC 9110) : nginx affaiblit les ETags des réponses qu'il compresse
+     */
+    static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*")) {
+                return true;
+            }
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,6 +1,7 @@
 package com.tourflow.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
 import java.time.LocalTime;
 import java.util.List;
 import java.util.UUID;
@@ -16,12 +17,14 @@ public class AvailabilityRule {
     private boolean active = true;
 
     @ElementCollection
+    @BatchSize(size = 100)
     @CollectionTable(name = "availability_rule_days", joinColumns = @JoinColumn(name = "availability_rule_id"))
     @Column(name = "day_of_week")
     @Enumerated(EnumType.STRING)
     private List<DayOfWeek> daysOfWeek;
 
     @ElementCollection
+    @BatchSize(size = 100)
     @CollectionTable(name = "availability_rule_times", joinColumns = @JoinColumn(name = "availability_rule_id"))
     @Column(name = "start_time")
     private List<LocalTime> startTimes;
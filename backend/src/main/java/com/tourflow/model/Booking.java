@@ -5,7 +5,13 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "bookings")
+@Table(name = "bookings",
+       indexes = {
+               @Index(name = "idx_bookings_change_seq", columnList = "change_seq"),
+               @Index(name = "idx_bookings_tour_change_seq", columnList = "tour_id, change_seq"),
+               @Index(name = "idx_bookings_tour_change_xid", columnList = "tour_id, change_xid, change_seq")
+       })
+@EntityListeners(BookingChangeListener.class)
 public class Booking {
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
@@ -54,6 +60,17 @@ public class Booking {
     @Column
     private String specialRequests;
 
+    // Numéro de modification croissant, attribué à chaque écriture (flux de synchronisation des partenaires)
+    @Column(name = "change_seq")
+    private Long changeSeq;
+
+    @Column(name = "changed_at")
+    private LocalDateTime changedAt;
+
+    // Transaction Postgres (xid8) qui a écrit la modification : le flux ne la transmet qu'une fois validée
+    @Column(name = "change_xid")
+    private Long changeXid;
+
     // Relations
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "tour_id", nullable = false)
@@ -208,6 +225,30 @@ public class Booking {
         this.tour = tour;
     }
 
+    public Long getChangeSeq() {
+        return changeSeq;
+    }
+
+    public void setChangeSeq(Long changeSeq) {
+        this.changeSeq = changeSeq;
+    }
+
+    public LocalDateTime getChangedAt() {
+        return changedAt;
+    }
+
+    public void setChangedAt(LocalDateTime changedAt) {
+        this.changedAt = changedAt;
+    }
+
+    public Long getChangeXid() {
+        return changeXid;
+    }
+
+    public void setChangeXid(Long changeXid) {
+        this.changeXid = changeXid;
+    }
+
     public Payment getPayment() {
         return payment;
     }
@@ -0,0 +1,43 @@
+package com.tourflow.model;
+
+import com.tourflow.repository.BookingChangeSequence;
+import com.tourflow.service.FreeCapacityService;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostUpdate;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * Attribue un nouveau numéro de modification à chaque création ou mise à jour d'une réservation,
+ * puis fait recalculer les places libres du tour
+ */
+@Component
+public class BookingChangeListener {
+
+    @Autowired
+    private BookingChangeSequence bookingChangeSequence;
+
+    // Différé : le service dépend des repositories, donc de l'EntityManagerFactory qui crée ce listener
+    @Lazy
+    @Autowired
+    private FreeCapacityService freeCapacityService;
+
+    @PrePersist
+    @PreUpdate
+    public void stamp(Booking booking) {
+        booking.setChangeSeq(bookingChangeSequence.next());
+        booking.setChangeXid(bookingChangeSequence.currentTransactionId());
+        booking.setChangedAt(LocalDateTime.now());
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void refreshCapacity(Booking booking) {
+        freeCapacityService.refreshTour(booking.getTour().getId());
+    }
+}
@@ -0,0 +1,94 @@
+package com.tourflow.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "external_busy_block",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"external_calendar_id", "uid", "start_date"}),
+       indexes = @Index(name = "idx_external_busy_block_guide_end", columnList = "guide_id, end_date"))
+public class ExternalBusyBlock {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(name = "guide_id", nullable = false)
+    private UUID guideId;
+
+    @Column(name = "start_date", nullable = false)
+    private LocalDateTime startDate;
+
+    @Column(name = "end_date", nullable = false)
+    private LocalDateTime endDate;
+
+    // UID de l'événement dans le flux iCal d'origine
+    @Column(nullable = false, length = 500)
+    private String uid;
+
+    // Relations
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "external_calendar_id", nullable = false)
+    private ExternalCalendar externalCalendar;
+
+    // Constructeurs
+    public ExternalBusyBlock() {}
+
+    public ExternalBusyBlock(UUID guideId, LocalDateTime startDate, LocalDateTime endDate, String uid,
+                             ExternalCalendar externalCalendar) {
+        this.guideId = guideId;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.uid = uid;
+        this.externalCalendar = externalCalendar;
+    }
+
+    // Getters et Setters
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public UUID getGuideId() {
+        return guideId;
+    }
+
+    public void setGuideId(UUID guideId) {
+        this.guideId = guideId;
+    }
+
+    public LocalDateTime getStartDate() {
+        return startDate;
+    }
+
+    public void setStartDate(LocalDateTime startDate) {
+        this.startDate = startDate;
+    }
+
+    public LocalDateTime getEndDate() {
+        return endDate;
+    }
+
+    public void setEndDate(LocalDateTime endDate) {
+        this.endDate = endDate;
+    }
+
+    public String getUid() {
+        return uid;
+    }
+
+    public void setUid(String uid) {
+        this.uid = uid;
+    }
+
+    public ExternalCalendar getExternalCalendar() {
+        return externalCalendar;
+    }
+
+    public void setExternalCalendar(ExternalCalendar externalCalendar) {
+        this.externalCalendar = externalCalendar;
+    }
+}
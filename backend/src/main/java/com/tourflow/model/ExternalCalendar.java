@@ -23,6 +23,29 @@ public class ExternalCalendar {
     @Column
     private LocalDateTime lastSyncAt;
 
+    // Validateurs renvoyés par le serveur distant, pour les requêtes conditionnelles
+    @Column
+    private String etag;
+
+    @Column
+    private String remoteLastModified;
+
+    // Statistiques de la dernière récupération
+    @Column
+    private Integer lastFetchStatus;
+
+    @Column
+    private Long lastFetchBytes;
+
+    @Column
+    private Long lastFetchDurationMs;
+
+    @Column
+    private Integer lastEventCount;
+
+    @Column(length = 500)
+    private String lastSyncError;
+
     @Column(nullable = false)
     private boolean active = true;
 
@@ -81,6 +104,62 @@ public class ExternalCalendar {
         this.lastSyncAt = lastSyncAt;
     }
 
+    public String getEtag() {
+        return etag;
+    }
+
+    public void setEtag(String etag) {
+        this.etag = etag;
+    }
+
+    public String getRemoteLastModified() {
+        return remoteLastModified;
+    }
+
+    public void setRemoteLastModified(String remoteLastModified) {
+        this.remoteLastModified = remoteLastModified;
+    }
+
+    public Integer getLastFetchStatus() {
+        return lastFetchStatus;
+    }
+
+    public void setLastFetchStatus(Integer lastFetchStatus) {
+        this.lastFetchStatus = lastFetchStatus;
+    }
+
+    public Long getLastFetchBytes() {
+        return lastFetchBytes;
+    }
+
+    public void setLastFetchBytes(Long lastFetchBytes) {
+        this.lastFetchBytes = lastFetchBytes;
+    }
+
+    public Long getLastFetchDurationMs() {
+        return lastFetchDurationMs;
+    }
+
+    public void setLastFetchDurationMs(Long lastFetchDurationMs) {
+        this.lastFetchDurationMs = lastFetchDurationMs;
+    }
+
+    public Integer getLastEventCount() {
+        return lastEventCount;
+    }
+
+    public void setLastEventCount(Integer lastEventCount) {
+        this.lastEventCount = lastEventCount;
+    }
+
+    public String getLastSyncError() {
+        return lastSyncError;
+    }
+
+    public void setLastSyncError(String lastSyncError) {
+        this.lastSyncError = lastSyncError;
+    }
+
     public boolean isActive() {
         return active;
     }
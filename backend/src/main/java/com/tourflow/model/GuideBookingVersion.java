@@ -0,0 +1,54 @@
+package com.tourflow.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "guide_booking_versions")
+public class GuideBookingVersion {
+    @Id
+    @Column(name = "guide_id")
+    private UUID guideId;
+
+    // Incrémenté à chaque confirmation ou annulation d'une réservation du guide
+    @Column(nullable = false)
+    private long version;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Constructeurs
+    public GuideBookingVersion() {}
+
+    public GuideBookingVersion(UUID guideId, long version, LocalDateTime updatedAt) {
+        this.guideId = guideId;
+        this.version = version;
+        this.updatedAt = updatedAt;
+    }
+
+    // Getters et Setters
+    public UUID getGuideId() {
+        return guideId;
+    }
+
+    public void setGuideId(UUID guideId) {
+        this.guideId = guideId;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,147 @@
+package com.tourflow.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "reconciliation_checkpoints")
+public class ReconciliationCheckpoint {
+    @Id
+    private String jobKey;
+
+    @Column(nullable = false)
+    private LocalDateTime windowStart;
+
+    @Column(nullable = false)
+    private LocalDateTime windowEnd;
+
+    // Tous les éléments postérieurs à cette date ont déjà été rapprochés
+    @Column
+    private LocalDateTime resumeAt;
+
+    @Column(nullable = false)
+    private String reportPath;
+
+    // Taille du rapport au point de contrôle : les lignes écrites après sont tronquées à la reprise
+    @Column
+    private Long reportSize;
+
+    @Column(nullable = false)
+    private long processedPayments;
+
+    @Column(nullable = false)
+    private long processedStripeTransactions;
+
+    @Column(nullable = false)
+    private long discrepancies;
+
+    @Column(nullable = false)
+    private boolean completed = false;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt = LocalDateTime.now();
+
+    // Constructeurs
+    public ReconciliationCheckpoint() {}
+
+    public ReconciliationCheckpoint(String jobKey, LocalDateTime windowStart, LocalDateTime windowEnd, String reportPath) {
+        this.jobKey = jobKey;
+        this.windowStart = windowStart;
+        this.windowEnd = windowEnd;
+        this.reportPath = reportPath;
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    // Getters et Setters
+    public String getJobKey() {
+        return jobKey;
+    }
+
+    public void setJobKey(String jobKey) {
+        this.jobKey = jobKey;
+    }
+
+    public LocalDateTime getWindowStart() {
+        return windowStart;
+    }
+
+    public void setWindowStart(LocalDateTime windowStart) {
+        this.windowStart = windowStart;
+    }
+
+    public LocalDateTime getWindowEnd() {
+        return windowEnd;
+    }
+
+    public void setWindowEnd(LocalDateTime windowEnd) {
+        this.windowEnd = windowEnd;
+    }
+
+    public LocalDateTime getResumeAt() {
+        return resumeAt;
+    }
+
+    public void setResumeAt(LocalDateTime resumeAt) {
+        this.resumeAt = resumeAt;
+    }
+
+    public String getReportPath() {
+        return reportPath;
+    }
+
+    public void setReportPath(String reportPath) {
+        this.reportPath = reportPath;
+    }
+
+    public Long getReportSize() {
+        return reportSize;
+    }
+
+    public void setReportSize(Long reportSize) {
+        this.reportSize = reportSize;
+    }
+
+    public long getProcessedPayments() {
+        return processedPayments;
+    }
+
+    public void setProcessedPayments(long processedPayments) {
+        this.processedPayments = processedPayments;
+    }
+
+    public long getProcessedStripeTransactions() {
+        return processedStripeTransactions;
+    }
+
+    public void setProcessedStripeTransactions(long processedStripeTransactions) {
+        this.processedStripeTransactions = processedStripeTransactions;
+    }
+
+    public long getDiscrepancies() {
+        return discrepancies;
+    }
+
+    public void setDiscrepancies(long discrepancies) {
+        this.discrepancies = discrepancies;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    public void setCompleted(boolean completed) {
+        this.completed = completed;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -0,0 +1,95 @@
+package com.tourflow.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Révocation d'un token (tokenId renseigné) ou de tous les tokens d'un utilisateur émis avant issuedBefore.
+ * La ligne n'est utile que jusqu'à expiresAt : au-delà, les tokens visés sont expirés de toute façon.
+ */
+@Entity
+@Table(name = "revoked_tokens", indexes = {
+        @Index(name = "idx_revoked_tokens_revoked_at", columnList = "revokedAt"),
+        @Index(name = "idx_revoked_tokens_expires_at", columnList = "expiresAt")
+})
+public class RevokedToken {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    // Claim jti du token révoqué ; null pour une révocation de tous les tokens de l'utilisateur
+    @Column(unique = true)
+    private UUID tokenId;
+
+    @Column(nullable = false)
+    private UUID userId;
+
+    @Column
+    private LocalDateTime issuedBefore;
+
+    @Column(nullable = false)
+    private LocalDateTime revokedAt = LocalDateTime.now();
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    // Constructeurs
+    public RevokedToken() {}
+
+    public RevokedToken(UUID tokenId, UUID userId, LocalDateTime issuedBefore, LocalDateTime expiresAt) {
+        this.tokenId = tokenId;
+        this.userId = userId;
+        this.issuedBefore = issuedBefore;
+        this.expiresAt = expiresAt;
+    }
+
+    // Getters et Setters
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public UUID getTokenId() {
+        return tokenId;
+    }
+
+    public void setTokenId(UUID tokenId) {
+        this.tokenId = tokenId;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public void setUserId(UUID userId) {
+        this.userId = userId;
+    }
+
+    public LocalDateTime getIssuedBefore() {
+        return issuedBefore;
+    }
+
+    public void setIssuedBefore(LocalDateTime issuedBefore) {
+        this.issuedBefore = issuedBefore;
+    }
+
+    public LocalDateTime getRevokedAt() {
+        return revokedAt;
+    }
+
+    public void setRevokedAt(LocalDateTime revokedAt) {
+        this.revokedAt = revokedAt;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
@@ -6,7 +6,11 @@ import java.util.List;
 import java.util.UUID;
 
 @Entity
-@Table(name = "tours")
+@Table(name = "tours",
+       indexes = {
+               @Index(name = "idx_tours_catalog", columnList = "active, created_at, id"),
+               @Index(name = "idx_tours_updated_at", columnList = "updated_at")
+       })
 public class Tour {
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
@@ -36,12 +40,23 @@ public class Tour {
     @Column
     private String photoUrls; // Stockage des URLs des photos sous forme de chaîne JSON
 
+    // Coordonnées du point de départ (fournies par le guide ou géocodées à partir du lieu)
+    @Column
+    private Double latitude;
+
+    @Column
+    private Double longitude;
+
     @Column(nullable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
 
     @Column(nullable = false)
     private LocalDateTime updatedAt = LocalDateTime.now();
 
+    // Dernière modification des règles ou exceptions de disponibilité : ne change que les créneaux, pas le catalogue
+    @Column(name = "availability_updated_at")
+    private LocalDateTime availabilityUpdatedAt;
+
     @Column(nullable = false)
     private boolean active = true;
 
@@ -153,6 +168,22 @@ public class Tour {
         this.photoUrls = photoUrls;
     }
 
+    public Double getLatitude() {
+        return latitude;
+    }
+
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+
+    public Double getLongitude() {
+        return longitude;
+    }
+
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -169,6 +200,14 @@ public class Tour {
         this.updatedAt = updatedAt;
     }
 
+    public LocalDateTime getAvailabilityUpdatedAt() {
+        return availabilityUpdatedAt;
+    }
+
+    public void setAvailabilityUpdatedAt(LocalDateTime availabilityUpdatedAt) {
+        this.availabilityUpdatedAt = availabilityUpdatedAt;
+    }
+
     public boolean isActive() {
         return active;
     }
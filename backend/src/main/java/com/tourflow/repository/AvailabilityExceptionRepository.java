@@ -1,5 +1,7 @@
 package com.tourflow.repository;
 
+import com.tourflow.dto.BusyPeriod;
+import com.tourflow.dto.TourInterval;
 import com.tourflow.model.AvailabilityException;
 import com.tourflow.model.Tour;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -23,4 +25,20 @@ public interface AvailabilityExceptionRepository extends JpaRepository<Availabil
     List<AvailabilityException> findConflictingExceptions(@Param("tourId") UUID tourId, 
                                                        @Param("startDate") LocalDateTime startDate, 
                                                        @Param("endDate") LocalDateTime endDate);
+
+    @Query("SELECT new com.tourflow.dto.BusyPeriod(e.startDate, e.endDate) FROM AvailabilityException e " +
+           "WHERE e.tour.guide.id = :guideId AND e.startDate < :to AND e.endDate > :from ORDER BY e.startDate")
+    List<BusyPeriod> findBusyPeriodsByGuide(@Param("guideId") UUID guideId,
+                                            @Param("from") LocalDateTime from,
+                                            @Param("to") LocalDateTime to);
+
+    @Query("SELECT new com.tourflow.dto.TourInterval(e.tour.id, e.startDate, e.endDate, 0) FROM AvailabilityException e " +
+           "WHERE e.startDate <= :to AND e.endDate >= :from")
+    List<TourInterval> findTourIntervals(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("SELECT new com.tourflow.dto.TourInterval(e.tour.id, e.startDate, e.endDate, 0) FROM AvailabilityException e " +
+           "WHERE e.tour.id = :tourId AND e.startDate <= :to AND e.endDate >= :from")
+    List<TourInterval> findTourIntervalsByTour(@Param("tourId") UUID tourId,
+                                               @Param("from") LocalDateTime from,
+                                               @Param("to") LocalDateTime to);
 }
@@ -3,6 +3,8 @@ package com.tourflow.repository;
 import com.tourflow.model.AvailabilityRule;
 import com.tourflow.model.Tour;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -14,4 +16,10 @@ public interface AvailabilityRuleRepository extends JpaRepository<AvailabilityRu
     List<AvailabilityRule> findByTourAndActiveTrue(Tour tour);
 
     List<AvailabilityRule> findByTourId(UUID tourId);
+
+    @Query("SELECT r FROM AvailabilityRule r JOIN FETCH r.tour t WHERE r.active = true AND t.active = true")
+    List<AvailabilityRule> findActiveRulesOfActiveTours();
+
+    @Query("SELECT r FROM AvailabilityRule r JOIN FETCH r.tour t WHERE t.id = :tourId AND r.active = true AND t.active = true")
+    List<AvailabilityRule> findActiveRulesOfActiveTour(@Param("tourId") UUID tourId);
 }
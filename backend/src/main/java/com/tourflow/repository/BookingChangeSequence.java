@@ -0,0 +1,74 @@
+package com.tourflow.repository;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Séquence Postgres des numéros de modification des réservations (colonne bookings.change_seq) et
+ * identifiants de transaction (colonne bookings.change_xid) qui permettent de ne lire que des modifications validées
+ */
+@Repository
+public class BookingChangeSequence {
+
+    private static final Logger logger = LoggerFactory.getLogger(BookingChangeSequence.class);
+
+    static final String SEQUENCE_NAME = "booking_change_seq";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void createSequence() {
+        // Hibernate (ddl-auto=update) ne crée que les séquences des identifiants
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + SEQUENCE_NAME);
+    }
+
+    /**
+     * Numéro suivant ; exécuté sur la connexion de la transaction en cours
+     */
+    public long next() {
+        return jdbcTemplate.queryForObject("SELECT nextval('" + SEQUENCE_NAME + "')", Long.class);
+    }
+
+    /**
+     * Identifiant (xid8) de la transaction en cours, attribué s'il ne l'est pas encore
+     */
+    public long currentTransactionId() {
+        return jdbcTemplate.queryForObject("SELECT pg_current_xact_id()::text::bigint", Long.class);
+    }
+
+    /**
+     * Plus petit identifiant de transaction encore en cours : toute transaction d'identifiant inférieur est
+     * terminée, ses écritures validées sont visibles et il n'en apparaîtra plus de nouvelles
+     */
+    public long visibleBefore() {
+        return jdbcTemplate.queryForObject("SELECT pg_snapshot_xmin(pg_current_snapshot())::text::bigint", Long.class);
+    }
+
+    /**
+     * Numérote les réservations créées avant l'ajout de la colonne, dans l'ordre de création
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        int updated = jdbcTemplate.update(
+                "UPDATE bookings b SET change_seq = s.seq, changed_at = COALESCE(b.changed_at, b.created_at), change_xid = 0 " +
+                "FROM (SELECT id, nextval('" + SEQUENCE_NAME + "') AS seq FROM " +
+                "(SELECT id FROM bookings WHERE change_seq IS NULL ORDER BY created_at) ordered) s " +
+                "WHERE b.id = s.id");
+        if (updated > 0) {
+            logger.info("{} réservations numérotées pour le flux de modifications", updated);
+        }
+
+        // Modifications antérieures à la colonne change_xid : toutes validées, placées avant les suivantes
+        int stamped = jdbcTemplate.update("UPDATE bookings SET change_xid = 0 WHERE change_xid IS NULL AND change_seq IS NOT NULL");
+        if (stamped > 0) {
+            logger.info("{} modifications de réservations rattachées au flux par transaction", stamped);
+        }
+    }
+}
@@ -1,23 +1,40 @@
 package com.tourflow.repository;
 
+import com.tourflow.dto.BookingCalendarEntry;
+import com.tourflow.dto.BookingChange;
+import com.tourflow.dto.BusyPeriod;
+import com.tourflow.dto.TourInterval;
 import com.tourflow.model.Booking;
 import com.tourflow.model.BookingStatus;
 import com.tourflow.model.Tour;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, UUID> {
 
     List<Booking> findByTourAndStatus(Tour tour, BookingStatus status);
 
-    List<Booking> findByTour(Tour tour);
+    /**
+     * Réservations du tour avec leur paiement : la relation inverse n'est pas paresseuse, sans jointure
+     * chaque réservation déclencherait sa propre requête de paiement
+     */
+    @Query("SELECT b FROM Booking b LEFT JOIN FETCH b.payment WHERE b.tour = :tour")
+    List<Booking> findByTour(@Param("tour") Tour tour);
 
     @Query("SELECT b FROM Booking b WHERE b.tour.id = :tourId AND b.status IN (:statuses) AND " +
            "((b.startDate <= :endDate AND b.endDate >= :startDate))")
@@ -29,6 +46,104 @@ public interface BookingRepository extends JpaRepository<Booking, UUID> {
     @Query("SELECT b FROM Booking b WHERE b.status = 'PENDING' AND b.expiresAt < :now")
     List<Booking> findExpiredPendingBookings(@Param("now") LocalDateTime now);
 
-    @Query("SELECT b FROM Booking b WHERE b.customerEmail = :email ORDER BY b.createdAt DESC")
+    @Query("SELECT b FROM Booking b LEFT JOIN FETCH b.payment WHERE b.customerEmail = :email ORDER BY b.createdAt DESC")
     List<Booking> findByCustomerEmail(@Param("email") String email);
+
+    /**
+     * Parcourt les réservations d'un guide pour l'export iCal, avec le tour joint dans la même requête.
+     * Doit être consommé dans une transaction.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.tourflow.dto.BookingCalendarEntry(b.id, b.startDate, b.endDate, b.participants, b.totalPrice, " +
+           "b.customerName, b.customerEmail, t.title, t.location, COALESCE(b.confirmedAt, b.createdAt)) " +
+           "FROM Booking b JOIN b.tour t WHERE t.guide.id = :guideId AND b.status = :status ORDER BY b.startDate")
+    Stream<BookingCalendarEntry> streamCalendarEntriesByGuide(@Param("guideId") UUID guideId,
+                                                              @Param("status") BookingStatus status);
+
+    /**
+     * Parcourt les réservations de plusieurs guides en une seule requête, tour joint, triées par guide puis par date.
+     * Doit être consommé dans une transaction.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.tourflow.dto.BookingCalendarEntry(t.guide.id, b.id, b.startDate, b.endDate, b.participants, " +
+           "b.totalPrice, b.customerName, b.customerEmail, t.title, t.location, COALESCE(b.confirmedAt, b.createdAt)) " +
+           "FROM Booking b JOIN b.tour t WHERE t.guide.id IN (:guideIds) AND b.status = :status " +
+           "ORDER BY t.guide.id, b.startDate")
+    Stream<BookingCalendarEntry> streamCalendarEntriesByGuides(@Param("guideIds") Collection<UUID> guideIds,
+                                                               @Param("status") BookingStatus status);
+
+    /**
+     * Modifications des réservations d'un guide postérieures à une position (transaction, numéro), dans l'ordre
+     * des positions. Seules les transactions d'identifiant inférieur à visibleBefore sont lues : elles sont
+     * terminées, aucune modification ne pourra plus s'insérer avant la dernière position transmise.
+     */
+    @Query("SELECT new com.tourflow.dto.BookingChange(b.id, t.id, b.status, b.startDate, b.endDate, b.participants, " +
+           "b.customerName, t.title, t.location, b.changedAt, b.changeXid, b.changeSeq) " +
+           "FROM Booking b JOIN b.tour t WHERE t.guide.id = :guideId AND b.changeXid < :visibleBefore " +
+           "AND (b.changeXid > :sinceXid OR (b.changeXid = :sinceXid AND b.changeSeq > :sinceSeq)) " +
+           "ORDER BY b.changeXid, b.changeSeq")
+    List<BookingChange> findChangesByGuide(@Param("guideId") UUID guideId, @Param("sinceXid") long sinceXid,
+                                           @Param("sinceSeq") long sinceSeq, @Param("visibleBefore") long visibleBefore,
+                                           Pageable pageable);
+
+    /**
+     * Parmi les tours donnés, ceux qui ont une réservation confirmée chevauchant la période
+     */
+    @Query("SELECT DISTINCT b.tour.id FROM Booking b WHERE b.tour.id IN (:tourIds) AND b.status = 'CONFIRMED' " +
+           "AND b.startDate <= :endDate AND b.endDate >= :startDate")
+    List<UUID> findBookedTourIds(@Param("tourIds") Collection<UUID> tourIds,
+                                 @Param("startDate") LocalDateTime startDate,
+                                 @Param("endDate") LocalDateTime endDate);
+
+    /**
+     * Plages occupées d'un guide : réservations confirmées et réservations en attente non expirées
+     */
+    @Query("SELECT new com.tourflow.dto.BusyPeriod(b.startDate, b.endDate) FROM Booking b " +
+           "WHERE b.tour.guide.id = :guideId AND b.startDate < :to AND b.endDate > :from AND " +
+           "(b.status = 'CONFIRMED' OR (b.status = 'PENDING' AND b.expiresAt > :now)) ORDER BY b.startDate")
+    List<BusyPeriod> findBusyPeriodsByGuide(@Param("guideId") UUID guideId,
+                                            @Param("from") LocalDateTime from,
+                                            @Param("to") LocalDateTime to,
+                                            @Param("now") LocalDateTime now);
+
+    /**
+     * Réservations occupant un tour sur la période : confirmées et en attente non expirées
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.tourflow.dto.TourInterval(b.tour.id, b.startDate, b.endDate, b.participants) FROM Booking b " +
+           "WHERE b.startDate <= :to AND b.endDate >= :from AND " +
+           "(b.status = 'CONFIRMED' OR (b.status = 'PENDING' AND b.expiresAt > :now))")
+    List<TourInterval> findTourIntervals(@Param("from") LocalDateTime from,
+                                         @Param("to") LocalDateTime to,
+                                         @Param("now") LocalDateTime now);
+
+    @Query("SELECT new com.tourflow.dto.TourInterval(b.tour.id, b.startDate, b.endDate, b.participants) FROM Booking b " +
+           "WHERE b.tour.id = :tourId AND b.startDate <= :to AND b.endDate >= :from AND " +
+           "(b.status = 'CONFIRMED' OR (b.status = 'PENDING' AND b.expiresAt > :now))")
+    List<TourInterval> findTourIntervalsByTour(@Param("tourId") UUID tourId,
+                                               @Param("from") LocalDateTime from,
+                                               @Param("to") LocalDateTime to,
+                                               @Param("now") LocalDateTime now);
+
+    /**
+     * Version des réservations d'un tour : dernier numéro de modification attribué à l'une d'elles (0 si aucune)
+     */
+    @Query("SELECT COALESCE(MAX(b.changeSeq), 0) FROM Booking b WHERE b.tour.id = :tourId")
+    long findLastChangeSeqByTour(@Param("tourId") UUID tourId);
+
+    /**
+     * Tours actifs les plus réservés depuis la date donnée, du plus demandé au moins demandé
+     */
+    @Query("SELECT b.tour.id FROM Booking b WHERE b.createdAt >= :since AND b.tour.active = true " +
+           "AND b.status IN ('CONFIRMED', 'PENDING') GROUP BY b.tour.id ORDER BY COUNT(b) DESC")
+    List<UUID> findMostBookedTourIds(@Param("since") LocalDateTime since, Pageable pageable);
 }
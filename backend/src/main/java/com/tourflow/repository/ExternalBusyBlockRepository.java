@@ -0,0 +1,33 @@
+package com.tourflow.repository;
+
+import com.tourflow.dto.BusyPeriod;
+import com.tourflow.model.ExternalBusyBlock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ExternalBusyBlockRepository extends JpaRepository<ExternalBusyBlock, UUID> {
+
+    List<ExternalBusyBlock> findByExternalCalendarId(UUID externalCalendarId);
+
+    List<ExternalBusyBlock> findByGuideIdAndEndDateAfter(UUID guideId, LocalDateTime after);
+
+    List<ExternalBusyBlock> findByEndDateAfter(LocalDateTime after);
+
+    @Modifying
+    @Query("DELETE FROM ExternalBusyBlock b WHERE b.externalCalendar.id = :calendarId")
+    int deleteByExternalCalendarId(@Param("calendarId") UUID calendarId);
+
+    @Query("SELECT new com.tourflow.dto.BusyPeriod(b.startDate, b.endDate) FROM ExternalBusyBlock b " +
+           "WHERE b.guideId = :guideId AND b.startDate < :to AND b.endDate > :from ORDER BY b.startDate")
+    List<BusyPeriod> findBusyPeriodsByGuide(@Param("guideId") UUID guideId,
+                                            @Param("from") LocalDateTime from,
+                                            @Param("to") LocalDateTime to);
+}
@@ -14,4 +14,6 @@ public interface ExternalCalendarRepository extends JpaRepository<ExternalCalend
     List<ExternalCalendar> findByGuideAndActiveTrue(User guide);
 
     List<ExternalCalendar> findByGuideId(UUID guideId);
+
+    List<ExternalCalendar> findByActiveTrue();
 }
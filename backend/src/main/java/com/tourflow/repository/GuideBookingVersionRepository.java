@@ -0,0 +1,24 @@
+package com.tourflow.repository;
+
+import com.tourflow.model.GuideBookingVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Repository
+public interface GuideBookingVersionRepository extends JpaRepository<GuideBookingVersion, UUID> {
+
+    /**
+     * Incrémente atomiquement la version des réservations d'un guide, en créant la ligne si besoin
+     */
+    @Modifying
+    @Query(value = "INSERT INTO guide_booking_versions (guide_id, version, updated_at) VALUES (:guideId, 1, :now) " +
+                   "ON CONFLICT (guide_id) DO UPDATE SET version = guide_booking_versions.version + 1, updated_at = :now",
+           nativeQuery = true)
+    void incrementVersion(@Param("guideId") UUID guideId, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,44 @@
+package com.tourflow.repository;
+
+import com.tourflow.dto.PaymentLedgerEntry;
+import com.tourflow.model.Payment;
+import com.tourflow.model.PaymentStatus;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+@Repository
+public interface PaymentRepository extends JpaRepository<Payment, UUID> {
+
+    Optional<Payment> findByPaymentIntentId(String paymentIntentId);
+
+    /**
+     * Parcourt les paiements encaissés d'une période, du plus récent au plus ancien, via un curseur serveur.
+     * La projection n'est pas gérée par le contexte de persistance : la mémoire reste constante
+     * quel que soit le volume de la table. Doit être consommé dans une transaction.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HINT_CACHEABLE, value = "false")
+    })
+    @Query("SELECT new com.tourflow.dto.PaymentLedgerEntry(p.id, p.paymentIntentId, p.amount, p.currency, p.status, p.completedAt) " +
+           "FROM Payment p WHERE p.status IN (:statuses) AND p.completedAt >= :from AND p.completedAt < :to " +
+           "ORDER BY p.completedAt DESC, p.id DESC")
+    Stream<PaymentLedgerEntry> streamSettledPayments(@Param("statuses") List<PaymentStatus> statuses,
+                                                    @Param("from") LocalDateTime from,
+                                                    @Param("to") LocalDateTime to);
+}
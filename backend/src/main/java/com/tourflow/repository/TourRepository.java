@@ -1,15 +1,28 @@
 package com.tourflow.repository;
 
+import com.tourflow.dto.TourDto;
+import com.tourflow.dto.TourLocationEntry;
+import com.tourflow.dto.TourSearchDocument;
 import com.tourflow.model.Tour;
 import com.tourflow.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
 public interface TourRepository extends JpaRepository<Tour, UUID> {
@@ -26,4 +39,77 @@ public interface TourRepository extends JpaRepository<Tour, UUID> {
 
     @Query("SELECT t FROM Tour t WHERE t.guide.id = :guideId AND t.active = true")
     List<Tour> findByGuideId(@Param("guideId") UUID guideId);
+
+    /**
+     * Tours actifs pour la construction de l'index de recherche, sans charger les entités
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.tourflow.dto.TourSearchDocument(t.id, t.title, t.description, t.location, t.language, " +
+           "t.price, t.durationMinutes, t.createdAt, t.updatedAt) FROM Tour t WHERE t.active = true")
+    Stream<TourSearchDocument> streamSearchDocuments();
+
+    @Query("SELECT new com.tourflow.dto.TourSearchDocument(t.id, t.title, t.description, t.location, t.language, " +
+           "t.price, t.durationMinutes, t.createdAt, t.updatedAt) FROM Tour t WHERE t.id = :tourId AND t.active = true")
+    Optional<TourSearchDocument> findSearchDocumentById(@Param("tourId") UUID tourId);
+
+    /**
+     * Tours actifs et leurs coordonnées pour la construction de l'index spatial
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT new com.tourflow.dto.TourLocationEntry(t.id, t.title, t.location, t.latitude, t.longitude, " +
+           "t.price, t.durationMinutes) FROM Tour t WHERE t.active = true")
+    Stream<TourLocationEntry> streamLocationEntries();
+
+    @Query("SELECT new com.tourflow.dto.TourLocationEntry(t.id, t.title, t.location, t.latitude, t.longitude, " +
+           "t.price, t.durationMinutes) FROM Tour t WHERE t.id = :tourId AND t.active = true")
+    Optional<TourLocationEntry> findLocationEntryById(@Param("tourId") UUID tourId);
+
+    /**
+     * Première page du catalogue, du tour le plus récent au plus ancien
+     */
+    @QueryHints(@QueryHint(name = HINT_READ_ONLY, value = "true"))
+    @Query("SELECT new com.tourflow.dto.TourDto(t.id, t.title, t.location, t.durationMinutes, t.maxCapacity, t.price, " +
+           "t.language, t.guide.id, t.createdAt) FROM Tour t WHERE t.active = true ORDER BY t.createdAt DESC, t.id DESC")
+    List<TourDto> findCatalogFirstPage(Pageable pageable);
+
+    /**
+     * Page suivante du catalogue : tours strictement plus anciens que le dernier tour transmis (pagination par clé)
+     */
+    @QueryHints(@QueryHint(name = HINT_READ_ONLY, value = "true"))
+    @Query("SELECT new com.tourflow.dto.TourDto(t.id, t.title, t.location, t.durationMinutes, t.maxCapacity, t.price, " +
+           "t.language, t.guide.id, t.createdAt) FROM Tour t WHERE t.active = true AND " +
+           "(t.createdAt < :createdAt OR (t.createdAt = :createdAt AND t.id < :id)) ORDER BY t.createdAt DESC, t.id DESC")
+    List<TourDto> findCatalogPageAfter(@Param("createdAt") LocalDateTime createdAt,
+                                       @Param("id") UUID id,
+                                       Pageable pageable);
+
+    @Query("SELECT t.updatedAt FROM Tour t WHERE t.id = :tourId")
+    Optional<LocalDateTime> findUpdatedAtById(@Param("tourId") UUID tourId);
+
+    /**
+     * Version des créneaux du tour : sa dernière modification ou celle de ses disponibilités si elle est plus récente
+     */
+    @Query("SELECT greatest(t.updatedAt, coalesce(t.availabilityUpdatedAt, t.updatedAt)) FROM Tour t WHERE t.id = :tourId")
+    Optional<LocalDateTime> findSlotsVersionById(@Param("tourId") UUID tourId);
+
+    /**
+     * Date de la dernière création ou modification d'un tour, tous tours confondus
+     */
+    @Query("SELECT MAX(t.updatedAt) FROM Tour t")
+    LocalDateTime findLastUpdate();
+
+    /**
+     * Marque les disponibilités du tour comme modifiées quand ses règles ou exceptions changent ;
+     * updatedAt, qui versionne le catalogue et le détail du tour, n'est pas modifié
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Tour t SET t.availabilityUpdatedAt = :now WHERE t.id = :tourId")
+    void touchAvailability(@Param("tourId") UUID tourId, @Param("now") LocalDateTime now);
 }
@@ -0,0 +1,40 @@
+package com.tourflow.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Écritures groupées des statistiques d'activité des utilisateurs, hors du cycle de vie des entités
+ */
+@Repository
+public class UserActivityWriter {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Une seule requête préparée exécutée en lot ; une date plus ancienne que celle en base est ignorée
+     */
+    public int updateLastLogins(Map<UUID, LocalDateTime> lastLogins) {
+        List<Object[]> batch = new ArrayList<>(lastLogins.size());
+        lastLogins.forEach((userId, lastLogin) -> {
+            Timestamp timestamp = Timestamp.valueOf(lastLogin);
+            batch.add(new Object[] { timestamp, userId, timestamp });
+        });
+        int[] updated = jdbcTemplate.batchUpdate(
+                "UPDATE users SET last_login = ? WHERE id = ? AND (last_login IS NULL OR last_login < ?)", batch);
+        int total = 0;
+        for (int count : updated) {
+            total += Math.max(count, 0);
+        }
+        return total;
+    }
+}
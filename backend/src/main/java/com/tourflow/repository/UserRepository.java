@@ -2,8 +2,10 @@ package com.tourflow.repository;
 
 import com.tourflow.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -15,4 +17,7 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     boolean existsByEmail(String email);
 
     Optional<User> findByEmailAndActiveTrue(String email);
+
+    @Query("SELECT u.id FROM User u WHERE u.active = false")
+    List<UUID> findInactiveUserIds();
 }
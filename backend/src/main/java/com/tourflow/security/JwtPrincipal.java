@@ -0,0 +1,108 @@
+package com.tourflow.security;
+
+import com.tourflow.model.Role;
+import io.jsonwebtoken.Claims;
+import org.springframework.security.core.AuthenticatedPrincipal;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Utilisateur authentifié reconstruit à partir des claims d'un JWT vérifié, sans lecture en base.
+ * Immuable : une même instance est partagée entre les requêtes portant le même token.
+ */
+public final class JwtPrincipal implements AuthenticatedPrincipal {
+
+    private final UUID userId;
+
+    private final String email;
+
+    private final String firstName;
+
+    private final String lastName;
+
+    private final Role role;
+
+    private final Instant expiresAt;
+
+    // Claim jti, absent des tokens émis avant la mise en place de la révocation
+    private final UUID tokenId;
+
+    private final Instant issuedAt;
+
+    private final List<GrantedAuthority> authorities;
+
+    // Constructeurs
+    public JwtPrincipal(UUID userId, String email, String firstName, String lastName, Role role, Instant expiresAt,
+                        UUID tokenId, Instant issuedAt) {
+        this.userId = userId;
+        this.email = email;
+        this.firstName = firstName;
+        this.lastName = lastName;
+        this.role = role;
+        this.expiresAt = expiresAt;
+        this.tokenId = tokenId;
+        this.issuedAt = issuedAt;
+        this.authorities = List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+    }
+
+    public static JwtPrincipal fromClaims(Claims claims) {
+        return new JwtPrincipal(
+                UUID.fromString(claims.get("id", String.class)),
+                claims.get("email", String.class),
+                claims.get("firstName", String.class),
+                claims.get("lastName", String.class),
+                Role.valueOf(claims.get("role", String.class)),
+                claims.getExpiration().toInstant(),
+                claims.getId() == null ? null : UUID.fromString(claims.getId()),
+                claims.getIssuedAt().toInstant());
+    }
+
+    /**
+     * Identifiant de l'utilisateur, attendu par l'auditeur JPA
+     */
+    @Override
+    public String getName() {
+        return userId.toString();
+    }
+
+    // Getters
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public Role getRole() {
+        return role;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public UUID getTokenId() {
+        return tokenId;
+    }
+
+    public Instant getIssuedAt() {
+        return issuedAt;
+    }
+
+    public List<GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+}
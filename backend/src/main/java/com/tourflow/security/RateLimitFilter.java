@@ -0,0 +1,212 @@
+package com.tourflow.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tourflow.util.TokenBucket;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limitation de débit et délestage des requêtes /api/**. Chaque route configurée a un seau à jetons par client
+ * (clé d'API émise, sinon utilisateur authentifié, sinon adresse IP), et par chemin si la route le demande ; au-delà du plafond global de requêtes en
+ * cours, les requêtes sont rejetées immédiatement pour ne pas saturer les threads Tomcat ni le pool de connexions.
+ * L'adresse IP est celle résolue par Tomcat à partir de X-Forwarded-For en ne remontant que les proxys de
+ * confiance (server.tomcat.remoteip.internal-proxies) : un en-tête forgé par le client est ignoré.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String API_KEY_HEADER = "X-API-Key";
+
+    private final RateLimitProperties properties;
+    private final List<LimitedRoute> routes = new ArrayList<>();
+    private final Cache<String, TokenBucket> buckets;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter shedUnmatched;
+
+    public RateLimitFilter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        for (Map.Entry<String, RateLimitProperties.Route> entry : properties.getRoutes().entrySet()) {
+            routes.add(new LimitedRoute(entry.getKey(), entry.getValue(), meterRegistry));
+        }
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxTrackedClients())
+                .expireAfterAccess(Duration.ofMinutes(10))
+                .build();
+        this.shedUnmatched = counter(meterRegistry, "other", "shed");
+        Gauge.builder("http.server.requests.in_flight", inFlight, AtomicInteger::get)
+                .description("Requêtes /api/** en cours de traitement")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        LimitedRoute route = match(request);
+
+        if (inFlight.incrementAndGet() > properties.getMaxInFlight()) {
+            inFlight.decrementAndGet();
+            (route != null ? route.shed : shedUnmatched).increment();
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, properties.getShedRetryAfterSeconds(),
+                    "Service surchargé, réessayez plus tard");
+            return;
+        }
+
+        try {
+            if (route == null) {
+                filterChain.doFilter(request, response);
+                return;
+            }
+
+            String bucketKey = route.name + '|' + (route.perPath ? request.getRequestURI() + '|' : "") + clientKey(request);
+            long waitNanos = buckets.get(bucketKey, key -> route.newBucket())
+                    .tryAcquire(System.nanoTime());
+            if (waitNanos > 0) {
+                route.throttled.increment();
+                reject(response, HttpStatus.TOO_MANY_REQUESTS,
+                        Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999L)),
+                        "Trop de requêtes, réessayez plus tard");
+                return;
+            }
+
+            if (route.maxConcurrent != null && route.active.incrementAndGet() > route.maxConcurrent) {
+                route.active.decrementAndGet();
+                route.shed.increment();
+                reject(response, HttpStatus.SERVICE_UNAVAILABLE, properties.getShedRetryAfterSeconds(),
+                        "Service surchargé, réessayez plus tard");
+                return;
+            }
+
+            try {
+                route.allowed.increment();
+                filterChain.doFilter(request, response);
+            } finally {
+                if (route.maxConcurrent != null) {
+                    route.active.decrementAndGet();
+                }
+            }
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    private LimitedRoute match(HttpServletRequest request) {
+        PathContainer path = PathContainer.parsePath(request.getRequestURI());
+        for (LimitedRoute route : routes) {
+            if ((route.method == null || route.method.equalsIgnoreCase(request.getMethod()))
+                    && route.pattern.matches(path)) {
+                return route;
+            }
+        }
+        return null;
+    }
+
+    private String clientKey(HttpServletRequest request) {
+        String apiKey = request.getHeader(API_KEY_HEADER);
+        if (apiKey != null && !apiKey.isBlank()) {
+            String apiKeyHash = sha256(apiKey);
+            if (properties.getApiKeyHashes().contains(apiKeyHash)) {
+                return "key:" + apiKeyHash;
+            }
+        }
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof JwtPrincipal principal) {
+            return "user:" + principal.getUserId();
+        }
+
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, long retryAfterSeconds, String message)
+            throws IOException {
+        response.setStatus(status.value());
+        response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+        response.setContentType("application/json");
+        response.getWriter().write("{\"error\":\"" + message + "\"}");
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String route, String outcome) {
+        return Counter.builder("http.ratelimit.requests")
+                .description("Requêtes soumises à la limitation de débit, par route et par issue")
+                .tag("route", route)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static final class LimitedRoute {
+
+        private final String name;
+        private final PathPattern pattern;
+        private final String method;
+        private final double permitsPerSecond;
+        private final int burst;
+        private final Integer maxConcurrent;
+        private final boolean perPath;
+        private final AtomicInteger active = new AtomicInteger();
+        private final Counter allowed;
+        private final Counter throttled;
+        private final Counter shed;
+
+        private LimitedRoute(String name, RateLimitProperties.Route route, MeterRegistry meterRegistry) {
+            this.name = name;
+            this.pattern = PathPatternParser.defaultInstance.parse(route.getPattern());
+            this.method = route.getMethod();
+            this.permitsPerSecond = route.getPermitsPerSecond();
+            this.burst = route.getBurst();
+            this.maxConcurrent = route.getMaxConcurrent();
+            this.perPath = route.isPerPath();
+            this.allowed = counter(meterRegistry, name, "allowed");
+            this.throttled = counter(meterRegistry, name, "throttled");
+            this.shed = counter(meterRegistry, name, "shed");
+            if (maxConcurrent != null) {
+                Gauge.builder("http.ratelimit.in_flight", active, AtomicInteger::get)
+                        .description("Requêtes en cours sur la route")
+                        .tag("route", name)
+                        .register(meterRegistry);
+            }
+        }
+
+        private TokenBucket newBucket() {
+            return new TokenBucket(permitsPerSecond, burst, System.nanoTime());
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.tourflow.security;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Limites de débit par route (rate-limit.routes[login].pattern=/api/auth/login) et plafond global de requêtes
+ * simultanées. Les routes sont évaluées dans l'ordre de déclaration, la première qui correspond s'applique.
+ */
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    // Au-delà, les requêtes /api/** sont rejetées en 503 plutôt que mises en attente des threads Tomcat
+    private int maxInFlight = 150;
+
+    private int shedRetryAfterSeconds = 1;
+
+    // Empreintes SHA-256 (hexadécimal) des clés d'API émises ; une clé inconnue n'ouvre pas de seau dédié
+    private Set<String> apiKeyHashes = new HashSet<>();
+
+    // Seaux gardés en mémoire (un par route et par client), les moins récemment utilisés sont évincés
+    private long maxTrackedClients = 100_000;
+
+    private Map<String, Route> routes = new LinkedHashMap<>();
+
+    // Getters et Setters
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public void setMaxInFlight(int maxInFlight) {
+        this.maxInFlight = maxInFlight;
+    }
+
+    public int getShedRetryAfterSeconds() {
+        return shedRetryAfterSeconds;
+    }
+
+    public void setShedRetryAfterSeconds(int shedRetryAfterSeconds) {
+        this.shedRetryAfterSeconds = shedRetryAfterSeconds;
+    }
+
+    public Set<String> getApiKeyHashes() {
+        return apiKeyHashes;
+    }
+
+    public void setApiKeyHashes(Set<String> apiKeyHashes) {
+        this.apiKeyHashes = apiKeyHashes;
+    }
+
+    public long getMaxTrackedClients() {
+        return maxTrackedClients;
+    }
+
+    public void setMaxTrackedClients(long maxTrackedClients) {
+        this.maxTrackedClients = maxTrackedClients;
+    }
+
+    public Map<String, Route> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(Map<String, Route> routes) {
+        this.routes = routes;
+    }
+
+    public static class Route {
+
+        // Motif de chemin Spring (/api/availability/slots/**)
+        private String pattern;
+
+        // Méthode HTTP visée ; toutes si absente
+        private String method;
+
+        private double permitsPerSecond = 10;
+
+        // Requêtes acceptées d'affilée avant que le débit ne s'applique
+        private int burst = 20;
+
+        // Requêtes simultanées sur la route, tous clients confondus ; sans limite si absent
+        private Integer maxConcurrent;
+
+        // Un seau par chemin et par client (ex. un flux iCal par guide derrière l'adresse partagée d'un agrégateur)
+        private boolean perPath = false;
+
+        // Getters et Setters
+        public String getPattern() {
+            return pattern;
+        }
+
+        public void setPattern(String pattern) {
+            this.pattern = pattern;
+        }
+
+        public String getMethod() {
+            return method;
+        }
+
+        public void setMethod(String method) {
+            this.method = method;
+        }
+
+        public double getPermitsPerSecond() {
+            return permitsPerSecond;
+        }
+
+        public void setPermitsPerSecond(double permitsPerSecond) {
+            this.permitsPerSecond = permitsPerSecond;
+        }
+
+        public int getBurst() {
+            return burst;
+        }
+
+        public void setBurst(int burst) {
+            this.burst = burst;
+        }
+
+        public Integer getMaxConcurrent() {
+            return maxConcurrent;
+        }
+
+        public void setMaxConcurrent(Integer maxConcurrent) {
+            this.maxConcurrent = maxConcurrent;
+        }
+
+        public boolean isPerPath() {
+            return perPath;
+        }
+
+        public void setPerPath(boolean perPath) {
+            this.perPath = perPath;
+        }
+    }
+}
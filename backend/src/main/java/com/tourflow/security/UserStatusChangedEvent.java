@@ -0,0 +1,28 @@
+package com.tourflow.security;
+
+import java.util.UUID;
+
+/**
+ * Publié lorsqu'un compte est désactivé ou réactivé
+ */
+public final class UserStatusChangedEvent {
+
+    private final UUID userId;
+
+    private final boolean active;
+
+    // Constructeurs
+    public UserStatusChangedEvent(UUID userId, boolean active) {
+        this.userId = userId;
+        this.active = active;
+    }
+
+    // Getters
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+}
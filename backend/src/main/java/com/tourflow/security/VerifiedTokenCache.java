@@ -0,0 +1,157 @@
+package com.tourflow.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.tourflow.cache.ClusterInvalidationBus;
+import com.tourflow.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Cache borné empreinte du token → principal vérifié. Une entrée vit jusqu'à l'expiration du token ;
+ * la signature n'est donc vérifiée qu'une fois par token et par instance. Les comptes désactivés sont
+ * gardés en mémoire pour refuser leurs tokens sans requête en base ; un changement de statut est diffusé
+ * aux autres instances et la liste est relue périodiquement.
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(VerifiedTokenCache.class);
+
+    // Sujet de diffusion : le message porte "userId:active"
+    private static final String STATUS_TOPIC = "userStatus";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ClusterInvalidationBus clusterInvalidationBus;
+
+    @Value("${jwt.principal-cache.maximum-size:10000}")
+    private long maximumSize;
+
+    private final Set<UUID> disabledUsers = ConcurrentHashMap.newKeySet();
+
+    private Cache<String, JwtPrincipal> principals;
+
+    @PostConstruct
+    public void init() {
+        principals = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<String, JwtPrincipal>() {
+                    @Override
+                    public long expireAfterCreate(String key, JwtPrincipal principal, long currentTime) {
+                        return Math.max(0, Duration.between(Instant.now(), principal.getExpiresAt()).toNanos());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, JwtPrincipal principal, long currentTime,
+                                                  long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, JwtPrincipal principal, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, principals, "jwtPrincipals");
+        clusterInvalidationBus.subscribe(STATUS_TOPIC, payload -> {
+            String[] parts = payload.split(":");
+            applyStatus(UUID.fromString(parts[0]), Boolean.parseBoolean(parts[1]));
+        });
+    }
+
+    /**
+     * Chargement au démarrage, puis périodiquement pour rattraper une diffusion perdue
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${jwt.disabled-users.reload-cron:0 */5 * * * *}")
+    public void loadDisabledUsers() {
+        Set<UUID> inactive = new HashSet<>(userRepository.findInactiveUserIds());
+        // get() refuse déjà les comptes désactivés : seuls ceux dont la désactivation a été manquée sont évincés
+        List<UUID> missed = inactive.stream().filter(userId -> !disabledUsers.contains(userId)).toList();
+        disabledUsers.addAll(inactive);
+        disabledUsers.retainAll(inactive);
+        missed.forEach(this::evictUser);
+        logger.debug("{} comptes désactivés chargés pour le contrôle des tokens", disabledUsers.size());
+    }
+
+    /**
+     * Principal du token, vérifié par le loader au premier passage ; null si le token est invalide
+     * ou si le compte est désactivé
+     */
+    public JwtPrincipal get(String token, Function<String, JwtPrincipal> loader) {
+        JwtPrincipal principal = principals.get(fingerprint(token), key -> loader.apply(token));
+        if (principal == null || disabledUsers.contains(principal.getUserId())) {
+            return null;
+        }
+        return principal;
+    }
+
+    /**
+     * Appliqué après validation du changement de statut, puis diffusé aux autres instances
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onUserStatusChanged(UserStatusChangedEvent event) {
+        applyStatus(event.getUserId(), event.isActive());
+        clusterInvalidationBus.publish(STATUS_TOPIC, event.getUserId() + ":" + event.isActive());
+    }
+
+    private void applyStatus(UUID userId, boolean active) {
+        if (active) {
+            disabledUsers.remove(userId);
+        } else {
+            disabledUsers.add(userId);
+            evictUser(userId);
+        }
+    }
+
+    public void evictUser(UUID userId) {
+        principals.asMap().values().removeIf(principal -> principal.getUserId().equals(userId));
+    }
+
+    public long size() {
+        return principals.estimatedSize();
+    }
+
+    // Le token lui-même n'est pas conservé en mémoire, seulement son empreinte
+    private static String fingerprint(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+}
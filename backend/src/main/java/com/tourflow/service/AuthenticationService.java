@@ -2,18 +2,21 @@ package com.tourflow.service;
 
 import com.tourflow.model.User;
 import com.tourflow.repository.UserRepository;
+import com.tourflow.security.JwtPrincipal;
+import com.tourflow.security.UserStatusChangedEvent;
+import com.tourflow.security.VerifiedTokenCache;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.security.Key;
 import java.time.LocalDateTime;
@@ -26,20 +29,39 @@ import java.util.UUID;
 public class AuthenticationService {
 
     @Autowired
-    private AuthenticationManager authenticationManager;
+    private UserRepository userRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private PasswordHashingService passwordHashingService;
 
     @Autowired
-    private PasswordEncoder passwordEncoder;
+    private UserActivityService userActivityService;
 
     @Value("${jwt.secret}")
     private String jwtSecret;
 
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Value("${jwt.expiration}")
     private long jwtExpiration;
 
+    // Clé et parseur immuables et thread-safe : construits une seule fois
+    private Key signingKey;
+    private JwtParser jwtParser;
+
+    @PostConstruct
+    public void initSigningKey() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        jwtParser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+    }
+
     public User register(String email, String password, String firstName, String lastName) {
         // Vérifier si l'utilisateur existe déjà
         if (userRepository.existsByEmail(email)) {
@@ -49,7 +71,7 @@ public class AuthenticationService {
         // Créer le nouvel utilisateur
         User user = new User();
         user.setEmail(email);
-        user.setPassword(passwordEncoder.encode(password));
+        user.setPassword(passwordHashingService.hash(password));
         user.setFirstName(firstName);
         user.setLastName(lastName);
 
@@ -57,15 +79,24 @@ public class AuthenticationService {
         return userRepository.save(user);
     }
 
-    public String login(String email, String password) {
-        // Authentifier l'utilisateur
-        Authentication authentication = authenticationManager.authenticate(
-            new UsernamePasswordAuthenticationToken(email, password)
-        );
+    /**
+     * Vérifie les identifiants et renvoie le token émis avec l'identifiant de l'utilisateur
+     */
+    public LoginResult login(String email, String password) {
+        // Vérification BCrypt sur le pool dédié ; un email inconnu coûte autant qu'un mauvais mot de passe
+        User user = userRepository.findByEmailAndActiveTrue(email).orElse(null);
+        if (!passwordHashingService.matches(password, user == null ? null : user.getPassword())) {
+            throw new BadCredentialsException("Identifiants invalides");
+        }
+
+        // Hachage recalculé au coût courant
+        if (passwordHashingService.needsRehash(user.getPassword())) {
+            user.setPassword(passwordHashingService.hash(password));
+            userRepository.save(user);
+        }
 
         // Générer le token JWT
-        User user = (User) authentication.getPrincipal();
-        return generateToken(user);
+        return new LoginResult(generateToken(user), user.getId());
     }
 
     public String generateToken(User user) {
@@ -76,54 +107,115 @@ public class AuthenticationService {
         claims.put("lastName", user.getLastName());
         claims.put("role", user.getRole().name());
 
-        // Mettre à jour la date de dernière connexion
-        user.setLastLogin(LocalDateTime.now());
-        userRepository.save(user);
+        // Date de dernière connexion écrite en différé, par lots
+        LocalDateTime now = LocalDateTime.now();
+        user.setLastLogin(now);
+        userActivityService.recordLogin(user.getId(), now);
 
         return createToken(claims, user.getEmail());
     }
 
     private String createToken(Map<String, Object> claims, String subject) {
-        Key key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
-
         return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(subject)
+                .setId(UUID.randomUUID().toString())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + jwtExpiration))
-                .signWith(key, SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    public boolean validateToken(String token) {
-        try {
-            Key key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
-            Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token);
-            return true;
-        } catch (Exception e) {
-            return false;
+    /**
+     * Authentification d'une requête : une seule vérification de signature par token, aucune requête en base.
+     * Retourne null si le token est invalide, expiré, révoqué ou si le compte a été désactivé.
+     */
+    public JwtPrincipal authenticate(String token) {
+        JwtPrincipal principal = verifiedTokenCache.get(token, this::parsePrincipal);
+        if (principal == null || tokenRevocationService.isRevoked(principal)) {
+            return null;
+        }
+        return principal;
+    }
+
+    /**
+     * Révoque un token avant son expiration ; il est refusé par toutes les instances au plus tard
+     * après leur prochain relevé des révocations
+     */
+    public void revokeToken(String token) {
+        JwtPrincipal principal = parsePrincipal(token);
+        if (principal == null) {
+            throw new RuntimeException("Token invalide ou expiré");
+        }
+        if (principal.getTokenId() == null) {
+            throw new RuntimeException("Token émis sans identifiant : révoquer les tokens de l'utilisateur");
         }
+        tokenRevocationService.revokeToken(principal.getTokenId(), principal.getUserId(), principal.getExpiresAt());
+    }
+
+    public void revokeUserTokens(UUID userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new RuntimeException("Utilisateur non trouvé");
+        }
+        tokenRevocationService.revokeUserTokens(userId);
+    }
+
+    public boolean validateToken(String token) {
+        return authenticate(token) != null;
     }
 
     public User getUserFromToken(String token) {
-        try {
-            Key key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
-            Claims claims = Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+        JwtPrincipal principal = authenticate(token);
+        return principal == null ? null : userRepository.findById(principal.getUserId()).orElse(null);
+    }
+
+    public boolean isTokenExpired(String token) {
+        return parseClaims(token) == null;
+    }
+
+    /**
+     * Désactive ou réactive un compte ; les tokens déjà émis sont refusés dès la désactivation
+     */
+    @Transactional
+    public void setUserActive(UUID userId, boolean active) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new RuntimeException("Utilisateur non trouvé"));
+        user.setActive(active);
+        userRepository.save(user);
+        eventPublisher.publishEvent(new UserStatusChangedEvent(userId, active));
+    }
 
-            String userId = claims.get("id", String.class);
-            return userRepository.findById(UUID.fromString(userId)).orElse(null);
+    private JwtPrincipal parsePrincipal(String token) {
+        try {
+            return JwtPrincipal.fromClaims(jwtParser.parseClaimsJws(token).getBody());
         } catch (Exception e) {
             return null;
         }
     }
 
-    public boolean isTokenExpired(String token) {
+    private Claims parseClaims(String token) {
         try {
-            Key key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
-            Claims claims = Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
-            return claims.getExpiration().before(new Date());
+            return jwtParser.parseClaimsJws(token).getBody();
         } catch (Exception e) {
-            return true;
+            return null;
+        }
+    }
+
+    public static class LoginResult {
+        private final String token;
+        private final UUID userId;
+
+        public LoginResult(String token, UUID userId) {
+            this.token = token;
+            this.userId = userId;
+        }
+
+        public String getToken() {
+            return token;
+        }
+
+        public UUID getUserId() {
+            return userId;
         }
     }
 }
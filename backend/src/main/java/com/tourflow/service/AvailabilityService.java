@@ -6,7 +6,6 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.DayOfWeek;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.ArrayList;
@@ -28,8 +27,16 @@ public class AvailabilityService {
     @Autowired
     private TourRepository tourRepository;
 
+    @Autowired
+    private ExternalBusyBlockService externalBusyBlockService;
+
+    @Autowired
+    private FreeCapacityService freeCapacityService;
+
     public AvailabilityRule createAvailabilityRule(AvailabilityRule availabilityRule) {
-        return availabilityRuleRepository.save(availabilityRule);
+        AvailabilityRule savedRule = availabilityRuleRepository.save(availabilityRule);
+        availabilityChanged(savedRule.getTour().getId());
+        return savedRule;
     }
 
     public AvailabilityRule updateAvailabilityRule(UUID ruleId, AvailabilityRule ruleDetails) {
@@ -42,7 +49,9 @@ public class AvailabilityService {
         rule.setMaxCapacity(ruleDetails.getMaxCapacity());
         rule.setActive(ruleDetails.isActive());
 
-        return availabilityRuleRepository.save(rule);
+        AvailabilityRule savedRule = availabilityRuleRepository.save(rule);
+        availabilityChanged(savedRule.getTour().getId());
+        return savedRule;
     }
 
     public void deleteAvailabilityRule(UUID ruleId) {
@@ -51,6 +60,7 @@ public class AvailabilityService {
 
         rule.setActive(false);
         availabilityRuleRepository.save(rule);
+        availabilityChanged(rule.getTour().getId());
     }
 
     public List<AvailabilityRule> getAvailabilityRulesByTour(UUID tourId) {
@@ -58,7 +68,9 @@ public class AvailabilityService {
     }
 
     public AvailabilityException createAvailabilityException(AvailabilityException availabilityException) {
-        return availabilityExceptionRepository.save(availabilityException);
+        AvailabilityException savedException = availabilityExceptionRepository.save(availabilityException);
+        availabilityChanged(savedException.getTour().getId());
+        return savedException;
     }
 
     public AvailabilityException updateAvailabilityException(UUID exceptionId, AvailabilityException exceptionDetails) {
@@ -69,17 +81,29 @@ public class AvailabilityService {
         exception.setEndDate(exceptionDetails.getEndDate());
         exception.setReason(exceptionDetails.getReason());
 
-        return availabilityExceptionRepository.save(exception);
+        AvailabilityException savedException = availabilityExceptionRepository.save(exception);
+        availabilityChanged(savedException.getTour().getId());
+        return savedException;
     }
 
     public void deleteAvailabilityException(UUID exceptionId) {
-        availabilityExceptionRepository.deleteById(exceptionId);
+        AvailabilityException exception = availabilityExceptionRepository.findById(exceptionId)
+                .orElseThrow(() -> new RuntimeException("Exception de disponibilité non trouvée avec l'ID : " + exceptionId));
+
+        availabilityExceptionRepository.delete(exception);
+        availabilityChanged(exception.getTour().getId());
     }
 
     public List<AvailabilityException> getAvailabilityExceptionsByTour(UUID tourId) {
         return availabilityExceptionRepository.findByTourId(tourId);
     }
 
+    private void availabilityChanged(UUID tourId) {
+        // Seuls les créneaux publiés du tour changent : nouvel ETag des créneaux, catalogue et détail inchangés
+        tourRepository.touchAvailability(tourId, LocalDateTime.now());
+        freeCapacityService.refreshTour(tourId);
+    }
+
     @Transactional
     public List<LocalDateTime> getAvailableSlots(UUID tourId, LocalDateTime startDate, LocalDateTime endDate) {
         Tour tour = tourRepository.findById(tourId)
@@ -93,12 +117,13 @@ public class AvailabilityService {
                 List.of(BookingStatus.CONFIRMED, BookingStatus.PENDING)
         );
 
+        UUID guideId = tour.getGuide().getId();
         List<LocalDateTime> availableSlots = new ArrayList<>();
 
         // Pour chaque jour dans la période demandée
         LocalDateTime current = startDate;
         while (current.isBefore(endDate)) {
-            DayOfWeek dayOfWeek = DayOfWeek.of(current.getDayOfWeek().getValue());
+            com.tourflow.model.DayOfWeek dayOfWeek = com.tourflow.model.DayOfWeek.valueOf(current.getDayOfWeek().name());
 
             // Pour chaque règle de disponibilité
             for (AvailabilityRule rule : rules) {
@@ -122,7 +147,8 @@ public class AvailabilityService {
                                     boolean hasBooking = bookings.stream()
                                             .anyMatch(b -> !(b.getEndDate().isBefore(slotStart) || b.getStartDate().isAfter(slotEnd)));
 
-                                    if (!hasBooking) {
+                                    // Vérifier que le guide n'est pas occupé dans un calendrier externe
+                                    if (!hasBooking && !externalBusyBlockService.isBusy(guideId, slotStart, slotEnd)) {
                                         availableSlots.add(slotStart);
                                     }
                                 }
@@ -0,0 +1,103 @@
+package com.tourflow.service;
+
+import com.tourflow.dto.BookingChange;
+import com.tourflow.dto.BookingChangeFeed;
+import com.tourflow.exception.BusinessException;
+import com.tourflow.exception.ResourceNotFoundException;
+import com.tourflow.repository.BookingChangeSequence;
+import com.tourflow.repository.BookingRepository;
+import com.tourflow.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Flux de modifications des réservations d'un guide pour les partenaires (channel managers).
+ * Le premier appel, sans jeton, renvoie toutes les réservations ; les suivants uniquement celles créées,
+ * modifiées ou annulées depuis le jeton fourni. Le jeton est opaque : il encode le guide et la dernière
+ * position transmise, soit la transaction qui a écrit la modification (bookings.change_xid) puis son numéro
+ * (bookings.change_seq). Seules les transactions terminées sont lues : une transaction plus lente ne peut
+ * plus valider une modification de position inférieure à un jeton déjà remis.
+ */
+@Service
+public class BookingChangeFeedService {
+
+    private static final String TOKEN_VERSION = "v2";
+
+    // Jetons remis avant la position par transaction : numéro seul, repris avec les modifications antérieures
+    private static final String LEGACY_TOKEN_VERSION = "v1";
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private BookingChangeSequence bookingChangeSequence;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${calendar.changes.max-page-size:500}")
+    private int maxPageSize;
+
+    @Transactional(readOnly = true)
+    public BookingChangeFeed getChanges(UUID guideId, String syncToken, int pageSize) {
+        if (!userRepository.existsById(guideId)) {
+            throw new ResourceNotFoundException("Guide", "id", guideId);
+        }
+
+        long[] since = syncToken == null || syncToken.isBlank() ? new long[] {0L, 0L} : decodeToken(syncToken, guideId);
+        int limit = Math.max(1, Math.min(pageSize, maxPageSize));
+
+        // Une ligne de plus pour savoir s'il reste des modifications sans requête supplémentaire
+        List<BookingChange> changes = bookingRepository.findChangesByGuide(guideId, since[0], since[1],
+                bookingChangeSequence.visibleBefore(), PageRequest.of(0, limit + 1));
+
+        boolean hasMore = changes.size() > limit;
+        if (hasMore) {
+            changes = changes.subList(0, limit);
+        }
+
+        if (changes.isEmpty()) {
+            return new BookingChangeFeed(changes, encodeToken(guideId, since[0], since[1]), false);
+        }
+        BookingChange last = changes.get(changes.size() - 1);
+        return new BookingChangeFeed(changes, encodeToken(guideId, last.getChangeXid(), last.getChangeSeq()), hasMore);
+    }
+
+    static String encodeToken(UUID guideId, long changeXid, long changeSeq) {
+        String raw = TOKEN_VERSION + ":" + guideId + ":" + changeXid + ":" + changeSeq;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Position (transaction, numéro) encodée dans le jeton
+     */
+    static long[] decodeToken(String syncToken, UUID guideId) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(syncToken), StandardCharsets.UTF_8).split(":");
+            if (parts.length == 4 && parts[0].equals(TOKEN_VERSION) && UUID.fromString(parts[1]).equals(guideId)) {
+                long changeXid = Long.parseLong(parts[2]);
+                long changeSeq = Long.parseLong(parts[3]);
+                if (changeXid >= 0 && changeSeq >= 0) {
+                    return new long[] {changeXid, changeSeq};
+                }
+            }
+            if (parts.length == 3 && parts[0].equals(LEGACY_TOKEN_VERSION) && UUID.fromString(parts[1]).equals(guideId)) {
+                long changeSeq = Long.parseLong(parts[2]);
+                if (changeSeq >= 0) {
+                    return new long[] {0L, changeSeq};
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            // Traité comme un jeton invalide ci-dessous
+        }
+        throw new BusinessException("Jeton de synchronisation invalide");
+    }
+}
@@ -27,6 +27,9 @@ public class BookingService {
     @Autowired
     private EmailService emailService;
 
+    @Autowired
+    private CalendarFeedService calendarFeedService;
+
     @Transactional
     public Booking createBooking(UUID tourId, LocalDateTime startDate, int participants, 
                                String customerName, String customerEmail, String customerPhone) {
@@ -81,6 +84,9 @@ public class BookingService {
         // Sauvegarder la réservation
         booking = bookingRepository.save(booking);
 
+        // Le flux iCal du guide change
+        calendarFeedService.bumpVersion(booking.getTour().getGuide().getId());
+
         // Envoyer un email de confirmation
         emailService.sendBookingConfirmedConfirmation(booking);
 
@@ -96,6 +102,8 @@ public class BookingService {
             throw new RuntimeException("Impossible d'annuler une réservation déjà annulée ou expirée");
         }
 
+        boolean wasConfirmed = booking.getStatus() == BookingStatus.CONFIRMED;
+
         // Mettre à jour le statut
         booking.setStatus(BookingStatus.CANCELLED);
         booking.setCancelledAt(LocalDateTime.now());
@@ -109,6 +117,11 @@ public class BookingService {
         // Sauvegarder la réservation
         booking = bookingRepository.save(booking);
 
+        // Seules les réservations confirmées figurent dans le flux iCal du guide
+        if (wasConfirmed) {
+            calendarFeedService.bumpVersion(booking.getTour().getGuide().getId());
+        }
+
         // Envoyer un email d'annulation
         emailService.sendBookingCancelledConfirmation(booking);
 
@@ -1,5 +1,6 @@
 package com.tourflow.service;
 
+import com.tourflow.dto.BookingSnapshot;
 import com.tourflow.model.*;
 import com.tourflow.repository.BookingRepository;
 import com.tourflow.repository.TourRepository;
@@ -29,6 +30,9 @@ public class BookingServiceCached {
     @Autowired
     private EmailService emailService;
 
+    @Autowired
+    private CalendarFeedService calendarFeedService;
+
     @Transactional
     @CacheEvict(value = {"tourBookings", "customerBookings"}, allEntries = true)
     public Booking createBooking(UUID tourId, LocalDateTime startDate, int participants,
@@ -85,6 +89,9 @@ public class BookingServiceCached {
         // Sauvegarder la réservation
         booking = bookingRepository.save(booking);
 
+        // Le flux iCal du guide change
+        calendarFeedService.bumpVersion(booking.getTour().getGuide().getId());
+
         // Envoyer un email de confirmation
         emailService.sendBookingConfirmedConfirmation(booking);
 
@@ -101,6 +108,8 @@ public class BookingServiceCached {
             throw new RuntimeException("Impossible d'annuler une réservation déjà annulée ou expirée");
         }
 
+        boolean wasConfirmed = booking.getStatus() == BookingStatus.CONFIRMED;
+
         // Mettre à jour le statut
         booking.setStatus(BookingStatus.CANCELLED);
         booking.setCancelledAt(LocalDateTime.now());
@@ -114,29 +123,39 @@ public class BookingServiceCached {
         // Sauvegarder la réservation
         booking = bookingRepository.save(booking);
 
+        // Seules les réservations confirmées figurent dans le flux iCal du guide
+        if (wasConfirmed) {
+            calendarFeedService.bumpVersion(booking.getTour().getGuide().getId());
+        }
+
         // Envoyer un email d'annulation
         emailService.sendBookingCancelledConfirmation(booking);
 
         return booking;
     }
 
+    // Lectures mises en cache sous forme de copies immuables, construites dans la transaction de chargement
     @Cacheable(value = "bookings", key = "#bookingId")
-    public Booking getBookingById(UUID bookingId) {
+    @Transactional(readOnly = true)
+    public BookingSnapshot getBookingById(UUID bookingId) {
         return bookingRepository.findById(bookingId)
+                .map(BookingSnapshot::of)
                 .orElseThrow(() -> new RuntimeException("Réservation non trouvée avec l'ID : " + bookingId));
     }
 
     @Cacheable(value = "tourBookings", key = "#tourId")
-    public List<Booking> getBookingsByTour(UUID tourId) {
+    @Transactional(readOnly = true)
+    public List<BookingSnapshot> getBookingsByTour(UUID tourId) {
         Tour tour = tourRepository.findById(tourId)
                 .orElseThrow(() -> new RuntimeException("Tour non trouvé avec l'ID : " + tourId));
 
-        return bookingRepository.findByTour(tour);
+        return toSnapshots(bookingRepository.findByTour(tour));
     }
 
     @Cacheable(value = "customerBookings", key = "#email")
-    public List<Booking> getBookingsByCustomerEmail(String email) {
-        return bookingRepository.findByCustomerEmail(email);
+    @Transactional(readOnly = true)
+    public List<BookingSnapshot> getBookingsByCustomerEmail(String email) {
+        return toSnapshots(bookingRepository.findByCustomerEmail(email));
     }
 
     // Tâche planifiée pour expirer les réservations en attente
@@ -153,4 +172,8 @@ public class BookingServiceCached {
             emailService.sendBookingExpiredNotification(booking);
         }
     }
+
+    private List<BookingSnapshot> toSnapshots(List<Booking> bookings) {
+        return bookings.stream().map(BookingSnapshot::of).toList();
+    }
 }
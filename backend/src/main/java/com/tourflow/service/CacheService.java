@@ -1,5 +1,6 @@
 package com.tourflow.service;
 
+import com.tourflow.dto.TourSnapshot;
 import com.tourflow.model.Tour;
 import com.tourflow.repository.TourRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,19 +17,19 @@ public class CacheService {
     @Autowired
     private TourRepository tourRepository;
 
-    @Cacheable(value = "tours", key = "#id")
-    public Tour getTourById(UUID id) {
-        return tourRepository.findById(id).orElse(null);
+    @Cacheable(value = "tours", key = "#id", sync = true)
+    public TourSnapshot getTourById(UUID id) {
+        return tourRepository.findById(id).map(TourSnapshot::of).orElse(null);
     }
 
-    @Cacheable(value = "activeTours")
-    public List<Tour> getAllActiveTours() {
-        return tourRepository.findByActiveTrue();
+    @Cacheable(value = "activeTours", sync = true)
+    public List<TourSnapshot> getAllActiveTours() {
+        return toSnapshots(tourRepository.findByActiveTrue());
     }
 
-    @Cacheable(value = "guideTours", key = "#guide.id")
-    public List<Tour> getToursByGuide(com.tourflow.model.User guide) {
-        return tourRepository.findByGuideAndActiveTrue(guide);
+    @Cacheable(value = "guideTours", key = "#guide.id", sync = true)
+    public List<TourSnapshot> getToursByGuide(com.tourflow.model.User guide) {
+        return toSnapshots(tourRepository.findByGuideAndActiveTrue(guide));
     }
 
     @CacheEvict(value = {"tours", "activeTours", "guideTours"}, allEntries = true)
@@ -41,8 +42,17 @@ public class CacheService {
         // Cette méthode supprime du cache le tour spécifié
     }
 
+    @CacheEvict(value = "tours", key = "#tourId")
+    public void evictTourById(UUID tourId) {
+        // Cette méthode supprime du cache le tour d'identifiant donné
+    }
+
     @CacheEvict(value = "guideTours", key = "#guide.id")
     public void evictGuideToursCache(com.tourflow.model.User guide) {
         // Cette méthode supprime du cache les tours du guide spécifié
     }
+
+    private List<TourSnapshot> toSnapshots(List<Tour> tours) {
+        return tours.stream().map(TourSnapshot::of).toList();
+    }
 }
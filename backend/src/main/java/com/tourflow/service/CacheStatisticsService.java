@@ -0,0 +1,77 @@
+package com.tourflow.service;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.tourflow.cache.TwoTierCache;
+import com.tourflow.cache.TwoTierCacheManager;
+import com.tourflow.dto.CacheStatistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Statistiques des caches applicatifs pour l'administration ; les compteurs sont aussi exportés
+ * en continu vers Micrometer (cache.gets, cache.evictions, cache.two_tier.requests)
+ */
+@Service
+public class CacheStatisticsService {
+
+    // Entrées sérialisées pour estimer la taille moyenne d'une valeur
+    static final int MEMORY_SAMPLE_SIZE = 20;
+
+    @Autowired
+    private TwoTierCacheManager cacheManager;
+
+    public List<CacheStatistics> getStatistics() {
+        return cacheManager.getCaches().stream()
+                .sorted(Comparator.comparing(TwoTierCache::getName))
+                .map(this::toStatistics)
+                .toList();
+    }
+
+    private CacheStatistics toStatistics(TwoTierCache cache) {
+        com.github.benmanes.caffeine.cache.Cache<String, Object> localCache = cache.getNativeCache();
+        CacheStats stats = localCache.stats();
+        long entries = localCache.estimatedSize();
+        long l2Hits = cache.getL2HitCount();
+
+        // Un défaut du cache local a pu être servi par Redis
+        long requests = stats.requestCount();
+        double hitRatio = requests == 0 ? 1.0 : (double) (stats.hitCount() + l2Hits) / requests;
+
+        return new CacheStatistics(cache.getName(), entries, cache.getPolicy().getMaximumSize(),
+                cache.getPolicy().getMaximumWeight(), stats.hitCount(), stats.missCount(), stats.hitRate(), l2Hits,
+                cache.getL2ErrorCount(), hitRatio, stats.evictionCount(), estimateBytes(localCache, entries));
+    }
+
+    /**
+     * Taille sérialisée moyenne d'un échantillon de valeurs, multipliée par le nombre d'entrées :
+     * un ordre de grandeur de l'empreinte mémoire, pas une mesure exacte du tas
+     */
+    static long estimateBytes(com.github.benmanes.caffeine.cache.Cache<String, Object> localCache, long entries) {
+        if (entries == 0) {
+            return 0;
+        }
+        long sampledBytes = 0;
+        int sampled = 0;
+        Iterator<Object> values = localCache.asMap().values().iterator();
+        while (values.hasNext() && sampled < MEMORY_SAMPLE_SIZE) {
+            Object value = values.next();
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+                out.writeObject(value);
+            } catch (IOException e) {
+                // Valeur non sérialisable : ignorée dans l'échantillon
+                continue;
+            }
+            sampledBytes += bytes.size();
+            sampled++;
+        }
+        return sampled == 0 ? 0 : sampledBytes / sampled * entries;
+    }
+}
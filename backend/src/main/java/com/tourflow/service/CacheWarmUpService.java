@@ -0,0 +1,191 @@
+package com.tourflow.service;
+
+import com.tourflow.repository.BookingRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Préchargement des caches après le démarrage : catalogue actif et tours les plus réservés, en parallèle sur
+ * un pool borné. Les créneaux ne sont pas préchargés : ils sont calculés à chaque lecture, sans cache. L'instance n'est prête (sonde readiness) qu'à la fin
+ * du préchargement ou à l'expiration de son délai ; les chargements en cours se poursuivent alors en arrière-plan.
+ */
+@Service
+public class CacheWarmUpService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheWarmUpService.class);
+
+    public enum State { PENDING, RUNNING, COMPLETED, TIMED_OUT, DISABLED }
+
+    @Autowired
+    private CacheService cacheService;
+
+    @Autowired
+    private TourService tourService;
+
+    @Autowired
+    private TourCatalogService tourCatalogService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${warmup.threads:4}")
+    private int threads;
+
+    @Value("${warmup.timeout-seconds:60}")
+    private long timeoutSeconds;
+
+    @Value("${warmup.top-tours:50}")
+    private int topTours;
+
+    @Value("${warmup.booking-window-days:30}")
+    private int bookingWindowDays;
+
+    @Value("${warmup.catalog-page-size:20}")
+    private int catalogPageSize;
+
+    private volatile State state = State.PENDING;
+    private volatile Duration duration;
+    private final AtomicInteger failures = new AtomicInteger();
+
+    private ExecutorService executor;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        start();
+    }
+
+    /**
+     * Lance le préchargement sans bloquer l'appelant ; le résultat est suivi par getState()
+     */
+    public CompletableFuture<Void> start() {
+        if (!enabled) {
+            state = State.DISABLED;
+            return CompletableFuture.completedFuture(null);
+        }
+
+        state = State.RUNNING;
+        long startNanos = System.nanoTime();
+        executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "cache-warmup");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        CompletableFuture<Void> all = CompletableFuture.allOf(
+                task("activeTours", () -> cacheService.getAllActiveTours()),
+                task("catalog", () -> tourCatalogService.getPage(null, catalogPageSize)),
+                CompletableFuture.supplyAsync(this::mostBookedTours, executor)
+                        .thenCompose(tourIds -> CompletableFuture.allOf(tourIds.stream()
+                                .map(tourId -> task("tour " + tourId, () -> tourService.getTourById(tourId)))
+                                .toArray(CompletableFuture[]::new))));
+
+        all.whenComplete((result, error) -> executor.shutdown());
+
+        return all.copy()
+                .orTimeout(timeoutSeconds, TimeUnit.SECONDS)
+                .handle((result, error) -> {
+                    finish(startNanos, error instanceof TimeoutException);
+                    return null;
+                });
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    /**
+     * Vrai quand l'instance peut recevoir du trafic : préchargement terminé, expiré ou désactivé
+     */
+    public boolean isFinished() {
+        return state == State.COMPLETED || state == State.TIMED_OUT || state == State.DISABLED;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public int getFailures() {
+        return failures.get();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private List<UUID> mostBookedTours() {
+        try {
+            return bookingRepository.findMostBookedTourIds(LocalDateTime.now().minusDays(bookingWindowDays),
+                    PageRequest.of(0, topTours));
+        } catch (RuntimeException e) {
+            failed("tours les plus réservés", e);
+            return List.of();
+        }
+    }
+
+    // Une étape en échec n'interrompt pas les autres : l'entrée sera chargée à sa première lecture
+    private CompletableFuture<Void> task(String name, Runnable step) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                step.run();
+            } catch (RuntimeException e) {
+                failed(name, e);
+            }
+        }, executor);
+    }
+
+    private void failed(String name, RuntimeException e) {
+        failures.incrementAndGet();
+        logger.warn("Préchargement de {} en échec : {}", name, e.getMessage());
+    }
+
+    private void finish(long startNanos, boolean timedOut) {
+        duration = Duration.ofNanos(System.nanoTime() - startNanos);
+        state = timedOut ? State.TIMED_OUT : State.COMPLETED;
+
+        Timer.builder("cache.warmup.duration")
+                .description("Durée du préchargement des caches au démarrage")
+                .tag("outcome", timedOut ? "timeout" : "completed")
+                .register(meterRegistry)
+                .record(duration);
+        Counter.builder("cache.warmup.failures")
+                .description("Étapes du préchargement en échec")
+                .register(meterRegistry)
+                .increment(failures.get());
+
+        if (timedOut) {
+            logger.warn("Préchargement des caches interrompu après {} s, l'instance accepte le trafic", timeoutSeconds);
+        } else {
+            logger.info("Préchargement des caches terminé en {} ms ({} échecs)", duration.toMillis(), failures.get());
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package com.tourflow.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tourflow.model.GuideBookingVersion;
+import com.tourflow.repository.GuideBookingVersionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Flux iCal des guides, interrogés très souvent par Google, Apple ou Outlook.
+ * Chaque flux est identifié par la version des réservations du guide : tant qu'elle ne change pas,
+ * le client reçoit un 304 et le rendu déjà calculé est réutilisé, sans relire les réservations.
+ * Un seul rendu par guide à la fois ; un flux plus lourd que le budget d'une entrée n'est pas gardé en mémoire
+ * mais écrit directement dans la réponse.
+ */
+@Service
+public class CalendarFeedService {
+
+    private static final ZoneId SYSTEM_ZONE = ZoneId.systemDefault();
+
+    @Autowired
+    private CalendarService calendarService;
+
+    @Autowired
+    private GuideBookingVersionRepository guideBookingVersionRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${calendar.feed.cache.max-bytes:33554432}")
+    private long maxCacheBytes;
+
+    // Au-delà, le flux est rendu directement dans la réponse au lieu d'être mis en cache
+    @Value("${calendar.feed.cache.max-entry-bytes:1048576}")
+    private int maxEntryBytes;
+
+    @Value("${calendar.feed.gzip:true}")
+    private boolean gzipEnabled;
+
+    private Cache<UUID, RenderedFeed> feedCache;
+
+    private Counter notModifiedCounter;
+    private Counter hitCounter;
+    private Counter missCounter;
+    private Counter streamedCounter;
+
+    @PostConstruct
+    public void init() {
+        // Cache borné en octets : chaque flux pèse sa version brute plus sa version compressée
+        feedCache = Caffeine.newBuilder()
+                .maximumWeight(maxCacheBytes)
+                .weigher((UUID guideId, RenderedFeed feed) -> feed.getWeight())
+                .build();
+
+        notModifiedCounter = feedCounter("not_modified");
+        hitCounter = feedCounter("hit");
+        missCounter = feedCounter("miss");
+        streamedCounter = feedCounter("streamed");
+    }
+
+    /**
+     * Version courante des réservations d'un guide (0 si aucune confirmation ni annulation)
+     */
+    @Transactional(readOnly = true)
+    public FeedVersion getVersion(UUID guideId) {
+        return guideBookingVersionRepository.findById(guideId)
+                .map(version -> new FeedVersion(version.getVersion(), version.getUpdatedAt()))
+                .orElse(new FeedVersion(0, null));
+    }
+
+    /**
+     * Incrémente la version des réservations d'un guide ; à appeler dans la transaction qui modifie la réservation
+     */
+    @Transactional
+    public void bumpVersion(UUID guideId) {
+        guideBookingVersionRepository.incrementVersion(guideId, LocalDateTime.now());
+        feedCache.invalidate(guideId);
+    }
+
+    /**
+     * Renvoie le flux rendu pour la version donnée, en le générant s'il n'est pas en cache. Les requêtes
+     * simultanées sur le même guide attendent le même rendu. Un flux trop lourd est renvoyé sans contenu
+     * (isStreamed) : il est alors à écrire avec writeFeed.
+     */
+    public RenderedFeed getFeed(UUID guideId, FeedVersion version) throws IOException {
+        RenderedFeed cached = feedCache.getIfPresent(guideId);
+        if (cached != null && cached.getVersion() == version.getVersion()) {
+            hitCounter.increment();
+            return cached;
+        }
+        if (cached != null && cached.getVersion() < version.getVersion()) {
+            feedCache.asMap().remove(guideId, cached);
+        }
+
+        try {
+            RenderedFeed feed = feedCache.get(guideId, id -> render(id, version.getVersion()));
+            // Rendu plus ancien laissé par une requête concurrente : recalculé une seule fois
+            if (feed.getVersion() < version.getVersion()) {
+                feedCache.asMap().remove(guideId, feed);
+                feed = feedCache.get(guideId, id -> render(id, version.getVersion()));
+            }
+            return feed;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Écrit le flux d'un guide directement dans la réponse, compressé si demandé
+     */
+    public void writeFeed(UUID guideId, OutputStream outputStream, boolean gzip) throws IOException {
+        streamedCounter.increment();
+        if (!gzip) {
+            calendarService.writeICalCalendar(guideId, outputStream);
+            return;
+        }
+        GZIPOutputStream gzipOutput = new GZIPOutputStream(outputStream, 8192);
+        calendarService.writeICalCalendar(guideId, gzipOutput);
+        gzipOutput.finish();
+    }
+
+    /**
+     * Vrai si le flux sera servi compressé pour cet en-tête Accept-Encoding
+     */
+    public boolean acceptsGzip(String acceptEncoding) {
+        return gzipEnabled && acceptEncoding != null && acceptEncoding.contains("gzip");
+    }
+
+    public void recordNotModified() {
+        notModifiedCounter.increment();
+    }
+
+    private Counter feedCounter(String result) {
+        return Counter.builder("calendar.feed.requests")
+                .description("Requêtes sur les flux iCal des guides")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private RenderedFeed render(UUID guideId, long version) {
+        missCounter.increment();
+        BoundedBuffer output = new BoundedBuffer(maxEntryBytes);
+        try {
+            calendarService.writeICalCalendar(guideId, output);
+            byte[] content = output.toByteArray();
+            return new RenderedFeed(version, content, gzipEnabled ? gzip(content) : null);
+        } catch (BudgetExceededException e) {
+            // Seul le constat est gardé en cache, pour ne pas refaire un rendu partiel à chaque requête
+            return new RenderedFeed(version, null, null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private byte[] gzip(byte[] content) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(content.length / 4 + 64);
+        try (GZIPOutputStream gzipOutput = new GZIPOutputStream(output)) {
+            gzipOutput.write(content);
+        }
+        return output.toByteArray();
+    }
+
+    /**
+     * Tampon de rendu qui s'arrête dès que le budget d'une entrée est dépassé
+     */
+    private static final class BoundedBuffer extends ByteArrayOutputStream {
+        private final int maxBytes;
+
+        private BoundedBuffer(int maxBytes) {
+            super(8192);
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public void write(int b) {
+            if (count + 1 > maxBytes) {
+                throw new BudgetExceededException();
+            }
+            super.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            if (count + len > maxBytes) {
+                throw new BudgetExceededException();
+            }
+            super.write(b, off, len);
+        }
+    }
+
+    private static final class BudgetExceededException extends RuntimeException {
+        private BudgetExceededException() {
+            super("Flux iCal plus lourd que le budget d'une entrée du cache", null, false, false);
+        }
+    }
+
+    public static class FeedVersion {
+        private final long version;
+        private final LocalDateTime updatedAt;
+
+        public FeedVersion(long version, LocalDateTime updatedAt) {
+            this.version = version;
+            this.updatedAt = updatedAt;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public String getETag() {
+            return getETag(false);
+        }
+
+        /**
+         * ETag fort propre à chaque encodage : les octets compressés diffèrent de ceux du flux brut
+         */
+        public String getETag(boolean gzip) {
+            return "\"ics-v" + version + (gzip ? "-gz" : "") + "\"";
+        }
+
+        /**
+         * Date de dernière modification en millisecondes, ou -1 si inconnue
+         */
+        public long getLastModified() {
+            return updatedAt == null ? -1 : updatedAt.atZone(SYSTEM_ZONE).toInstant().toEpochMilli();
+        }
+    }
+
+    public static class RenderedFeed {
+        private final long version;
+        private final byte[] content;
+        private final byte[] gzipContent;
+
+        public RenderedFeed(long version, byte[] content, byte[] gzipContent) {
+            this.version = version;
+            this.content = content;
+            this.gzipContent = gzipContent;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public byte[] getContent() {
+            return content;
+        }
+
+        public byte[] getGzipContent() {
+            return gzipContent;
+        }
+
+        /**
+         * Vrai si le flux dépasse le budget d'une entrée et doit être écrit directement dans la réponse
+         */
+        public boolean isStreamed() {
+            return content == null;
+        }
+
+        int getWeight() {
+            return (content != null ? content.length : 0) + (gzipContent != null ? gzipContent.length : 0);
+        }
+    }
+}
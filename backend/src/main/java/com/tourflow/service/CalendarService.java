@@ -1,103 +1,227 @@
 package com.tourflow.service;
 
-import com.tourflow.model.Booking;
+import com.tourflow.dto.BookingCalendarEntry;
+import com.tourflow.exception.ResourceNotFoundException;
 import com.tourflow.model.BookingStatus;
 import com.tourflow.model.ExternalCalendar;
 import com.tourflow.model.User;
 import com.tourflow.repository.BookingRepository;
 import com.tourflow.repository.ExternalCalendarRepository;
-import net.fortuna.ical4j.data.CalendarOutputter;
-import net.fortuna.ical4j.model.*;
-import net.fortuna.ical4j.model.component.VEvent;
+import com.tourflow.repository.UserRepository;
+import com.tourflow.util.IcsWriter;
+import jakarta.annotation.PostConstruct;
+import net.fortuna.ical4j.model.TimeZoneRegistry;
+import net.fortuna.ical4j.model.TimeZoneRegistryFactory;
 import net.fortuna.ical4j.model.component.VTimeZone;
-import net.fortuna.ical4j.model.property.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.IOException;
-import java.io.StringWriter;
-import java.net.URI;
-import java.time.LocalDateTime;
+import java.io.OutputStream;
 import java.time.ZoneId;
-import java.time.ZonedDateTime;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 @Service
 public class CalendarService {
 
+    // Fuseau horaire des réservations
+    static final String CALENDAR_TIMEZONE_ID = "Europe/Paris";
+    // Fuseau des horodatages techniques (createdAt, confirmedAt)
+    private static final ZoneId SYSTEM_ZONE = ZoneId.systemDefault();
+
     @Autowired
     private BookingRepository bookingRepository;
 
     @Autowired
     private ExternalCalendarRepository externalCalendarRepository;
 
-    public String generateICalCalendar(UUID guideId) {
-        // Créer un nouveau calendrier
-        Calendar calendar = new Calendar();
-        calendar.getProperties().add(new ProdId("-//TourFlow//Guides Calendar//EN"));
-        calendar.getProperties().add(Version.VERSION_2_0);
-        calendar.getProperties().add(CalScale.GREGORIAN);
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ExternalCalendarSyncService externalCalendarSyncService;
+
+    @Autowired
+    private ExternalBusyBlockService externalBusyBlockService;
+
+    @Value("${calendar.agency.max-guides:200}")
+    private int agencyMaxGuides;
+
+    // Bloc VTIMEZONE rendu une seule fois au démarrage
+    private List<String> vTimeZoneLines;
 
-        // Définir le fuseau horaire (Europe/Paris)
+    @PostConstruct
+    public void init() {
         TimeZoneRegistry registry = TimeZoneRegistryFactory.getInstance().createRegistry();
-        TimeZone timezone = registry.getTimeZone("Europe/Paris");
-        VTimeZone tz = timezone.getVTimeZone();
-        calendar.getComponents().add(tz);
-
-        // Récupérer toutes les réservations confirmées pour ce guide
-        List<Booking> bookings = bookingRepository.findByTour_Guide_IdAndStatus(
-                guideId, BookingStatus.CONFIRMED
-        );
-
-        // Ajouter chaque réservation comme un événement
-        for (Booking booking : bookings) {
-            // Créer un événement pour la réservation
-            VEvent event = new VEvent();
-
-            // Définir les dates de début et de fin
-            DateTime start = new DateTime(
-                    ZonedDateTime.of(booking.getStartDate(), ZoneId.of("Europe/Paris")).toInstant().toEpochMilli()
-            );
-            DateTime end = new DateTime(
-                    ZonedDateTime.of(booking.getEndDate(), ZoneId.of("Europe/Paris")).toInstant().toEpochMilli()
-            );
-            event.getProperties().add(new DtStart(start));
-            event.getProperties().add(new DtEnd(end));
-
-            // Définir le résumé (titre de l'événement)
-            event.getProperties().add(new Summary(booking.getTour().getTitle()));
-
-            // Définir la description
-            String description = "Tour: " + booking.getTour().getTitle() + "\n" +
-                    "Participants: " + booking.getParticipants() + "\n" +
-                    "Client: " + booking.getCustomerName() + " (" + booking.getCustomerEmail() + ")\n" +
-                    "Prix: " + booking.getTotalPrice() + " €";
-            event.getProperties().add(new Description(description));
-
-            // Définir l'emplacement
-            event.getProperties().add(new Location(booking.getTour().getLocation()));
-
-            // Définir l'UID (identifiant unique)
-            event.getProperties().add(new Uid(booking.getId().toString() + "@tourflow.com"));
-
-            // Marquer comme occupé (TRANSP: OPAQUE)
-            event.getProperties().add(Transp.OPAQUE);
-
-            // Ajouter l'événement au calendrier
-            calendar.getComponents().add(event);
+        VTimeZone vTimeZone = registry.getTimeZone(CALENDAR_TIMEZONE_ID).getVTimeZone();
+        vTimeZoneLines = vTimeZone.toString().lines().filter(line -> !line.isEmpty()).toList();
+    }
+
+    /**
+     * Écrit le calendrier iCal d'un guide directement dans le flux de sortie, réservation par réservation,
+     * sans construire de modèle ical4j ni de chaîne intermédiaire.
+     */
+    @Transactional(readOnly = true)
+    public void writeICalCalendar(UUID guideId, OutputStream outputStream) throws IOException {
+        if (!userRepository.existsById(guideId)) {
+            throw new ResourceNotFoundException("Guide", "id", guideId);
+        }
+
+        IcsWriter writer = new IcsWriter(outputStream);
+        writeHeader(writer);
+
+        // Récupérer toutes les réservations confirmées pour ce guide, en flux
+        try (Stream<BookingCalendarEntry> entries =
+                     bookingRepository.streamCalendarEntriesByGuide(guideId, BookingStatus.CONFIRMED)) {
+            Iterator<BookingCalendarEntry> iterator = entries.iterator();
+            while (iterator.hasNext()) {
+                writeEvent(writer, iterator.next());
+            }
+        }
+
+        writer.line("END:VCALENDAR");
+        writer.flush();
+    }
+
+    /**
+     * Exporte les calendriers de plusieurs guides d'une agence : les réservations sont lues en une seule requête
+     * parcourue en flux, triée par guide, et chaque événement est écrit dès sa lecture. En sortie, soit un
+     * calendrier unique (événements regroupés par guide), soit une archive zip avec un fichier par guide.
+     */
+    @Transactional(readOnly = true)
+    public void writeAgencyCalendar(List<UUID> guideIds, boolean zip, OutputStream outputStream) throws IOException {
+        Set<UUID> ids = new LinkedHashSet<>(guideIds);
+        if (ids.isEmpty()) {
+            throw new RuntimeException("Au moins un guide doit être indiqué");
+        }
+        if (ids.size() > agencyMaxGuides) {
+            throw new RuntimeException("L'export est limité à " + agencyMaxGuides + " guides");
+        }
+
+        Map<UUID, User> guides = userRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        for (UUID id : ids) {
+            if (!guides.containsKey(id)) {
+                throw new ResourceNotFoundException("Guide", "id", id);
+            }
+        }
+
+        try (Stream<BookingCalendarEntry> entries =
+                     bookingRepository.streamCalendarEntriesByGuides(ids, BookingStatus.CONFIRMED)) {
+            if (zip) {
+                writeAgencyZip(ids, entries.iterator(), outputStream);
+            } else {
+                writeAgencyFeed(guides, entries.iterator(), outputStream);
+            }
+        }
+    }
+
+    private void writeAgencyFeed(Map<UUID, User> guides, Iterator<BookingCalendarEntry> entries,
+                                 OutputStream outputStream) throws IOException {
+        IcsWriter writer = new IcsWriter(outputStream);
+        writeHeader(writer);
+
+        UUID currentGuideId = null;
+        String prefix = "";
+        while (entries.hasNext()) {
+            BookingCalendarEntry entry = entries.next();
+            if (!entry.getGuideId().equals(currentGuideId)) {
+                currentGuideId = entry.getGuideId();
+                User guide = guides.get(currentGuideId);
+                prefix = "Guide: " + guide.getFirstName() + " " + guide.getLastName() + "\n";
+            }
+            writeEvent(writer, entry, prefix);
+        }
+
+        writer.line("END:VCALENDAR");
+        writer.flush();
+    }
+
+    private void writeAgencyZip(Set<UUID> guideIds, Iterator<BookingCalendarEntry> entries,
+                                OutputStream outputStream) throws IOException {
+        ZipOutputStream zipOutput = new ZipOutputStream(outputStream);
+        Set<UUID> withoutBookings = new LinkedHashSet<>(guideIds);
+
+        UUID currentGuideId = null;
+        IcsWriter writer = null;
+        while (entries.hasNext()) {
+            BookingCalendarEntry entry = entries.next();
+            if (!entry.getGuideId().equals(currentGuideId)) {
+                if (writer != null) {
+                    closeGuideFeed(zipOutput, writer);
+                }
+                currentGuideId = entry.getGuideId();
+                withoutBookings.remove(currentGuideId);
+                writer = openGuideFeed(zipOutput, currentGuideId);
+            }
+            writeEvent(writer, entry);
+        }
+        if (writer != null) {
+            closeGuideFeed(zipOutput, writer);
         }
 
-        // Générer le contenu iCal
-        try {
-            StringWriter writer = new StringWriter();
-            CalendarOutputter outputter = new CalendarOutputter();
-            outputter.output(calendar, writer);
-            return writer.toString();
-        } catch (IOException e) {
-            throw new RuntimeException("Erreur lors de la génération du calendrier iCal", e);
+        // Un fichier vide pour les guides sans réservation confirmée
+        for (UUID guideId : withoutBookings) {
+            closeGuideFeed(zipOutput, openGuideFeed(zipOutput, guideId));
         }
+        zipOutput.finish();
+        zipOutput.flush();
+    }
+
+    private IcsWriter openGuideFeed(ZipOutputStream zipOutput, UUID guideId) throws IOException {
+        zipOutput.putNextEntry(new ZipEntry("guide-" + guideId + ".ics"));
+        IcsWriter writer = new IcsWriter(zipOutput);
+        writeHeader(writer);
+        return writer;
+    }
+
+    private void closeGuideFeed(ZipOutputStream zipOutput, IcsWriter writer) throws IOException {
+        writer.line("END:VCALENDAR");
+        writer.flush();
+        zipOutput.closeEntry();
+    }
+
+    private void writeHeader(IcsWriter writer) throws IOException {
+        writer.line("BEGIN:VCALENDAR")
+                .property("PRODID", "-//TourFlow//Guides Calendar//EN")
+                .property("VERSION", "2.0")
+                .property("CALSCALE", "GREGORIAN")
+                .block(vTimeZoneLines);
+    }
+
+    private void writeEvent(IcsWriter writer, BookingCalendarEntry entry) throws IOException {
+        writeEvent(writer, entry, "");
+    }
+
+    private void writeEvent(IcsWriter writer, BookingCalendarEntry entry, String descriptionPrefix) throws IOException {
+        String description = descriptionPrefix + "Tour: " + entry.getTourTitle() + "\n" +
+                "Participants: " + entry.getParticipants() + "\n" +
+                "Client: " + entry.getCustomerName() + " (" + entry.getCustomerEmail() + ")\n" +
+                "Prix: " + entry.getTotalPrice() + " €";
+
+        writer.line("BEGIN:VEVENT")
+                .utcProperty("DTSTAMP", entry.getStampedAt().atZone(SYSTEM_ZONE).toInstant())
+                .localDateTimeProperty("DTSTART", CALENDAR_TIMEZONE_ID, entry.getStartDate())
+                .localDateTimeProperty("DTEND", CALENDAR_TIMEZONE_ID, entry.getEndDate())
+                .textProperty("SUMMARY", entry.getTourTitle())
+                .textProperty("DESCRIPTION", description)
+                .textProperty("LOCATION", entry.getTourLocation())
+                .property("UID", entry.getBookingId() + "@tourflow.com")
+                // Marquer comme occupé
+                .property("TRANSP", "OPAQUE")
+                .line("END:VEVENT");
     }
 
     public ExternalCalendar addExternalCalendar(User guide, String name, String icsUrl) {
@@ -113,6 +237,12 @@ public class CalendarService {
             throw new RuntimeException("Vous n'êtes pas autorisé à modifier ce calendrier");
         }
 
+        if (!icsUrl.equals(calendar.getIcsUrl())) {
+            // Nouvelle source : les validateurs de l'ancienne URL ne s'appliquent plus
+            calendar.setEtag(null);
+            calendar.setRemoteLastModified(null);
+        }
+
         calendar.setName(name);
         calendar.setIcsUrl(icsUrl);
 
@@ -129,16 +259,17 @@ public class CalendarService {
 
         calendar.setActive(false);
         externalCalendarRepository.save(calendar);
+
+        // Les périodes occupées de ce calendrier ne bloquent plus les créneaux du guide
+        externalBusyBlockService.removeCalendar(calendar);
     }
 
     public List<ExternalCalendar> getExternalCalendarsByGuide(User guide) {
         return externalCalendarRepository.findByGuideAndActiveTrue(guide);
     }
 
-    @Transactional
-    public void syncExternalCalendars() {
-        // Cette méthode serait appelée périodiquement pour synchroniser les calendriers externes
-        // Pour le MVP, nous allons simplement la laisser vide
-        // Dans une version ultérieure, nous pourrions implémenter la synchronisation réelle
+    public ExternalCalendarSyncService.SyncReport syncExternalCalendars() {
+        // La synchronisation périodique est planifiée par ExternalCalendarSyncService
+        return externalCalendarSyncService.syncAll();
     }
 }
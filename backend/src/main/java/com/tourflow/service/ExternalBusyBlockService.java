@@ -0,0 +1,170 @@
+package com.tourflow.service;
+
+import com.tourflow.cache.ClusterInvalidationBus;
+import com.tourflow.dto.BusyInterval;
+import com.tourflow.model.ExternalBusyBlock;
+import com.tourflow.model.ExternalCalendar;
+import com.tourflow.repository.ExternalBusyBlockRepository;
+import com.tourflow.util.BusyIntervalIndex;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Périodes occupées des guides dans leurs calendriers externes.
+ * Les blocs sont persistés dans external_busy_block et mis à jour par différence à chaque synchronisation ;
+ * un index en mémoire par guide permet au moteur de créneaux de les consulter en O(log n).
+ * Les validateurs HTTP des flux étant partagés, seule l'instance qui synchronise voit le flux modifié :
+ * elle diffuse le guide concerné aux autres, qui relisent ses blocs en base.
+ */
+@Service
+public class ExternalBusyBlockService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExternalBusyBlockService.class);
+
+    // Sujet de diffusion : le message porte l'identifiant du guide dont les blocs ont changé
+    private static final String INDEX_TOPIC = "externalBusyBlocks";
+
+    @Autowired
+    private ExternalBusyBlockRepository externalBusyBlockRepository;
+
+    @Autowired
+    private ClusterInvalidationBus clusterInvalidationBus;
+
+    private final Map<UUID, BusyIntervalIndex> indexByGuide = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void subscribe() {
+        clusterInvalidationBus.subscribe(INDEX_TOPIC, guideId -> refreshGuide(UUID.fromString(guideId)));
+    }
+
+    /**
+     * Chargement complet au démarrage, puis périodiquement pour rattraper une diffusion perdue
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${calendar.busy-index.reload-cron:0 0 * * * *}")
+    @Transactional(readOnly = true)
+    public void loadIndex() {
+        Map<UUID, List<ExternalBusyBlock>> blocksByGuide = externalBusyBlockRepository
+                .findByEndDateAfter(LocalDateTime.now())
+                .stream()
+                .collect(Collectors.groupingBy(ExternalBusyBlock::getGuideId));
+
+        indexByGuide.keySet().retainAll(blocksByGuide.keySet());
+        blocksByGuide.forEach((guideId, blocks) -> indexByGuide.put(guideId, toIndex(blocks)));
+        logger.info("Index des indisponibilités externes chargé pour {} guides", blocksByGuide.size());
+    }
+
+    /**
+     * Indique si le guide est occupé dans un calendrier externe sur la période [start, end)
+     */
+    public boolean isBusy(UUID guideId, LocalDateTime start, LocalDateTime end) {
+        return indexByGuide.getOrDefault(guideId, BusyIntervalIndex.EMPTY).overlaps(start, end);
+    }
+
+    /**
+     * Remplace les blocs d'un calendrier par ceux du flux : seuls les blocs ajoutés, modifiés ou disparus
+     * sont écrits. L'index du guide est reconstruit après validation de la transaction.
+     */
+    @Transactional
+    public void applySync(ExternalCalendar calendar, List<BusyInterval> intervals) {
+        UUID guideId = calendar.getGuide().getId();
+
+        Map<String, ExternalBusyBlock> existing = new HashMap<>();
+        for (ExternalBusyBlock block : externalBusyBlockRepository.findByExternalCalendarId(calendar.getId())) {
+            existing.put(key(block.getUid(), block.getStartDate()), block);
+        }
+
+        List<ExternalBusyBlock> toSave = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (BusyInterval interval : intervals) {
+            String key = key(interval.getUid(), interval.getStart());
+            if (!seen.add(key)) {
+                // Doublon dans le flux
+                continue;
+            }
+
+            ExternalBusyBlock block = existing.remove(key);
+            if (block == null) {
+                toSave.add(new ExternalBusyBlock(guideId, interval.getStart(), interval.getEnd(), interval.getUid(), calendar));
+            } else if (!block.getEndDate().equals(interval.getEnd())) {
+                block.setEndDate(interval.getEnd());
+                toSave.add(block);
+            }
+        }
+
+        // Ce qui reste n'apparaît plus dans le flux
+        if (!existing.isEmpty()) {
+            externalBusyBlockRepository.deleteAllInBatch(existing.values());
+        }
+        if (!toSave.isEmpty()) {
+            externalBusyBlockRepository.saveAll(toSave);
+        }
+
+        logger.debug("Calendrier externe {} : {} blocs écrits, {} supprimés", calendar.getId(), toSave.size(), existing.size());
+        refreshGuideAfterCommit(guideId);
+    }
+
+    /**
+     * Supprime les blocs d'un calendrier externe désactivé
+     */
+    @Transactional
+    public void removeCalendar(ExternalCalendar calendar) {
+        externalBusyBlockRepository.deleteByExternalCalendarId(calendar.getId());
+        refreshGuideAfterCommit(calendar.getGuide().getId());
+    }
+
+    private void refreshGuideAfterCommit(UUID guideId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    refreshAndPublish(guideId);
+                }
+            });
+        } else {
+            refreshAndPublish(guideId);
+        }
+    }
+
+    private void refreshAndPublish(UUID guideId) {
+        refreshGuide(guideId);
+        clusterInvalidationBus.publish(INDEX_TOPIC, guideId.toString());
+    }
+
+    private void refreshGuide(UUID guideId) {
+        List<ExternalBusyBlock> blocks = externalBusyBlockRepository.findByGuideIdAndEndDateAfter(guideId, LocalDateTime.now());
+        if (blocks.isEmpty()) {
+            indexByGuide.remove(guideId);
+        } else {
+            indexByGuide.put(guideId, toIndex(blocks));
+        }
+    }
+
+    private BusyIntervalIndex toIndex(List<ExternalBusyBlock> blocks) {
+        return BusyIntervalIndex.of(blocks, ExternalBusyBlock::getStartDate, ExternalBusyBlock::getEndDate);
+    }
+
+    private String key(String uid, LocalDateTime start) {
+        return uid + "|" + start;
+    }
+}
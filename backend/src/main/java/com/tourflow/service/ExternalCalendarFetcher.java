@@ -0,0 +1,141 @@
+package com.tourflow.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Récupération HTTP conditionnelle d'un flux iCal externe (If-None-Match / If-Modified-Since).
+ * Le corps n'est jamais chargé en entier : il est transmis en flux au FeedHandler.
+ */
+@Component
+public class ExternalCalendarFetcher {
+
+    @Autowired
+    private RestTemplate restTemplate;
+
+    public interface FeedHandler {
+        /**
+         * Traite le corps de la réponse et renvoie le nombre d'événements lus
+         */
+        int handle(InputStream body) throws IOException;
+    }
+
+    public FetchResult fetch(String url, String etag, String lastModified, FeedHandler handler) {
+        long start = System.nanoTime();
+
+        return restTemplate.execute(url, HttpMethod.GET,
+                request -> {
+                    request.getHeaders().set(HttpHeaders.ACCEPT, "text/calendar, */*;q=0.5");
+                    if (etag != null) {
+                        request.getHeaders().set(HttpHeaders.IF_NONE_MATCH, etag);
+                    }
+                    if (lastModified != null) {
+                        request.getHeaders().set(HttpHeaders.IF_MODIFIED_SINCE, lastModified);
+                    }
+                },
+                response -> {
+                    int status = response.getStatusCode().value();
+                    String newEtag = response.getHeaders().getETag();
+                    String newLastModified = response.getHeaders().getFirst(HttpHeaders.LAST_MODIFIED);
+
+                    if (status == HttpStatus.NOT_MODIFIED.value()) {
+                        // Le serveur peut omettre les validateurs sur un 304 : on garde les précédents
+                        return new FetchResult(status, newEtag != null ? newEtag : etag,
+                                newLastModified != null ? newLastModified : lastModified, 0, null, elapsedMs(start));
+                    }
+
+                    try (CountingInputStream body = new CountingInputStream(response.getBody())) {
+                        int eventCount = handler.handle(body);
+                        return new FetchResult(status, newEtag, newLastModified, body.getCount(), eventCount, elapsedMs(start));
+                    }
+                });
+    }
+
+    private static long elapsedMs(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    public static class FetchResult {
+        private final int status;
+        private final String etag;
+        private final String lastModified;
+        private final long bytes;
+        private final Integer eventCount;
+        private final long durationMs;
+
+        public FetchResult(int status, String etag, String lastModified, long bytes, Integer eventCount, long durationMs) {
+            this.status = status;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.bytes = bytes;
+            this.eventCount = eventCount;
+            this.durationMs = durationMs;
+        }
+
+        public boolean isNotModified() {
+            return status == HttpStatus.NOT_MODIFIED.value();
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public String getLastModified() {
+            return lastModified;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public Integer getEventCount() {
+            return eventCount;
+        }
+
+        public long getDurationMs() {
+            return durationMs;
+        }
+    }
+
+    private static class CountingInputStream extends FilterInputStream {
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        long getCount() {
+            return count;
+        }
+    }
+}
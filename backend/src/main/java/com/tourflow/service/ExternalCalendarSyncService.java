@@ -0,0 +1,345 @@
+package com.tourflow.service;
+
+import com.tourflow.dto.BusyInterval;
+import com.tourflow.model.ExternalCalendar;
+import com.tourflow.repository.ExternalCalendarRepository;
+import com.tourflow.util.IcsEventReader;
+import com.tourflow.util.RecurrenceIterator;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientResponseException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Synchronisation des calendriers externes des guides (Airbnb, Google...).
+ * Les flux sont récupérés en parallèle, avec un nombre borné de requêtes simultanées au total et par hôte,
+ * et en requêtes conditionnelles : un flux inchangé (304) n'est ni téléchargé ni analysé.
+ */
+@Service
+public class ExternalCalendarSyncService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExternalCalendarSyncService.class);
+
+    // Fuseau des créneaux réservables ; les heures flottantes des flux externes y sont lues
+    private static final ZoneId CALENDAR_ZONE = ZoneId.of(CalendarService.CALENDAR_TIMEZONE_ID);
+
+    @Autowired
+    private ExternalCalendarRepository externalCalendarRepository;
+
+    @Autowired
+    private ExternalCalendarFetcher externalCalendarFetcher;
+
+    @Autowired
+    private ExternalBusyBlockService externalBusyBlockService;
+
+    @Value("${calendar.sync.max-concurrency:16}")
+    private int maxConcurrency;
+
+    @Value("${calendar.sync.per-host-concurrency:2}")
+    private int perHostConcurrency;
+
+    @Value("${calendar.sync.timeout-seconds:300}")
+    private long timeoutSeconds;
+
+    @Value("${calendar.sync.horizon-days:365}")
+    private long horizonDays;
+
+    @Value("${calendar.sync.max-line-length:8192}")
+    private int maxLineLength;
+
+    @Value("${calendar.sync.max-events:50000}")
+    private int maxEvents;
+
+    @Value("${calendar.sync.max-busy-blocks:20000}")
+    private int maxBusyBlocks;
+
+    private ExecutorService executor;
+    private Semaphore globalPermits;
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    @PostConstruct
+    public void init() {
+        globalPermits = new Semaphore(maxConcurrency);
+        executor = createExecutor();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Scheduled(fixedDelayString = "${calendar.sync.interval-ms:900000}",
+               initialDelayString = "${calendar.sync.initial-delay-ms:60000}")
+    public void scheduledSync() {
+        syncAll();
+    }
+
+    /**
+     * Synchronise tous les calendriers externes actifs. Une seule synchronisation s'exécute à la fois.
+     */
+    public SyncReport syncAll() {
+        SyncReport report = new SyncReport();
+        if (!running.compareAndSet(false, true)) {
+            logger.info("Synchronisation des calendriers externes déjà en cours, exécution ignorée");
+            return report;
+        }
+
+        long start = System.nanoTime();
+        try {
+            // Une file par hôte, vidée par au plus perHostConcurrency tâches : aucune tâche n'attend la place
+            // d'un hôte lent en tenant un créneau global dont un autre hôte aurait besoin
+            Map<String, Queue<ExternalCalendar>> calendarsByHost = new LinkedHashMap<>();
+            for (ExternalCalendar calendar : externalCalendarRepository.findByActiveTrue()) {
+                calendarsByHost.computeIfAbsent(hostOf(calendar.getIcsUrl()), host -> new ConcurrentLinkedQueue<>())
+                        .add(calendar);
+            }
+
+            List<Future<?>> futures = new ArrayList<>();
+            for (Queue<ExternalCalendar> hostQueue : calendarsByHost.values()) {
+                int workers = Math.min(perHostConcurrency, hostQueue.size());
+                for (int i = 0; i < workers; i++) {
+                    futures.add(executor.submit(() -> drainHost(hostQueue, report)));
+                }
+            }
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+            for (Future<?> future : futures) {
+                try {
+                    future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                } catch (TimeoutException e) {
+                    future.cancel(true);
+                    report.failed.incrementAndGet();
+                } catch (ExecutionException e) {
+                    report.failed.incrementAndGet();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+
+            // Calendriers jamais atteints avant l'expiration du délai
+            for (Queue<ExternalCalendar> hostQueue : calendarsByHost.values()) {
+                while (hostQueue.poll() != null) {
+                    report.failed.incrementAndGet();
+                }
+            }
+        } finally {
+            running.set(false);
+        }
+
+        logger.info("Synchronisation des calendriers externes terminée en {} ms : {} mis à jour, {} inchangés, {} en échec, {} octets",
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                report.getUpdated(), report.getNotModified(), report.getFailed(), report.getBytes());
+        return report;
+    }
+
+    private void drainHost(Queue<ExternalCalendar> hostQueue, SyncReport report) {
+        ExternalCalendar calendar;
+        while (!Thread.currentThread().isInterrupted() && (calendar = hostQueue.poll()) != null) {
+            try {
+                globalPermits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                report.failed.incrementAndGet();
+                return;
+            }
+            try {
+                syncCalendar(calendar, report);
+            } finally {
+                globalPermits.release();
+            }
+        }
+    }
+
+    private void syncCalendar(ExternalCalendar calendar, SyncReport report) {
+        try {
+            List<BusyInterval> intervals = new ArrayList<>();
+            ExternalCalendarFetcher.FetchResult result = externalCalendarFetcher.fetch(
+                    calendar.getIcsUrl(), calendar.getEtag(), calendar.getRemoteLastModified(),
+                    body -> parseFeed(body, intervals));
+
+            if (result.isNotModified()) {
+                report.notModified.incrementAndGet();
+            } else {
+                externalBusyBlockService.applySync(calendar, intervals);
+                calendar.setLastFetchBytes(result.getBytes());
+                calendar.setLastEventCount(result.getEventCount());
+                report.updated.incrementAndGet();
+                report.bytes.addAndGet(result.getBytes());
+            }
+
+            calendar.setLastSyncAt(LocalDateTime.now());
+            calendar.setLastFetchStatus(result.getStatus());
+            calendar.setLastFetchDurationMs(result.getDurationMs());
+            calendar.setEtag(result.getEtag());
+            calendar.setRemoteLastModified(result.getLastModified());
+            calendar.setLastSyncError(null);
+        } catch (RuntimeException e) {
+            logger.warn("Échec de la synchronisation du calendrier externe {} : {}", calendar.getId(), e.getMessage());
+            if (e instanceof RestClientResponseException) {
+                calendar.setLastFetchStatus(((RestClientResponseException) e).getStatusCode().value());
+            }
+            calendar.setLastSyncError(truncate(e.getMessage()));
+            report.failed.incrementAndGet();
+        }
+
+        externalCalendarRepository.save(calendar);
+    }
+
+    /**
+     * Lit un flux modifié événement par événement et renvoie ses périodes occupées comprises dans
+     * l'horizon de réservation ; les récurrences sont développées uniquement sur cet horizon.
+     */
+    protected int parseFeed(InputStream body, List<BusyInterval> intervals) throws IOException {
+        LocalDateTime horizonStart = LocalDateTime.now(CALENDAR_ZONE);
+        LocalDateTime horizonEnd = horizonStart.plusDays(horizonDays);
+
+        IcsEventReader reader = new IcsEventReader(body, maxLineLength, maxEvents);
+        IcsEventReader.Event event;
+        while ((event = reader.next()) != null) {
+            // Les événements « transparents » ne rendent pas le guide indisponible
+            if (event.getStart() == null || event.isTransparent()) {
+                continue;
+            }
+
+            IcsEventReader.DateValue start = event.getStart();
+            ZoneId eventZone = start.getZone() != null ? start.getZone() : CALENDAR_ZONE;
+            Duration duration = event.getOccurrenceDuration(CALENDAR_ZONE);
+            String uid = event.getUid() != null ? event.getUid() : "sans-uid:" + start.getValue();
+
+            if (event.getRrule() == null) {
+                addInterval(intervals, uid, start.in(CALENDAR_ZONE), start.in(CALENDAR_ZONE).plus(duration), horizonStart, horizonEnd);
+                continue;
+            }
+
+            Set<LocalDateTime> excludedTimes = new HashSet<>();
+            Set<LocalDate> excludedDays = new HashSet<>();
+            for (IcsEventReader.DateValue exdate : event.getExdates()) {
+                if (exdate.isDate()) {
+                    excludedDays.add(exdate.getValue().toLocalDate());
+                } else {
+                    excludedTimes.add(exdate.in(eventZone));
+                }
+            }
+
+            RecurrenceIterator occurrences = new RecurrenceIterator(start.getValue(), event.getRrule(),
+                    eventZone, duration, toZone(horizonStart, CALENDAR_ZONE, eventZone, start.isDate()),
+                    toZone(horizonEnd, CALENDAR_ZONE, eventZone, start.isDate()),
+                    occurrence -> excludedTimes.contains(occurrence) || excludedDays.contains(occurrence.toLocalDate()),
+                    maxBusyBlocks);
+
+            while (occurrences.hasNext()) {
+                LocalDateTime occurrence = occurrences.next();
+                LocalDateTime occurrenceStart = toZone(occurrence, eventZone, CALENDAR_ZONE, start.isDate());
+                LocalDateTime occurrenceEnd = toZone(occurrence.plus(duration), eventZone, CALENDAR_ZONE, start.isDate());
+                addInterval(intervals, uid, occurrenceStart, occurrenceEnd, horizonStart, horizonEnd);
+            }
+        }
+        return reader.getEventCount();
+    }
+
+    private void addInterval(List<BusyInterval> intervals, String uid, LocalDateTime start, LocalDateTime end,
+                             LocalDateTime horizonStart, LocalDateTime horizonEnd) {
+        if (!end.isAfter(horizonStart) || !start.isBefore(horizonEnd)) {
+            return;
+        }
+        if (intervals.size() >= maxBusyBlocks) {
+            throw new RuntimeException("Flux iCal trop volumineux : plus de " + maxBusyBlocks + " périodes occupées sur l'horizon");
+        }
+        intervals.add(new BusyInterval(uid, start, end));
+    }
+
+    private LocalDateTime toZone(LocalDateTime dateTime, ZoneId from, ZoneId to, boolean allDay) {
+        // Une journée entière n'a pas de fuseau
+        if (allDay || from.equals(to)) {
+            return dateTime;
+        }
+        return dateTime.atZone(from).withZoneSameInstant(to).toLocalDateTime();
+    }
+
+    private String hostOf(String url) {
+        try {
+            String host = URI.create(url).getHost();
+            return host != null ? host.toLowerCase() : "";
+        } catch (IllegalArgumentException e) {
+            return "";
+        }
+    }
+
+    private String truncate(String message) {
+        if (message == null) {
+            return "Erreur inconnue";
+        }
+        return message.length() > 500 ? message.substring(0, 500) : message;
+    }
+
+    private ExecutorService createExecutor() {
+        // Threads virtuels si la JVM les propose (Java 21+), sinon pool borné classique
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger threadNumber = new AtomicInteger();
+            return Executors.newFixedThreadPool(maxConcurrency, runnable -> {
+                Thread thread = new Thread(runnable, "calendar-sync-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    public static class SyncReport {
+        private final AtomicInteger updated = new AtomicInteger();
+        private final AtomicInteger notModified = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final AtomicLong bytes = new AtomicLong();
+
+        public int getUpdated() {
+            return updated.get();
+        }
+
+        public int getNotModified() {
+            return notModified.get();
+        }
+
+        public int getFailed() {
+            return failed.get();
+        }
+
+        public long getBytes() {
+            return bytes.get();
+        }
+    }
+}
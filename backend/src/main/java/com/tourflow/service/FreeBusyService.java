@@ -0,0 +1,107 @@
+package com.tourflow.service;
+
+import com.tourflow.dto.BusyPeriod;
+import com.tourflow.dto.FreeBusyResponse;
+import com.tourflow.exception.ResourceNotFoundException;
+import com.tourflow.repository.AvailabilityExceptionRepository;
+import com.tourflow.repository.BookingRepository;
+import com.tourflow.repository.ExternalBusyBlockRepository;
+import com.tourflow.repository.UserRepository;
+import com.tourflow.util.BusyPeriodMerger;
+import com.tourflow.util.IcsWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Plages occupées d'un guide, tous tours confondus : réservations confirmées, réservations en attente,
+ * exceptions de disponibilité et calendriers externes, fusionnées en périodes disjointes.
+ */
+@Service
+public class FreeBusyService {
+
+    private static final Duration MAX_WINDOW = Duration.ofDays(366);
+    private static final ZoneId CALENDAR_ZONE = ZoneId.of(CalendarService.CALENDAR_TIMEZONE_ID);
+    private static final DateTimeFormatter UTC_FORMAT =
+            DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private AvailabilityExceptionRepository availabilityExceptionRepository;
+
+    @Autowired
+    private ExternalBusyBlockRepository externalBusyBlockRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Transactional(readOnly = true)
+    public FreeBusyResponse getFreeBusy(UUID guideId, LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new RuntimeException("La date de début doit précéder la date de fin");
+        }
+        if (Duration.between(from, to).compareTo(MAX_WINDOW) > 0) {
+            throw new RuntimeException("La période demandée ne peut pas dépasser " + MAX_WINDOW.toDays() + " jours");
+        }
+        if (!userRepository.existsById(guideId)) {
+            throw new ResourceNotFoundException("Guide", "id", guideId);
+        }
+
+        // Chaque source est déjà triée par début : un seul balayage suffit pour les fusionner
+        List<BusyPeriod> busy = BusyPeriodMerger.merge(List.of(
+                bookingRepository.findBusyPeriodsByGuide(guideId, from, to, LocalDateTime.now()),
+                availabilityExceptionRepository.findBusyPeriodsByGuide(guideId, from, to),
+                externalBusyBlockRepository.findBusyPeriodsByGuide(guideId, from, to)), from, to);
+
+        return new FreeBusyResponse(guideId, from, to, busy);
+    }
+
+    /**
+     * Écrit les plages occupées au format iCalendar (composant VFREEBUSY, dates en UTC)
+     */
+    public void writeVFreeBusy(FreeBusyResponse freeBusy, OutputStream outputStream) throws IOException {
+        StringBuilder periods = new StringBuilder();
+        for (BusyPeriod period : freeBusy.getBusy()) {
+            if (periods.length() > 0) {
+                periods.append(',');
+            }
+            periods.append(toUtc(period.getStart())).append('/').append(toUtc(period.getEnd()));
+        }
+
+        IcsWriter writer = new IcsWriter(outputStream);
+        writer.line("BEGIN:VCALENDAR")
+                .property("PRODID", "-//TourFlow//Guides Calendar//EN")
+                .property("VERSION", "2.0")
+                .property("METHOD", "PUBLISH")
+                .line("BEGIN:VFREEBUSY")
+                .property("UID", "freebusy-" + freeBusy.getGuideId() + "-" + toUtc(freeBusy.getFrom()) + "@tourflow.com")
+                .utcProperty("DTSTAMP", Instant.now())
+                .property("DTSTART", toUtc(freeBusy.getFrom()))
+                .property("DTEND", toUtc(freeBusy.getTo()));
+
+        if (periods.length() > 0) {
+            writer.property("FREEBUSY;FBTYPE=BUSY", periods.toString());
+        }
+
+        writer.line("END:VFREEBUSY")
+                .line("END:VCALENDAR");
+        writer.flush();
+    }
+
+    private String toUtc(LocalDateTime dateTime) {
+        return UTC_FORMAT.format(dateTime.atZone(CALENDAR_ZONE));
+    }
+}
@@ -0,0 +1,336 @@
+package com.tourflow.service;
+
+import com.tourflow.cache.ClusterInvalidationBus;
+import com.tourflow.dto.BookableSlot;
+import com.tourflow.dto.BookableTour;
+import com.tourflow.dto.TourInterval;
+import com.tourflow.model.AvailabilityRule;
+import com.tourflow.model.DayOfWeek;
+import com.tourflow.model.Tour;
+import com.tourflow.repository.AvailabilityExceptionRepository;
+import com.tourflow.repository.AvailabilityRuleRepository;
+import com.tourflow.repository.BookingRepository;
+import com.tourflow.repository.TourRepository;
+import com.tourflow.util.FreeCapacityIndex;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Recherche des tours réservables pour un groupe sur une période ("4 personnes samedi après-midi").
+ * Les créneaux des règles de disponibilité, moins les réservations et exceptions, sont précalculés sur
+ * l'horizon de réservation dans un index en mémoire : reconstruit chaque nuit et recalculé pour un tour
+ * après chaque modification de ses règles, exceptions ou réservations. Une transaction recalcule chaque tour
+ * modifié une seule fois, puis le diffuse aux autres instances qui le recalculent à leur tour.
+ */
+@Service
+public class FreeCapacityService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FreeCapacityService.class);
+
+    public static final int MAX_RESULTS = 100;
+
+    // Sujet de diffusion : le message porte l'identifiant du tour recalculé
+    private static final String INDEX_TOPIC = "freeCapacity";
+
+    @Autowired
+    private AvailabilityRuleRepository availabilityRuleRepository;
+
+    @Autowired
+    private AvailabilityExceptionRepository availabilityExceptionRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private TourRepository tourRepository;
+
+    @Autowired
+    private ExternalBusyBlockService externalBusyBlockService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ClusterInvalidationBus clusterInvalidationBus;
+
+    @Value("${availability.index.horizon-days:90}")
+    private int horizonDays;
+
+    private volatile FreeCapacityIndex index = new FreeCapacityIndex();
+
+    // Tours recalculés pendant une reconstruction, rejoués dans le nouvel index avant qu'il remplace l'ancien
+    private final Object swapLock = new Object();
+    private Set<UUID> changedDuringRebuild;
+
+    @PostConstruct
+    public void subscribe() {
+        clusterInvalidationBus.subscribe(INDEX_TOPIC, tourId -> refreshTourNow(UUID.fromString(tourId)));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadIndex() {
+        rebuild();
+    }
+
+    /**
+     * Reconstruit l'index complet ; l'ancien reste utilisé jusqu'à la fin du calcul
+     */
+    @Scheduled(cron = "${availability.index.rebuild-cron:0 5 0 * * *}")
+    public void rebuild() {
+        LocalDate from = LocalDate.now();
+        LocalDate to = from.plusDays(horizonDays);
+        LocalDateTime now = LocalDateTime.now();
+
+        FreeCapacityIndex rebuilt = new FreeCapacityIndex();
+        int[] tours = new int[1];
+        synchronized (swapLock) {
+            changedDuringRebuild = new HashSet<>();
+        }
+        try {
+            computeAll(rebuilt, from, to, now, tours);
+
+            // Les tours modifiés pendant le calcul sont relus jusqu'à ce qu'aucun ne reste à rejouer
+            while (true) {
+                Set<UUID> changed;
+                synchronized (swapLock) {
+                    changed = changedDuringRebuild;
+                    if (changed.isEmpty()) {
+                        index = rebuilt;
+                        break;
+                    }
+                    changedDuringRebuild = new HashSet<>();
+                }
+                changed.forEach(tourId -> rebuilt.replaceTour(tourId, from, to, loadSlots(tourId, from, to)));
+            }
+        } finally {
+            synchronized (swapLock) {
+                changedDuringRebuild = null;
+            }
+        }
+        logger.info("Index des places libres reconstruit : {} tours sur {} jours", tours[0], horizonDays);
+    }
+
+    private void computeAll(FreeCapacityIndex rebuilt, LocalDate from, LocalDate to, LocalDateTime now, int[] tours) {
+        readTransaction(TransactionDefinition.PROPAGATION_REQUIRED).executeWithoutResult(status -> {
+            Map<Tour, List<AvailabilityRule>> rulesByTour = availabilityRuleRepository.findActiveRulesOfActiveTours()
+                    .stream().collect(Collectors.groupingBy(AvailabilityRule::getTour));
+
+            Map<UUID, List<TourInterval>> intervalsByTour = new HashMap<>();
+            LocalDateTime start = from.atStartOfDay();
+            LocalDateTime end = to.plusDays(1).atStartOfDay();
+            for (TourInterval interval : bookingRepository.findTourIntervals(start, end, now)) {
+                intervalsByTour.computeIfAbsent(interval.getTourId(), id -> new ArrayList<>()).add(interval);
+            }
+            for (TourInterval interval : availabilityExceptionRepository.findTourIntervals(start, end)) {
+                intervalsByTour.computeIfAbsent(interval.getTourId(), id -> new ArrayList<>()).add(interval);
+            }
+
+            rulesByTour.forEach((tour, rules) -> rebuilt.replaceTour(tour.getId(), from, to, computeSlots(tour, rules,
+                    intervalsByTour.getOrDefault(tour.getId(), Collections.emptyList()), from, to)));
+            tours[0] = rulesByTour.size();
+        });
+    }
+
+    /**
+     * Recalcule les créneaux du tour après validation de la transaction en cours, une seule fois par transaction
+     */
+    public void refreshTour(UUID tourId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            refreshAndPublish(tourId);
+            return;
+        }
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof PendingRefresh pending) {
+                pending.tourIds.add(tourId);
+                return;
+            }
+        }
+        PendingRefresh pending = new PendingRefresh();
+        pending.tourIds.add(tourId);
+        TransactionSynchronizationManager.registerSynchronization(pending);
+    }
+
+    public void removeTour(UUID tourId) {
+        synchronized (swapLock) {
+            index.removeTour(tourId);
+            recordChange(tourId);
+        }
+        clusterInvalidationBus.publish(INDEX_TOPIC, tourId.toString());
+    }
+
+    /**
+     * Tours ayant au moins un créneau commençant dans [from, to) avec participants places libres,
+     * triés par premier créneau disponible
+     */
+    public List<BookableTour> search(LocalDateTime from, LocalDateTime to, int participants, int limit) {
+        if (!from.isBefore(to)) {
+            throw new RuntimeException("La date de début doit précéder la date de fin");
+        }
+        if (Duration.between(from, to).toDays() > horizonDays) {
+            throw new RuntimeException("La période demandée ne peut pas dépasser " + horizonDays + " jours");
+        }
+        if (participants < 1) {
+            throw new RuntimeException("Le nombre de participants doit être positif");
+        }
+        if (limit < 1 || limit > MAX_RESULTS) {
+            throw new RuntimeException("Le nombre de résultats doit être compris entre 1 et " + MAX_RESULTS);
+        }
+
+        Map<UUID, List<BookableSlot>> slotsByTour = new LinkedHashMap<>();
+        for (FreeCapacityIndex.Slot slot : index.find(from, to, participants, LocalDateTime.now())) {
+            List<BookableSlot> slots = slotsByTour.get(slot.getTourId());
+            if (slots == null && slotsByTour.size() >= limit) {
+                continue;
+            }
+            // Calendriers externes du guide : déjà en mémoire, vérifiés à la lecture
+            if (externalBusyBlockService.isBusy(slot.getGuideId(), slot.getStart(), slot.getEnd())) {
+                continue;
+            }
+            if (slots == null) {
+                slots = new ArrayList<>();
+                slotsByTour.put(slot.getTourId(), slots);
+            }
+            slots.add(new BookableSlot(slot.getStart(), slot.getEnd(), slot.getFree()));
+        }
+
+        if (slotsByTour.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Map<UUID, Tour> tours = tourRepository.findAllById(slotsByTour.keySet()).stream()
+                .collect(Collectors.toMap(Tour::getId, Function.identity()));
+
+        List<BookableTour> results = new ArrayList<>();
+        slotsByTour.forEach((tourId, slots) -> {
+            Tour tour = tours.get(tourId);
+            if (tour != null && tour.isActive()) {
+                results.add(new BookableTour(tourId, tour.getTitle(), tour.getLocation(), tour.getPrice(), slots));
+            }
+        });
+        return results;
+    }
+
+    private void refreshAndPublish(UUID tourId) {
+        refreshTourNow(tourId);
+        clusterInvalidationBus.publish(INDEX_TOPIC, tourId.toString());
+    }
+
+    private void refreshTourNow(UUID tourId) {
+        LocalDate from = LocalDate.now();
+        LocalDate to = from.plusDays(horizonDays);
+        List<FreeCapacityIndex.Slot> slots = loadSlots(tourId, from, to);
+        synchronized (swapLock) {
+            index.replaceTour(tourId, from, to, slots);
+            recordChange(tourId);
+        }
+    }
+
+    private void recordChange(UUID tourId) {
+        if (changedDuringRebuild != null) {
+            changedDuringRebuild.add(tourId);
+        }
+    }
+
+    private List<FreeCapacityIndex.Slot> loadSlots(UUID tourId, LocalDate from, LocalDate to) {
+        LocalDateTime now = LocalDateTime.now();
+
+        // Transaction indépendante : appelé après la validation de la transaction d'origine
+        return readTransaction(TransactionDefinition.PROPAGATION_REQUIRES_NEW).execute(status -> {
+            List<AvailabilityRule> rules = availabilityRuleRepository.findActiveRulesOfActiveTour(tourId);
+            if (rules.isEmpty()) {
+                return Collections.<FreeCapacityIndex.Slot>emptyList();
+            }
+
+            LocalDateTime start = from.atStartOfDay();
+            LocalDateTime end = to.plusDays(1).atStartOfDay();
+            List<TourInterval> intervals = new ArrayList<>(bookingRepository.findTourIntervalsByTour(tourId, start, end, now));
+            intervals.addAll(availabilityExceptionRepository.findTourIntervalsByTour(tourId, start, end));
+
+            return computeSlots(rules.get(0).getTour(), rules, intervals, from, to);
+        });
+    }
+
+    private List<FreeCapacityIndex.Slot> computeSlots(Tour tour, List<AvailabilityRule> rules, List<TourInterval> intervals,
+                                                      LocalDate from, LocalDate to) {
+        UUID guideId = tour.getGuide().getId();
+        List<FreeCapacityIndex.Slot> slots = new ArrayList<>();
+
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            DayOfWeek dayOfWeek = DayOfWeek.valueOf(day.getDayOfWeek().name());
+
+            // Plusieurs règles peuvent proposer la même heure : on garde la plus grande capacité
+            Map<LocalDateTime, FreeCapacityIndex.Slot> daySlots = new TreeMap<>();
+            for (AvailabilityRule rule : rules) {
+                if (!rule.getDaysOfWeek().contains(dayOfWeek)) {
+                    continue;
+                }
+                for (LocalTime startTime : rule.getStartTimes()) {
+                    LocalDateTime slotStart = LocalDateTime.of(day, startTime);
+                    LocalDateTime slotEnd = slotStart.plusMinutes(tour.getDurationMinutes());
+
+                    // Une réservation occupe le créneau entier : la création refuse toute réservation qui en chevauche une autre
+                    boolean occupied = intervals.stream().anyMatch(interval -> interval.overlaps(slotStart, slotEnd));
+                    int free = occupied ? 0 : Math.min(rule.getMaxCapacity(), tour.getMaxCapacity());
+
+                    FreeCapacityIndex.Slot previous = daySlots.get(slotStart);
+                    if (free > 0 && (previous == null || previous.getFree() < free)) {
+                        daySlots.put(slotStart, new FreeCapacityIndex.Slot(tour.getId(), guideId, slotStart, slotEnd,
+                                free, rule.getMinBookingHours()));
+                    }
+                }
+            }
+            slots.addAll(daySlots.values());
+        }
+        return slots;
+    }
+
+    private TransactionTemplate readTransaction(int propagation) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setPropagationBehavior(propagation);
+        transaction.setReadOnly(true);
+        return transaction;
+    }
+
+    /**
+     * Tours à recalculer à la validation de la transaction ; une seule synchronisation par transaction
+     */
+    private class PendingRefresh implements TransactionSynchronization {
+
+        private final Set<UUID> tourIds = new LinkedHashSet<>();
+
+        @Override
+        public void afterCommit() {
+            tourIds.forEach(FreeCapacityService.this::refreshAndPublish);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.tourflow.service;
+
+import com.tourflow.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Hachage et vérification BCrypt sur un pool dédié et borné : une rafale de tentatives de connexion n'occupe
+ * que ces threads, les threads Tomcat (réservations, lectures) gardent le processeur. Au-delà de la file,
+ * les demandes sont refusées immédiatement. Le coût est fixé par configuration, ou à défaut calibré au démarrage
+ * pour viser une durée cible.
+ */
+@Service
+public class PasswordHashingService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHashingService.class);
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("^\\$2[aby]?\\$(\\d\\d)\\$");
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    // Coût imposé (0 : calibré au démarrage). À fixer quand plusieurs instances ont des machines différentes,
+    // sinon chacune réécrirait les hachages au coût qu'elle a mesuré
+    @Value("${security.bcrypt.strength:0}")
+    private int fixedStrength;
+
+    @Value("${security.bcrypt.target-ms:250}")
+    private long targetMillis;
+
+    @Value("${security.bcrypt.min-strength:10}")
+    private int minStrength;
+
+    @Value("${security.bcrypt.max-strength:14}")
+    private int maxStrength;
+
+    @Value("${security.bcrypt.threads:0}")
+    private int threads;
+
+    @Value("${security.bcrypt.queue-capacity:64}")
+    private int queueCapacity;
+
+    @Value("${security.bcrypt.timeout-ms:5000}")
+    private long timeoutMillis;
+
+    private int strength;
+    private BCryptPasswordEncoder encoder;
+
+    // Vérifié à la place d'un compte inconnu : même durée de réponse qu'avec un mauvais mot de passe
+    private String dummyHash;
+
+    private ThreadPoolExecutor executor;
+    private Timer verifyTimer;
+    private Timer hashTimer;
+    private Timer queueWaitTimer;
+    private Counter rejected;
+
+    @PostConstruct
+    public void init() {
+        strength = fixedStrength > 0 ? fixedStrength : calibrate();
+        encoder = new BCryptPasswordEncoder(strength);
+        dummyHash = encoder.encode("tourflow-dummy-password");
+
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "bcrypt-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+
+        ExecutorServiceMetrics.monitor(meterRegistry, executor, "bcrypt");
+        verifyTimer = Timer.builder("auth.bcrypt.duration").tag("operation", "verify")
+                .description("Durée d'un calcul BCrypt").register(meterRegistry);
+        hashTimer = Timer.builder("auth.bcrypt.duration").tag("operation", "hash")
+                .description("Durée d'un calcul BCrypt").register(meterRegistry);
+        queueWaitTimer = Timer.builder("auth.bcrypt.queue.wait")
+                .description("Attente dans la file avant le calcul BCrypt").register(meterRegistry);
+        rejected = Counter.builder("auth.bcrypt.rejected")
+                .description("Demandes BCrypt refusées, file pleine ou délai dépassé").register(meterRegistry);
+        Gauge.builder("auth.bcrypt.strength", this, PasswordHashingService::getStrength)
+                .description("Coût BCrypt appliqué aux nouveaux hachages").register(meterRegistry);
+
+        logger.info("BCrypt : coût {}, {} threads, file de {}", strength, poolSize, queueCapacity);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Vérifie un mot de passe ; un hachage null (compte inconnu) coûte le même temps et retourne false
+     */
+    public boolean matches(String rawPassword, String encodedPassword) {
+        boolean known = encodedPassword != null;
+        boolean matches = submit(verifyTimer, () -> encoder.matches(rawPassword, known ? encodedPassword : dummyHash));
+        return known && matches;
+    }
+
+    public String hash(String rawPassword) {
+        return submit(hashTimer, () -> encoder.encode(rawPassword));
+    }
+
+    /**
+     * Vrai si le hachage a été calculé avec un coût inférieur au coût courant : à recalculer à la connexion,
+     * seul moment où le mot de passe en clair est connu. Un coût supérieur est gardé, pour que des instances
+     * calibrées différemment ne réécrivent pas chacune les hachages de l'autre
+     */
+    public boolean needsRehash(String encodedPassword) {
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return !matcher.find() || Integer.parseInt(matcher.group(1)) < strength;
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    /**
+     * Encodeur au coût calibré, exposé comme PasswordEncoder de l'application
+     */
+    public BCryptPasswordEncoder getEncoder() {
+        return encoder;
+    }
+
+    private <T> T submit(Timer timer, Supplier<T> computation) {
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                queueWaitTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                return timer.record(computation);
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new ServiceOverloadedException("Trop de connexions en cours, réessayez plus tard", e);
+        }
+
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Demande abandonnée : retirée de la file pour libérer sa place, jamais calculée si elle n'a pas démarré
+            future.cancel(true);
+            executor.remove((Runnable) future);
+            rejected.increment();
+            throw new ServiceOverloadedException("Trop de connexions en cours, réessayez plus tard", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Vérification du mot de passe interrompue", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Erreur lors du calcul BCrypt", e.getCause());
+        }
+    }
+
+    // Chaque incrément de coût double la durée : une mesure au coût minimal suffit pour extrapoler
+    private int calibrate() {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(minStrength);
+        probe.encode("calibration");
+        long start = System.nanoTime();
+        probe.encode("calibration");
+        long nanos = System.nanoTime() - start;
+
+        long targetNanos = TimeUnit.MILLISECONDS.toNanos(targetMillis);
+        int calibrated = minStrength;
+        while (calibrated < maxStrength && nanos * 2 <= targetNanos) {
+            calibrated++;
+            nanos *= 2;
+        }
+        logger.info("BCrypt calibré : coût {} (~{} ms par hachage, cible {} ms)",
+                calibrated, TimeUnit.NANOSECONDS.toMillis(nanos), targetMillis);
+        return calibrated;
+    }
+}
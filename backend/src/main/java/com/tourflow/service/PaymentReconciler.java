@@ -0,0 +1,253 @@
+package com.tourflow.service;
+
+import com.tourflow.dto.PaymentLedgerEntry;
+import com.tourflow.dto.StripeBalanceEntry;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Jointure par fusion de deux flux triés du plus récent au plus ancien : les paiements en base et les
+ * transactions Stripe. Un paiement et une transaction sont appariés par paymentIntentId s'ils sont
+ * séparés de moins de la tolérance ; seuls les éléments de cette fenêtre glissante sont gardés en mémoire.
+ *
+ * Un élément daté de t est tranché dès que les deux flux sont descendus sous t - tolérance. Les écarts
+ * ne sont transmis qu'une fois leur date passée au-dessus de getResumeAt() : à chaque point de
+ * progression, les écarts déjà écrits sont exactement ceux postérieurs à cette date, et une reprise
+ * ne signale que les éléments antérieurs ou égaux, sans perte ni doublon.
+ */
+public class PaymentReconciler {
+
+    public enum DiscrepancyType {
+        MISSING_IN_STRIPE,
+        MISSING_IN_DATABASE,
+        DUPLICATE_IN_STRIPE,
+        DUPLICATE_IN_DATABASE,
+        AMOUNT_MISMATCH,
+        CURRENCY_MISMATCH
+    }
+
+    public interface DiscrepancySink {
+        void accept(Discrepancy discrepancy);
+    }
+
+    public interface ProgressListener {
+        void onProgress(Instant resumeAt, long processedPayments, long processedStripeTransactions, long discrepancies);
+    }
+
+    private final Duration tolerance;
+    private final Instant reportFrom;
+    private final Instant reportUntil;
+    private final ZoneId zoneId;
+    private final DiscrepancySink sink;
+
+    private final Map<String, PaymentLedgerEntry> pendingPayments = new LinkedHashMap<>();
+    private final Map<String, StripeBalanceEntry> pendingTransactions = new LinkedHashMap<>();
+
+    // Écarts constatés mais datés dans la fenêtre encore ouverte, transmis quand elle la quitte
+    private final List<Discrepancy> heldDiscrepancies = new ArrayList<>();
+
+    private Instant low;
+    private long processedPayments;
+    private long processedStripeTransactions;
+    private long discrepancies;
+
+    /**
+     * Seuls les écarts datés dans [reportFrom, reportUntil) sont signalés : les éléments lus en dehors
+     * servent uniquement de contrepartie (bords de la période, ou partie déjà traitée avant une reprise).
+     */
+    public PaymentReconciler(Duration tolerance, Instant reportFrom, Instant reportUntil, ZoneId zoneId, DiscrepancySink sink) {
+        this.tolerance = tolerance;
+        this.reportFrom = reportFrom;
+        this.reportUntil = reportUntil;
+        this.zoneId = zoneId;
+        this.sink = sink;
+    }
+
+    public void run(Iterator<PaymentLedgerEntry> payments, Iterator<StripeBalanceEntry> transactions,
+                    int progressInterval, ProgressListener listener) {
+        PaymentLedgerEntry nextPayment = payments.hasNext() ? payments.next() : null;
+        StripeBalanceEntry nextTransaction = transactions.hasNext() ? transactions.next() : null;
+        long sinceLastProgress = 0;
+
+        while (nextPayment != null || nextTransaction != null) {
+            // Toujours consommer l'élément le plus récent des deux flux
+            if (nextTransaction == null
+                    || (nextPayment != null && !timeOf(nextPayment).isBefore(nextTransaction.getCreated()))) {
+                low = timeOf(nextPayment);
+                acceptPayment(nextPayment);
+                nextPayment = payments.hasNext() ? payments.next() : null;
+            } else {
+                low = nextTransaction.getCreated();
+                acceptTransaction(nextTransaction);
+                nextTransaction = transactions.hasNext() ? transactions.next() : null;
+            }
+
+            evictDecided(low.plus(tolerance));
+            release(low.plus(tolerance));
+
+            if (++sinceLastProgress >= progressInterval && listener != null) {
+                listener.onProgress(getResumeAt(), processedPayments, processedStripeTransactions, discrepancies);
+                sinceLastProgress = 0;
+            }
+        }
+
+        // Fin des deux flux : tout ce qui reste en attente est orphelin
+        evictDecided(Instant.MIN);
+        release(Instant.MIN);
+    }
+
+    /**
+     * Date au-delà de laquelle tous les éléments ont été tranchés
+     */
+    public Instant getResumeAt() {
+        return low == null ? null : low.plus(tolerance);
+    }
+
+    public long getProcessedPayments() {
+        return processedPayments;
+    }
+
+    public long getProcessedStripeTransactions() {
+        return processedStripeTransactions;
+    }
+
+    public long getDiscrepancies() {
+        return discrepancies;
+    }
+
+    private void acceptPayment(PaymentLedgerEntry payment) {
+        processedPayments++;
+        String key = payment.getPaymentIntentId() != null ? payment.getPaymentIntentId() : "payment:" + payment.getPaymentId();
+
+        StripeBalanceEntry transaction = pendingTransactions.remove(key);
+        if (transaction != null) {
+            compare(payment, transaction);
+        } else if (pendingPayments.containsKey(key)) {
+            report(DiscrepancyType.DUPLICATE_IN_DATABASE, payment, null, timeOf(payment));
+        } else {
+            pendingPayments.put(key, payment);
+        }
+    }
+
+    private void acceptTransaction(StripeBalanceEntry transaction) {
+        processedStripeTransactions++;
+        String key = transaction.getPaymentIntentId() != null ? transaction.getPaymentIntentId() : "txn:" + transaction.getTransactionId();
+
+        PaymentLedgerEntry payment = pendingPayments.remove(key);
+        if (payment != null) {
+            compare(payment, transaction);
+        } else if (pendingTransactions.containsKey(key)) {
+            report(DiscrepancyType.DUPLICATE_IN_STRIPE, null, transaction, transaction.getCreated());
+        } else {
+            pendingTransactions.put(key, transaction);
+        }
+    }
+
+    private void compare(PaymentLedgerEntry payment, StripeBalanceEntry transaction) {
+        String currency = payment.getCurrency();
+        if (currency == null || !currency.equalsIgnoreCase(transaction.getCurrency())) {
+            report(DiscrepancyType.CURRENCY_MISMATCH, payment, transaction, timeOf(payment));
+        } else if (toMinorUnits(payment.getAmount(), currency) != transaction.getAmountCents()) {
+            report(DiscrepancyType.AMOUNT_MISMATCH, payment, transaction, timeOf(payment));
+        }
+    }
+
+    /**
+     * Montant dans la plus petite unité de la devise, comme Stripe : centimes pour l'euro, yens pour le yen
+     */
+    static long toMinorUnits(double amount, String currency) {
+        int fractionDigits;
+        try {
+            fractionDigits = Math.max(0, Currency.getInstance(currency.toUpperCase()).getDefaultFractionDigits());
+        } catch (IllegalArgumentException e) {
+            fractionDigits = 2;
+        }
+        return BigDecimal.valueOf(amount).movePointRight(fractionDigits).setScale(0, RoundingMode.HALF_UP).longValue();
+    }
+
+    private void evictDecided(Instant threshold) {
+        // Les maps sont en ordre d'insertion, donc du plus récent au plus ancien
+        Iterator<PaymentLedgerEntry> paymentIterator = pendingPayments.values().iterator();
+        while (paymentIterator.hasNext()) {
+            PaymentLedgerEntry payment = paymentIterator.next();
+            if (!timeOf(payment).isAfter(threshold)) {
+                break;
+            }
+            report(DiscrepancyType.MISSING_IN_STRIPE, payment, null, timeOf(payment));
+            paymentIterator.remove();
+        }
+
+        Iterator<StripeBalanceEntry> transactionIterator = pendingTransactions.values().iterator();
+        while (transactionIterator.hasNext()) {
+            StripeBalanceEntry transaction = transactionIterator.next();
+            if (!transaction.getCreated().isAfter(threshold)) {
+                break;
+            }
+            report(DiscrepancyType.MISSING_IN_DATABASE, null, transaction, transaction.getCreated());
+            transactionIterator.remove();
+        }
+    }
+
+    private void report(DiscrepancyType type, PaymentLedgerEntry payment, StripeBalanceEntry transaction, Instant occurredAt) {
+        if (occurredAt.isBefore(reportFrom) || !occurredAt.isBefore(reportUntil)) {
+            return;
+        }
+        heldDiscrepancies.add(new Discrepancy(type, payment, transaction, occurredAt));
+    }
+
+    private void release(Instant threshold) {
+        Iterator<Discrepancy> iterator = heldDiscrepancies.iterator();
+        while (iterator.hasNext()) {
+            Discrepancy discrepancy = iterator.next();
+            if (discrepancy.getOccurredAt().isAfter(threshold)) {
+                discrepancies++;
+                sink.accept(discrepancy);
+                iterator.remove();
+            }
+        }
+    }
+
+    private Instant timeOf(PaymentLedgerEntry payment) {
+        return payment.getCompletedAt().atZone(zoneId).toInstant();
+    }
+
+    public static class Discrepancy {
+        private final DiscrepancyType type;
+        private final PaymentLedgerEntry payment;
+        private final StripeBalanceEntry transaction;
+        private final Instant occurredAt;
+
+        public Discrepancy(DiscrepancyType type, PaymentLedgerEntry payment, StripeBalanceEntry transaction, Instant occurredAt) {
+            this.type = type;
+            this.payment = payment;
+            this.transaction = transaction;
+            this.occurredAt = occurredAt;
+        }
+
+        public DiscrepancyType getType() {
+            return type;
+        }
+
+        public PaymentLedgerEntry getPayment() {
+            return payment;
+        }
+
+        public StripeBalanceEntry getTransaction() {
+            return transaction;
+        }
+
+        public Instant getOccurredAt() {
+            return occurredAt;
+        }
+    }
+}
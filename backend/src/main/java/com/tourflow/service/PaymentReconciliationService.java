@@ -0,0 +1,277 @@
+package com.tourflow.service;
+
+import com.tourflow.dto.PaymentLedgerEntry;
+import com.tourflow.dto.StripeBalanceEntry;
+import com.tourflow.model.PaymentStatus;
+import com.tourflow.model.ReconciliationCheckpoint;
+import com.tourflow.repository.PaymentRepository;
+import com.tourflow.repository.ReconciliationCheckpointRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
+
+/**
+ * Rapprochement des paiements enregistrés avec les transactions réellement encaissées par Stripe.
+ * Les deux sources sont parcourues en flux (curseur serveur côté base, pages côté Stripe) et les écarts
+ * sont écrits au fil de l'eau dans un rapport CSV ; la progression est sauvegardée pour permettre la reprise.
+ */
+@Service
+public class PaymentReconciliationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentReconciliationService.class);
+    private static final String REPORT_HEADER =
+            "type,occurredAt,paymentId,paymentIntentId,stripeTransactionId,dbAmount,stripeAmountCents,dbCurrency,stripeCurrency";
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private ReconciliationCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private StripeBalanceClient stripeBalanceClient;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${reconciliation.report.dir:reports/reconciliation}")
+    private String reportDir;
+
+    @Value("${reconciliation.tolerance-minutes:15}")
+    private long toleranceMinutes;
+
+    @Value("${reconciliation.stripe.page-size:100}")
+    private int stripePageSize;
+
+    @Value("${reconciliation.checkpoint-interval:1000}")
+    private int checkpointInterval;
+
+    private final ZoneId zoneId = ZoneId.systemDefault();
+
+    // Rapprochement quotidien de la veille
+    @Scheduled(cron = "${reconciliation.cron:0 30 3 * * *}")
+    public void reconcilePreviousDay() {
+        LocalDate day = LocalDate.now().minusDays(1);
+        reconcile(day.atStartOfDay(), day.plusDays(1).atStartOfDay());
+    }
+
+    /**
+     * Rapproche les paiements encaissés dans [from, to). Un traitement interrompu reprend au dernier point de contrôle.
+     */
+    public ReconciliationCheckpoint reconcile(LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new RuntimeException("La date de début doit précéder la date de fin");
+        }
+
+        String jobKey = "payments:" + from + ":" + to;
+        ReconciliationCheckpoint checkpoint = checkpointRepository.findById(jobKey)
+                .orElseGet(() -> new ReconciliationCheckpoint(jobKey, from, to,
+                        Paths.get(reportDir, "reconciliation-" + from.toLocalDate() + "-" + to.toLocalDate() + ".csv").toString()));
+
+        if (checkpoint.isCompleted()) {
+            return checkpoint;
+        }
+
+        Duration tolerance = Duration.ofMinutes(toleranceMinutes);
+        Instant reportFrom = toInstant(from);
+        // Lors d'une reprise, seuls les éléments antérieurs ou égaux au point de contrôle restent à trancher
+        boolean resuming = checkpoint.getResumeAt() != null;
+        Instant reportUntil = resuming ? toInstant(checkpoint.getResumeAt()).plusNanos(1) : toInstant(to);
+
+        // Les contreparties d'un élément peuvent se trouver jusqu'à une tolérance en dehors de la période
+        Instant readFrom = reportFrom.minus(tolerance);
+        Instant readUntil = reportUntil.plus(tolerance);
+
+        logger.info("Rapprochement des paiements {} ({})", jobKey, resuming ? "reprise au " + checkpoint.getResumeAt() : "début");
+
+        Path reportPath = Paths.get(checkpoint.getReportPath());
+        try (BufferedWriter writer = openReport(reportPath, resuming, checkpoint.getReportSize())) {
+            PaymentReconciler reconciler = new PaymentReconciler(tolerance, reportFrom, reportUntil, zoneId,
+                    discrepancy -> writeLine(writer, discrepancy));
+
+            long basePayments = checkpoint.getProcessedPayments();
+            long baseTransactions = checkpoint.getProcessedStripeTransactions();
+            long baseDiscrepancies = checkpoint.getDiscrepancies();
+
+            TransactionTemplate readTransaction = new TransactionTemplate(transactionManager);
+            readTransaction.setReadOnly(true);
+            readTransaction.executeWithoutResult(status -> {
+                try (Stream<PaymentLedgerEntry> payments = paymentRepository.streamSettledPayments(
+                        List.of(PaymentStatus.COMPLETED, PaymentStatus.REFUNDED),
+                        toLocalDateTime(readFrom), toLocalDateTime(readUntil))) {
+
+                    reconciler.run(payments.iterator(), new StripeBalanceIterator(readFrom, readUntil), checkpointInterval,
+                            (resumeAt, processedPayments, processedTransactions, discrepancies) -> {
+                                flush(writer);
+                                checkpoint.setReportSize(sizeOf(reportPath));
+                                checkpoint.setResumeAt(toLocalDateTime(resumeAt));
+                                checkpoint.setProcessedPayments(basePayments + processedPayments);
+                                checkpoint.setProcessedStripeTransactions(baseTransactions + processedTransactions);
+                                checkpoint.setDiscrepancies(baseDiscrepancies + discrepancies);
+                                saveCheckpoint(checkpoint);
+                            });
+                }
+            });
+
+            flush(writer);
+            checkpoint.setReportSize(sizeOf(reportPath));
+            checkpoint.setProcessedPayments(basePayments + reconciler.getProcessedPayments());
+            checkpoint.setProcessedStripeTransactions(baseTransactions + reconciler.getProcessedStripeTransactions());
+            checkpoint.setDiscrepancies(baseDiscrepancies + reconciler.getDiscrepancies());
+            checkpoint.setCompleted(true);
+            saveCheckpoint(checkpoint);
+
+            logger.info("Rapprochement {} terminé : {} paiements, {} transactions Stripe, {} écarts",
+                    jobKey, checkpoint.getProcessedPayments(), checkpoint.getProcessedStripeTransactions(), checkpoint.getDiscrepancies());
+            return checkpoint;
+        } catch (IOException e) {
+            throw new RuntimeException("Erreur lors de l'écriture du rapport de rapprochement", e);
+        }
+    }
+
+    private void saveCheckpoint(ReconciliationCheckpoint checkpoint) {
+        // Transaction indépendante : la lecture en cours est en lecture seule et ne serait jamais validée
+        TransactionTemplate writeTransaction = new TransactionTemplate(transactionManager);
+        writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        writeTransaction.executeWithoutResult(status -> checkpointRepository.save(checkpoint));
+    }
+
+    /**
+     * Ouvre le rapport ; lors d'une reprise, les lignes écrites après le dernier point de contrôle sont
+     * retirées puisque la reprise les produira de nouveau
+     */
+    private BufferedWriter openReport(Path path, boolean append, Long resumeSize) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+
+        if (append && Files.exists(path)) {
+            if (resumeSize != null) {
+                try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+                    channel.truncate(resumeSize);
+                }
+            }
+            return Files.newBufferedWriter(path, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+        }
+
+        BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        writer.write(REPORT_HEADER);
+        writer.newLine();
+        return writer;
+    }
+
+    private void writeLine(BufferedWriter writer, PaymentReconciler.Discrepancy discrepancy) {
+        PaymentLedgerEntry payment = discrepancy.getPayment();
+        StripeBalanceEntry transaction = discrepancy.getTransaction();
+
+        String line = String.join(",",
+                discrepancy.getType().name(),
+                discrepancy.getOccurredAt().toString(),
+                payment != null ? payment.getPaymentId().toString() : "",
+                payment != null ? nullToEmpty(payment.getPaymentIntentId()) : nullToEmpty(transaction.getPaymentIntentId()),
+                transaction != null ? transaction.getTransactionId() : "",
+                payment != null ? String.valueOf(payment.getAmount()) : "",
+                transaction != null ? String.valueOf(transaction.getAmountCents()) : "",
+                payment != null ? nullToEmpty(payment.getCurrency()) : "",
+                transaction != null ? nullToEmpty(transaction.getCurrency()) : "");
+
+        try {
+            writer.write(line);
+            writer.newLine();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private long sizeOf(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void flush(BufferedWriter writer) {
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String nullToEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    private Instant toInstant(LocalDateTime dateTime) {
+        return dateTime.atZone(zoneId).toInstant();
+    }
+
+    private LocalDateTime toLocalDateTime(Instant instant) {
+        return LocalDateTime.ofInstant(instant, zoneId);
+    }
+
+    /**
+     * Itère sur les transactions Stripe en ne gardant qu'une page en mémoire
+     */
+    private class StripeBalanceIterator implements Iterator<StripeBalanceEntry> {
+        private final Instant from;
+        private final Instant until;
+        private Iterator<StripeBalanceEntry> current;
+        private String lastId;
+        private boolean hasMore = true;
+
+        StripeBalanceIterator(Instant from, Instant until) {
+            this.from = from;
+            this.until = until;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while ((current == null || !current.hasNext()) && hasMore) {
+                StripeBalanceClient.Page page = stripeBalanceClient.fetchPage(from, until, lastId, stripePageSize);
+                List<StripeBalanceEntry> entries = page.getEntries();
+                hasMore = page.isHasMore() && !entries.isEmpty();
+                if (!entries.isEmpty()) {
+                    lastId = entries.get(entries.size() - 1).getTransactionId();
+                }
+                current = entries.iterator();
+            }
+            return current != null && current.hasNext();
+        }
+
+        @Override
+        public StripeBalanceEntry next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return current.next();
+        }
+    }
+}
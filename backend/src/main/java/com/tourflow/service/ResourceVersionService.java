@@ -0,0 +1,89 @@
+package com.tourflow.service;
+
+import com.tourflow.dto.TourSnapshot;
+import com.tourflow.repository.BookingRepository;
+import com.tourflow.repository.TourRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * ETags des lectures publiques, calculés à partir des versions des données (une requête indexée chacun)
+ * sans charger ni sérialiser la réponse
+ */
+@Service
+public class ResourceVersionService {
+
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    @Autowired
+    private TourRepository tourRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private TourService tourService;
+
+    // Les créneaux dépendent aussi de l'heure (délai minimum de réservation, expiration des réservations en attente)
+    // et des calendriers externes : leur ETag change au moins à chaque intervalle
+    @Value("${http.cache.slots.etag-interval-seconds:60}")
+    private long slotsIntervalSeconds;
+
+    /**
+     * Toute création ou modification de tour change toutes les pages du catalogue
+     */
+    public String catalogETag() {
+        return catalogETag(tourRepository.findLastUpdate());
+    }
+
+    public String catalogETag(LocalDateTime lastUpdate) {
+        return "\"catalog-" + (lastUpdate == null ? 0 : micros(lastUpdate)) + "\"";
+    }
+
+    /**
+     * Liste complète des tours actifs : empreinte de la liste servie par le cache (identifiants et versions),
+     * qui change aussi quand un tour est désactivé. Calculée sur la liste en mémoire, sans la sérialiser.
+     */
+    public String activeToursETag() {
+        List<TourSnapshot> tours = tourService.getAllActiveTours();
+        long hash = tours.size();
+        for (TourSnapshot tour : tours) {
+            hash = 31 * hash + tour.getId().hashCode();
+            hash = 31 * hash + micros(tour.getUpdatedAt());
+        }
+        return "\"tours-" + Long.toHexString(hash) + "\"";
+    }
+
+    /**
+     * Null si le tour n'existe pas
+     */
+    public String tourETag(UUID tourId) {
+        return tourRepository.findUpdatedAtById(tourId).map(this::tourETag).orElse(null);
+    }
+
+    public String tourETag(LocalDateTime updatedAt) {
+        return "\"tour-" + micros(updatedAt) + "\"";
+    }
+
+    /**
+     * Version du tour (règles et exceptions comprises), de ses réservations et intervalle de temps courant ;
+     * null si le tour n'existe pas
+     */
+    public String slotsETag(UUID tourId, Instant now) {
+        return tourRepository.findSlotsVersionById(tourId)
+                .map(version -> "\"slots-" + micros(version) + "-" + bookingRepository.findLastChangeSeqByTour(tourId)
+                        + "-" + now.getEpochSecond() / slotsIntervalSeconds + "\"")
+                .orElse(null);
+    }
+
+    private static long micros(LocalDateTime dateTime) {
+        return ChronoUnit.MICROS.between(EPOCH, dateTime);
+    }
+}
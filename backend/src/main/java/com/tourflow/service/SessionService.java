@@ -1,75 +1,277 @@
 package com.tourflow.service;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
 import org.springframework.stereotype.Service;
 
-import java.util.Collection;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
+/**
+ * Sessions stockées dans Redis sous forme de hash : une clé par session (spring:session:sessions:{id}),
+ * un champ sessionAttr:{nom} par attribut, lus et écrits avec les sérialiseurs de Spring Session
+ * (sessionRedisTemplate). Un ensemble par utilisateur indexe ses sessions ; la session garde l'identifiant
+ * de l'utilisateur pour prolonger l'index en même temps qu'elle.
+ * Lecture d'une session en un HGETALL, invalidation en un DEL ; aucune commande KEYS.
+ */
 @Service
 public class SessionService {
 
+    private static final Logger logger = LoggerFactory.getLogger(SessionService.class);
+
+    private static final String SESSION_PREFIX = "spring:session:sessions:";
+    private static final String ATTRIBUTE_PREFIX = "sessionAttr:";
+    private static final String USER_INDEX_PREFIX = "tourflow:sessions:user:";
+    private static final String USER_ID_FIELD = ATTRIBUTE_PREFIX + "userId";
+    private static final long SESSION_TTL_HOURS = 1;
+
     @Autowired
+    @Qualifier("sessionRedisTemplate")
     private RedisTemplate<String, Object> redisTemplate;
 
+    @Value("${session.migration.enabled:true}")
+    private boolean migrationEnabled;
+
+    @Value("${session.migration.scan-count:500}")
+    private long scanCount;
+
     /**
      * Récupère une valeur de session depuis Redis
      */
     public Object getSessionValue(String sessionId, String key) {
-        String redisKey = "spring:session:sessions:" + sessionId + ":sessionAttr:" + key;
-        return redisTemplate.opsForValue().get(redisKey);
+        return redisTemplate.opsForHash().get(sessionKey(sessionId), ATTRIBUTE_PREFIX + key);
+    }
+
+    /**
+     * Tous les attributs de la session en une seule commande ; vide si la session n'existe pas
+     */
+    public Map<String, Object> getSessionAttributes(String sessionId) {
+        Map<Object, Object> entries = redisTemplate.opsForHash().entries(sessionKey(sessionId));
+        Map<String, Object> attributes = new HashMap<>();
+        entries.forEach((field, value) -> {
+            String name = field.toString();
+            if (name.startsWith(ATTRIBUTE_PREFIX) && !name.equals(USER_ID_FIELD)) {
+                attributes.put(name.substring(ATTRIBUTE_PREFIX.length()), value);
+            }
+        });
+        return attributes;
     }
 
     /**
-     * Définit une valeur de session dans Redis
+     * Définit une valeur de session dans Redis ; écriture et TTL envoyés ensemble
      */
     public void setSessionValue(String sessionId, String key, Object value) {
-        String redisKey = "spring:session:sessions:" + sessionId + ":sessionAttr:" + key;
-        redisTemplate.opsForValue().set(redisKey, value, 1, TimeUnit.HOURS); // TTL de 1 heure
+        String sessionKey = sessionKey(sessionId);
+        List<Object> results = pipelined(operations -> {
+            operations.opsForHash().put(sessionKey, ATTRIBUTE_PREFIX + key, value);
+            operations.expire(sessionKey, SESSION_TTL_HOURS, TimeUnit.HOURS); // TTL de 1 heure
+            operations.opsForHash().get(sessionKey, USER_ID_FIELD);
+        });
+        extendUserIndex(results.get(results.size() - 1));
     }
 
     /**
      * Supprime une valeur de session de Redis
      */
     public void removeSessionValue(String sessionId, String key) {
-        String redisKey = "spring:session:sessions:" + sessionId + ":sessionAttr:" + key;
-        redisTemplate.delete(redisKey);
+        redisTemplate.opsForHash().delete(sessionKey(sessionId), ATTRIBUTE_PREFIX + key);
     }
 
     /**
-     * Récupère toutes les clés de session pour un utilisateur
+     * Récupère les noms des attributs de la session
      */
     public Set<String> getSessionKeys(String sessionId) {
-        String pattern = "spring:session:sessions:" + sessionId + ":sessionAttr:*";
-        return redisTemplate.keys(pattern);
+        Set<String> keys = new HashSet<>();
+        for (Object field : redisTemplate.opsForHash().keys(sessionKey(sessionId))) {
+            String name = field.toString();
+            if (name.startsWith(ATTRIBUTE_PREFIX) && !name.equals(USER_ID_FIELD)) {
+                keys.add(name.substring(ATTRIBUTE_PREFIX.length()));
+            }
+        }
+        return keys;
     }
 
     /**
-     * Invalide une session complète
+     * Invalide une session complète. L'index de l'utilisateur est nettoyé à sa prochaine lecture.
      */
     public void invalidateSession(String sessionId) {
-        String sessionKey = "spring:session:sessions:" + sessionId;
-        Collection<String> keys = redisTemplate.keys(sessionKey + "*");
-        if (!keys.isEmpty()) {
-            redisTemplate.delete(keys);
+        redisTemplate.delete(sessionKey(sessionId));
+    }
+
+    /**
+     * Rattache une session à un utilisateur : ajout à son index et identifiant gardé dans la session
+     */
+    public void bindToUser(String sessionId, UUID userId) {
+        String sessionKey = sessionKey(sessionId);
+        String indexKey = userIndexKey(userId);
+        pipelined(operations -> {
+            operations.opsForHash().put(sessionKey, USER_ID_FIELD, userId.toString());
+            operations.expire(sessionKey, SESSION_TTL_HOURS, TimeUnit.HOURS);
+            operations.opsForSet().add(indexKey, sessionId);
+            operations.expire(indexKey, SESSION_TTL_HOURS, TimeUnit.HOURS);
+        });
+    }
+
+    /**
+     * Sessions actives de l'utilisateur ; les sessions expirées ou invalidées sont retirées de l'index
+     */
+    public Set<String> getUserSessions(UUID userId) {
+        String indexKey = userIndexKey(userId);
+        Set<Object> members = redisTemplate.opsForSet().members(indexKey);
+        if (members == null || members.isEmpty()) {
+            return Set.of();
+        }
+
+        List<String> sessionIds = members.stream().map(Object::toString).toList();
+        List<Object> exists = pipelined(operations ->
+                sessionIds.forEach(sessionId -> operations.hasKey(sessionKey(sessionId))));
+
+        Set<String> active = new HashSet<>();
+        List<Object> stale = new ArrayList<>();
+        for (int i = 0; i < sessionIds.size(); i++) {
+            if (Boolean.TRUE.equals(exists.get(i))) {
+                active.add(sessionIds.get(i));
+            } else {
+                stale.add(sessionIds.get(i));
+            }
+        }
+        if (!stale.isEmpty()) {
+            redisTemplate.opsForSet().remove(indexKey, stale.toArray());
         }
+        return active;
+    }
+
+    /**
+     * Invalide toutes les sessions de l'utilisateur et son index en un seul DEL
+     */
+    public void invalidateUserSessions(UUID userId) {
+        String indexKey = userIndexKey(userId);
+        Set<Object> members = redisTemplate.opsForSet().members(indexKey);
+        List<String> keys = new ArrayList<>();
+        keys.add(indexKey);
+        if (members != null) {
+            members.forEach(sessionId -> keys.add(sessionKey(sessionId.toString())));
+        }
+        redisTemplate.delete(keys);
     }
 
     /**
      * Vérifie si une session existe
      */
     public boolean sessionExists(String sessionId) {
-        String sessionKey = "spring:session:sessions:" + sessionId;
-        return Boolean.TRUE.equals(redisTemplate.hasKey(sessionKey));
+        return Boolean.TRUE.equals(redisTemplate.hasKey(sessionKey(sessionId)));
     }
 
     /**
-     * Étend la durée de vie d'une session
+     * Étend la durée de vie d'une session, et celle de l'index de son utilisateur
      */
     public void extendSession(String sessionId) {
-        String sessionKey = "spring:session:sessions:" + sessionId;
-        redisTemplate.expire(sessionKey, 1, TimeUnit.HOURS);
+        String sessionKey = sessionKey(sessionId);
+        List<Object> results = pipelined(operations -> {
+            operations.expire(sessionKey, SESSION_TTL_HOURS, TimeUnit.HOURS);
+            operations.opsForHash().get(sessionKey, USER_ID_FIELD);
+        });
+        extendUserIndex(results.get(results.size() - 1));
+    }
+
+    /**
+     * Reprise des attributs stockés par les versions précédentes, une clé par attribut
+     * (spring:session:sessions:{id}:sessionAttr:{nom}) : parcours incrémental par SCAN, chaque attribut
+     * est recopié dans le hash de sa session avec le TTL restant, puis l'ancienne clé supprimée.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateLegacyAttributes() {
+        if (!migrationEnabled) {
+            return;
+        }
+
+        int migrated = 0;
+        ScanOptions options = ScanOptions.scanOptions()
+                .match(SESSION_PREFIX + "*:" + ATTRIBUTE_PREFIX + "*")
+                .count(scanCount)
+                .build();
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            while (cursor.hasNext()) {
+                if (migrateLegacyKey(cursor.next())) {
+                    migrated++;
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.warn("Migration des attributs de session interrompue après {} clés : {}", migrated, e.getMessage());
+            return;
+        }
+
+        if (migrated > 0) {
+            logger.info("{} attributs de session migrés vers le stockage par hash", migrated);
+        }
+    }
+
+    private boolean migrateLegacyKey(String legacyKey) {
+        int separator = legacyKey.indexOf(":" + ATTRIBUTE_PREFIX, SESSION_PREFIX.length());
+        if (separator < 0) {
+            return false;
+        }
+        String sessionKey = legacyKey.substring(0, separator);
+        String field = legacyKey.substring(separator + 1);
+
+        Object value = redisTemplate.opsForValue().get(legacyKey);
+        Long ttlSeconds = redisTemplate.getExpire(legacyKey, TimeUnit.SECONDS);
+        if (value != null) {
+            redisTemplate.opsForHash().putIfAbsent(sessionKey, field, value);
+            if (ttlSeconds != null && ttlSeconds > 0) {
+                redisTemplate.expire(sessionKey, ttlSeconds, TimeUnit.SECONDS);
+            }
+        }
+        redisTemplate.delete(legacyKey);
+        return value != null;
+    }
+
+    /**
+     * L'index ne doit pas expirer avant la session la plus récemment prolongée de l'utilisateur
+     */
+    private void extendUserIndex(Object userId) {
+        if (userId != null) {
+            redisTemplate.expire(userIndexKey(UUID.fromString(userId.toString())), SESSION_TTL_HOURS, TimeUnit.HOURS);
+        }
+    }
+
+    /**
+     * Commandes envoyées en un seul aller-retour ; résultats dans l'ordre des commandes
+     */
+    private List<Object> pipelined(Consumer<RedisOperations<String, Object>> commands) {
+        return redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                commands.accept((RedisOperations<String, Object>) operations);
+                return null;
+            }
+        });
+    }
+
+    private static String sessionKey(String sessionId) {
+        return SESSION_PREFIX + sessionId;
+    }
+
+    private static String userIndexKey(UUID userId) {
+        return USER_INDEX_PREFIX + userId;
     }
 }
@@ -0,0 +1,94 @@
+package com.tourflow.service;
+
+import com.stripe.Stripe;
+import com.stripe.exception.StripeException;
+import com.stripe.model.BalanceTransaction;
+import com.stripe.model.BalanceTransactionCollection;
+import com.stripe.model.Charge;
+import com.stripe.param.BalanceTransactionListParams;
+import com.tourflow.dto.StripeBalanceEntry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Accès paginé aux transactions de solde Stripe.
+ * L'URL de l'API peut être redirigée vers un bouchon local (stripe-mock) via stripe.api.base.
+ */
+@Component
+public class StripeBalanceClient {
+
+    @Value("${stripe.api.base:}")
+    private String stripeApiBase;
+
+    @PostConstruct
+    public void init() {
+        if (!stripeApiBase.isBlank()) {
+            Stripe.overrideApiBase(stripeApiBase);
+        }
+    }
+
+    /**
+     * Récupère une page de transactions de type "charge" créées dans [from, to), de la plus récente à la plus ancienne
+     */
+    public Page fetchPage(Instant from, Instant to, String startingAfter, int limit) {
+        BalanceTransactionListParams.Builder params = BalanceTransactionListParams.builder()
+                .setType("charge")
+                .setLimit((long) limit)
+                .setCreated(BalanceTransactionListParams.Created.builder()
+                        .setGte(from.getEpochSecond())
+                        .setLt(to.getEpochSecond())
+                        .build())
+                .addExpand("data.source");
+
+        if (startingAfter != null) {
+            params.setStartingAfter(startingAfter);
+        }
+
+        try {
+            BalanceTransactionCollection collection = BalanceTransaction.list(params.build());
+
+            List<StripeBalanceEntry> entries = new ArrayList<>(collection.getData().size());
+            for (BalanceTransaction transaction : collection.getData()) {
+                entries.add(toEntry(transaction));
+            }
+
+            return new Page(entries, Boolean.TRUE.equals(collection.getHasMore()));
+        } catch (StripeException e) {
+            throw new RuntimeException("Erreur lors de la récupération des transactions Stripe", e);
+        }
+    }
+
+    private StripeBalanceEntry toEntry(BalanceTransaction transaction) {
+        // Le montant et la devise de la charge font foi (la transaction de solde est en devise de règlement)
+        if (transaction.getSourceObject() instanceof Charge charge) {
+            return new StripeBalanceEntry(transaction.getId(), charge.getPaymentIntent(),
+                    charge.getAmount(), charge.getCurrency(), Instant.ofEpochSecond(transaction.getCreated()));
+        }
+
+        return new StripeBalanceEntry(transaction.getId(), null,
+                transaction.getAmount(), transaction.getCurrency(), Instant.ofEpochSecond(transaction.getCreated()));
+    }
+
+    public static class Page {
+        private final List<StripeBalanceEntry> entries;
+        private final boolean hasMore;
+
+        public Page(List<StripeBalanceEntry> entries, boolean hasMore) {
+            this.entries = entries;
+            this.hasMore = hasMore;
+        }
+
+        public List<StripeBalanceEntry> getEntries() {
+            return entries;
+        }
+
+        public boolean isHasMore() {
+            return hasMore;
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.tourflow.service;
+
+import com.tourflow.model.RevokedToken;
+import com.tourflow.repository.RevokedTokenRepository;
+import com.tourflow.security.JwtPrincipal;
+import com.tourflow.util.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Révocation des JWT sans requête en base par requête HTTP. Les révocations sont persistées dans revoked_tokens
+ * et reflétées en mémoire par un filtre de Bloom (réponse négative en quelques nanosecondes pour la quasi-totalité
+ * des tokens) doublé d'un ensemble exact qui confirme les positifs. Les autres instances relèvent la table
+ * périodiquement ; le filtre est reconstruit à mesure que les révocations expirent.
+ */
+@Service
+public class TokenRevocationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${jwt.expiration}")
+    private long jwtExpiration;
+
+    @Value("${jwt.revocation.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    @Value("${jwt.revocation.min-capacity:1024}")
+    private int minCapacity;
+
+    // Recouvrement du relevé : une révocation validée après le relevé précédent mais datée d'avant reste vue
+    @Value("${jwt.revocation.poll-overlap-seconds:30}")
+    private long pollOverlapSeconds;
+
+    private volatile State state;
+
+    private volatile LocalDateTime lastPoll = LocalDateTime.now();
+
+    private Counter falsePositives;
+
+    @PostConstruct
+    public void init() {
+        state = State.empty(minCapacity, falsePositiveRate);
+        falsePositives = Counter.builder("jwt.revocations.bloom.false_positives")
+                .description("Tokens signalés par le filtre de Bloom mais absents de l'ensemble exact")
+                .register(meterRegistry);
+        Gauge.builder("jwt.revocations.active", this, service -> service.state.revokedTokens.size())
+                .description("Révocations de tokens encore en vigueur")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Appelé pour chaque requête authentifiée : aucune allocation ni accès réseau
+     */
+    public boolean isRevoked(JwtPrincipal principal) {
+        State current = state;
+        if (!current.userCutoffs.isEmpty()) {
+            Instant cutoff = current.userCutoffs.get(principal.getUserId());
+            if (cutoff != null && !principal.getIssuedAt().isAfter(cutoff)) {
+                return true;
+            }
+        }
+
+        UUID tokenId = principal.getTokenId();
+        if (tokenId == null || !current.filter.mightContain(tokenId)) {
+            return false;
+        }
+        if (current.revokedTokens.containsKey(tokenId)) {
+            return true;
+        }
+        falsePositives.increment();
+        return false;
+    }
+
+    @Transactional
+    public void revokeToken(UUID tokenId, UUID userId, Instant expiresAt) {
+        RevokedToken revoked = new RevokedToken(tokenId, userId, null, LocalDateTime.ofInstant(expiresAt, ZONE));
+        apply(revokedTokenRepository.save(revoked));
+    }
+
+    /**
+     * Révoque tous les tokens de l'utilisateur émis jusqu'à maintenant ; ceux émis ensuite restent valides
+     */
+    @Transactional
+    public void revokeUserTokens(UUID userId) {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        RevokedToken revoked = new RevokedToken(null, userId, now, now.plus(jwtExpiration, ChronoUnit.MILLIS));
+        apply(revokedTokenRepository.save(revoked));
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.poll-interval-ms:5000}")
+    public void pollChanges() {
+        LocalDateTime pollStart = LocalDateTime.now();
+        List<RevokedToken> changes = revokedTokenRepository
+                .findByRevokedAtAfterOrderByRevokedAtAsc(lastPoll.minusSeconds(pollOverlapSeconds));
+        changes.forEach(this::apply);
+        lastPoll = pollStart;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /**
+     * Purge les révocations expirées et reconstruit le filtre à la taille des révocations restantes
+     */
+    @Scheduled(cron = "${jwt.revocation.rebuild-cron:0 */15 * * * *}")
+    @Transactional
+    public void rebuild() {
+        LocalDateTime now = LocalDateTime.now();
+        int purged = revokedTokenRepository.deleteExpired(now);
+        List<RevokedToken> active = revokedTokenRepository.findByExpiresAtAfter(now);
+
+        long tokenCount = active.stream().filter(revoked -> revoked.getTokenId() != null).count();
+        State rebuilt = State.empty(Math.max(minCapacity, tokenCount * 2), falsePositiveRate);
+        active.forEach(rebuilt::add);
+        state = rebuilt;
+        lastPoll = now;
+
+        logger.info("Filtre de révocation reconstruit : {} tokens, {} utilisateurs, {} révocations expirées purgées",
+                rebuilt.revokedTokens.size(), rebuilt.userCutoffs.size(), purged);
+    }
+
+    private void apply(RevokedToken revoked) {
+        State current = state;
+        current.add(revoked);
+        // Au-delà de la capacité prévue, le taux de faux positifs grimpe : on redimensionne sans attendre
+        if (current.revokedTokens.size() > current.capacity) {
+            State resized = State.empty(current.revokedTokens.size() * 2L, falsePositiveRate);
+            current.revokedTokens.forEach(resized::addToken);
+            resized.userCutoffs.putAll(current.userCutoffs);
+            state = resized;
+        }
+    }
+
+    private static final class State {
+
+        private final BloomFilter filter;
+        private final long capacity;
+        private final Map<UUID, LocalDateTime> revokedTokens;
+        private final Map<UUID, Instant> userCutoffs;
+
+        private State(BloomFilter filter, long capacity, Map<UUID, LocalDateTime> revokedTokens,
+                      Map<UUID, Instant> userCutoffs) {
+            this.filter = filter;
+            this.capacity = capacity;
+            this.revokedTokens = revokedTokens;
+            this.userCutoffs = userCutoffs;
+        }
+
+        private static State empty(long capacity, double falsePositiveRate) {
+            return new State(new BloomFilter(capacity, falsePositiveRate), capacity,
+                    new ConcurrentHashMap<>(), new ConcurrentHashMap<>());
+        }
+
+        private void add(RevokedToken revoked) {
+            if (revoked.getTokenId() != null) {
+                addToken(revoked.getTokenId(), revoked.getExpiresAt());
+            } else {
+                Instant cutoff = revoked.getIssuedBefore().atZone(ZONE).toInstant();
+                userCutoffs.merge(revoked.getUserId(), cutoff, (a, b) -> a.isAfter(b) ? a : b);
+            }
+        }
+
+        // L'ensemble exact d'abord : un token vu par le filtre est toujours confirmable
+        private void addToken(UUID tokenId, LocalDateTime expiresAt) {
+            revokedTokens.put(tokenId, expiresAt);
+            filter.put(tokenId);
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.tourflow.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tourflow.cache.ClusterInvalidationBus;
+import com.tourflow.dto.TourCatalogPage;
+import com.tourflow.dto.TourDto;
+import com.tourflow.model.Tour;
+import com.tourflow.repository.TourRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Catalogue public des tours actifs, du plus récent au plus ancien, paginé par clé (createdAt, id) :
+ * le curseur désigne le dernier tour transmis, si bien qu'une page ne dépend que des tours plus anciens que lui.
+ * Chaque page est mise en cache ; une modification de tour n'invalide que les pages dont l'intervalle le contient,
+ * sur cette instance puis sur les autres par diffusion.
+ */
+@Service
+public class TourCatalogService {
+
+    private static final String CURSOR_VERSION = "c1";
+
+    // Sujet de diffusion : le message porte la clé (createdAt|id) et la date de modification du tour
+    private static final String INDEX_TOPIC = "tourCatalog";
+
+    @Autowired
+    private TourRepository tourRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ClusterInvalidationBus clusterInvalidationBus;
+
+    @Value("${tour.catalog.max-page-size:100}")
+    private int maxPageSize;
+
+    @Value("${tour.catalog.cache.max-pages:2000}")
+    private long maxCachedPages;
+
+    @Value("${tour.catalog.cache.ttl-minutes:30}")
+    private long cacheTtlMinutes;
+
+    private Cache<PageKey, TourCatalogPage> pageCache;
+
+    // Incrémenté à chaque invalidation : une page lue pendant une modification n'est pas mise en cache
+    private final AtomicLong invalidations = new AtomicLong();
+
+    // Date de modification du dernier tour invalidé : les pages restées en cache sont à jour jusqu'à cette version
+    private volatile LocalDateTime lastEvictedVersion;
+
+    private Counter hitCounter;
+    private Counter missCounter;
+
+    @PostConstruct
+    public void init() {
+        pageCache = Caffeine.newBuilder()
+                .maximumSize(maxCachedPages)
+                .expireAfterWrite(Duration.ofMinutes(cacheTtlMinutes))
+                .build();
+
+        hitCounter = catalogCounter("hit");
+        missCounter = catalogCounter("miss");
+        clusterInvalidationBus.subscribe(INDEX_TOPIC, this::onRemoteEviction);
+    }
+
+    @Transactional(readOnly = true)
+    public TourCatalogPage getPage(String cursor, int size) {
+        if (size < 1 || size > maxPageSize) {
+            throw new RuntimeException("La taille de page doit être comprise entre 1 et " + maxPageSize);
+        }
+
+        PageKey key = cursor == null || cursor.isBlank() ? new PageKey(null, null, size) : decodeCursor(cursor, size);
+        // Lue avant le cache : une page encore présente après cette invalidation n'était pas concernée
+        LocalDateTime evictedVersion = lastEvictedVersion;
+        TourCatalogPage cached = pageCache.getIfPresent(key);
+        if (cached != null) {
+            hitCounter.increment();
+            if (evictedVersion != null && (cached.getCatalogVersion() == null || evictedVersion.isAfter(cached.getCatalogVersion()))) {
+                return new TourCatalogPage(cached.getContent(), cached.getSize(), cached.getNextCursor(), cached.isHasMore(),
+                        evictedVersion);
+            }
+            return cached;
+        }
+
+        missCounter.increment();
+        long generation = invalidations.get();
+
+        // Lue avant la page : le contenu est au moins aussi récent que cette version
+        LocalDateTime catalogVersion = tourRepository.findLastUpdate();
+
+        // Une ligne de plus pour savoir s'il reste des tours sans requête de comptage
+        PageRequest limit = PageRequest.of(0, size + 1);
+        List<TourDto> tours = key.createdAt == null
+                ? tourRepository.findCatalogFirstPage(limit)
+                : tourRepository.findCatalogPageAfter(key.createdAt, key.id, limit);
+
+        boolean hasMore = tours.size() > size;
+        if (hasMore) {
+            tours = List.copyOf(tours.subList(0, size));
+        }
+        TourDto last = hasMore ? tours.get(tours.size() - 1) : null;
+        TourCatalogPage page = new TourCatalogPage(tours, size,
+                last == null ? null : encodeCursor(last.getCreatedAt(), last.getId()), hasMore, catalogVersion);
+
+        if (invalidations.get() == generation) {
+            pageCache.put(key, page);
+        }
+        return page;
+    }
+
+    /**
+     * Invalide les pages contenant le tour (créé, modifié ou retiré), après validation de la transaction en cours
+     */
+    public void evictTour(Tour tour) {
+        LocalDateTime createdAt = tour.getCreatedAt();
+        UUID tourId = tour.getId();
+        LocalDateTime updatedAt = tour.getUpdatedAt();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictAndPublish(createdAt, tourId, updatedAt);
+                }
+            });
+        } else {
+            evictAndPublish(createdAt, tourId, updatedAt);
+        }
+    }
+
+    private void evictAndPublish(LocalDateTime createdAt, UUID tourId, LocalDateTime updatedAt) {
+        evictPagesContaining(createdAt, tourId, updatedAt);
+        clusterInvalidationBus.publish(INDEX_TOPIC, createdAt + "|" + tourId + "|" + (updatedAt == null ? "" : updatedAt));
+    }
+
+    private void onRemoteEviction(String payload) {
+        String[] parts = payload.split("\\|", -1);
+        evictPagesContaining(LocalDateTime.parse(parts[0]), UUID.fromString(parts[1]),
+                parts[2].isEmpty() ? null : LocalDateTime.parse(parts[2]));
+    }
+
+    private void evictPagesContaining(LocalDateTime createdAt, UUID tourId, LocalDateTime updatedAt) {
+        invalidations.incrementAndGet();
+        pageCache.asMap().entrySet().removeIf(entry -> covers(entry.getKey(), entry.getValue(), createdAt, tourId));
+        if (updatedAt != null && (lastEvictedVersion == null || updatedAt.isAfter(lastEvictedVersion))) {
+            lastEvictedVersion = updatedAt;
+        }
+    }
+
+    /**
+     * Vrai si le tour se trouve dans l'intervalle de la page : strictement plus ancien que son curseur de départ
+     * et, sauf pour la dernière page, pas plus ancien que son dernier tour
+     */
+    static boolean covers(PageKey key, TourCatalogPage page, LocalDateTime createdAt, UUID tourId) {
+        if (key.createdAt != null && compareKeys(createdAt, tourId, key.createdAt, key.id) >= 0) {
+            return false;
+        }
+        if (!page.isHasMore()) {
+            return true;
+        }
+        TourDto last = page.getContent().get(page.getContent().size() - 1);
+        return compareKeys(createdAt, tourId, last.getCreatedAt(), last.getId()) >= 0;
+    }
+
+    /**
+     * Compare deux clés du catalogue (négatif si la première est la plus ancienne) ; les UUID sont comparés
+     * octet par octet comme en base
+     */
+    static int compareKeys(LocalDateTime createdAt1, UUID id1, LocalDateTime createdAt2, UUID id2) {
+        int byDate = createdAt1.compareTo(createdAt2);
+        if (byDate != 0) {
+            return byDate;
+        }
+        int byHigh = Long.compareUnsigned(id1.getMostSignificantBits(), id2.getMostSignificantBits());
+        return byHigh != 0 ? byHigh : Long.compareUnsigned(id1.getLeastSignificantBits(), id2.getLeastSignificantBits());
+    }
+
+    static String encodeCursor(LocalDateTime createdAt, UUID tourId) {
+        String raw = CURSOR_VERSION + "|" + createdAt + "|" + tourId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static PageKey decodeCursor(String cursor, int size) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            if (parts.length == 3 && parts[0].equals(CURSOR_VERSION)) {
+                return new PageKey(LocalDateTime.parse(parts[1]), UUID.fromString(parts[2]), size);
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            // Traité comme un curseur invalide ci-dessous
+        }
+        throw new RuntimeException("Curseur de pagination invalide");
+    }
+
+    private Counter catalogCounter(String result) {
+        return Counter.builder("tour.catalog.requests")
+                .description("Pages du catalogue des tours servies")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    static final class PageKey {
+        private final LocalDateTime createdAt;
+        private final UUID id;
+        private final int size;
+
+        PageKey(LocalDateTime createdAt, UUID id, int size) {
+            this.createdAt = createdAt;
+            this.id = id;
+            this.size = size;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof PageKey)) {
+                return false;
+            }
+            PageKey key = (PageKey) other;
+            return size == key.size && Objects.equals(createdAt, key.createdAt) && Objects.equals(id, key.id);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(createdAt, id, size);
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package com.tourflow.service;
+
+import com.tourflow.cache.ClusterInvalidationBus;
+import com.tourflow.dto.NearbyTour;
+import com.tourflow.dto.TourLocationEntry;
+import com.tourflow.model.Tour;
+import com.tourflow.repository.BookingRepository;
+import com.tourflow.repository.TourRepository;
+import com.tourflow.util.Gazetteer;
+import com.tourflow.util.GeoGrid;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Recherche géographique des tours ("tours près de moi").
+ * Les coordonnées d'un tour sont fournies par le guide ou géocodées hors ligne à partir de son lieu
+ * (gazetteer embarqué) ; un index spatial en grille, chargé au démarrage et tenu à jour à chaque modification
+ * de tour, évite de calculer la distance à tous les tours. Les modifications sont diffusées aux autres instances,
+ * qui relisent le tour en base.
+ */
+@Service
+public class TourGeoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TourGeoService.class);
+
+    public static final double MAX_RADIUS_KM = 100;
+    public static final int MAX_RESULTS = 200;
+
+    // Sujet de diffusion : le message porte l'identifiant du tour modifié
+    private static final String INDEX_TOPIC = "tourGeo";
+
+    @Autowired
+    private TourRepository tourRepository;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private ClusterInvalidationBus clusterInvalidationBus;
+
+    @Value("${tour.geo.gazetteer:classpath:geo/gazetteer.csv}")
+    private Resource gazetteerResource;
+
+    @Value("${tour.geo.cell-degrees:0.05}")
+    private double cellDegrees;
+
+    private Gazetteer gazetteer;
+    private GeoGrid<TourLocationEntry> grid;
+
+    @PostConstruct
+    public void init() {
+        try (InputStream inputStream = gazetteerResource.getInputStream()) {
+            gazetteer = Gazetteer.load(inputStream);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible de charger le gazetteer " + gazetteerResource, e);
+        }
+        grid = new GeoGrid<>(cellDegrees);
+        clusterInvalidationBus.subscribe(INDEX_TOPIC, tourId -> refreshTour(UUID.fromString(tourId)));
+        logger.info("Gazetteer chargé : {} lieux", gazetteer.size());
+    }
+
+    /**
+     * Chargement complet au démarrage, puis périodiquement pour rattraper une diffusion perdue
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${tour.geo.reload-cron:0 20 * * * *}")
+    @Transactional(readOnly = true)
+    public void loadIndex() {
+        int[] unresolved = new int[1];
+        Set<UUID> loaded = new HashSet<>();
+        try (Stream<TourLocationEntry> entries = tourRepository.streamLocationEntries()) {
+            entries.forEach(entry -> {
+                if (put(entry)) {
+                    loaded.add(entry.getId());
+                } else {
+                    unresolved[0]++;
+                }
+            });
+        }
+        grid.retainAll(loaded);
+        logger.info("Index géographique chargé : {} tours, {} lieux non reconnus", grid.size(), unresolved[0]);
+    }
+
+    /**
+     * Renseigne les coordonnées du tour à partir de son lieu si le guide ne les a pas fournies
+     */
+    public void locate(Tour tour) {
+        if (tour.getLatitude() != null && tour.getLongitude() != null) {
+            if (Math.abs(tour.getLatitude()) > 90 || Math.abs(tour.getLongitude()) > 180) {
+                throw new RuntimeException("Coordonnées invalides");
+            }
+            return;
+        }
+        double[] coordinates = gazetteer.locate(tour.getLocation());
+        tour.setLatitude(coordinates == null ? null : coordinates[0]);
+        tour.setLongitude(coordinates == null ? null : coordinates[1]);
+    }
+
+    /**
+     * Met à jour l'index après l'enregistrement d'un tour
+     */
+    public void indexTour(Tour tour) {
+        if (!tour.isActive() || tour.getLatitude() == null || tour.getLongitude() == null) {
+            removeTour(tour.getId());
+            return;
+        }
+        grid.put(tour.getId(), tour.getLatitude(), tour.getLongitude(), new TourLocationEntry(tour.getId(),
+                tour.getTitle(), tour.getLocation(), tour.getLatitude(), tour.getLongitude(), tour.getPrice(),
+                tour.getDurationMinutes()));
+        clusterInvalidationBus.publish(INDEX_TOPIC, tour.getId().toString());
+    }
+
+    public void removeTour(UUID tourId) {
+        grid.remove(tourId);
+        clusterInvalidationBus.publish(INDEX_TOPIC, tourId.toString());
+    }
+
+    /**
+     * Modification reçue d'une autre instance : le tour est relu en base, retiré s'il n'est plus actif
+     */
+    private void refreshTour(UUID tourId) {
+        TourLocationEntry entry = tourRepository.findLocationEntryById(tourId).orElse(null);
+        if (entry == null || !put(entry)) {
+            grid.remove(tourId);
+        }
+    }
+
+    private boolean put(TourLocationEntry entry) {
+        // Tours antérieurs aux coordonnées : géocodés en mémoire, enregistrés à leur prochaine modification
+        double[] coordinates = entry.getLatitude() != null && entry.getLongitude() != null
+                ? new double[] { entry.getLatitude(), entry.getLongitude() }
+                : gazetteer.locate(entry.getLocation());
+        if (coordinates == null) {
+            return false;
+        }
+        grid.put(entry.getId(), coordinates[0], coordinates[1], entry);
+        return true;
+    }
+
+    /**
+     * Tours à moins de radiusKm du point, du plus proche au plus éloigné, éventuellement libres sur la période
+     */
+    @Transactional(readOnly = true)
+    public List<NearbyTour> findWithinRadius(double latitude, double longitude, double radiusKm,
+                                             LocalDateTime startDate, LocalDateTime endDate, int limit) {
+        if (Math.abs(latitude) > 90 || Math.abs(longitude) > 180) {
+            throw new RuntimeException("Coordonnées invalides");
+        }
+        if (radiusKm <= 0 || radiusKm > MAX_RADIUS_KM) {
+            throw new RuntimeException("Le rayon doit être compris entre 0 et " + (int) MAX_RADIUS_KM + " km");
+        }
+        return available(grid.withinRadius(latitude, longitude, radiusKm), startDate, endDate, limit);
+    }
+
+    /**
+     * Tours contenus dans le rectangle (carte affichée), du centre vers les bords, éventuellement libres sur la période
+     */
+    @Transactional(readOnly = true)
+    public List<NearbyTour> findWithinBox(double minLatitude, double minLongitude, double maxLatitude,
+                                          double maxLongitude, LocalDateTime startDate, LocalDateTime endDate,
+                                          int limit) {
+        if (minLatitude > maxLatitude || Math.abs(minLatitude) > 90 || Math.abs(maxLatitude) > 90
+                || Math.abs(minLongitude) > 180 || Math.abs(maxLongitude) > 180) {
+            throw new RuntimeException("Zone invalide");
+        }
+        return available(grid.withinBox(minLatitude, minLongitude, maxLatitude, maxLongitude), startDate, endDate, limit);
+    }
+
+    private List<NearbyTour> available(List<GeoGrid.Match<TourLocationEntry>> matches, LocalDateTime startDate,
+                                       LocalDateTime endDate, int limit) {
+        if (limit < 1 || limit > MAX_RESULTS) {
+            throw new RuntimeException("Le nombre de résultats doit être compris entre 1 et " + MAX_RESULTS);
+        }
+        if ((startDate == null) != (endDate == null)) {
+            throw new RuntimeException("Les dates de début et de fin doivent être fournies ensemble");
+        }
+        if (startDate != null && !startDate.isBefore(endDate)) {
+            throw new RuntimeException("La date de début doit précéder la date de fin");
+        }
+
+        List<NearbyTour> results = new ArrayList<>(Math.min(limit, matches.size()));
+        // Les disponibilités ne sont vérifiées que pour les plus proches, par lots, jusqu'à obtenir assez de résultats
+        int batchSize = startDate == null ? matches.size() : Math.max(limit * 2, 50);
+        for (int from = 0; from < matches.size() && results.size() < limit; from += batchSize) {
+            List<GeoGrid.Match<TourLocationEntry>> batch = matches.subList(from, Math.min(from + batchSize, matches.size()));
+
+            Set<UUID> booked = Set.of();
+            if (startDate != null) {
+                List<UUID> ids = batch.stream().map(GeoGrid.Match::getId).toList();
+                booked = new HashSet<>(bookingRepository.findBookedTourIds(ids, startDate, endDate));
+            }
+
+            for (GeoGrid.Match<TourLocationEntry> match : batch) {
+                if (results.size() == limit) {
+                    break;
+                }
+                if (!booked.contains(match.getId())) {
+                    TourLocationEntry entry = match.getValue();
+                    results.add(new NearbyTour(entry.getId(), entry.getTitle(), entry.getLocation(), match.getLatitude(),
+                            match.getLongitude(), entry.getPrice(), entry.getDurationMinutes(),
+                            Math.round(match.getDistanceKm() * 100) / 100.0));
+                }
+            }
+        }
+        return results;
+    }
+}
@@ -0,0 +1,112 @@
+package com.tourflow.service;
+
+import com.tourflow.cache.ClusterInvalidationBus;
+import com.tourflow.dto.TourSearchCriteria;
+import com.tourflow.dto.TourSearchDocument;
+import com.tourflow.dto.TourSearchResult;
+import com.tourflow.model.Tour;
+import com.tourflow.repository.TourRepository;
+import com.tourflow.util.TourSearchIndex;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Recherche plein texte et à facettes sur les tours actifs.
+ * L'index est chargé au démarrage puis tenu à jour à chaque création, modification ou suppression de tour ;
+ * chaque mise à jour est diffusée aux autres instances, qui relisent le tour en base.
+ */
+@Service
+public class TourSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TourSearchService.class);
+
+    // Sujet de diffusion : le message porte l'identifiant du tour modifié
+    private static final String INDEX_TOPIC = "tourSearch";
+
+    @Autowired
+    private TourRepository tourRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ClusterInvalidationBus clusterInvalidationBus;
+
+    private final TourSearchIndex index = new TourSearchIndex();
+
+    private Timer searchTimer;
+
+    @PostConstruct
+    public void init() {
+        searchTimer = Timer.builder("tour.search")
+                .description("Durée des recherches de tours")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        clusterInvalidationBus.subscribe(INDEX_TOPIC, tourId -> refreshTour(UUID.fromString(tourId)));
+    }
+
+    /**
+     * Chargement complet au démarrage, puis périodiquement pour rattraper une diffusion perdue
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${search.index.reload-cron:0 10 * * * *}")
+    @Transactional(readOnly = true)
+    public void loadIndex() {
+        long start = System.currentTimeMillis();
+        LocalDateTime loadedAt = LocalDateTime.now();
+        Set<UUID> loaded = new HashSet<>();
+        try (Stream<TourSearchDocument> documents = tourRepository.streamSearchDocuments()) {
+            documents.forEach(document -> {
+                index.put(document);
+                loaded.add(document.getId());
+            });
+        }
+        index.retainAll(loaded, loadedAt);
+        logger.info("Index de recherche chargé : {} tours en {} ms", index.size(), System.currentTimeMillis() - start);
+    }
+
+    public TourSearchResult search(TourSearchCriteria criteria) {
+        return searchTimer.record(() -> index.search(criteria));
+    }
+
+    /**
+     * Indexe un tour après son enregistrement ; un tour désactivé est retiré de l'index
+     */
+    public void indexTour(Tour tour) {
+        if (!tour.isActive()) {
+            removeTour(tour.getId());
+            return;
+        }
+        index.put(new TourSearchDocument(tour.getId(), tour.getTitle(), tour.getDescription(), tour.getLocation(),
+                tour.getLanguage(), tour.getPrice(), tour.getDurationMinutes(), tour.getCreatedAt(), tour.getUpdatedAt()));
+        clusterInvalidationBus.publish(INDEX_TOPIC, tour.getId().toString());
+    }
+
+    public void removeTour(UUID tourId) {
+        index.remove(tourId);
+        clusterInvalidationBus.publish(INDEX_TOPIC, tourId.toString());
+    }
+
+    /**
+     * Mise à jour reçue d'une autre instance : le tour est relu en base, retiré s'il n'est plus actif
+     */
+    private void refreshTour(UUID tourId) {
+        tourRepository.findSearchDocumentById(tourId)
+                .ifPresentOrElse(index::put, () -> index.remove(tourId));
+    }
+}
@@ -1,5 +1,6 @@
 package com.tourflow.service;
 
+import com.tourflow.dto.TourSnapshot;
 import com.tourflow.model.Tour;
 import com.tourflow.model.User;
 import com.tourflow.repository.TourRepository;
@@ -11,6 +12,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Objects;
 import java.util.UUID;
 
 @Service
@@ -19,15 +21,33 @@ public class TourService {
     @Autowired
     private TourRepository tourRepository;
 
+    @Autowired
+    private TourSearchService tourSearchService;
+
+    @Autowired
+    private TourGeoService tourGeoService;
+
+    @Autowired
+    private FreeCapacityService freeCapacityService;
+
+    @Autowired
+    private TourCatalogService tourCatalogService;
+
     @CacheEvict(value = {"activeTours", "guideTours"}, allEntries = true)
     public Tour createTour(Tour tour, User guide) {
         tour.setGuide(guide);
-        return tourRepository.save(tour);
+        tourGeoService.locate(tour);
+        Tour savedTour = tourRepository.save(tour);
+        tourSearchService.indexTour(savedTour);
+        tourGeoService.indexTour(savedTour);
+        tourCatalogService.evictTour(savedTour);
+        return savedTour;
     }
 
     @CacheEvict(value = {"tours", "activeTours", "guideTours"}, allEntries = true)
     public Tour updateTour(UUID tourId, Tour tourDetails, User guide) {
         Tour tour = getTourByIdAndGuide(tourId, guide);
+        boolean locationChanged = !Objects.equals(tour.getLocation(), tourDetails.getLocation());
 
         tour.setTitle(tourDetails.getTitle());
         tour.setDescription(tourDetails.getDescription());
@@ -37,25 +57,52 @@ public class TourService {
         tour.setPrice(tourDetails.getPrice());
         tour.setLanguage(tourDetails.getLanguage());
         tour.setPhotoUrls(tourDetails.getPhotoUrls());
-
-        return tourRepository.save(tour);
+        // Coordonnées conservées sauf si de nouvelles sont fournies ; recalculées à partir du lieu s'il a changé
+        if (tourDetails.getLatitude() != null && tourDetails.getLongitude() != null) {
+            tour.setLatitude(tourDetails.getLatitude());
+            tour.setLongitude(tourDetails.getLongitude());
+        } else if (locationChanged) {
+            tour.setLatitude(null);
+            tour.setLongitude(null);
+        }
+        tourGeoService.locate(tour);
+
+        Tour savedTour = tourRepository.save(tour);
+        tourSearchService.indexTour(savedTour);
+        tourGeoService.indexTour(savedTour);
+        tourCatalogService.evictTour(savedTour);
+        // La durée et la capacité du tour déterminent ses créneaux
+        freeCapacityService.refreshTour(savedTour.getId());
+        return savedTour;
     }
 
     @CacheEvict(value = {"tours", "activeTours", "guideTours"}, allEntries = true)
     public void deleteTour(UUID tourId, User guide) {
         Tour tour = getTourByIdAndGuide(tourId, guide);
         tour.setActive(false);
-        tourRepository.save(tour);
+        Tour savedTour = tourRepository.save(tour);
+        tourSearchService.removeTour(tourId);
+        tourGeoService.removeTour(tourId);
+        freeCapacityService.removeTour(tourId);
+        tourCatalogService.evictTour(savedTour);
     }
 
-    @Cacheable(value = "tours", key = "#tourId")
-    public Tour getTourById(UUID tourId) {
+    /**
+     * Tour en lecture seule, mis en cache sous forme de copie immuable
+     */
+    @Cacheable(value = "tours", key = "#tourId", sync = true)
+    public TourSnapshot getTourById(UUID tourId) {
         return tourRepository.findById(tourId)
+                .map(TourSnapshot::of)
                 .orElseThrow(() -> new RuntimeException("Tour non trouvé avec l'ID : " + tourId));
     }
 
+    /**
+     * Entité du tour, lue en base pour être modifiée ou associée, après vérification du guide
+     */
     public Tour getTourByIdAndGuide(UUID tourId, User guide) {
-        Tour tour = getTourById(tourId);
+        Tour tour = tourRepository.findById(tourId)
+                .orElseThrow(() -> new RuntimeException("Tour non trouvé avec l'ID : " + tourId));
 
         if (!tour.getGuide().getId().equals(guide.getId())) {
             throw new RuntimeException("Vous n'êtes pas autorisé à accéder à ce tour");
@@ -64,14 +111,21 @@ public class TourService {
         return tour;
     }
 
-    @Cacheable(value = "activeTours")
-    public List<Tour> getAllActiveTours() {
-        return tourRepository.findByActiveTrue();
+    /**
+     * Tours actifs complets (description et photos comprises) pour la liste publique
+     */
+    @Cacheable(value = "activeTours", sync = true)
+    public List<TourSnapshot> getAllActiveTours() {
+        return tourRepository.findByActiveTrue().stream()
+                .map(TourSnapshot::of)
+                .toList();
     }
 
-    @Cacheable(value = "guideTours", key = "#guide.id")
-    public List<Tour> getToursByGuide(User guide) {
-        return tourRepository.findByGuideAndActiveTrue(guide);
+    @Cacheable(value = "guideTours", key = "#guide.id", sync = true)
+    public List<TourSnapshot> getToursByGuide(User guide) {
+        return tourRepository.findByGuideAndActiveTrue(guide).stream()
+                .map(TourSnapshot::of)
+                .toList();
     }
 
     @Transactional
@@ -0,0 +1,84 @@
+package com.tourflow.service;
+
+import com.tourflow.repository.UserActivityWriter;
+import com.tourflow.util.WriteBehindBuffer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.BinaryOperator;
+
+/**
+ * Date de dernière connexion enregistrée en différé : les connexions ne font qu'une écriture en mémoire,
+ * la base reçoit périodiquement un lot d'UPDATE avec la dernière date de chaque utilisateur. Une perte
+ * (arrêt brutal) ne concerne que quelques secondes d'une statistique non critique.
+ */
+@Service
+public class UserActivityService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UserActivityService.class);
+
+    @Autowired
+    private UserActivityWriter userActivityWriter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final WriteBehindBuffer<UUID, LocalDateTime> lastLogins =
+            new WriteBehindBuffer<>(BinaryOperator.maxBy(LocalDateTime::compareTo));
+
+    private Timer flushTimer;
+    private Counter flushedRows;
+    private Counter flushFailures;
+
+    @PostConstruct
+    public void initMetrics() {
+        flushTimer = Timer.builder("write_behind.flush.duration").tag("buffer", "lastLogin")
+                .description("Durée d'un vidage du tampon d'écritures différées").register(meterRegistry);
+        flushedRows = Counter.builder("write_behind.flushed").tag("buffer", "lastLogin")
+                .description("Entrées écrites en base par les vidages").register(meterRegistry);
+        flushFailures = Counter.builder("write_behind.failures").tag("buffer", "lastLogin")
+                .description("Vidages en échec, remis en attente").register(meterRegistry);
+        Gauge.builder("write_behind.pending", lastLogins, WriteBehindBuffer::size).tag("buffer", "lastLogin")
+                .description("Entrées en attente d'écriture").register(meterRegistry);
+    }
+
+    public void recordLogin(UUID userId, LocalDateTime loggedInAt) {
+        lastLogins.record(userId, loggedInAt);
+    }
+
+    @Scheduled(fixedDelayString = "${write-behind.flush-interval-ms:5000}")
+    public void flush() {
+        Map<UUID, LocalDateTime> batch = lastLogins.drain();
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            flushTimer.record(() -> flushedRows.increment(userActivityWriter.updateLastLogins(batch)));
+        } catch (RuntimeException e) {
+            // Réessayé au prochain vidage, fusionné avec les connexions arrivées entre-temps
+            lastLogins.restore(batch);
+            flushFailures.increment();
+            logger.warn("Écriture des dates de connexion en échec ({} utilisateurs) : {}", batch.size(), e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+        if (lastLogins.size() > 0) {
+            logger.warn("{} dates de connexion non écrites à l'arrêt", lastLogins.size());
+        }
+    }
+}
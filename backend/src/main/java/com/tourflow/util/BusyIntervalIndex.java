@@ -0,0 +1,76 @@
+package com.tourflow.util;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.Function;
+
+/**
+ * Index immuable de périodes occupées, trié par début. Le maximum cumulé des fins permet de savoir
+ * en O(log n) si une période [début, fin) chevauche au moins un intervalle.
+ */
+public final class BusyIntervalIndex {
+
+    public static final BusyIntervalIndex EMPTY = new BusyIntervalIndex(new long[0], new long[0]);
+
+    private final long[] starts;
+    private final long[] maxEnds;
+
+    private BusyIntervalIndex(long[] starts, long[] maxEnds) {
+        this.starts = starts;
+        this.maxEnds = maxEnds;
+    }
+
+    public static <T> BusyIntervalIndex of(Collection<T> intervals, Function<T, LocalDateTime> start,
+                                           Function<T, LocalDateTime> end) {
+        if (intervals.isEmpty()) {
+            return EMPTY;
+        }
+
+        long[][] pairs = new long[intervals.size()][];
+        int i = 0;
+        for (T interval : intervals) {
+            pairs[i++] = new long[] { toSeconds(start.apply(interval)), toSeconds(end.apply(interval)) };
+        }
+        Arrays.sort(pairs, (a, b) -> Long.compare(a[0], b[0]));
+
+        long[] starts = new long[pairs.length];
+        long[] maxEnds = new long[pairs.length];
+        long maxEnd = Long.MIN_VALUE;
+        for (i = 0; i < pairs.length; i++) {
+            starts[i] = pairs[i][0];
+            maxEnd = Math.max(maxEnd, pairs[i][1]);
+            maxEnds[i] = maxEnd;
+        }
+        return new BusyIntervalIndex(starts, maxEnds);
+    }
+
+    public boolean overlaps(LocalDateTime start, LocalDateTime end) {
+        long from = toSeconds(start);
+        long to = toSeconds(end);
+
+        // Dernier intervalle qui commence avant la fin de la période
+        int low = 0;
+        int high = starts.length - 1;
+        int last = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (starts[mid] < to) {
+                last = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return last >= 0 && maxEnds[last] > from;
+    }
+
+    public int size() {
+        return starts.length;
+    }
+
+    private static long toSeconds(LocalDateTime dateTime) {
+        return dateTime.toEpochSecond(ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,68 @@
+package com.tourflow.util;
+
+import com.tourflow.dto.BusyPeriod;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Fusion de plusieurs listes de périodes déjà triées par début, en un seul balayage :
+ * les périodes qui se chevauchent ou se touchent sont regroupées, et le résultat est borné à [from, to).
+ */
+public final class BusyPeriodMerger {
+
+    private BusyPeriodMerger() {
+    }
+
+    public static List<BusyPeriod> merge(List<List<BusyPeriod>> sortedInputs, LocalDateTime from, LocalDateTime to) {
+        // Curseur { liste, position } ordonné par le début de la période courante
+        PriorityQueue<int[]> cursors = new PriorityQueue<>(Math.max(1, sortedInputs.size()),
+                (a, b) -> periodAt(sortedInputs, a).getStart().compareTo(periodAt(sortedInputs, b).getStart()));
+        for (int i = 0; i < sortedInputs.size(); i++) {
+            if (!sortedInputs.get(i).isEmpty()) {
+                cursors.add(new int[] { i, 0 });
+            }
+        }
+
+        List<BusyPeriod> merged = new ArrayList<>();
+        LocalDateTime currentStart = null;
+        LocalDateTime currentEnd = null;
+
+        while (!cursors.isEmpty()) {
+            int[] cursor = cursors.poll();
+            BusyPeriod period = periodAt(sortedInputs, cursor);
+            if (++cursor[1] < sortedInputs.get(cursor[0]).size()) {
+                cursors.add(cursor);
+            }
+
+            LocalDateTime start = period.getStart().isBefore(from) ? from : period.getStart();
+            LocalDateTime end = period.getEnd().isAfter(to) ? to : period.getEnd();
+            if (!start.isBefore(end)) {
+                continue;
+            }
+
+            if (currentEnd != null && !start.isAfter(currentEnd)) {
+                if (end.isAfter(currentEnd)) {
+                    currentEnd = end;
+                }
+            } else {
+                if (currentEnd != null) {
+                    merged.add(new BusyPeriod(currentStart, currentEnd));
+                }
+                currentStart = start;
+                currentEnd = end;
+            }
+        }
+
+        if (currentEnd != null) {
+            merged.add(new BusyPeriod(currentStart, currentEnd));
+        }
+        return merged;
+    }
+
+    private static BusyPeriod periodAt(List<List<BusyPeriod>> inputs, int[] cursor) {
+        return inputs.get(cursor[0]).get(cursor[1]);
+    }
+}
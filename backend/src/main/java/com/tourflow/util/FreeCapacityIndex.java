@@ -0,0 +1,178 @@
+package com.tourflow.util;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Places libres par jour et par tour. Pour chaque jour, les tours sont classés par nombre maximum de places
+ * libres sur un de leurs créneaux : la recherche « N personnes entre X et Y » ne parcourt que les tours
+ * ayant au moins N places ce jour-là. Les créneaux d'un tour sont remplacés jour par jour à chaque changement.
+ */
+public class FreeCapacityIndex {
+
+    private final Map<LocalDate, Day> days = new HashMap<>();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Remplace les créneaux du tour sur les jours [from, to] (les jours sans créneau sont vidés)
+     */
+    public void replaceTour(UUID tourId, LocalDate from, LocalDate to, List<Slot> slots) {
+        Map<LocalDate, List<Slot>> slotsByDay = new HashMap<>();
+        for (Slot slot : slots) {
+            slotsByDay.computeIfAbsent(slot.getStart().toLocalDate(), d -> new ArrayList<>()).add(slot);
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+                List<Slot> daySlots = slotsByDay.get(day);
+                Day index = days.get(day);
+                if (daySlots == null) {
+                    if (index != null) {
+                        index.remove(tourId);
+                    }
+                    continue;
+                }
+                if (index == null) {
+                    index = new Day();
+                    days.put(day, index);
+                }
+                index.put(tourId, daySlots);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void removeTour(UUID tourId) {
+        lock.writeLock().lock();
+        try {
+            for (Day day : days.values()) {
+                day.remove(tourId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Créneaux commençant dans [from, to) avec au moins participants places, et réservables à l'instant now
+     * (délai minimum de réservation respecté), par ordre chronologique
+     */
+    public List<Slot> find(LocalDateTime from, LocalDateTime to, int participants, LocalDateTime now) {
+        List<Slot> matches = new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            for (LocalDate day = from.toLocalDate(); !day.isAfter(to.toLocalDate()); day = day.plusDays(1)) {
+                Day index = days.get(day);
+                if (index == null) {
+                    continue;
+                }
+                for (Set<UUID> tours : index.toursByMaxFree.tailMap(participants, true).values()) {
+                    for (UUID tourId : tours) {
+                        for (Slot slot : index.slotsByTour.get(tourId)) {
+                            if (slot.free >= participants && !slot.start.isBefore(from) && slot.start.isBefore(to)
+                                    && slot.start.isAfter(now.plusHours(slot.minBookingHours))) {
+                                matches.add(slot);
+                            }
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        matches.sort((a, b) -> a.start.compareTo(b.start));
+        return matches;
+    }
+
+    private static final class Day {
+        private final Map<UUID, List<Slot>> slotsByTour = new HashMap<>();
+        private final Map<UUID, Integer> maxFreeByTour = new HashMap<>();
+        private final NavigableMap<Integer, Set<UUID>> toursByMaxFree = new TreeMap<>();
+
+        private void put(UUID tourId, List<Slot> slots) {
+            remove(tourId);
+            int maxFree = 0;
+            for (Slot slot : slots) {
+                maxFree = Math.max(maxFree, slot.free);
+            }
+            if (maxFree <= 0) {
+                // Créneaux complets : inutile de les conserver
+                return;
+            }
+            slotsByTour.put(tourId, Collections.unmodifiableList(slots));
+            maxFreeByTour.put(tourId, maxFree);
+            toursByMaxFree.computeIfAbsent(maxFree, f -> new HashSet<>()).add(tourId);
+        }
+
+        private void remove(UUID tourId) {
+            Integer maxFree = maxFreeByTour.remove(tourId);
+            if (maxFree == null) {
+                return;
+            }
+            slotsByTour.remove(tourId);
+            Set<UUID> tours = toursByMaxFree.get(maxFree);
+            tours.remove(tourId);
+            if (tours.isEmpty()) {
+                toursByMaxFree.remove(maxFree);
+            }
+        }
+    }
+
+    public static final class Slot {
+        private final UUID tourId;
+        private final UUID guideId;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+        private final int free;
+        private final int minBookingHours;
+
+        public Slot(UUID tourId, UUID guideId, LocalDateTime start, LocalDateTime end, int free, int minBookingHours) {
+            this.tourId = tourId;
+            this.guideId = guideId;
+            this.start = start;
+            this.end = end;
+            this.free = free;
+            this.minBookingHours = minBookingHours;
+        }
+
+        public UUID getTourId() {
+            return tourId;
+        }
+
+        public UUID getGuideId() {
+            return guideId;
+        }
+
+        public LocalDateTime getStart() {
+            return start;
+        }
+
+        public LocalDateTime getEnd() {
+            return end;
+        }
+
+        public int getFree() {
+            return free;
+        }
+
+        public int getMinBookingHours() {
+            return minBookingHours;
+        }
+    }
+}
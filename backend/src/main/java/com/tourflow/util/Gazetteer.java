@@ -0,0 +1,98 @@
+package com.tourflow.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Géocodage hors ligne à partir d'un fichier de lieux (nom;latitude;longitude, lignes # ignorées).
+ * Un texte libre est résolu par correspondance exacte, puis par partie (séparées par des virgules, de la plus
+ * précise à la plus générale), puis par la plus longue suite de mots connue.
+ */
+public final class Gazetteer {
+
+    private static final int MAX_NAME_WORDS = 5;
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final Map<String, double[]> places;
+
+    private Gazetteer(Map<String, double[]> places) {
+        this.places = places;
+    }
+
+    public static Gazetteer load(InputStream inputStream) throws IOException {
+        Map<String, double[]> places = new HashMap<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split(";");
+            try {
+                double latitude = Double.parseDouble(fields[1].trim());
+                double longitude = Double.parseDouble(fields[2].trim());
+                if (Math.abs(latitude) > 90 || Math.abs(longitude) > 180) {
+                    throw new IllegalArgumentException();
+                }
+                places.put(normalize(fields[0]), new double[] { latitude, longitude });
+            } catch (RuntimeException e) {
+                throw new IOException("Gazetteer invalide, ligne " + lineNumber + " : " + line, e);
+            }
+        }
+        return new Gazetteer(places);
+    }
+
+    /**
+     * Coordonnées {latitude, longitude} du lieu, ou null s'il est inconnu
+     */
+    public double[] locate(String location) {
+        if (location == null || location.isBlank()) {
+            return null;
+        }
+
+        double[] place = places.get(normalize(location));
+        if (place != null) {
+            return place;
+        }
+
+        for (String part : location.split(",")) {
+            place = places.get(normalize(part));
+            if (place != null) {
+                return place;
+            }
+        }
+
+        String[] words = normalize(location).split(" ");
+        for (int n = Math.min(MAX_NAME_WORDS, words.length); n >= 1; n--) {
+            for (int start = 0; start + n <= words.length; start++) {
+                place = places.get(String.join(" ", Arrays.copyOfRange(words, start, start + n)));
+                if (place != null) {
+                    return place;
+                }
+            }
+        }
+        return null;
+    }
+
+    public int size() {
+        return places.size();
+    }
+
+    static String normalize(String text) {
+        String plain = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return SEPARATORS.matcher(plain.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+}
@@ -0,0 +1,260 @@
+package com.tourflow.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Index spatial en mémoire : grille régulière en degrés, chaque cellule listant les points qu'elle contient.
+ * Une recherche ne parcourt que les cellules recouvrant la zone demandée, ou seulement les cellules occupées
+ * quand la zone en recouvre davantage, puis filtre par distance exacte (haversine). Les points sont ajoutés,
+ * déplacés ou retirés individuellement.
+ */
+public class GeoGrid<T> {
+
+    public static final double EARTH_RADIUS_KM = 6371.0088;
+    private static final double KM_PER_DEGREE = 111.32;
+
+    private final double cellDegrees;
+    private final int columns;
+    private final Map<Long, List<Point<T>>> cells = new HashMap<>();
+    private final Map<UUID, Point<T>> points = new HashMap<>();
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public GeoGrid(double cellDegrees) {
+        this.cellDegrees = cellDegrees;
+        this.columns = (int) Math.ceil(360 / cellDegrees);
+    }
+
+    public void put(UUID id, double latitude, double longitude, T value) {
+        Point<T> point = new Point<>(id, latitude, longitude, value);
+        long cell = cell(row(latitude), column(longitude));
+
+        lock.writeLock().lock();
+        try {
+            removePoint(id);
+            points.put(id, point);
+            cells.computeIfAbsent(cell, c -> new ArrayList<>()).add(point);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(UUID id) {
+        lock.writeLock().lock();
+        try {
+            removePoint(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Retire les points absents de l'ensemble fourni (rechargement complet)
+     */
+    public void retainAll(Set<UUID> ids) {
+        lock.writeLock().lock();
+        try {
+            List<UUID> stale = points.keySet().stream().filter(id -> !ids.contains(id)).toList();
+            stale.forEach(this::removePoint);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return points.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Points à moins de radiusKm du centre, du plus proche au plus éloigné
+     */
+    public List<Match<T>> withinRadius(double latitude, double longitude, double radiusKm) {
+        double latitudeDelta = radiusKm / KM_PER_DEGREE;
+        double cos = Math.cos(Math.toRadians(latitude));
+        // Près des pôles, toutes les longitudes sont concernées
+        double longitudeDelta = cos < 1e-6 ? 180 : Math.min(180, radiusKm / (KM_PER_DEGREE * cos));
+
+        List<Match<T>> matches = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            scan(latitude - latitudeDelta, latitude + latitudeDelta, longitude - longitudeDelta, longitude + longitudeDelta,
+                    point -> {
+                        double distance = distanceKm(latitude, longitude, point.latitude, point.longitude);
+                        if (distance <= radiusKm) {
+                            matches.add(new Match<>(point.id, point.latitude, point.longitude, point.value, distance));
+                        }
+                    });
+        } finally {
+            lock.readLock().unlock();
+        }
+        matches.sort(Comparator.comparingDouble(Match::getDistanceKm));
+        return matches;
+    }
+
+    /**
+     * Points contenus dans le rectangle, triés par distance à son centre.
+     * minLongitude > maxLongitude désigne un rectangle qui traverse l'antiméridien.
+     */
+    public List<Match<T>> withinBox(double minLatitude, double minLongitude, double maxLatitude, double maxLongitude) {
+        boolean wraps = minLongitude > maxLongitude;
+        double east = wraps ? maxLongitude + 360 : maxLongitude;
+        double centerLatitude = (minLatitude + maxLatitude) / 2;
+        double centerLongitude = normalizeLongitude((minLongitude + east) / 2);
+
+        List<Match<T>> matches = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            scan(minLatitude, maxLatitude, minLongitude, east, point -> {
+                boolean inLongitude = wraps
+                        ? point.longitude >= minLongitude || point.longitude <= maxLongitude
+                        : point.longitude >= minLongitude && point.longitude <= maxLongitude;
+                if (inLongitude && point.latitude >= minLatitude && point.latitude <= maxLatitude) {
+                    matches.add(new Match<>(point.id, point.latitude, point.longitude, point.value,
+                            distanceKm(centerLatitude, centerLongitude, point.latitude, point.longitude)));
+                }
+            });
+        } finally {
+            lock.readLock().unlock();
+        }
+        matches.sort(Comparator.comparingDouble(Match::getDistanceKm));
+        return matches;
+    }
+
+    public static double distanceKm(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double dLatitude = Math.toRadians(latitude2 - latitude1);
+        double dLongitude = Math.toRadians(longitude2 - longitude1);
+        double a = Math.sin(dLatitude / 2) * Math.sin(dLatitude / 2)
+                + Math.cos(Math.toRadians(latitude1)) * Math.cos(Math.toRadians(latitude2))
+                * Math.sin(dLongitude / 2) * Math.sin(dLongitude / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private void scan(double minLatitude, double maxLatitude, double minLongitude, double maxLongitude,
+                      Consumer<Point<T>> visitor) {
+        int firstRow = row(Math.max(-90, minLatitude));
+        int lastRow = row(Math.min(90, maxLatitude));
+        int firstColumn = (int) Math.floor((minLongitude + 180) / cellDegrees);
+        int lastColumn = (int) Math.floor((maxLongitude + 180) / cellDegrees);
+        if (lastColumn - firstColumn + 1 >= columns) {
+            firstColumn = 0;
+            lastColumn = columns - 1;
+        }
+
+        // Zone très étendue (carte dézoomée) : moins de cellules occupées que de cellules recouvertes
+        long coveredCells = (long) (lastRow - firstRow + 1) * (lastColumn - firstColumn + 1);
+        if (coveredCells > cells.size()) {
+            for (Map.Entry<Long, List<Point<T>>> entry : cells.entrySet()) {
+                int row = (int) (entry.getKey() / columns);
+                int column = (int) (entry.getKey() % columns);
+                if (row >= firstRow && row <= lastRow
+                        && Math.floorMod(column - firstColumn, columns) <= lastColumn - firstColumn) {
+                    entry.getValue().forEach(visitor);
+                }
+            }
+            return;
+        }
+
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                List<Point<T>> cellPoints = cells.get(cell(row, Math.floorMod(column, columns)));
+                if (cellPoints != null) {
+                    cellPoints.forEach(visitor);
+                }
+            }
+        }
+    }
+
+    private void removePoint(UUID id) {
+        Point<T> previous = points.remove(id);
+        if (previous == null) {
+            return;
+        }
+        long cell = cell(row(previous.latitude), column(previous.longitude));
+        List<Point<T>> cellPoints = cells.get(cell);
+        if (cellPoints != null) {
+            cellPoints.remove(previous);
+            if (cellPoints.isEmpty()) {
+                cells.remove(cell);
+            }
+        }
+    }
+
+    private int row(double latitude) {
+        return (int) Math.floor((latitude + 90) / cellDegrees);
+    }
+
+    private int column(double longitude) {
+        return Math.floorMod((int) Math.floor((longitude + 180) / cellDegrees), columns);
+    }
+
+    private long cell(int row, int column) {
+        return (long) row * columns + column;
+    }
+
+    private static double normalizeLongitude(double longitude) {
+        return longitude > 180 ? longitude - 360 : longitude;
+    }
+
+    private static final class Point<T> {
+        private final UUID id;
+        private final double latitude;
+        private final double longitude;
+        private final T value;
+
+        private Point(UUID id, double latitude, double longitude, T value) {
+            this.id = id;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.value = value;
+        }
+    }
+
+    public static final class Match<T> {
+        private final UUID id;
+        private final double latitude;
+        private final double longitude;
+        private final T value;
+        private final double distanceKm;
+
+        private Match(UUID id, double latitude, double longitude, T value, double distanceKm) {
+            this.id = id;
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.value = value;
+            this.distanceKm = distanceKm;
+        }
+
+        public UUID getId() {
+            return id;
+        }
+
+        public double getLatitude() {
+            return latitude;
+        }
+
+        public double getLongitude() {
+            return longitude;
+        }
+
+        public T getValue() {
+            return value;
+        }
+
+        public double getDistanceKm() {
+            return distanceKm;
+        }
+    }
+}
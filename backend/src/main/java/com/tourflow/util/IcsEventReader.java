@@ -0,0 +1,335 @@
+package com.tourflow.util;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Lecture en flux des VEVENT d'un fichier iCalendar (RFC 5545), événement par événement.
+ * Seules les propriétés utiles au calcul des indisponibilités sont conservées (DTSTART, DTEND, DURATION,
+ * UID, RRULE, EXDATE, TRANSP) : la mémoire utilisée ne dépend pas de la taille du flux. La longueur d'une
+ * ligne dépliée et le nombre d'événements sont plafonnés pour se protéger des flux anormaux.
+ */
+public class IcsEventReader implements Closeable {
+
+    private static final int MAX_EXDATES_PER_EVENT = 1000;
+
+    private final Reader reader;
+    private final int maxLineLength;
+    private final int maxEvents;
+
+    private final StringBuilder lineBuffer = new StringBuilder(256);
+    private int pending = -2;
+    private int eventCount;
+
+    public IcsEventReader(InputStream inputStream, int maxLineLength, int maxEvents) {
+        this(new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8), 8192), maxLineLength, maxEvents);
+    }
+
+    public IcsEventReader(Reader reader, int maxLineLength, int maxEvents) {
+        this.reader = reader;
+        this.maxLineLength = maxLineLength;
+        this.maxEvents = maxEvents;
+    }
+
+    /**
+     * Renvoie le prochain VEVENT du flux, ou null en fin de flux
+     */
+    public Event next() throws IOException {
+        String line;
+        while ((line = readLine()) != null) {
+            if (line.equalsIgnoreCase("BEGIN:VEVENT")) {
+                if (++eventCount > maxEvents) {
+                    throw new RuntimeException("Flux iCal trop volumineux : plus de " + maxEvents + " événements");
+                }
+                return readEvent();
+            }
+        }
+        return null;
+    }
+
+    public int getEventCount() {
+        return eventCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private Event readEvent() throws IOException {
+        Event event = new Event();
+        // Profondeur des sous-composants (VALARM...) dont les propriétés sont ignorées
+        int nested = 0;
+
+        String line;
+        while ((line = readLine()) != null) {
+            int colon = valueSeparator(line);
+            if (colon < 0) {
+                continue;
+            }
+
+            String nameAndParams = line.substring(0, colon);
+            String value = line.substring(colon + 1);
+            int semicolon = nameAndParams.indexOf(';');
+            String name = (semicolon < 0 ? nameAndParams : nameAndParams.substring(0, semicolon)).toUpperCase(Locale.ROOT);
+            String params = semicolon < 0 ? "" : nameAndParams.substring(semicolon + 1);
+
+            if (name.equals("BEGIN")) {
+                nested++;
+            } else if (name.equals("END")) {
+                if (nested == 0) {
+                    return event;
+                }
+                nested--;
+            } else if (nested == 0) {
+                readProperty(event, name, params, value);
+            }
+        }
+
+        throw new RuntimeException("Flux iCal tronqué : VEVENT non terminé");
+    }
+
+    private void readProperty(Event event, String name, String params, String value) {
+        switch (name) {
+            case "UID" -> event.uid = value.trim();
+            case "DTSTART" -> event.start = parseDateValue(value, params);
+            case "DTEND" -> event.end = parseDateValue(value, params);
+            case "DURATION" -> event.duration = parseDuration(value);
+            case "RRULE" -> event.rrule = value.trim();
+            case "TRANSP" -> event.transparent = value.trim().equalsIgnoreCase("TRANSPARENT");
+            case "EXDATE" -> {
+                for (String exdate : value.split(",")) {
+                    if (event.exdates.size() >= MAX_EXDATES_PER_EVENT) {
+                        throw new RuntimeException("Flux iCal invalide : trop d'EXDATE pour l'événement " + event.uid);
+                    }
+                    event.exdates.add(parseDateValue(exdate, params));
+                }
+            }
+            default -> { }
+        }
+    }
+
+    /**
+     * Lit une ligne logique (lignes de continuation dépliées), en refusant les lignes trop longues
+     */
+    private String readLine() throws IOException {
+        lineBuffer.setLength(0);
+
+        int c = pending != -2 ? pending : reader.read();
+        pending = -2;
+        if (c == -1) {
+            return null;
+        }
+
+        while (true) {
+            if (c == -1) {
+                return lineBuffer.toString();
+            }
+            if (c == '\r') {
+                c = reader.read();
+                continue;
+            }
+            if (c == '\n') {
+                int next = reader.read();
+                if (next == ' ' || next == '\t') {
+                    // Ligne de continuation : le blanc initial est supprimé
+                    c = reader.read();
+                    continue;
+                }
+                pending = next;
+                return lineBuffer.toString();
+            }
+
+            if (lineBuffer.length() >= maxLineLength) {
+                throw new RuntimeException("Flux iCal invalide : ligne de plus de " + maxLineLength + " caractères");
+            }
+            lineBuffer.append((char) c);
+            c = reader.read();
+        }
+    }
+
+    private static int valueSeparator(String line) {
+        // Les deux-points entre guillemets font partie d'un paramètre (ex. TZID="...")
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == ':' && !quoted) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    static DateValue parseDateValue(String value, String params) {
+        String text = value.trim();
+        ZoneId zone = null;
+        boolean date = false;
+
+        for (String param : params.split(";")) {
+            int equals = param.indexOf('=');
+            if (equals < 0) {
+                continue;
+            }
+            String paramName = param.substring(0, equals).trim().toUpperCase(Locale.ROOT);
+            String paramValue = param.substring(equals + 1).replace("\"", "").trim();
+            if (paramName.equals("TZID")) {
+                zone = toZone(paramValue);
+            } else if (paramName.equals("VALUE") && paramValue.equalsIgnoreCase("DATE")) {
+                date = true;
+            }
+        }
+
+        try {
+            if (date || text.length() == 8) {
+                LocalDate day = LocalDate.of(Integer.parseInt(text.substring(0, 4)),
+                        Integer.parseInt(text.substring(4, 6)), Integer.parseInt(text.substring(6, 8)));
+                return new DateValue(day.atStartOfDay(), null, true);
+            }
+
+            LocalDateTime dateTime = LocalDateTime.of(
+                    Integer.parseInt(text.substring(0, 4)), Integer.parseInt(text.substring(4, 6)),
+                    Integer.parseInt(text.substring(6, 8)), Integer.parseInt(text.substring(9, 11)),
+                    Integer.parseInt(text.substring(11, 13)), Integer.parseInt(text.substring(13, 15)));
+            if (text.endsWith("Z")) {
+                zone = ZoneOffset.UTC;
+            }
+            return new DateValue(dateTime, zone, false);
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Flux iCal invalide : date incorrecte " + text, e);
+        }
+    }
+
+    static Duration parseDuration(String value) {
+        String text = value.trim().toUpperCase(Locale.ROOT);
+        boolean negative = text.startsWith("-");
+        if (negative || text.startsWith("+")) {
+            text = text.substring(1);
+        }
+
+        Duration duration;
+        try {
+            // Duration ne connaît pas les semaines
+            duration = text.endsWith("W")
+                    ? Duration.ofDays(7L * Long.parseLong(text.substring(1, text.length() - 1)))
+                    : Duration.parse(text);
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Flux iCal invalide : durée incorrecte " + value, e);
+        }
+        return negative ? duration.negated() : duration;
+    }
+
+    private static ZoneId toZone(String tzid) {
+        try {
+            return ZoneId.of(tzid);
+        } catch (DateTimeException e) {
+            // Identifiants propriétaires (ex. Outlook) : heure locale du serveur
+            return null;
+        }
+    }
+
+    /**
+     * Date lue dans le flux : heure locale dans le fuseau indiqué (null = heure flottante), ou journée entière
+     */
+    public static class DateValue {
+        private final LocalDateTime value;
+        private final ZoneId zone;
+        private final boolean date;
+
+        public DateValue(LocalDateTime value, ZoneId zone, boolean date) {
+            this.value = value;
+            this.zone = zone;
+            this.date = date;
+        }
+
+        public LocalDateTime getValue() {
+            return value;
+        }
+
+        public ZoneId getZone() {
+            return zone;
+        }
+
+        public boolean isDate() {
+            return date;
+        }
+
+        /**
+         * Convertit la date dans le fuseau donné (les dates flottantes et journées entières sont inchangées)
+         */
+        public LocalDateTime in(ZoneId target) {
+            if (zone == null || date) {
+                return value;
+            }
+            return value.atZone(zone).withZoneSameInstant(target).toLocalDateTime();
+        }
+    }
+
+    public static class Event {
+        private String uid;
+        private DateValue start;
+        private DateValue end;
+        private Duration duration;
+        private String rrule;
+        private boolean transparent;
+        private final List<DateValue> exdates = new ArrayList<>();
+
+        public String getUid() {
+            return uid;
+        }
+
+        public DateValue getStart() {
+            return start;
+        }
+
+        public DateValue getEnd() {
+            return end;
+        }
+
+        public Duration getDuration() {
+            return duration;
+        }
+
+        public String getRrule() {
+            return rrule;
+        }
+
+        public boolean isTransparent() {
+            return transparent;
+        }
+
+        public List<DateValue> getExdates() {
+            return exdates;
+        }
+
+        /**
+         * Durée d'une occurrence : DTEND - DTSTART, sinon DURATION, sinon un jour pour une journée entière.
+         * Un DTSTART flottant est lu dans floatingZone.
+         */
+        public Duration getOccurrenceDuration(ZoneId floatingZone) {
+            if (end != null && start != null) {
+                ZoneId zone = start.getZone() != null ? start.getZone() : floatingZone;
+                return Duration.between(start.in(zone), end.in(zone));
+            }
+            if (duration != null) {
+                return duration;
+            }
+            return start != null && start.isDate() ? Duration.ofDays(1) : Duration.ZERO;
+        }
+    }
+}
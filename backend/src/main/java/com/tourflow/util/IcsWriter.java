@@ -0,0 +1,122 @@
+package com.tourflow.util;
+
+import java.io.BufferedWriter;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Écriture séquentielle d'un flux iCalendar (RFC 5545) : lignes terminées par CRLF,
+ * pliées à 75 octets sans couper un caractère UTF-8, et valeurs texte échappées.
+ */
+public class IcsWriter implements Flushable {
+
+    private static final int MAX_LINE_OCTETS = 75;
+    private static final DateTimeFormatter LOCAL_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+    private static final DateTimeFormatter UTC_FORMAT =
+            DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+
+    private final Writer writer;
+
+    public IcsWriter(OutputStream outputStream) {
+        this(new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), 8192));
+    }
+
+    public IcsWriter(Writer writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * Écrit une ligne de contenu déjà formatée, en la pliant si nécessaire
+     */
+    public IcsWriter line(String contentLine) throws IOException {
+        int octets = 0;
+        int limit = MAX_LINE_OCTETS;
+
+        for (int i = 0; i < contentLine.length(); ) {
+            int codePoint = contentLine.codePointAt(i);
+            int length = utf8Length(codePoint);
+
+            if (octets + length > limit) {
+                // La ligne de continuation commence par une espace, qui compte dans les 75 octets
+                writer.write("\r\n ");
+                octets = 1;
+            }
+
+            writer.write(contentLine, i, Character.charCount(codePoint));
+            octets += length;
+            i += Character.charCount(codePoint);
+        }
+
+        writer.write("\r\n");
+        return this;
+    }
+
+    public IcsWriter property(String name, String value) throws IOException {
+        return line(name + ":" + value);
+    }
+
+    public IcsWriter textProperty(String name, String text) throws IOException {
+        return line(name + ":" + escapeText(text));
+    }
+
+    public IcsWriter localDateTimeProperty(String name, String tzid, LocalDateTime dateTime) throws IOException {
+        return line(name + ";TZID=" + tzid + ":" + LOCAL_FORMAT.format(dateTime));
+    }
+
+    public IcsWriter utcProperty(String name, Instant instant) throws IOException {
+        return line(name + ":" + UTC_FORMAT.format(instant));
+    }
+
+    /**
+     * Écrit un bloc pré-rendu (une ligne de contenu par élément)
+     */
+    public IcsWriter block(Iterable<String> contentLines) throws IOException {
+        for (String contentLine : contentLines) {
+            line(contentLine);
+        }
+        return this;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    public static String escapeText(String text) {
+        if (text == null) {
+            return "";
+        }
+
+        StringBuilder escaped = new StringBuilder(text.length() + 16);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '\\' -> escaped.append("\\\\");
+                case ';' -> escaped.append("\\;");
+                case ',' -> escaped.append("\\,");
+                case '\n' -> escaped.append("\\n");
+                case '\r' -> { }
+                default -> escaped.append(c);
+            }
+        }
+        return escaped.toString();
+    }
+
+    private static int utf8Length(int codePoint) {
+        if (codePoint < 0x80) {
+            return 1;
+        }
+        if (codePoint < 0x800) {
+            return 2;
+        }
+        return codePoint < 0x10000 ? 3 : 4;
+    }
+}
@@ -0,0 +1,383 @@
+package com.tourflow.util;
+
+import net.fortuna.ical4j.model.DateList;
+import net.fortuna.ical4j.model.DateTime;
+import net.fortuna.ical4j.model.Recur;
+import net.fortuna.ical4j.model.parameter.Value;
+
+import java.text.ParseException;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+
+/**
+ * Expansion paresseuse d'une RRULE, limitée à une fenêtre [windowStart, windowEnd) : les occurrences sont
+ * produites période par période et le parcours saute directement au début de la fenêtre quand la règle
+ * n'a pas de COUNT. Les règles courantes (FREQ, INTERVAL, COUNT, UNTIL, BYDAY, BYMONTHDAY, BYMONTH, WKST)
+ * sont gérées ici ; les autres sont déléguées à ical4j, toujours bornées à la fenêtre et à un nombre maximal
+ * d'occurrences. Les fréquences à la seconde ou à la minute sont refusées.
+ *
+ * Toutes les dates sont des heures locales dans le fuseau de l'événement. L'expansion s'arrête dès qu'une
+ * période commence après la fin de la fenêtre ou après UNTIL, si clairsemée que soit la règle.
+ */
+public class RecurrenceIterator implements Iterator<LocalDateTime> {
+
+    private enum Frequency { DAILY, WEEKLY, MONTHLY, YEARLY }
+
+    private static final int DEFAULT_MAX_OCCURRENCES = 100_000;
+
+    private final LocalDateTime dtStart;
+    private final Duration duration;
+    private final LocalDateTime windowStart;
+    private final LocalDateTime windowEnd;
+    private final Predicate<LocalDateTime> excluded;
+    private final int maxOccurrences;
+
+    private Frequency frequency;
+    private int interval = 1;
+    private Integer count;
+    private LocalDateTime until;
+    private DayOfWeek weekStart = DayOfWeek.MONDAY;
+    private final List<int[]> byDay = new ArrayList<>();
+    private final List<Integer> byMonthDay = new ArrayList<>();
+    private final List<Integer> byMonth = new ArrayList<>();
+
+    private Iterator<LocalDateTime> fallback;
+    private final Deque<LocalDateTime> candidates = new ArrayDeque<>();
+    private long period;
+    private long generated;
+    private boolean finished;
+    private LocalDateTime next;
+
+    /**
+     * zone : fuseau de l'événement, qui sert à ramener un UNTIL exprimé en UTC à l'heure locale ;
+     * null pour un événement flottant, le UNTIL est alors lu tel quel
+     */
+    public RecurrenceIterator(LocalDateTime dtStart, String rrule, ZoneId zone, Duration duration,
+                              LocalDateTime windowStart, LocalDateTime windowEnd, Predicate<LocalDateTime> excluded) {
+        this(dtStart, rrule, zone, duration, windowStart, windowEnd, excluded, DEFAULT_MAX_OCCURRENCES);
+    }
+
+    /**
+     * maxOccurrences : plafond des occurrences calculées d'avance par ical4j pour les règles déléguées ;
+     * au-delà le flux est rejeté au lieu d'être développé en mémoire
+     */
+    public RecurrenceIterator(LocalDateTime dtStart, String rrule, ZoneId zone, Duration duration,
+                              LocalDateTime windowStart, LocalDateTime windowEnd, Predicate<LocalDateTime> excluded,
+                              int maxOccurrences) {
+        this.maxOccurrences = maxOccurrences;
+        this.dtStart = dtStart;
+        this.duration = duration;
+        this.windowStart = windowStart;
+        this.windowEnd = windowEnd;
+        this.excluded = excluded;
+
+        if (!parse(rrule, zone)) {
+            fallback = expandWithIcal4j(rrule);
+        } else if (count == null) {
+            period = Math.max(0, periodsBetween(dtStart, windowStart.minus(duration)) / interval - 1);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null && !finished) {
+            next = fallback != null ? nextFromFallback() : computeNext();
+        }
+        return next != null;
+    }
+
+    @Override
+    public LocalDateTime next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        LocalDateTime occurrence = next;
+        next = null;
+        return occurrence;
+    }
+
+    private LocalDateTime computeNext() {
+        while (true) {
+            while (candidates.isEmpty()) {
+                // Les périodes suivantes ne peuvent plus produire d'occurrence dans la fenêtre
+                LocalDateTime periodStart = periodStart(period).atStartOfDay();
+                if (!periodStart.isBefore(windowEnd) || (until != null && periodStart.isAfter(until))) {
+                    finished = true;
+                    return null;
+                }
+                fillPeriod();
+            }
+
+            LocalDateTime candidate = candidates.poll();
+            if (candidate.isBefore(dtStart)) {
+                continue;
+            }
+            if ((until != null && candidate.isAfter(until)) || (count != null && generated >= count)
+                    || !candidate.isBefore(windowEnd)) {
+                finished = true;
+                return null;
+            }
+
+            generated++;
+            if (candidate.plus(duration).isAfter(windowStart) && !excluded.test(candidate)) {
+                return candidate;
+            }
+        }
+    }
+
+    private LocalDateTime nextFromFallback() {
+        while (fallback.hasNext()) {
+            LocalDateTime candidate = fallback.next();
+            if (!excluded.test(candidate)) {
+                return candidate;
+            }
+        }
+        finished = true;
+        return null;
+    }
+
+    /**
+     * Premier jour de la période donnée (jour, semaine selon WKST, mois ou année)
+     */
+    private LocalDate periodStart(long periodIndex) {
+        long offset = periodIndex * interval;
+        return switch (frequency) {
+            case DAILY -> dtStart.toLocalDate().plusDays(offset);
+            case WEEKLY -> dtStart.toLocalDate().with(TemporalAdjusters.previousOrSame(weekStart)).plusWeeks(offset);
+            case MONTHLY -> YearMonth.from(dtStart).plusMonths(offset).atDay(1);
+            case YEARLY -> LocalDate.of(dtStart.getYear(), 1, 1).plusYears(offset);
+        };
+    }
+
+    private void fillPeriod() {
+        TreeSet<LocalDateTime> periodCandidates = new TreeSet<>();
+        long offset = period * interval;
+        LocalDate first = periodStart(period);
+        period++;
+
+        switch (frequency) {
+            case DAILY -> {
+                if (matchesDay(first)) {
+                    periodCandidates.add(first.atTime(dtStart.toLocalTime()));
+                }
+            }
+            case WEEKLY -> {
+                LocalDate weekFirst = first;
+                for (int i = 0; i < 7; i++) {
+                    LocalDate day = weekFirst.plusDays(i);
+                    boolean dayMatches = byDay.isEmpty() ? day.getDayOfWeek() == dtStart.getDayOfWeek() : matchesByDay(day);
+                    if (dayMatches && matchesMonth(day)) {
+                        periodCandidates.add(day.atTime(dtStart.toLocalTime()));
+                    }
+                }
+            }
+            case MONTHLY -> {
+                YearMonth month = YearMonth.from(dtStart).plusMonths(offset);
+                if (byMonth.isEmpty() || byMonth.contains(month.getMonthValue())) {
+                    addMonthDays(month, periodCandidates);
+                }
+            }
+            case YEARLY -> {
+                int year = dtStart.getYear() + (int) offset;
+                List<Integer> months = byMonth.isEmpty() ? List.of(dtStart.getMonthValue()) : byMonth;
+                for (int monthValue : months) {
+                    addMonthDays(YearMonth.of(year, monthValue), periodCandidates);
+                }
+            }
+        }
+
+        candidates.addAll(periodCandidates);
+    }
+
+    private void addMonthDays(YearMonth month, TreeSet<LocalDateTime> periodCandidates) {
+        List<LocalDate> days = new ArrayList<>();
+        if (!byMonthDay.isEmpty()) {
+            for (int monthDay : byMonthDay) {
+                int dayOfMonth = monthDay > 0 ? monthDay : month.lengthOfMonth() + monthDay + 1;
+                if (dayOfMonth >= 1 && dayOfMonth <= month.lengthOfMonth()) {
+                    days.add(month.atDay(dayOfMonth));
+                }
+            }
+            // BYDAY restreint alors les jours du mois retenus
+            days.removeIf(day -> !byDay.isEmpty() && !matchesByDay(day));
+        } else if (!byDay.isEmpty()) {
+            for (int[] entry : byDay) {
+                DayOfWeek dayOfWeek = DayOfWeek.of(entry[1]);
+                if (entry[0] == 0) {
+                    for (LocalDate day = month.atDay(1).with(TemporalAdjusters.nextOrSame(dayOfWeek));
+                         !day.isAfter(month.atEndOfMonth()); day = day.plusWeeks(1)) {
+                        days.add(day);
+                    }
+                } else {
+                    LocalDate day = entry[0] > 0
+                            ? month.atDay(1).with(TemporalAdjusters.dayOfWeekInMonth(entry[0], dayOfWeek))
+                            : month.atEndOfMonth().with(TemporalAdjusters.dayOfWeekInMonth(entry[0], dayOfWeek));
+                    if (YearMonth.from(day).equals(month)) {
+                        days.add(day);
+                    }
+                }
+            }
+        } else if (dtStart.getDayOfMonth() <= month.lengthOfMonth()) {
+            // Un jour inexistant (ex. 31) est ignoré pour ce mois
+            days.add(month.atDay(dtStart.getDayOfMonth()));
+        }
+
+        for (LocalDate day : days) {
+            periodCandidates.add(day.atTime(dtStart.toLocalTime()));
+        }
+    }
+
+    private boolean matchesDay(LocalDate day) {
+        return (byDay.isEmpty() || matchesByDay(day)) && matchesMonth(day)
+                && (byMonthDay.isEmpty() || byMonthDay.contains(day.getDayOfMonth())
+                    || byMonthDay.contains(day.getDayOfMonth() - day.lengthOfMonth() - 1));
+    }
+
+    private boolean matchesByDay(LocalDate day) {
+        for (int[] entry : byDay) {
+            if (entry[1] == day.getDayOfWeek().getValue()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean matchesMonth(LocalDate day) {
+        return byMonth.isEmpty() || byMonth.contains(day.getMonthValue());
+    }
+
+    private long periodsBetween(LocalDateTime from, LocalDateTime to) {
+        if (!to.isAfter(from)) {
+            return 0;
+        }
+        return switch (frequency) {
+            case DAILY -> ChronoUnit.DAYS.between(from, to);
+            case WEEKLY -> ChronoUnit.WEEKS.between(from, to);
+            case MONTHLY -> ChronoUnit.MONTHS.between(from, to);
+            case YEARLY -> ChronoUnit.YEARS.between(from, to);
+        };
+    }
+
+    /**
+     * Analyse la règle ; renvoie false si elle utilise des parties non gérées ici
+     */
+    private boolean parse(String rrule, ZoneId zone) {
+        for (String part : rrule.split(";")) {
+            int equals = part.indexOf('=');
+            if (equals < 0) {
+                continue;
+            }
+            String name = part.substring(0, equals).trim().toUpperCase(Locale.ROOT);
+            String value = part.substring(equals + 1).trim().toUpperCase(Locale.ROOT);
+
+            try {
+                switch (name) {
+                    case "FREQ" -> {
+                        if (value.equals("SECONDLY") || value.equals("MINUTELY")) {
+                            throw new IllegalArgumentException("fréquence inférieure à l'heure");
+                        }
+                        try {
+                            frequency = Frequency.valueOf(value);
+                        } catch (IllegalArgumentException e) {
+                            return false;
+                        }
+                    }
+                    case "INTERVAL" -> interval = Math.max(1, Integer.parseInt(value));
+                    case "COUNT" -> count = Integer.parseInt(value);
+                    case "UNTIL" -> {
+                        IcsEventReader.DateValue untilValue = IcsEventReader.parseDateValue(value, "");
+                        until = zone != null ? untilValue.in(zone) : untilValue.getValue();
+                    }
+                    case "WKST" -> weekStart = toDayOfWeek(value);
+                    case "BYMONTH" -> {
+                        for (String month : value.split(",")) {
+                            byMonth.add(Integer.parseInt(month));
+                        }
+                    }
+                    case "BYMONTHDAY" -> {
+                        for (String monthDay : value.split(",")) {
+                            byMonthDay.add(Integer.parseInt(monthDay));
+                        }
+                    }
+                    case "BYDAY" -> {
+                        for (String day : value.split(",")) {
+                            int ordinal = day.length() > 2 ? Integer.parseInt(day.substring(0, day.length() - 2).replace("+", "")) : 0;
+                            byDay.add(new int[] { ordinal, toDayOfWeek(day.substring(day.length() - 2)).getValue() });
+                        }
+                    }
+                    default -> {
+                        return false;
+                    }
+                }
+            } catch (RuntimeException e) {
+                throw new RuntimeException("Flux iCal invalide : RRULE incorrecte " + rrule, e);
+            }
+        }
+
+        if (frequency == null) {
+            return false;
+        }
+        // Les rangs dans BYDAY ne sont gérés qu'en mensuel, et BYDAY n'est pas géré en annuel
+        boolean ordinals = byDay.stream().anyMatch(entry -> entry[0] != 0);
+        return !(frequency == Frequency.YEARLY && !byDay.isEmpty()) && !(ordinals && frequency != Frequency.MONTHLY);
+    }
+
+    private Iterator<LocalDateTime> expandWithIcal4j(String rrule) {
+        try {
+            // Heures locales passées à ical4j comme des heures UTC : l'expansion se fait sur l'heure murale,
+            // sans dépendre du fuseau de la JVM ni des changements d'heure
+            Recur recur = new Recur(rrule);
+            DateList dates = recur.getDates(utcDateTime(dtStart), utcDateTime(windowStart.minus(duration)),
+                    utcDateTime(windowEnd), Value.DATE_TIME, maxOccurrences + 1);
+            if (dates.size() > maxOccurrences) {
+                throw new RuntimeException("Flux iCal trop volumineux : plus de " + maxOccurrences
+                        + " occurrences pour la RRULE " + rrule);
+            }
+
+            List<LocalDateTime> occurrences = new ArrayList<>(dates.size());
+            for (java.util.Date date : dates) {
+                occurrences.add(LocalDateTime.ofInstant(date.toInstant(), ZoneOffset.UTC));
+            }
+            Collections.sort(occurrences);
+            return occurrences.iterator();
+        } catch (ParseException | IllegalArgumentException e) {
+            throw new RuntimeException("Flux iCal invalide : RRULE incorrecte " + rrule, e);
+        }
+    }
+
+    private static DateTime utcDateTime(LocalDateTime localDateTime) {
+        DateTime dateTime = new DateTime(localDateTime.toInstant(ZoneOffset.UTC).toEpochMilli());
+        dateTime.setUtc(true);
+        return dateTime;
+    }
+
+    private static DayOfWeek toDayOfWeek(String value) {
+        return switch (value) {
+            case "MO" -> DayOfWeek.MONDAY;
+            case "TU" -> DayOfWeek.TUESDAY;
+            case "WE" -> DayOfWeek.WEDNESDAY;
+            case "TH" -> DayOfWeek.THURSDAY;
+            case "FR" -> DayOfWeek.FRIDAY;
+            case "SA" -> DayOfWeek.SATURDAY;
+            case "SU" -> DayOfWeek.SUNDAY;
+            default -> throw new IllegalArgumentException("Jour inconnu : " + value);
+        };
+    }
+}
@@ -0,0 +1,38 @@
+package com.tourflow.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Seau à jetons sans verrou, sous sa forme GCRA : l'état tient en un seul instant théorique d'arrivée,
+ * avancé d'un intervalle d'émission à chaque jeton consommé et mis à jour par compare-and-set.
+ * Équivalent à un seau de capacité burst rempli à permitsPerSecond jetons par seconde.
+ */
+public class TokenBucket {
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final AtomicLong theoreticalArrival;
+
+    public TokenBucket(double permitsPerSecond, int burst, long nowNanos) {
+        this.emissionIntervalNanos = (long) (1_000_000_000L / permitsPerSecond);
+        this.burstToleranceNanos = emissionIntervalNanos * Math.max(1, burst);
+        this.theoreticalArrival = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * Consomme un jeton s'il y en a un ; sinon retourne le délai, en nanosecondes, avant le prochain jeton
+     */
+    public long tryAcquire(long nowNanos) {
+        while (true) {
+            long arrival = theoreticalArrival.get();
+            long next = Math.max(arrival - nowNanos, 0) + nowNanos + emissionIntervalNanos;
+            long excess = next - nowNanos - burstToleranceNanos;
+            if (excess > 0) {
+                return excess;
+            }
+            if (theoreticalArrival.compareAndSet(arrival, next)) {
+                return 0;
+            }
+        }
+    }
+}
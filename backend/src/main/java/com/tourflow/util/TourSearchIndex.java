@@ -0,0 +1,527 @@
+package com.tourflow.util;
+
+import com.tourflow.dto.TourSearchCriteria;
+import com.tourflow.dto.TourSearchDocument;
+import com.tourflow.dto.TourSearchHit;
+import com.tourflow.dto.TourSearchResult;
+
+import java.text.Normalizer;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Index inversé en mémoire des tours actifs. Les textes sont normalisés (minuscules, sans accents, sans mots vides)
+ * et pondérés par champ (titre > lieu > description, langue) ; le classement utilise BM25.
+ * Chaque tour occupe un emplacement numéroté : les listes de termes sont des tableaux triés d'emplacements
+ * (intersection par curseurs) et les champs filtrés ou comptés (prix, durée, langue, lieu) sont rangés en colonnes,
+ * ce qui évite toute table de hachage dans la boucle de recherche. Les mises à jour sont incrémentales et les
+ * recherches concurrentes ne se bloquent pas entre elles.
+ */
+public class TourSearchIndex {
+
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final int MAX_RESULT_WINDOW = 10_000;
+
+    private static final float TITLE_WEIGHT = 3f;
+    private static final float LOCATION_WEIGHT = 2f;
+    private static final float TEXT_WEIGHT = 1f;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int MAX_FACET_VALUES = 20;
+    private static final int NO_MATCH = -2;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Set<String> STOP_WORDS = Set.of(
+            "le", "la", "les", "un", "une", "des", "du", "de", "et", "en", "au", "aux", "pour", "par", "sur", "avec",
+            "dans", "ou", "the", "an", "and", "of", "to", "in", "on", "for", "with", "at", "by", "or");
+
+    private final Map<UUID, Integer> slotById = new HashMap<>();
+    private final Map<String, Posting> postings = new HashMap<>();
+    private final FacetDictionary languageDictionary = new FacetDictionary();
+    private final FacetDictionary locationDictionary = new FacetDictionary();
+
+    // Colonnes indexées par emplacement
+    private Entry[] entries = new Entry[1024];
+    private double[] prices = new double[1024];
+    private int[] durations = new int[1024];
+    private int[] languageIds = new int[1024];
+    private int[] locationIds = new int[1024];
+    private long[] createdAt = new long[1024];
+    private float[] lengths = new float[1024];
+
+    private int slotCount;
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+    private double totalLength;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Ajoute ou remplace un tour ; une version plus ancienne que celle déjà indexée est ignorée
+     */
+    public void put(TourSearchDocument document) {
+        Map<String, Float> terms = new HashMap<>();
+        addTerms(terms, document.getTitle(), TITLE_WEIGHT);
+        addTerms(terms, document.getLocation(), LOCATION_WEIGHT);
+        addTerms(terms, document.getDescription(), TEXT_WEIGHT);
+        addTerms(terms, document.getLanguage(), TEXT_WEIGHT);
+
+        float length = 0;
+        for (float weight : terms.values()) {
+            length += weight;
+        }
+
+        lock.writeLock().lock();
+        try {
+            Integer previous = slotById.get(document.getId());
+            if (previous != null) {
+                if (isNewer(entries[previous].document.getUpdatedAt(), document.getUpdatedAt())) {
+                    return;
+                }
+                removeSlot(previous);
+            }
+
+            int slot = allocateSlot();
+            entries[slot] = new Entry(document, terms.keySet().toArray(new String[0]));
+            prices[slot] = document.getPrice();
+            durations[slot] = document.getDurationMinutes();
+            languageIds[slot] = languageDictionary.idOf(document.getLanguage());
+            locationIds[slot] = locationDictionary.idOf(document.getLocation());
+            createdAt[slot] = document.getCreatedAt() == null ? Long.MIN_VALUE
+                    : document.getCreatedAt().toEpochSecond(ZoneOffset.UTC);
+            lengths[slot] = length;
+            slotById.put(document.getId(), slot);
+
+            terms.forEach((term, weight) -> postings.computeIfAbsent(term, t -> new Posting()).add(slot, weight));
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(UUID tourId) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = slotById.get(tourId);
+            if (slot != null) {
+                removeSlot(slot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Retire les tours absents de l'ensemble fourni (rechargement complet), sauf ceux indexés
+     * dans une version postérieure au début du rechargement
+     */
+    public void retainAll(Set<UUID> tourIds, LocalDateTime loadedAt) {
+        lock.writeLock().lock();
+        try {
+            List<Integer> stale = new ArrayList<>();
+            slotById.forEach((id, slot) -> {
+                if (!tourIds.contains(id) && !isNewer(entries[slot].document.getUpdatedAt(), loadedAt)) {
+                    stale.add(slot);
+                }
+            });
+            stale.forEach(this::removeSlot);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slotById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public TourSearchResult search(TourSearchCriteria criteria) {
+        int page = criteria.getPage();
+        int size = criteria.getSize();
+        if (page < 0 || size < 1 || size > MAX_PAGE_SIZE) {
+            throw new RuntimeException("La taille de page doit être comprise entre 1 et " + MAX_PAGE_SIZE);
+        }
+        if ((long) (page + 1) * size > MAX_RESULT_WINDOW) {
+            throw new RuntimeException("Seuls les " + MAX_RESULT_WINDOW + " premiers résultats sont accessibles");
+        }
+        if (criteria.getMinPrice() != null && criteria.getMaxPrice() != null && criteria.getMinPrice() > criteria.getMaxPrice()) {
+            throw new RuntimeException("Le prix minimum doit être inférieur au prix maximum");
+        }
+        if (criteria.getMinDuration() != null && criteria.getMaxDuration() != null
+                && criteria.getMinDuration() > criteria.getMaxDuration()) {
+            throw new RuntimeException("La durée minimum doit être inférieure à la durée maximum");
+        }
+
+        List<String> queryTerms = new ArrayList<>(new LinkedHashSet<>(tokenize(criteria.getQuery())));
+        double minPrice = criteria.getMinPrice() == null ? Double.NEGATIVE_INFINITY : criteria.getMinPrice();
+        double maxPrice = criteria.getMaxPrice() == null ? Double.POSITIVE_INFINITY : criteria.getMaxPrice();
+        int minDuration = criteria.getMinDuration() == null ? Integer.MIN_VALUE : criteria.getMinDuration();
+        int maxDuration = criteria.getMaxDuration() == null ? Integer.MAX_VALUE : criteria.getMaxDuration();
+        int window = (page + 1) * size;
+
+        lock.readLock().lock();
+        try {
+            Comparator<Scored> order = comparator(criteria.getSort());
+            int language = filterId(languageDictionary, criteria.getLanguage());
+            int location = filterId(locationDictionary, criteria.getLocation());
+
+            // Tas des meilleurs résultats : le moins bon en tête, pour ne trier que la fenêtre demandée
+            PriorityQueue<Scored> top = new PriorityQueue<>(window + 1, order.reversed());
+            int[] languageCounts = new int[languageDictionary.size()];
+            int[] locationCounts = new int[locationDictionary.size()];
+            long totalHits = 0;
+
+            Matches matches = new Matches(queryTerms);
+            for (int slot = matches.next(); slot >= 0; slot = matches.next()) {
+                if (prices[slot] < minPrice || prices[slot] > maxPrice
+                        || durations[slot] < minDuration || durations[slot] > maxDuration) {
+                    continue;
+                }
+
+                // Facettes disjonctives : chaque facette ignore son propre filtre
+                boolean languageMatches = language == -1 || language == languageIds[slot];
+                boolean locationMatches = location == -1 || location == locationIds[slot];
+                if (locationMatches && languageIds[slot] >= 0) {
+                    languageCounts[languageIds[slot]]++;
+                }
+                if (languageMatches && locationIds[slot] >= 0) {
+                    locationCounts[locationIds[slot]]++;
+                }
+                if (!languageMatches || !locationMatches) {
+                    continue;
+                }
+
+                totalHits++;
+                Scored candidate = new Scored(slot, matches.score());
+                if (top.size() < window) {
+                    top.offer(candidate);
+                } else if (order.compare(candidate, top.peek()) < 0) {
+                    top.poll();
+                    top.offer(candidate);
+                }
+            }
+
+            List<Scored> ranked = new ArrayList<>(top);
+            ranked.sort(order);
+            List<TourSearchHit> hits = new ArrayList<>(size);
+            for (int i = page * size; i < ranked.size(); i++) {
+                TourSearchDocument document = entries[ranked.get(i).slot].document;
+                hits.add(new TourSearchHit(document.getId(), document.getTitle(), document.getLocation(),
+                        document.getLanguage(), document.getPrice(), document.getDurationMinutes(), ranked.get(i).score));
+            }
+
+            return new TourSearchResult(hits, totalHits, page, size,
+                    languageDictionary.top(languageCounts), locationDictionary.top(locationCounts));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Découpe un texte en termes normalisés (minuscules, sans accents, sans mots vides, pluriel simple retiré)
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return tokens;
+        }
+
+        for (String token : SEPARATORS.split(normalize(text))) {
+            if (token.length() < 2 || STOP_WORDS.contains(token)) {
+                continue;
+            }
+            if (token.length() > 3 && (token.endsWith("s") || token.endsWith("x")) && !token.endsWith("ss")) {
+                token = token.substring(0, token.length() - 1);
+            }
+            tokens.add(token);
+        }
+        return tokens;
+    }
+
+    private Comparator<Scored> comparator(String sort) {
+        Comparator<Scored> newest = (a, b) -> Long.compare(createdAt[b.slot], createdAt[a.slot]);
+        Comparator<Scored> byId = Comparator.comparing(s -> entries[s.slot].document.getId());
+
+        Comparator<Scored> primary = switch (sort == null ? "relevance" : sort) {
+            case "relevance" -> (a, b) -> Double.compare(b.score, a.score);
+            case "price_asc" -> (a, b) -> Double.compare(prices[a.slot], prices[b.slot]);
+            case "price_desc" -> (a, b) -> Double.compare(prices[b.slot], prices[a.slot]);
+            case "duration_asc" -> (a, b) -> Integer.compare(durations[a.slot], durations[b.slot]);
+            default -> throw new RuntimeException("Tri inconnu : " + sort);
+        };
+        return primary.thenComparing(newest).thenComparing(byId);
+    }
+
+    private int filterId(FacetDictionary dictionary, String value) {
+        if (value == null || value.isBlank()) {
+            return -1;
+        }
+        Integer id = dictionary.find(value);
+        return id == null ? NO_MATCH : id;
+    }
+
+    private int allocateSlot() {
+        if (freeCount > 0) {
+            return freeSlots[--freeCount];
+        }
+        if (slotCount == entries.length) {
+            int capacity = entries.length * 2;
+            entries = Arrays.copyOf(entries, capacity);
+            prices = Arrays.copyOf(prices, capacity);
+            durations = Arrays.copyOf(durations, capacity);
+            languageIds = Arrays.copyOf(languageIds, capacity);
+            locationIds = Arrays.copyOf(locationIds, capacity);
+            createdAt = Arrays.copyOf(createdAt, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+        }
+        return slotCount++;
+    }
+
+    private void removeSlot(int slot) {
+        Entry entry = entries[slot];
+        for (String term : entry.terms) {
+            Posting posting = postings.get(term);
+            if (posting != null && posting.remove(slot) && posting.size == 0) {
+                postings.remove(term);
+            }
+        }
+        slotById.remove(entry.document.getId());
+        totalLength -= lengths[slot];
+        entries[slot] = null;
+
+        if (freeCount == freeSlots.length) {
+            freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        }
+        freeSlots[freeCount++] = slot;
+    }
+
+    private static void addTerms(Map<String, Float> terms, String text, float weight) {
+        for (String token : tokenize(text)) {
+            terms.merge(token, weight, Float::sum);
+        }
+    }
+
+    private static boolean isNewer(LocalDateTime indexed, LocalDateTime candidate) {
+        return indexed != null && candidate != null && indexed.isAfter(candidate);
+    }
+
+    private static String normalize(String text) {
+        return DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Parcours des emplacements correspondant à la requête, dans l'ordre croissant, avec le score BM25 du courant.
+     * Sans texte, tous les emplacements occupés sont parcourus.
+     */
+    private final class Matches {
+        private final Posting[] lists;
+        private final int[] cursors;
+        private final double[] idf;
+        private final double averageLength;
+        private int slot = -1;
+        private double score;
+
+        private Matches(List<String> queryTerms) {
+            Posting[] found = new Posting[queryTerms.size()];
+            for (int i = 0; i < found.length; i++) {
+                found[i] = postings.get(queryTerms.get(i));
+                if (found[i] == null) {
+                    // Tous les termes sont obligatoires
+                    found = null;
+                    break;
+                }
+            }
+            this.lists = found;
+            this.cursors = found == null ? null : new int[found.length];
+            if (cursors != null && cursors.length > 0) {
+                cursors[0] = -1;
+            }
+
+            int documentCount = slotById.size();
+            this.averageLength = documentCount == 0 ? 1 : totalLength / documentCount;
+            this.idf = new double[found == null ? 0 : found.length];
+            if (found != null) {
+                // Intersection en partant de la liste la plus courte
+                Arrays.sort(found, Comparator.comparingInt(p -> p.size));
+                for (int i = 0; i < found.length; i++) {
+                    idf[i] = Math.log(1 + (documentCount - found[i].size + 0.5) / (found[i].size + 0.5));
+                }
+            }
+        }
+
+        private int next() {
+            if (lists == null) {
+                return -1;
+            }
+            if (lists.length == 0) {
+                while (++slot < slotCount) {
+                    if (entries[slot] != null) {
+                        return slot;
+                    }
+                }
+                return -1;
+            }
+
+            Posting shortest = lists[0];
+            next:
+            while (++cursors[0] < shortest.size) {
+                int candidate = shortest.slots[cursors[0]];
+                double norm = K1 * (1 - B + B * lengths[candidate] / averageLength);
+                double total = bm25(idf[0], shortest.weights[cursors[0]], norm);
+
+                for (int i = 1; i < lists.length; i++) {
+                    Posting list = lists[i];
+                    int cursor = cursors[i];
+                    while (cursor < list.size && list.slots[cursor] < candidate) {
+                        cursor++;
+                    }
+                    cursors[i] = cursor;
+                    if (cursor == list.size) {
+                        return -1;
+                    }
+                    if (list.slots[cursor] != candidate) {
+                        continue next;
+                    }
+                    total += bm25(idf[i], list.weights[cursor], norm);
+                }
+
+                slot = candidate;
+                score = total;
+                return slot;
+            }
+            return -1;
+        }
+
+        private double score() {
+            return score;
+        }
+
+        private double bm25(double idf, float weight, double norm) {
+            return idf * weight * (K1 + 1) / (weight + norm);
+        }
+    }
+
+    /**
+     * Emplacements contenant un terme, triés, et poids du terme pour chacun
+     */
+    private static final class Posting {
+        private int[] slots = new int[4];
+        private float[] weights = new float[4];
+        private int size;
+
+        private void add(int slot, float weight) {
+            int position = -Arrays.binarySearch(slots, 0, size, slot) - 1;
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            System.arraycopy(slots, position, slots, position + 1, size - position);
+            System.arraycopy(weights, position, weights, position + 1, size - position);
+            slots[position] = slot;
+            weights[position] = weight;
+            size++;
+        }
+
+        private boolean remove(int slot) {
+            int position = Arrays.binarySearch(slots, 0, size, slot);
+            if (position < 0) {
+                return false;
+            }
+            System.arraycopy(slots, position + 1, slots, position, size - position - 1);
+            System.arraycopy(weights, position + 1, weights, position, size - position - 1);
+            size--;
+            return true;
+        }
+    }
+
+    /**
+     * Valeurs de facette numérotées par forme normalisée ; parmi les graphies rencontrées,
+     * le libellé affiché est la première dans l'ordre naturel
+     */
+    private static final class FacetDictionary {
+        private final Map<String, Integer> ids = new HashMap<>();
+        private final List<String> labels = new ArrayList<>();
+
+        private int idOf(String value) {
+            if (value == null || value.isBlank()) {
+                return -1;
+            }
+            String label = value.trim();
+            Integer id = ids.get(normalize(label));
+            if (id == null) {
+                ids.put(normalize(label), labels.size());
+                labels.add(label);
+                return labels.size() - 1;
+            }
+            if (label.compareTo(labels.get(id)) < 0) {
+                labels.set(id, label);
+            }
+            return id;
+        }
+
+        private Integer find(String value) {
+            return ids.get(normalize(value.trim()));
+        }
+
+        private int size() {
+            return labels.size();
+        }
+
+        private Map<String, Long> top(int[] counts) {
+            Integer[] order = new Integer[counts.length];
+            int n = 0;
+            for (int id = 0; id < counts.length; id++) {
+                if (counts[id] > 0) {
+                    order[n++] = id;
+                }
+            }
+            Arrays.sort(order, 0, n, (a, b) -> counts[a] != counts[b]
+                    ? Integer.compare(counts[b], counts[a]) : labels.get(a).compareTo(labels.get(b)));
+
+            Map<String, Long> top = new LinkedHashMap<>();
+            for (int i = 0; i < Math.min(n, MAX_FACET_VALUES); i++) {
+                top.put(labels.get(order[i]), (long) counts[order[i]]);
+            }
+            return top;
+        }
+    }
+
+    private static final class Entry {
+        private final TourSearchDocument document;
+        private final String[] terms;
+
+        private Entry(TourSearchDocument document, String[] terms) {
+            this.document = document;
+            this.terms = terms;
+        }
+    }
+
+    private static final class Scored {
+        private final int slot;
+        private final double score;
+
+        private Scored(int slot, double score) {
+            this.slot = slot;
+            this.score = score;
+        }
+    }
+}
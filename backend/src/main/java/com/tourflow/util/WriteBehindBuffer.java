@@ -0,0 +1,50 @@
+package com.tourflow.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BinaryOperator;
+
+/**
+ * Tampon d'écritures différées : les mises à jour d'une même clé sont fusionnées en mémoire (dernière date vue
+ * avec maxBy, compteur avec Long::sum...) puis vidées par lots. Une écriture concurrente à un vidage n'est
+ * jamais perdue : elle recrée l'entrée, reprise au vidage suivant.
+ */
+public class WriteBehindBuffer<K, V> {
+
+    private final ConcurrentHashMap<K, V> pending = new ConcurrentHashMap<>();
+    private final BinaryOperator<V> merge;
+
+    public WriteBehindBuffer(BinaryOperator<V> merge) {
+        this.merge = merge;
+    }
+
+    public void record(K key, V value) {
+        pending.merge(key, value, merge);
+    }
+
+    /**
+     * Retire et retourne les entrées en attente
+     */
+    public Map<K, V> drain() {
+        Map<K, V> drained = new HashMap<>();
+        for (K key : pending.keySet()) {
+            V value = pending.remove(key);
+            if (value != null) {
+                drained.put(key, value);
+            }
+        }
+        return drained;
+    }
+
+    /**
+     * Remet en attente un lot dont l'écriture a échoué, fusionné avec ce qui a été enregistré depuis
+     */
+    public void restore(Map<K, V> entries) {
+        entries.forEach(this::record);
+    }
+
+    public int size() {
+        return pending.size();
+    }
+}
@@ -0,0 +1,91 @@
+package com.tourflow.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class ClusterInvalidationBusTest {
+
+    private static final String CHANNEL = "tourflow:cache:invalidation";
+
+    private final List<String> published = new ArrayList<>();
+    private ClusterInvalidationBus nodeA;
+    private ClusterInvalidationBus nodeB;
+
+    @BeforeEach
+    public void setUp() {
+        nodeA = node();
+        nodeB = node();
+    }
+
+    @Test
+    public void testUpdateIsAppliedOnOtherNodesOnly() {
+        // Given
+        List<String> receivedByA = new ArrayList<>();
+        List<String> receivedByB = new ArrayList<>();
+        nodeA.subscribe("externalBusyBlocks", receivedByA::add);
+        nodeB.subscribe("externalBusyBlocks", receivedByB::add);
+
+        // When
+        nodeA.publish("externalBusyBlocks", "guide-1");
+        deliver();
+
+        // Then
+        assertTrue(receivedByA.isEmpty());
+        assertEquals(List.of("guide-1"), receivedByB);
+    }
+
+    @Test
+    public void testCacheInvalidationsAndUnknownTopicsAreIgnored() {
+        // Given
+        List<String> received = new ArrayList<>();
+        nodeB.subscribe("tours", received::add);
+
+        // When - message d'invalidation du cache "tours", même canal
+        published.add(TwoTierCacheManager.encode("autre-instance", "tours", null));
+        nodeA.publish("inconnu", "x");
+        deliver();
+
+        // Then
+        assertTrue(received.isEmpty());
+    }
+
+    @Test
+    public void testFailingHandlerDoesNotStopTheListener() {
+        // Given
+        nodeB.subscribe("freeCapacity", payload -> {
+            throw new IllegalStateException("Base indisponible");
+        });
+
+        // When & Then
+        nodeA.publish("freeCapacity", "tour-1");
+        assertDoesNotThrow(this::deliver);
+    }
+
+    private ClusterInvalidationBus node() {
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        doAnswer(invocation -> published.add(invocation.getArgument(1)))
+                .when(redisTemplate).convertAndSend(eq(CHANNEL), anyString());
+        return new ClusterInvalidationBus(redisTemplate, CHANNEL);
+    }
+
+    private void deliver() {
+        for (String body : published) {
+            DefaultMessage message = new DefaultMessage(CHANNEL.getBytes(StandardCharsets.UTF_8),
+                    body.getBytes(StandardCharsets.UTF_8));
+            nodeA.onMessage(message, null);
+            nodeB.onMessage(message, null);
+        }
+        published.clear();
+    }
+}
@@ -0,0 +1,195 @@
+package com.tourflow.cache;
+
+import com.tourflow.config.CacheConfig;
+import com.tourflow.dto.TourSnapshot;
+import com.tourflow.model.Tour;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Deux instances configurées comme en production (CacheConfig) sur un vrai Redis : sérialisation des valeurs,
+ * invalidations et diffusions des index par pub/sub, vidage par SCAN. Ignoré sans Docker.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+public class RedisTwoTierCacheTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    @Container
+    private static final GenericContainer<?> REDIS = new GenericContainer<>(DockerImageName.parse("redis:7-alpine"))
+            .withExposedPorts(6379);
+
+    private Node nodeA;
+    private Node nodeB;
+
+    @BeforeEach
+    public void setUp() throws InterruptedException {
+        nodeA = new Node();
+        nodeB = new Node();
+        nodeA.redisTemplate.getConnectionFactory().getConnection().serverCommands().flushAll();
+
+        // Abonnements établis de part et d'autre avant chaque scénario
+        BlockingQueue<String> readyA = new LinkedBlockingQueue<>();
+        BlockingQueue<String> readyB = new LinkedBlockingQueue<>();
+        nodeA.bus.subscribe("ready", readyA::add);
+        nodeB.bus.subscribe("ready", readyB::add);
+        awaitTrue(() -> {
+            nodeA.bus.publish("ready", "a");
+            nodeB.bus.publish("ready", "b");
+            return poll(readyA) && poll(readyB);
+        });
+    }
+
+    @AfterEach
+    public void tearDown() {
+        nodeA.close();
+        nodeB.close();
+    }
+
+    @Test
+    public void testSnapshotIsSerializedThroughRedis() {
+        // Given
+        Tour tour = new Tour("Visite du Marais", "Hôtels particuliers", 120, "Paris", 12, 35.0, "Français", null);
+        tour.setId(UUID.randomUUID());
+        tour.setPhotoUrls("[\"https://cdn.tourflow.com/marais.jpg\"]");
+
+        // When
+        nodeA.cacheManager.getCache("tours").put(tour.getId(), TourSnapshot.of(tour));
+        Cache.ValueWrapper read = nodeB.cacheManager.getCache("tours").get(tour.getId());
+
+        // Then - relu depuis Redis par l'autre instance, désérialisé en copie
+        assertNotNull(read);
+        TourSnapshot snapshot = (TourSnapshot) read.get();
+        assertEquals("Visite du Marais", snapshot.getTitle());
+        assertEquals("[\"https://cdn.tourflow.com/marais.jpg\"]", snapshot.getPhotoUrls());
+        assertEquals(tour.getUpdatedAt(), snapshot.getUpdatedAt());
+    }
+
+    @Test
+    public void testEvictIsDeliveredToOtherNode() throws InterruptedException {
+        // Given - la valeur est dans le cache local de B
+        UUID tourId = UUID.randomUUID();
+        nodeA.cacheManager.getCache("tours").put(tourId, "Ancien titre");
+        assertEquals("Ancien titre", nodeB.cacheManager.getCache("tours").get(tourId).get());
+
+        // When
+        nodeA.cacheManager.getCache("tours").evict(tourId);
+
+        // Then
+        awaitTrue(() -> nodeB.cacheManager.getCache("tours").get(tourId) == null);
+    }
+
+    @Test
+    public void testClearRemovesEveryRedisKeyOfTheCache() throws InterruptedException {
+        // Given - plus d'entrées qu'un lot de SCAN
+        Cache tours = nodeA.cacheManager.getCache("tours");
+        for (int i = 0; i < 2500; i++) {
+            tours.put("tour-" + i, "Tour " + i);
+        }
+        nodeA.cacheManager.getCache("guideTours").put("guide", List.of("Tour 1"));
+        nodeB.cacheManager.getCache("tours").get("tour-1");
+
+        // When
+        tours.clear();
+
+        // Then - les autres caches ne sont pas touchés
+        Set<String> remaining = nodeA.redisTemplate.keys("tourflow:cache:tours::*");
+        assertTrue(remaining == null || remaining.isEmpty());
+        assertNotNull(nodeB.cacheManager.getCache("guideTours").get("guide"));
+        awaitTrue(() -> nodeB.cacheManager.getCache("tours").get("tour-1") == null);
+    }
+
+    @Test
+    public void testIndexUpdateIsDeliveredToOtherNodeOnly() throws InterruptedException {
+        // Given
+        BlockingQueue<String> receivedA = new LinkedBlockingQueue<>();
+        BlockingQueue<String> receivedB = new LinkedBlockingQueue<>();
+        nodeA.bus.subscribe("tourSearch", receivedA::add);
+        nodeB.bus.subscribe("tourSearch", receivedB::add);
+        UUID tourId = UUID.randomUUID();
+
+        // When
+        nodeA.bus.publish("tourSearch", tourId.toString());
+
+        // Then
+        assertEquals(tourId.toString(), receivedB.poll(TIMEOUT.toMillis(), TimeUnit.MILLISECONDS));
+        assertNull(receivedA.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    private static boolean poll(BlockingQueue<String> queue) {
+        try {
+            return queue.poll(100, TimeUnit.MILLISECONDS) != null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                fail("Condition non atteinte en " + TIMEOUT.toSeconds() + " s");
+            }
+            Thread.sleep(50);
+        }
+    }
+
+    /**
+     * Une instance de l'application : ses propres connexions, caches locaux et abonnements
+     */
+    private static final class Node {
+
+        private final LettuceConnectionFactory connectionFactory;
+        private final StringRedisTemplate redisTemplate;
+        private final TwoTierCacheManager cacheManager;
+        private final ClusterInvalidationBus bus;
+        private final RedisMessageListenerContainer listenerContainer;
+
+        Node() {
+            connectionFactory = new LettuceConnectionFactory(
+                    new RedisStandaloneConfiguration(REDIS.getHost(), REDIS.getMappedPort(6379)));
+            connectionFactory.afterPropertiesSet();
+            connectionFactory.start();
+            redisTemplate = new StringRedisTemplate(connectionFactory);
+
+            TwoTierCacheProperties properties = new TwoTierCacheProperties();
+            properties.getCaches().put("tours", new TwoTierCacheProperties.Policy());
+            properties.getCaches().put("guideTours", new TwoTierCacheProperties.Policy());
+
+            CacheConfig config = new CacheConfig();
+            cacheManager = config.cacheManager(properties, connectionFactory, redisTemplate, new SimpleMeterRegistry());
+            bus = config.clusterInvalidationBus(properties, redisTemplate);
+            listenerContainer = config.cacheInvalidationListenerContainer(connectionFactory, cacheManager, bus);
+            listenerContainer.afterPropertiesSet();
+            listenerContainer.start();
+        }
+
+        void close() {
+            listenerContainer.stop();
+            connectionFactory.destroy();
+        }
+    }
+}
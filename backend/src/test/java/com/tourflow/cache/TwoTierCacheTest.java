@@ -0,0 +1,292 @@
+package com.tourflow.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Deux instances partagent un même L2 en mémoire qui tient lieu de Redis ; les messages publiés par l'une
+ * sont remis à l'autre comme le ferait le canal pub/sub
+ */
+public class TwoTierCacheTest {
+
+    private static final String CHANNEL = "tourflow:cache:invalidation";
+
+    private final ConcurrentMapCache sharedRedis = spy(new ConcurrentMapCache("tours", false));
+    private final List<String> published = new ArrayList<>();
+
+    private SimpleMeterRegistry meterRegistry;
+    private TwoTierCacheProperties properties;
+    private TwoTierCacheManager nodeA;
+    private TwoTierCacheManager nodeB;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        properties = new TwoTierCacheProperties();
+        properties.setInvalidationChannel(CHANNEL);
+        nodeA = node();
+        nodeB = node();
+    }
+
+    @Test
+    public void testReadGoesThroughL1ThenL2() {
+        // Given
+        UUID tourId = UUID.randomUUID();
+        nodeA.getCache("tours").put(tourId, "Visite du Marais");
+
+        // When
+        Cache.ValueWrapper first = nodeB.getCache("tours").get(tourId);
+        Cache.ValueWrapper second = nodeB.getCache("tours").get(tourId);
+
+        // Then
+        assertEquals("Visite du Marais", first.get());
+        assertEquals("Visite du Marais", second.get());
+        verify(sharedRedis, times(1)).get(tourId);
+        assertEquals(1.0, count("l2_hit"));
+        assertEquals(1.0, count("l1_hit"));
+    }
+
+    @Test
+    public void testEvictOnOneNodeClearsL1Everywhere() {
+        // Given
+        UUID tourId = UUID.randomUUID();
+        nodeA.getCache("tours").put(tourId, "Ancien titre");
+        nodeB.getCache("tours").get(tourId);
+
+        // When
+        nodeA.getCache("tours").evict(tourId);
+        deliver();
+
+        // Then
+        assertNull(nodeB.getCache("tours").get(tourId));
+        assertEquals(1.0, count("miss"));
+    }
+
+    @Test
+    public void testPutOnOneNodeRefreshesOtherNodes() {
+        // Given
+        UUID tourId = UUID.randomUUID();
+        nodeA.getCache("tours").put(tourId, "Ancien titre");
+        nodeB.getCache("tours").get(tourId);
+
+        // When
+        nodeA.getCache("tours").put(tourId, "Nouveau titre");
+        deliver();
+
+        // Then
+        assertEquals("Nouveau titre", nodeB.getCache("tours").get(tourId).get());
+    }
+
+    @Test
+    public void testClearIsBroadcastAndOwnMessagesIgnored() {
+        // Given
+        nodeA.getCache("tours").put("a", "A");
+        nodeB.getCache("tours").get("a");
+        nodeB.getCache("tours").put("b", "B");
+        published.clear();
+
+        // When
+        nodeA.getCache("tours").clear();
+        deliverTo(nodeA);
+
+        // Then : un seul message, sans effet sur A qui l'a émis ; B vide son cache local
+        assertEquals(1, published.size());
+        deliver();
+        assertNull(nodeB.getCache("tours").get("a"));
+        assertNull(nodeB.getCache("tours").get("b"));
+    }
+
+    @Test
+    public void testRedisFailureFallsBackToLocalCache() {
+        // Given
+        UUID tourId = UUID.randomUUID();
+        doThrow(new RuntimeException("Connexion refusée")).when(sharedRedis).put(any(), any());
+        doThrow(new RuntimeException("Connexion refusée")).when(sharedRedis).get(any());
+
+        // When
+        String loaded = nodeA.getCache("tours").get(tourId, () -> "Chargé depuis la base");
+        Cache.ValueWrapper cached = nodeA.getCache("tours").get(tourId);
+
+        // Then
+        assertEquals("Chargé depuis la base", loaded);
+        assertEquals("Chargé depuis la base", cached.get());
+        assertEquals(2.0, meterRegistry.get("cache.two_tier.l2.errors").counter().count());
+    }
+
+    @Test
+    public void testCachePolicyOverridesDefaults() {
+        // Given
+        TwoTierCacheProperties.Policy bookings = new TwoTierCacheProperties.Policy();
+        bookings.setMaximumWeight(50L);
+        bookings.setLocalTtl(Duration.ofSeconds(30));
+        properties.getCaches().put("tourBookings", bookings);
+
+        // When
+        TwoTierCacheProperties.Policy merged = properties.policyFor("tourBookings");
+        TwoTierCacheProperties.Policy other = properties.policyFor("tours");
+
+        // Then
+        assertNull(merged.getMaximumSize());
+        assertEquals(50L, merged.getMaximumWeight());
+        assertEquals(Duration.ofSeconds(30), merged.getLocalTtl());
+        assertEquals(Duration.ofMinutes(5), merged.getRedisTtl());
+        assertEquals(1000L, other.getMaximumSize());
+    }
+
+    @Test
+    public void testListsAreWeighedByTheirSize() {
+        // Given
+        TwoTierCacheProperties.Policy policy = new TwoTierCacheProperties.Policy();
+        policy.setMaximumWeight(10L);
+        properties.getCaches().put("tourBookings", policy);
+        TwoTierCache cache = (TwoTierCache) node().getCache("tourBookings");
+
+        // When
+        cache.put("petite", List.of(1, 2));
+        cache.put("grande", List.of(1, 2, 3, 4, 5, 6, 7, 8, 9));
+        cache.getNativeCache().cleanUp();
+
+        // Then
+        assertEquals(1, cache.getNativeCache().estimatedSize());
+        assertEquals(1, cache.getNativeCache().stats().evictionCount());
+    }
+
+    @Test
+    public void testConcurrentMissesShareOneLoad() throws Exception {
+        // Given
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        Callable<String> loader = () -> {
+            loads.incrementAndGet();
+            loading.countDown();
+            release.await();
+            return "Chargé une fois";
+        };
+        Cache tours = nodeA.getCache("tours");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        // When
+        Future<String> leader = executor.submit(() -> tours.get("a", loader));
+        loading.await();
+        List<Future<String>> followers = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            followers.add(executor.submit(() -> tours.get("a", loader)));
+        }
+        while (meterRegistry.get("cache.two_tier.loads").tag("result", "coalesced").counter().count() < 3) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+
+        // Then
+        assertEquals("Chargé une fois", leader.get(5, TimeUnit.SECONDS));
+        for (Future<String> follower : followers) {
+            assertEquals("Chargé une fois", follower.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+        executor.shutdown();
+    }
+
+    @Test
+    public void testExpiredValueIsServedWhenReloadFails() {
+        // Given
+        TwoTierCacheProperties.Policy policy = new TwoTierCacheProperties.Policy();
+        policy.setRedisTtl(Duration.ofMinutes(5));
+        policy.setStaleIfError(Duration.ofMinutes(30));
+        properties.getCaches().put("activeTours", policy);
+        sharedRedis.put("all", new CachedValue("Liste d'hier", System.currentTimeMillis() - Duration.ofMinutes(10).toMillis()));
+        Cache activeTours = node().getCache("activeTours");
+
+        // When
+        String served = activeTours.get("all", () -> {
+            throw new IllegalStateException("Base indisponible");
+        });
+
+        // Then
+        assertEquals("Liste d'hier", served);
+        assertNull(activeTours.get("all"));
+        assertEquals(1.0, meterRegistry.get("cache.two_tier.loads").tag("result", "stale_on_error").counter().count());
+    }
+
+    @Test
+    public void testExpiredValueIsNotServedWithoutStalePolicy() {
+        // Given
+        sharedRedis.put("a", new CachedValue("Ancien", System.currentTimeMillis() - Duration.ofMinutes(10).toMillis()));
+        Cache tours = nodeA.getCache("tours");
+
+        // When & Then
+        assertThrows(Cache.ValueRetrievalException.class, () -> tours.get("a", () -> {
+            throw new IllegalStateException("Base indisponible");
+        }));
+    }
+
+    @Test
+    public void testHotEntryIsRefreshedBeforeExpiry() {
+        // Given : avance démesurée, le rafraîchissement anticipé se déclenche à coup sûr
+        properties.getDefaults().setEarlyRefreshBeta(1e12);
+        TwoTierCacheManager node = node();
+        Cache tours = node.getCache("tours");
+        AtomicInteger loads = new AtomicInteger();
+        Callable<String> loader = () -> "Version " + loads.incrementAndGet();
+        tours.get("a", loader);
+
+        // When
+        String served = tours.get("a", loader);
+
+        // Then : la valeur en cache est servie, puis remplacée par le rechargement
+        assertEquals("Version 1", served);
+        assertEquals(2, loads.get());
+        assertEquals("Version 2", tours.get("a", () -> "inutile"));
+    }
+
+    private TwoTierCacheManager node() {
+        RedisCacheManager redisCacheManager = mock(RedisCacheManager.class);
+        when(redisCacheManager.getCache(anyString())).thenReturn(sharedRedis);
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        doAnswer(invocation -> published.add(invocation.getArgument(1)))
+                .when(redisTemplate).convertAndSend(eq(CHANNEL), anyString());
+        return new TwoTierCacheManager(properties, redisCacheManager, redisTemplate, meterRegistry, Runnable::run);
+    }
+
+    private void deliver() {
+        deliverTo(nodeA);
+        deliverTo(nodeB);
+        published.clear();
+    }
+
+    private void deliverTo(TwoTierCacheManager node) {
+        for (String body : published) {
+            node.onMessage(new DefaultMessage(CHANNEL.getBytes(StandardCharsets.UTF_8),
+                    body.getBytes(StandardCharsets.UTF_8)), null);
+        }
+    }
+
+    private double count(String result) {
+        return meterRegistry.get("cache.two_tier.requests").tag("result", result).counter().count();
+    }
+}
@@ -0,0 +1,84 @@
+package com.tourflow.dto;
+
+import com.tourflow.model.Booking;
+import com.tourflow.model.Payment;
+import com.tourflow.model.PaymentStatus;
+import com.tourflow.model.Tour;
+import com.tourflow.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TourSnapshotTest {
+
+    @Test
+    public void testTourSnapshotKeepsOnlyGuideId() throws Exception {
+        // Given
+        User guide = new User("guide@tourflow.com", "secret", "Marie", "Curie");
+        guide.setId(UUID.randomUUID());
+        Tour tour = tour(guide, new String("Paris"));
+
+        // When
+        TourSnapshot snapshot = TourSnapshot.of(tour);
+        TourSnapshot copy = roundTrip(snapshot);
+
+        // Then
+        assertEquals(tour.getId(), snapshot.getId());
+        assertEquals(guide.getId(), snapshot.getGuideId());
+        assertSame("Paris", snapshot.getLocation());
+        assertEquals(tour.getUpdatedAt(), copy.getUpdatedAt());
+        assertEquals(guide.getId(), copy.getGuideId());
+    }
+
+    @Test
+    public void testBookingSnapshotKeepsTourAndPaymentStatus() {
+        // Given
+        Tour tour = tour(null, "Lyon");
+        Booking booking = new Booking(LocalDateTime.of(2030, 6, 15, 10, 0), LocalDateTime.of(2030, 6, 15, 12, 0), 2,
+                90.0, "Jean Dupont", "jean@example.com", "0600000000", tour);
+        Payment payment = new Payment(90.0, "cs_test", "pi_test", booking);
+        payment.setId(UUID.randomUUID());
+        payment.setStatus(PaymentStatus.COMPLETED);
+        booking.setPayment(payment);
+
+        // When
+        BookingSnapshot snapshot = BookingSnapshot.of(booking);
+
+        // Then
+        assertEquals(tour.getId(), snapshot.getTourId());
+        assertEquals(payment.getId(), snapshot.getPaymentId());
+        assertEquals(PaymentStatus.COMPLETED, snapshot.getPaymentStatus());
+        assertEquals("jean@example.com", snapshot.getCustomerEmail());
+    }
+
+    private Tour tour(User guide, String location) {
+        Tour tour = new Tour();
+        tour.setId(UUID.randomUUID());
+        tour.setTitle("Visite du Marais");
+        tour.setLocation(location);
+        tour.setLanguage("Français");
+        tour.setDurationMinutes(120);
+        tour.setMaxCapacity(10);
+        tour.setPrice(45.0);
+        tour.setGuide(guide);
+        return tour;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T roundTrip(T value) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(value);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return (T) in.readObject();
+        }
+    }
+}
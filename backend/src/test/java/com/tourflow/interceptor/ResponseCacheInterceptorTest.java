@@ -0,0 +1,149 @@
+package com.tourflow.interceptor;
+
+import com.tourflow.service.ResourceVersionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ResponseCacheInterceptorTest {
+
+    private static final UUID TOUR_ID = UUID.randomUUID();
+    private static final String TOUR_ETAG = "\"tour-42\"";
+
+    @Mock
+    private ResourceVersionService resourceVersionService;
+
+    @InjectMocks
+    private ResponseCacheInterceptor responseCacheInterceptor;
+
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(responseCacheInterceptor, "catalogCacheControl", "public, max-age=30");
+        ReflectionTestUtils.setField(responseCacheInterceptor, "tourCacheControl", "public, max-age=60, stale-while-revalidate=300");
+        ReflectionTestUtils.setField(responseCacheInterceptor, "slotsCacheControl", "public, max-age=30");
+    }
+
+    @Test
+    public void testMatchingETagShortCircuitsWithNotModified() {
+        // Given
+        when(resourceVersionService.tourETag(TOUR_ID)).thenReturn(TOUR_ETAG);
+        MockHttpServletRequest request = tourRequest();
+        request.addHeader("If-None-Match", "W/" + TOUR_ETAG);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        boolean proceed = responseCacheInterceptor.preHandle(request, response, null);
+
+        // Then
+        assertFalse(proceed);
+        assertEquals(304, response.getStatus());
+        assertEquals(TOUR_ETAG, response.getHeader("ETag"));
+        assertEquals("public, max-age=60, stale-while-revalidate=300", response.getHeader("Cache-Control"));
+    }
+
+    @Test
+    public void testChangedVersionLetsControllerSetETag() {
+        // Given
+        when(resourceVersionService.tourETag(TOUR_ID)).thenReturn(TOUR_ETAG);
+        MockHttpServletRequest request = tourRequest();
+        request.addHeader("If-None-Match", "\"tour-41\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        boolean proceed = responseCacheInterceptor.preHandle(request, response, null);
+
+        // Then
+        assertTrue(proceed);
+        assertEquals(200, response.getStatus());
+        assertNull(response.getHeader("ETag"));
+        assertEquals("public, max-age=60, stale-while-revalidate=300", response.getHeader("Cache-Control"));
+    }
+
+    @Test
+    public void testSlotsETagIsSetBeforeController() {
+        // Given
+        when(resourceVersionService.slotsETag(eq(TOUR_ID), any(Instant.class))).thenReturn("\"slots-1-2-3\"");
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/availability/slots/" + TOUR_ID);
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/availability/slots/{tourId}");
+        request.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, Map.of("tourId", TOUR_ID.toString()));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        boolean proceed = responseCacheInterceptor.preHandle(request, response, null);
+
+        // Then
+        assertTrue(proceed);
+        assertEquals("\"slots-1-2-3\"", response.getHeader("ETag"));
+        assertEquals("public, max-age=30", response.getHeader("Cache-Control"));
+    }
+
+    @Test
+    public void testActiveToursListGetsValidators() {
+        // Given
+        when(resourceVersionService.activeToursETag()).thenReturn("\"tours-2a\"");
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/tours");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/tours");
+        request.addHeader("If-None-Match", "\"tours-2a\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        boolean proceed = responseCacheInterceptor.preHandle(request, response, null);
+
+        // Then
+        assertFalse(proceed);
+        assertEquals(304, response.getStatus());
+        assertEquals("\"tours-2a\"", response.getHeader("ETag"));
+        assertEquals("public, max-age=30", response.getHeader("Cache-Control"));
+    }
+
+    @Test
+    public void testUnknownTourAndWritesAreIgnored() {
+        // Given
+        when(resourceVersionService.tourETag(TOUR_ID)).thenReturn(null);
+        MockHttpServletRequest put = tourRequest();
+        put.setMethod("PUT");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // When
+        boolean proceedGet = responseCacheInterceptor.preHandle(tourRequest(), response, null);
+        boolean proceedPut = responseCacheInterceptor.preHandle(put, response, null);
+
+        // Then
+        assertTrue(proceedGet);
+        assertTrue(proceedPut);
+        assertNull(response.getHeader("Cache-Control"));
+        verify(resourceVersionService, times(1)).tourETag(TOUR_ID);
+    }
+
+    @Test
+    public void testMatchesHandlesListsAndWildcard() {
+        assertTrue(ResponseCacheInterceptor.matches("\"a\", W/\"b\"", "\"b\""));
+        assertTrue(ResponseCacheInterceptor.matches("*", "\"b\""));
+        assertFalse(ResponseCacheInterceptor.matches("\"a\"", "\"b\""));
+        assertFalse(ResponseCacheInterceptor.matches(null, "\"b\""));
+    }
+
+    private MockHttpServletRequest tourRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/tours/" + TOUR_ID);
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/tours/{id}");
+        request.setAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE, Map.of("id", TOUR_ID.toString()));
+        return request;
+    }
+}
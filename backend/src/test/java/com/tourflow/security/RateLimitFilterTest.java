@@ -0,0 +1,178 @@
+package com.tourflow.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RateLimitFilterTest {
+
+    private RateLimitProperties properties;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setUp() {
+        properties = new RateLimitProperties();
+        RateLimitProperties.Route login = new RateLimitProperties.Route();
+        login.setPattern("/api/auth/login");
+        login.setMethod("POST");
+        login.setPermitsPerSecond(0.01);
+        login.setBurst(2);
+        properties.getRoutes().put("login", login);
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    public void testThrottlesPerClientWithRetryAfter() throws Exception {
+        // Given
+        RateLimitFilter filter = new RateLimitFilter(properties, meterRegistry);
+
+        // When
+        MockHttpServletResponse first = call(filter, "POST", "/api/auth/login", "10.0.0.1");
+        MockHttpServletResponse second = call(filter, "POST", "/api/auth/login", "10.0.0.1");
+        MockHttpServletResponse third = call(filter, "POST", "/api/auth/login", "10.0.0.1");
+        MockHttpServletResponse otherClient = call(filter, "POST", "/api/auth/login", "10.0.0.2");
+        MockHttpServletResponse otherRoute = call(filter, "GET", "/api/tours", "10.0.0.1");
+
+        // Then
+        assertEquals(200, first.getStatus());
+        assertEquals(200, second.getStatus());
+        assertEquals(429, third.getStatus());
+        assertEquals("100", third.getHeader("Retry-After"));
+        assertEquals(200, otherClient.getStatus());
+        assertEquals(200, otherRoute.getStatus());
+        assertEquals(1, meterRegistry.get("http.ratelimit.requests")
+                .tag("route", "login").tag("outcome", "throttled").counter().count());
+        assertEquals(3, meterRegistry.get("http.ratelimit.requests")
+                .tag("route", "login").tag("outcome", "allowed").counter().count());
+    }
+
+    @Test
+    public void testPerPathRouteGivesEachFeedItsOwnBucket() throws Exception {
+        // Given - un agrégateur de calendriers interroge plusieurs flux depuis la même adresse
+        RateLimitProperties.Route ics = new RateLimitProperties.Route();
+        ics.setPattern("/api/calendar/ics/*");
+        ics.setPermitsPerSecond(0.01);
+        ics.setBurst(1);
+        ics.setPerPath(true);
+        properties.getRoutes().put("ics", ics);
+        RateLimitFilter filter = new RateLimitFilter(properties, meterRegistry);
+
+        // When
+        MockHttpServletResponse firstFeed = call(filter, "GET", "/api/calendar/ics/guide-1", "10.0.0.9");
+        MockHttpServletResponse secondFeed = call(filter, "GET", "/api/calendar/ics/guide-2", "10.0.0.9");
+        MockHttpServletResponse firstFeedAgain = call(filter, "GET", "/api/calendar/ics/guide-1", "10.0.0.9");
+
+        // Then
+        assertEquals(200, firstFeed.getStatus());
+        assertEquals(200, secondFeed.getStatus());
+        assertEquals(429, firstFeedAgain.getStatus());
+    }
+
+    @Test
+    public void testShedsWhenTooManyRequestsInFlight() throws Exception {
+        // Given
+        properties.setMaxInFlight(1);
+        RateLimitFilter filter = new RateLimitFilter(properties, meterRegistry);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread slow = new Thread(() -> {
+            try {
+                filter.doFilter(request("GET", "/api/tours", "10.0.0.1"), new MockHttpServletResponse(),
+                        (FilterChain) (req, res) -> {
+                            entered.countDown();
+                            try {
+                                release.await();
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                            }
+                        });
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+        slow.start();
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+        // When
+        MockHttpServletResponse shed = call(filter, "GET", "/api/tours", "10.0.0.2");
+        MockHttpServletResponse actuator = call(filter, "GET", "/actuator/health", "10.0.0.2");
+        release.countDown();
+        slow.join();
+
+        // Then
+        assertEquals(503, shed.getStatus());
+        assertEquals("1", shed.getHeader("Retry-After"));
+        assertEquals(200, actuator.getStatus());
+        assertEquals(200, call(filter, "GET", "/api/tours", "10.0.0.2").getStatus());
+    }
+
+    @Test
+    public void testOnlyIssuedApiKeysGetTheirOwnBucket() throws Exception {
+        // Given - empreinte SHA-256 de "cle-partenaire"
+        properties.getApiKeyHashes().add(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                .digest("cle-partenaire".getBytes(StandardCharsets.UTF_8))));
+        RateLimitFilter filter = new RateLimitFilter(properties, meterRegistry);
+
+        // When - une clé inventée à chaque requête ne contourne pas la limite de l'adresse IP
+        MockHttpServletResponse first = callWithKey(filter, "10.0.0.1", "inventee-1");
+        MockHttpServletResponse second = callWithKey(filter, "10.0.0.1", "inventee-2");
+        MockHttpServletResponse third = callWithKey(filter, "10.0.0.1", "inventee-3");
+        MockHttpServletResponse issued = callWithKey(filter, "10.0.0.1", "cle-partenaire");
+
+        // Then
+        assertEquals(200, first.getStatus());
+        assertEquals(200, second.getStatus());
+        assertEquals(429, third.getStatus());
+        assertEquals(200, issued.getStatus());
+    }
+
+    @Test
+    public void testForwardedForHeaderIsNotTrustedByTheFilter() throws Exception {
+        // Given - l'adresse du client est résolue par Tomcat, pas par le filtre
+        RateLimitFilter filter = new RateLimitFilter(properties, meterRegistry);
+
+        // When
+        MockHttpServletResponse[] responses = new MockHttpServletResponse[3];
+        for (int i = 0; i < responses.length; i++) {
+            MockHttpServletRequest request = request("POST", "/api/auth/login", "10.0.0.1");
+            request.addHeader("X-Forwarded-For", "203.0.113." + i);
+            responses[i] = new MockHttpServletResponse();
+            filter.doFilter(request, responses[i], new MockFilterChain());
+        }
+
+        // Then
+        assertEquals(429, responses[2].getStatus());
+    }
+
+    private MockHttpServletResponse callWithKey(RateLimitFilter filter, String ip, String apiKey) throws Exception {
+        MockHttpServletRequest request = request("POST", "/api/auth/login", ip);
+        request.addHeader("X-API-Key", apiKey);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+
+    private MockHttpServletResponse call(RateLimitFilter filter, String method, String uri, String ip) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(method, uri, ip), response, new MockFilterChain());
+        return response;
+    }
+
+    private MockHttpServletRequest request(String method, String uri, String ip) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, uri);
+        request.setRemoteAddr(ip);
+        return request;
+    }
+}
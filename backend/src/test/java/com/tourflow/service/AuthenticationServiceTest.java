@@ -0,0 +1,200 @@
+package com.tourflow.service;
+
+import com.tourflow.cache.ClusterInvalidationBus;
+import com.tourflow.model.Role;
+import com.tourflow.model.User;
+import com.tourflow.repository.UserRepository;
+import com.tourflow.security.JwtPrincipal;
+import com.tourflow.security.UserStatusChangedEvent;
+import com.tourflow.security.VerifiedTokenCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class AuthenticationServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+
+    @Mock
+    private PasswordHashingService passwordHashingService;
+
+    @Mock
+    private UserActivityService userActivityService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private ClusterInvalidationBus clusterInvalidationBus;
+
+    @InjectMocks
+    private AuthenticationService authenticationService;
+
+    private VerifiedTokenCache verifiedTokenCache;
+
+    private User user;
+
+    @BeforeEach
+    public void setUp() {
+        verifiedTokenCache = new VerifiedTokenCache();
+        ReflectionTestUtils.setField(verifiedTokenCache, "userRepository", userRepository);
+        ReflectionTestUtils.setField(verifiedTokenCache, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(verifiedTokenCache, "maximumSize", 100L);
+        ReflectionTestUtils.setField(verifiedTokenCache, "clusterInvalidationBus", clusterInvalidationBus);
+        verifiedTokenCache.init();
+
+        ReflectionTestUtils.setField(authenticationService, "verifiedTokenCache", verifiedTokenCache);
+        ReflectionTestUtils.setField(authenticationService, "jwtSecret", "tourflow-secret-key-very-long-and-secure");
+        ReflectionTestUtils.setField(authenticationService, "jwtExpiration", 3_600_000L);
+        authenticationService.initSigningKey();
+
+        user = new User("guide@tourflow.com", "secret", "Marie", "Curie");
+        user.setId(UUID.randomUUID());
+        user.setRole(Role.GUIDE);
+    }
+
+    @Test
+    public void testAuthenticateBuildsPrincipalFromClaimsOnce() {
+        // Given
+        String token = authenticationService.generateToken(user);
+
+        // When
+        JwtPrincipal first = authenticationService.authenticate(token);
+        JwtPrincipal second = authenticationService.authenticate(token);
+
+        // Then
+        assertNotNull(first);
+        assertSame(first, second);
+        assertEquals(user.getId(), first.getUserId());
+        assertEquals(user.getId().toString(), first.getName());
+        assertEquals("guide@tourflow.com", first.getEmail());
+        assertEquals("ROLE_GUIDE", first.getAuthorities().get(0).getAuthority());
+        assertEquals(1, verifiedTokenCache.size());
+        verify(userRepository, never()).findById(any());
+    }
+
+    @Test
+    public void testAuthenticateRejectsTamperedToken() {
+        // Given
+        String token = authenticationService.generateToken(user);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("A") ? "BB" : "AA");
+
+        // When
+        JwtPrincipal principal = authenticationService.authenticate(tampered);
+
+        // Then
+        assertNull(principal);
+        assertFalse(authenticationService.validateToken("pas-un-jwt"));
+        assertEquals(0, verifiedTokenCache.size());
+    }
+
+    @Test
+    public void testDisabledUserTokenIsRejected() {
+        // Given
+        String token = authenticationService.generateToken(user);
+        assertNotNull(authenticationService.authenticate(token));
+        when(userRepository.findById(user.getId())).thenReturn(Optional.of(user));
+        doAnswer(invocation -> {
+            verifiedTokenCache.onUserStatusChanged(invocation.getArgument(0));
+            return null;
+        }).when(eventPublisher).publishEvent(any(UserStatusChangedEvent.class));
+
+        // When
+        authenticationService.setUserActive(user.getId(), false);
+
+        // Then
+        assertFalse(user.isActive());
+        assertEquals(0, verifiedTokenCache.size());
+        assertNull(authenticationService.authenticate(token));
+        verify(clusterInvalidationBus).publish("userStatus", user.getId() + ":false");
+
+        authenticationService.setUserActive(user.getId(), true);
+        assertNotNull(authenticationService.authenticate(token));
+    }
+
+    @Test
+    public void testRemoteStatusChangeIsApplied() {
+        // Given - le changement de statut est fait sur une autre instance
+        String token = authenticationService.generateToken(user);
+        assertNotNull(authenticationService.authenticate(token));
+        ArgumentCaptor<Consumer<String>> handler = ArgumentCaptor.forClass(Consumer.class);
+        verify(clusterInvalidationBus).subscribe(eq("userStatus"), handler.capture());
+
+        // When
+        handler.getValue().accept(user.getId() + ":false");
+
+        // Then
+        assertNull(authenticationService.authenticate(token));
+    }
+
+    @Test
+    public void testRevokedTokenIsRejected() {
+        // Given
+        String token = authenticationService.generateToken(user);
+        JwtPrincipal principal = authenticationService.authenticate(token);
+        when(tokenRevocationService.isRevoked(principal)).thenReturn(true);
+
+        // When
+        authenticationService.revokeToken(token);
+
+        // Then
+        assertNotNull(principal.getTokenId());
+        verify(tokenRevocationService).revokeToken(principal.getTokenId(), user.getId(), principal.getExpiresAt());
+        assertNull(authenticationService.authenticate(token));
+    }
+
+    @Test
+    public void testLoginRehashesPasswordWhenCostChanged() {
+        // Given
+        user.setPassword("$2a$10$ancienhachage");
+        when(userRepository.findByEmailAndActiveTrue("guide@tourflow.com")).thenReturn(Optional.of(user));
+        when(passwordHashingService.matches("secret", "$2a$10$ancienhachage")).thenReturn(true);
+        when(passwordHashingService.needsRehash("$2a$10$ancienhachage")).thenReturn(true);
+        when(passwordHashingService.hash("secret")).thenReturn("$2a$12$nouveauhachage");
+
+        // When
+        AuthenticationService.LoginResult result = authenticationService.login("guide@tourflow.com", "secret");
+
+        // Then
+        assertEquals(user.getId(), result.getUserId());
+        assertNotNull(authenticationService.authenticate(result.getToken()));
+        assertEquals("$2a$12$nouveauhachage", user.getPassword());
+        verify(userRepository).save(user);
+        verify(userActivityService).recordLogin(eq(user.getId()), any(LocalDateTime.class));
+    }
+
+    @Test
+    public void testLoginWithUnknownEmailStillVerifiesAHash() {
+        // Given
+        when(userRepository.findByEmailAndActiveTrue("inconnu@tourflow.com")).thenReturn(Optional.empty());
+        when(passwordHashingService.matches("secret", null)).thenReturn(false);
+
+        // When / Then
+        assertThrows(BadCredentialsException.class,
+                () -> authenticationService.login("inconnu@tourflow.com", "secret"));
+        verify(passwordHashingService).matches("secret", null);
+    }
+}
@@ -0,0 +1,117 @@
+package com.tourflow.service;
+
+import com.tourflow.dto.BookingChange;
+import com.tourflow.dto.BookingChangeFeed;
+import com.tourflow.exception.BusinessException;
+import com.tourflow.model.BookingStatus;
+import com.tourflow.repository.BookingChangeSequence;
+import com.tourflow.repository.BookingRepository;
+import com.tourflow.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BookingChangeFeedServiceTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private BookingChangeSequence bookingChangeSequence;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private BookingChangeFeedService bookingChangeFeedService;
+
+    private final UUID guideId = UUID.randomUUID();
+
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(bookingChangeFeedService, "maxPageSize", 2);
+        when(userRepository.existsById(guideId)).thenReturn(true);
+    }
+
+    @Test
+    public void testFirstCallReturnsPageAndToken() {
+        // Given
+        when(bookingChangeSequence.visibleBefore()).thenReturn(1000L);
+        when(bookingRepository.findChangesByGuide(eq(guideId), eq(0L), eq(0L), eq(1000L), eq(PageRequest.of(0, 3))))
+                .thenReturn(List.of(change(900, 9), change(901, 4), change(905, 7)));
+
+        // When
+        BookingChangeFeed feed = bookingChangeFeedService.getChanges(guideId, null, 100);
+
+        // Then
+        assertEquals(2, feed.getChanges().size());
+        assertTrue(feed.isHasMore());
+        assertArrayEquals(new long[] {901L, 4L}, BookingChangeFeedService.decodeToken(feed.getSyncToken(), guideId));
+    }
+
+    @Test
+    public void testTokenIsKeptWhenNothingChanged() {
+        // Given
+        String token = BookingChangeFeedService.encodeToken(guideId, 901, 42);
+        when(bookingChangeSequence.visibleBefore()).thenReturn(1000L);
+        when(bookingRepository.findChangesByGuide(eq(guideId), eq(901L), eq(42L), eq(1000L), any())).thenReturn(List.of());
+
+        // When
+        BookingChangeFeed feed = bookingChangeFeedService.getChanges(guideId, token, 2);
+
+        // Then
+        assertTrue(feed.getChanges().isEmpty());
+        assertFalse(feed.isHasMore());
+        assertEquals(token, feed.getSyncToken());
+    }
+
+    @Test
+    public void testTokenOfAnotherGuideIsRejected() {
+        // Given
+        String token = BookingChangeFeedService.encodeToken(UUID.randomUUID(), 901, 42);
+
+        // When & Then
+        assertThrows(BusinessException.class, () -> bookingChangeFeedService.getChanges(guideId, token, 2));
+        assertThrows(BusinessException.class, () -> bookingChangeFeedService.getChanges(guideId, "pas-un-jeton", 2));
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    public void testLegacyTokenResumesBeforeAllTransactions() {
+        // Given - jeton émis avant la position par transaction
+        String legacy = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(("v1:" + guideId + ":42").getBytes(StandardCharsets.UTF_8));
+
+        when(bookingChangeSequence.visibleBefore()).thenReturn(1000L);
+        when(bookingRepository.findChangesByGuide(eq(guideId), eq(0L), eq(42L), eq(1000L), any())).thenReturn(List.of());
+
+        // When
+        BookingChangeFeed feed = bookingChangeFeedService.getChanges(guideId, legacy, 2);
+
+        // Then
+        assertArrayEquals(new long[] {0L, 42L}, BookingChangeFeedService.decodeToken(feed.getSyncToken(), guideId));
+    }
+
+    private BookingChange change(long changeXid, long changeSeq) {
+        LocalDateTime start = LocalDateTime.of(2030, 6, 1, 10, 0);
+        return new BookingChange(UUID.randomUUID(), UUID.randomUUID(), BookingStatus.CONFIRMED, start,
+                start.plusHours(2), 2, "Jean Dupont", "Louvre", "Paris", start.minusDays(1), changeXid, changeSeq);
+    }
+}
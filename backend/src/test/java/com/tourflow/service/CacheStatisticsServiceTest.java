@@ -0,0 +1,78 @@
+package com.tourflow.service;
+
+import com.tourflow.cache.CachedValue;
+import com.tourflow.cache.TwoTierCacheManager;
+import com.tourflow.cache.TwoTierCacheProperties;
+import com.tourflow.dto.CacheStatistics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class CacheStatisticsServiceTest {
+
+    private final ConcurrentMapCache redis = new ConcurrentMapCache("tours", false);
+
+    private TwoTierCacheManager cacheManager;
+    private CacheStatisticsService cacheStatisticsService;
+
+    @BeforeEach
+    public void setUp() {
+        RedisCacheManager redisCacheManager = mock(RedisCacheManager.class);
+        when(redisCacheManager.getCache(anyString())).thenReturn(redis);
+        cacheManager = new TwoTierCacheManager(new TwoTierCacheProperties(), redisCacheManager,
+                mock(StringRedisTemplate.class), new SimpleMeterRegistry(), Runnable::run);
+
+        cacheStatisticsService = new CacheStatisticsService();
+        ReflectionTestUtils.setField(cacheStatisticsService, "cacheManager", cacheManager);
+    }
+
+    @Test
+    public void testStatisticsCombineBothTiers() {
+        // Given : une entrée écrite par une autre instance, présente dans Redis seulement
+        redis.put("a", new CachedValue("Visite du Marais", System.currentTimeMillis()));
+        Cache tours = cacheManager.getCache("tours");
+
+        // When
+        tours.get("a");
+        tours.get("a");
+        tours.get("inconnue");
+        List<CacheStatistics> statistics = cacheStatisticsService.getStatistics();
+
+        // Then
+        assertEquals(1, statistics.size());
+        CacheStatistics stats = statistics.get(0);
+        assertEquals("tours", stats.getName());
+        assertEquals(1, stats.getEntries());
+        assertEquals(1000L, stats.getMaximumSize());
+        assertEquals(1, stats.getL1HitCount());
+        assertEquals(2, stats.getL1MissCount());
+        assertEquals(1, stats.getL2HitCount());
+        assertEquals(2.0 / 3, stats.getHitRatio(), 0.001);
+        assertTrue(stats.getEstimatedBytes() > 0);
+    }
+
+    @Test
+    public void testEmptyCacheReportsNoMemory() {
+        // Given
+        cacheManager.getCache("bookings");
+
+        // When
+        CacheStatistics stats = cacheStatisticsService.getStatistics().get(0);
+
+        // Then
+        assertEquals(0, stats.getEntries());
+        assertEquals(0, stats.getEstimatedBytes());
+        assertEquals(1.0, stats.getHitRatio());
+    }
+}
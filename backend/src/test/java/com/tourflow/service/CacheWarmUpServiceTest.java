@@ -0,0 +1,117 @@
+package com.tourflow.service;
+
+import com.tourflow.repository.BookingRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CacheWarmUpServiceTest {
+
+    @Mock
+    private CacheService cacheService;
+
+    @Mock
+    private TourService tourService;
+
+    @Mock
+    private TourCatalogService tourCatalogService;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @InjectMocks
+    private CacheWarmUpService cacheWarmUpService;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        ReflectionTestUtils.setField(cacheWarmUpService, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(cacheWarmUpService, "enabled", true);
+        ReflectionTestUtils.setField(cacheWarmUpService, "threads", 2);
+        ReflectionTestUtils.setField(cacheWarmUpService, "timeoutSeconds", 5L);
+        ReflectionTestUtils.setField(cacheWarmUpService, "topTours", 10);
+        ReflectionTestUtils.setField(cacheWarmUpService, "bookingWindowDays", 30);
+        ReflectionTestUtils.setField(cacheWarmUpService, "catalogPageSize", 20);
+    }
+
+    @Test
+    public void testWarmUpLoadsCatalogAndMostBookedTours() throws Exception {
+        // Given
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        when(bookingRepository.findMostBookedTourIds(any(LocalDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(first, second));
+        when(tourService.getTourById(any(UUID.class))).thenAnswer(invocation -> {
+            if (second.equals(invocation.getArgument(0))) {
+                throw new RuntimeException("Tour non trouvé");
+            }
+            return null;
+        });
+
+        // When
+        assertFalse(cacheWarmUpService.isFinished());
+        cacheWarmUpService.start().get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertEquals(CacheWarmUpService.State.COMPLETED, cacheWarmUpService.getState());
+        assertTrue(cacheWarmUpService.isFinished());
+        assertEquals(1, cacheWarmUpService.getFailures());
+        verify(cacheService).getAllActiveTours();
+        verify(tourCatalogService).getPage(null, 20);
+        verify(tourService).getTourById(first);
+        assertEquals(1, meterRegistry.get("cache.warmup.duration").tag("outcome", "completed").timer().count());
+    }
+
+    @Test
+    public void testWarmUpTimesOutAndLetsTrafficIn() throws Exception {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        ReflectionTestUtils.setField(cacheWarmUpService, "timeoutSeconds", 1L);
+        when(cacheService.getAllActiveTours()).thenAnswer(invocation -> {
+            release.await();
+            return List.of();
+        });
+
+        // When
+        cacheWarmUpService.start().get(5, TimeUnit.SECONDS);
+
+        // Then
+        assertEquals(CacheWarmUpService.State.TIMED_OUT, cacheWarmUpService.getState());
+        assertTrue(cacheWarmUpService.isFinished());
+        assertEquals(1, meterRegistry.get("cache.warmup.duration").tag("outcome", "timeout").timer().count());
+        release.countDown();
+    }
+
+    @Test
+    public void testDisabledWarmUpIsImmediatelyReady() {
+        // Given
+        ReflectionTestUtils.setField(cacheWarmUpService, "enabled", false);
+
+        // When
+        cacheWarmUpService.start();
+
+        // Then
+        assertEquals(CacheWarmUpService.State.DISABLED, cacheWarmUpService.getState());
+        assertTrue(cacheWarmUpService.isFinished());
+        verifyNoInteractions(cacheService, bookingRepository);
+    }
+}
@@ -0,0 +1,139 @@
+package com.tourflow.service;
+
+import com.tourflow.model.GuideBookingVersion;
+import com.tourflow.repository.GuideBookingVersionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CalendarFeedServiceTest {
+
+    private static final UUID GUIDE_ID = UUID.randomUUID();
+
+    @Mock
+    private CalendarService calendarService;
+
+    @Mock
+    private GuideBookingVersionRepository guideBookingVersionRepository;
+
+    @InjectMocks
+    private CalendarFeedService calendarFeedService;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        ReflectionTestUtils.setField(calendarFeedService, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(calendarFeedService, "maxCacheBytes", 1024 * 1024L);
+        ReflectionTestUtils.setField(calendarFeedService, "maxEntryBytes", 1024);
+        ReflectionTestUtils.setField(calendarFeedService, "gzipEnabled", true);
+        calendarFeedService.init();
+
+        lenient().doAnswer(invocation -> {
+            OutputStream output = invocation.getArgument(1);
+            output.write("BEGIN:VCALENDAR\r\nEND:VCALENDAR\r\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(calendarService).writeICalCalendar(eq(GUIDE_ID), any(OutputStream.class));
+    }
+
+    @Test
+    public void testVersionDefaultsToZero() {
+        // Given
+        when(guideBookingVersionRepository.findById(GUIDE_ID)).thenReturn(Optional.empty());
+
+        // When
+        CalendarFeedService.FeedVersion version = calendarFeedService.getVersion(GUIDE_ID);
+
+        // Then
+        assertEquals("\"ics-v0\"", version.getETag());
+        assertEquals("\"ics-v0-gz\"", version.getETag(true));
+        assertTrue(calendarFeedService.acceptsGzip("gzip, deflate, br"));
+        assertFalse(calendarFeedService.acceptsGzip(null));
+        assertEquals(-1, version.getLastModified());
+    }
+
+    @Test
+    public void testFeedIsRenderedOncePerVersion() throws Exception {
+        // Given
+        when(guideBookingVersionRepository.findById(GUIDE_ID))
+                .thenReturn(Optional.of(new GuideBookingVersion(GUIDE_ID, 3, LocalDateTime.now())));
+        CalendarFeedService.FeedVersion version = calendarFeedService.getVersion(GUIDE_ID);
+
+        // When
+        CalendarFeedService.RenderedFeed first = calendarFeedService.getFeed(GUIDE_ID, version);
+        CalendarFeedService.RenderedFeed second = calendarFeedService.getFeed(GUIDE_ID, version);
+
+        // Then
+        assertSame(first, second);
+        verify(calendarService, times(1)).writeICalCalendar(eq(GUIDE_ID), any(OutputStream.class));
+        assertEquals(1.0, meterRegistry.get("calendar.feed.requests").tag("result", "hit").counter().count());
+        assertEquals(1.0, meterRegistry.get("calendar.feed.requests").tag("result", "miss").counter().count());
+
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(first.getGzipContent()))) {
+            assertArrayEquals(first.getContent(), gzip.readAllBytes());
+        }
+    }
+
+    @Test
+    public void testNewVersionTriggersRendering() throws Exception {
+        // Given
+        calendarFeedService.getFeed(GUIDE_ID, new CalendarFeedService.FeedVersion(1, LocalDateTime.now()));
+
+        // When
+        calendarFeedService.bumpVersion(GUIDE_ID);
+        CalendarFeedService.RenderedFeed feed =
+                calendarFeedService.getFeed(GUIDE_ID, new CalendarFeedService.FeedVersion(2, LocalDateTime.now()));
+
+        // Then
+        assertEquals(2, feed.getVersion());
+        verify(guideBookingVersionRepository).incrementVersion(eq(GUIDE_ID), any(LocalDateTime.class));
+        verify(calendarService, times(2)).writeICalCalendar(eq(GUIDE_ID), any(OutputStream.class));
+    }
+
+    @Test
+    public void testOversizedFeedIsStreamedInsteadOfCached() throws Exception {
+        // Given - un guide dont le flux dépasse le budget d'une entrée
+        UUID bigGuideId = UUID.randomUUID();
+        byte[] events = "BEGIN:VEVENT\r\nEND:VEVENT\r\n".repeat(100).getBytes(StandardCharsets.UTF_8);
+        doAnswer(invocation -> {
+            OutputStream output = invocation.getArgument(1);
+            output.write(events);
+            return null;
+        }).when(calendarService).writeICalCalendar(eq(bigGuideId), any(OutputStream.class));
+        CalendarFeedService.FeedVersion version = new CalendarFeedService.FeedVersion(1, LocalDateTime.now());
+
+        // When
+        CalendarFeedService.RenderedFeed first = calendarFeedService.getFeed(bigGuideId, version);
+        CalendarFeedService.RenderedFeed second = calendarFeedService.getFeed(bigGuideId, version);
+        ByteArrayOutputStream response = new ByteArrayOutputStream();
+        calendarFeedService.writeFeed(bigGuideId, response, true);
+
+        // Then - le constat est mis en cache, pas le contenu
+        assertTrue(first.isStreamed());
+        assertSame(first, second);
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(response.toByteArray()))) {
+            assertArrayEquals(events, gzip.readAllBytes());
+        }
+        verify(calendarService, times(2)).writeICalCalendar(eq(bigGuideId), any(OutputStream.class));
+    }
+}
@@ -0,0 +1,136 @@
+package com.tourflow.service;
+
+import com.tourflow.dto.BookingCalendarEntry;
+import com.tourflow.exception.ResourceNotFoundException;
+import com.tourflow.model.BookingStatus;
+import com.tourflow.model.User;
+import com.tourflow.repository.BookingRepository;
+import com.tourflow.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class CalendarServiceTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private CalendarService calendarService;
+
+    private User alice;
+    private User bruno;
+
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(calendarService, "agencyMaxGuides", 10);
+        calendarService.init();
+
+        alice = guide("Alice", "Martin");
+        bruno = guide("Bruno", "Petit");
+    }
+
+    @Test
+    public void testAgencyCalendarIsWrittenWhileStreaming() throws Exception {
+        // Given - lignes triées par guide, comme les renvoie la requête
+        when(userRepository.findAllById(any())).thenReturn(List.of(alice, bruno));
+        when(bookingRepository.streamCalendarEntriesByGuides(any(), eq(BookingStatus.CONFIRMED)))
+                .thenReturn(Stream.of(entry(bruno, "Montmartre"), entry(bruno, "Orsay"), entry(alice, "Louvre")));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // When
+        calendarService.writeAgencyCalendar(List.of(bruno.getId(), alice.getId()), false, output);
+
+        // Then
+        String ics = output.toString(StandardCharsets.UTF_8);
+        assertTrue(ics.startsWith("BEGIN:VCALENDAR\r\n"));
+        assertTrue(ics.endsWith("END:VCALENDAR\r\n"));
+        assertEquals(1, count(ics, "BEGIN:VTIMEZONE"));
+        assertEquals(3, count(ics, "BEGIN:VEVENT"));
+        assertTrue(ics.indexOf("SUMMARY:Orsay") < ics.indexOf("SUMMARY:Louvre"));
+        assertEquals(2, count(ics, "Guide: Bruno Petit"));
+        assertEquals(1, count(ics, "Guide: Alice Martin"));
+    }
+
+    @Test
+    public void testAgencyCalendarAsZipHasOneFeedPerGuide() throws Exception {
+        // Given
+        when(userRepository.findAllById(any())).thenReturn(List.of(alice, bruno));
+        when(bookingRepository.streamCalendarEntriesByGuides(any(), eq(BookingStatus.CONFIRMED)))
+                .thenReturn(Stream.of(entry(alice, "Louvre")));
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // When
+        calendarService.writeAgencyCalendar(List.of(alice.getId(), bruno.getId()), true, output);
+
+        // Then
+        List<String> names = new ArrayList<>();
+        List<String> feeds = new ArrayList<>();
+        try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(output.toByteArray()))) {
+            ZipEntry zipEntry;
+            while ((zipEntry = zip.getNextEntry()) != null) {
+                names.add(zipEntry.getName());
+                feeds.add(new String(zip.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        assertEquals(List.of("guide-" + alice.getId() + ".ics", "guide-" + bruno.getId() + ".ics"), names);
+        assertEquals(1, count(feeds.get(0), "BEGIN:VEVENT"));
+        assertEquals(0, count(feeds.get(1), "BEGIN:VEVENT"));
+        assertTrue(feeds.get(1).endsWith("END:VCALENDAR\r\n"));
+    }
+
+    @Test
+    public void testAgencyCalendarWithUnknownGuide() {
+        // Given
+        when(userRepository.findAllById(any())).thenReturn(List.of(alice));
+
+        // When & Then
+        assertThrows(ResourceNotFoundException.class, () ->
+                calendarService.writeAgencyCalendar(List.of(alice.getId(), UUID.randomUUID()), false, new ByteArrayOutputStream()));
+        verifyNoInteractions(bookingRepository);
+    }
+
+    private User guide(String firstName, String lastName) {
+        User guide = new User(firstName.toLowerCase() + "@tourflow.com", "password", firstName, lastName);
+        guide.setId(UUID.randomUUID());
+        return guide;
+    }
+
+    private BookingCalendarEntry entry(User guide, String tourTitle) {
+        LocalDateTime start = LocalDateTime.of(2030, 6, 1, 10, 0);
+        return new BookingCalendarEntry(guide.getId(), UUID.randomUUID(), start, start.plusHours(2), 2, 90.0,
+                "Jean Dupont", "jean@example.com", tourTitle, "Paris", start.minusDays(10));
+    }
+
+    private int count(String text, String token) {
+        int count = 0;
+        for (int i = text.indexOf(token); i >= 0; i = text.indexOf(token, i + 1)) {
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,138 @@
+package com.tourflow.service;
+
+import com.sun.net.httpserver.HttpServer;
+import com.tourflow.model.ExternalCalendar;
+import com.tourflow.repository.ExternalCalendarRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ExternalCalendarSyncServiceTest {
+
+    private static final String FIXTURE_ETAG = "\"airbnb-v1\"";
+
+    @Mock
+    private ExternalCalendarRepository externalCalendarRepository;
+
+    @Mock
+    private ExternalBusyBlockService externalBusyBlockService;
+
+    @InjectMocks
+    private ExternalCalendarSyncService externalCalendarSyncService;
+
+    private HttpServer server;
+    private final AtomicInteger fullResponses = new AtomicInteger();
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        // Serveur local qui sert les fichiers ICS de test avec un ETag
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/ics/", exchange -> {
+            String name = exchange.getRequestURI().getPath().substring("/ics/".length());
+            try (InputStream fixture = getClass().getResourceAsStream("/ics/" + name)) {
+                if (fixture == null) {
+                    exchange.sendResponseHeaders(404, -1);
+                } else if (FIXTURE_ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                    exchange.sendResponseHeaders(304, -1);
+                } else {
+                    byte[] body = fixture.readAllBytes();
+                    fullResponses.incrementAndGet();
+                    exchange.getResponseHeaders().set("ETag", FIXTURE_ETAG);
+                    exchange.getResponseHeaders().set("Content-Type", "text/calendar");
+                    exchange.sendResponseHeaders(200, body.length);
+                    try (OutputStream output = exchange.getResponseBody()) {
+                        output.write(body);
+                    }
+                }
+            }
+            exchange.close();
+        });
+        server.start();
+
+        ExternalCalendarFetcher fetcher = new ExternalCalendarFetcher();
+        ReflectionTestUtils.setField(fetcher, "restTemplate", new RestTemplate());
+        ReflectionTestUtils.setField(externalCalendarSyncService, "externalCalendarFetcher", fetcher);
+        ReflectionTestUtils.setField(externalCalendarSyncService, "maxConcurrency", 4);
+        ReflectionTestUtils.setField(externalCalendarSyncService, "perHostConcurrency", 2);
+        ReflectionTestUtils.setField(externalCalendarSyncService, "timeoutSeconds", 30L);
+        ReflectionTestUtils.setField(externalCalendarSyncService, "horizonDays", 36500L);
+        ReflectionTestUtils.setField(externalCalendarSyncService, "maxLineLength", 8192);
+        ReflectionTestUtils.setField(externalCalendarSyncService, "maxEvents", 1000);
+        ReflectionTestUtils.setField(externalCalendarSyncService, "maxBusyBlocks", 1000);
+        externalCalendarSyncService.init();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        externalCalendarSyncService.shutdown();
+        server.stop(0);
+    }
+
+    @Test
+    public void testSyncFetchesChangedFeedsOnly() {
+        // Given
+        ExternalCalendar calendar = calendar("airbnb-busy.ics");
+        when(externalCalendarRepository.findByActiveTrue()).thenReturn(List.of(calendar));
+
+        // When
+        ExternalCalendarSyncService.SyncReport first = externalCalendarSyncService.syncAll();
+        ExternalCalendarSyncService.SyncReport second = externalCalendarSyncService.syncAll();
+
+        // Then
+        assertEquals(1, first.getUpdated());
+        assertEquals(1, second.getNotModified());
+        assertEquals(1, fullResponses.get());
+        assertNotNull(calendar.getLastSyncAt());
+        assertEquals(304, calendar.getLastFetchStatus());
+        assertEquals(FIXTURE_ETAG, calendar.getEtag());
+        assertEquals(2, calendar.getLastEventCount());
+        assertTrue(calendar.getLastFetchBytes() > 0);
+        verify(externalCalendarRepository, times(2)).save(calendar);
+        verify(externalBusyBlockService, times(1)).applySync(eq(calendar), argThat(intervals -> intervals.size() == 2));
+    }
+
+    @Test
+    public void testFailedFetchIsRecorded() {
+        // Given
+        ExternalCalendar missing = calendar("missing.ics");
+        ExternalCalendar valid = calendar("airbnb-busy.ics");
+        when(externalCalendarRepository.findByActiveTrue()).thenReturn(List.of(missing, valid));
+
+        // When
+        ExternalCalendarSyncService.SyncReport report = externalCalendarSyncService.syncAll();
+
+        // Then
+        assertEquals(1, report.getFailed());
+        assertEquals(1, report.getUpdated());
+        assertNull(missing.getLastSyncAt());
+        assertEquals(404, missing.getLastFetchStatus());
+        assertNotNull(missing.getLastSyncError());
+        assertNotNull(valid.getLastSyncAt());
+    }
+
+    private ExternalCalendar calendar(String fixture) {
+        ExternalCalendar calendar = new ExternalCalendar("Airbnb",
+                "http://127.0.0.1:" + server.getAddress().getPort() + "/ics/" + fixture, null);
+        calendar.setId(UUID.randomUUID());
+        return calendar;
+    }
+}
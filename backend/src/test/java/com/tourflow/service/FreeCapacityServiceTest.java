@@ -0,0 +1,92 @@
+package com.tourflow.service;
+
+import com.tourflow.cache.ClusterInvalidationBus;
+import com.tourflow.repository.AvailabilityExceptionRepository;
+import com.tourflow.repository.AvailabilityRuleRepository;
+import com.tourflow.repository.BookingRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class FreeCapacityServiceTest {
+
+    @Mock
+    private AvailabilityRuleRepository availabilityRuleRepository;
+
+    @Mock
+    private AvailabilityExceptionRepository availabilityExceptionRepository;
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ClusterInvalidationBus clusterInvalidationBus;
+
+    @InjectMocks
+    private FreeCapacityService freeCapacityService;
+
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(freeCapacityService, "horizonDays", 7);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    @Test
+    public void testTourIsRefreshedOncePerTransaction() {
+        // Given - plusieurs réservations du même tour modifiées dans la transaction
+        UUID tourId = UUID.randomUUID();
+        UUID otherTourId = UUID.randomUUID();
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(availabilityRuleRepository.findActiveRulesOfActiveTour(any())).thenReturn(List.of());
+
+        freeCapacityService.refreshTour(tourId);
+        freeCapacityService.refreshTour(tourId);
+        freeCapacityService.refreshTour(otherTourId);
+        freeCapacityService.refreshTour(tourId);
+
+        // When
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+
+        // Then
+        assertEquals(1, synchronizations.size());
+        verify(availabilityRuleRepository).findActiveRulesOfActiveTour(tourId);
+        verify(availabilityRuleRepository).findActiveRulesOfActiveTour(otherTourId);
+        verify(clusterInvalidationBus).publish("freeCapacity", tourId.toString());
+        verify(clusterInvalidationBus).publish("freeCapacity", otherTourId.toString());
+    }
+
+    @Test
+    public void testNothingIsRefreshedBeforeCommit() {
+        // When
+        freeCapacityService.refreshTour(UUID.randomUUID());
+
+        // Then
+        verifyNoInteractions(availabilityRuleRepository, transactionManager, clusterInvalidationBus);
+    }
+}
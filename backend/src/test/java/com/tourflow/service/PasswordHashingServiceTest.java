@@ -0,0 +1,127 @@
+package com.tourflow.service;
+
+import com.tourflow.exception.ServiceOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PasswordHashingServiceTest {
+
+    private PasswordHashingService passwordHashingService;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        passwordHashingService = new PasswordHashingService();
+        ReflectionTestUtils.setField(passwordHashingService, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(passwordHashingService, "fixedStrength", 4);
+        ReflectionTestUtils.setField(passwordHashingService, "threads", 1);
+        ReflectionTestUtils.setField(passwordHashingService, "queueCapacity", 1);
+        ReflectionTestUtils.setField(passwordHashingService, "timeoutMillis", 5000L);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        passwordHashingService.shutdown();
+    }
+
+    @Test
+    public void testHashAndVerifyOnDedicatedPool() {
+        // Given
+        passwordHashingService.init();
+
+        // When
+        String hash = passwordHashingService.hash("motdepasse");
+
+        // Then
+        assertTrue(passwordHashingService.matches("motdepasse", hash));
+        assertFalse(passwordHashingService.matches("autre", hash));
+        assertFalse(passwordHashingService.matches("motdepasse", null));
+        assertEquals(3, meterRegistry.get("auth.bcrypt.duration").tag("operation", "verify").timer().count());
+        assertEquals(1, meterRegistry.get("auth.bcrypt.duration").tag("operation", "hash").timer().count());
+    }
+
+    @Test
+    public void testNeedsRehashWhenCostIsLower() {
+        // Given
+        ReflectionTestUtils.setField(passwordHashingService, "fixedStrength", 5);
+        passwordHashingService.init();
+
+        // When / Then - un coût supérieur est gardé
+        assertTrue(passwordHashingService.needsRehash(new BCryptPasswordEncoder(4).encode("motdepasse")));
+        assertFalse(passwordHashingService.needsRehash(new BCryptPasswordEncoder(5).encode("motdepasse")));
+        assertFalse(passwordHashingService.needsRehash(new BCryptPasswordEncoder(6).encode("motdepasse")));
+        assertTrue(passwordHashingService.needsRehash("{noop}motdepasse"));
+    }
+
+    @Test
+    public void testCalibrationStaysWithinBounds() {
+        // Given
+        ReflectionTestUtils.setField(passwordHashingService, "fixedStrength", 0);
+        ReflectionTestUtils.setField(passwordHashingService, "minStrength", 4);
+        ReflectionTestUtils.setField(passwordHashingService, "maxStrength", 6);
+        ReflectionTestUtils.setField(passwordHashingService, "targetMillis", 60_000L);
+
+        // When
+        passwordHashingService.init();
+
+        // Then
+        assertEquals(6, passwordHashingService.getStrength());
+    }
+
+    @Test
+    public void testRejectsWhenQueueIsFull() {
+        // Given
+        ReflectionTestUtils.setField(passwordHashingService, "fixedStrength", 12);
+        passwordHashingService.init();
+        String hash = new BCryptPasswordEncoder(12).encode("motdepasse");
+
+        // When
+        ExecutorService callers = Executors.newFixedThreadPool(4);
+        List<CompletableFuture<Boolean>> attempts = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            attempts.add(CompletableFuture.supplyAsync(() -> passwordHashingService.matches("motdepasse", hash), callers));
+        }
+
+        // Then
+        long overloaded = attempts.stream().filter(attempt -> {
+            try {
+                attempt.join();
+                return false;
+            } catch (RuntimeException e) {
+                return e.getCause() instanceof ServiceOverloadedException;
+            }
+        }).count();
+        callers.shutdown();
+        assertTrue(overloaded >= 1);
+        assertEquals(overloaded, (long) meterRegistry.get("auth.bcrypt.rejected").counter().count());
+    }
+
+    @Test
+    public void testAbandonedRequestIsRemovedFromQueue() {
+        // Given - un hachage long occupe l'unique thread au-delà du délai d'attente
+        ReflectionTestUtils.setField(passwordHashingService, "fixedStrength", 14);
+        ReflectionTestUtils.setField(passwordHashingService, "timeoutMillis", 100L);
+        passwordHashingService.init();
+        assertThrows(ServiceOverloadedException.class, () -> passwordHashingService.hash("motdepasse"));
+
+        // When - la demande suivante attend dans la file puis est abandonnée
+        assertThrows(ServiceOverloadedException.class, () -> passwordHashingService.hash("autre"));
+
+        // Then - sa place dans la file est libérée, elle ne sera pas calculée
+        assertEquals(0, meterRegistry.get("executor.queued").tag("name", "bcrypt").gauge().value());
+        assertEquals(2, meterRegistry.get("auth.bcrypt.rejected").counter().count());
+    }
+}
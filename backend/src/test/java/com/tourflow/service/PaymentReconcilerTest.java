@@ -0,0 +1,174 @@
+package com.tourflow.service;
+
+import com.tourflow.dto.PaymentLedgerEntry;
+import com.tourflow.dto.StripeBalanceEntry;
+import com.tourflow.model.PaymentStatus;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PaymentReconcilerTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 5, 1, 12, 0);
+    private static final Instant DAY_START = BASE.minusHours(12).toInstant(ZoneOffset.UTC);
+    private static final Instant DAY_END = BASE.plusHours(12).toInstant(ZoneOffset.UTC);
+
+    private final List<PaymentReconciler.Discrepancy> discrepancies = new ArrayList<>();
+
+    @Test
+    public void testMatchingPaymentsProduceNoDiscrepancy() {
+        // Given
+        List<PaymentLedgerEntry> payments = List.of(payment("pi_2", 50.0, 10), payment("pi_1", 20.0, 0));
+        List<StripeBalanceEntry> transactions = List.of(transaction("pi_2", 5000, 11), transaction("pi_1", 2000, 1));
+
+        // When
+        PaymentReconciler reconciler = reconciler(DAY_START, DAY_END);
+        reconciler.run(payments.iterator(), transactions.iterator(), 100, null);
+
+        // Then
+        assertTrue(discrepancies.isEmpty());
+        assertEquals(2, reconciler.getProcessedPayments());
+        assertEquals(2, reconciler.getProcessedStripeTransactions());
+    }
+
+    @Test
+    public void testDetectsMissingAndMismatchedEntries() {
+        // Given
+        List<PaymentLedgerEntry> payments = List.of(
+                payment("pi_3", 30.0, 120),
+                payment("pi_2", 25.0, 60),
+                payment("pi_1", 10.0, 0));
+        List<StripeBalanceEntry> transactions = List.of(
+                transaction("pi_4", 4000, 90),
+                transaction("pi_2", 2400, 61),
+                transaction("pi_1", 1000, 2));
+
+        // When
+        reconciler(DAY_START, DAY_END).run(payments.iterator(), transactions.iterator(), 100, null);
+
+        // Then
+        assertEquals(3, discrepancies.size());
+        assertEquals(PaymentReconciler.DiscrepancyType.MISSING_IN_STRIPE, discrepancies.get(0).getType());
+        assertEquals("pi_3", discrepancies.get(0).getPayment().getPaymentIntentId());
+        assertEquals(PaymentReconciler.DiscrepancyType.MISSING_IN_DATABASE, discrepancies.get(1).getType());
+        assertEquals("pi_4", discrepancies.get(1).getTransaction().getPaymentIntentId());
+        assertEquals(PaymentReconciler.DiscrepancyType.AMOUNT_MISMATCH, discrepancies.get(2).getType());
+    }
+
+    @Test
+    public void testPartnerOutsideReportWindowIsStillMatched() {
+        // Given - le paiement est dans la période, la charge Stripe juste avant son début
+        Instant reportFrom = BASE.toInstant(ZoneOffset.UTC);
+        List<PaymentLedgerEntry> payments = List.of(payment("pi_1", 10.0, 1));
+        List<StripeBalanceEntry> transactions = List.of(transaction("pi_1", 1000, -2));
+
+        // When
+        reconciler(reportFrom, DAY_END).run(payments.iterator(), transactions.iterator(), 100, null);
+
+        // Then
+        assertTrue(discrepancies.isEmpty());
+    }
+
+    @Test
+    public void testResumeDoesNotReportAlreadyDecidedEntries() {
+        // Given - reprise après un point de contrôle à BASE + 30 min
+        Instant reportUntil = BASE.plusMinutes(30).toInstant(ZoneOffset.UTC).plusNanos(1);
+        List<PaymentLedgerEntry> payments = List.of(payment("pi_late", 10.0, 40), payment("pi_early", 10.0, 5));
+
+        // When
+        reconciler(DAY_START, reportUntil).run(payments.iterator(), List.<StripeBalanceEntry>of().iterator(), 100, null);
+
+        // Then
+        assertEquals(1, discrepancies.size());
+        assertEquals("pi_early", discrepancies.get(0).getPayment().getPaymentIntentId());
+    }
+
+    @Test
+    public void testProgressReportsResumePoint() {
+        // Given
+        List<PaymentLedgerEntry> payments = List.of(payment("pi_2", 10.0, 60), payment("pi_1", 10.0, 0));
+        List<Instant> resumePoints = new ArrayList<>();
+
+        // When
+        reconciler(DAY_START, DAY_END).run(payments.iterator(), List.<StripeBalanceEntry>of().iterator(), 1,
+                (resumeAt, processedPayments, processedTransactions, count) -> resumePoints.add(resumeAt));
+
+        // Then
+        assertEquals(2, resumePoints.size());
+        assertEquals(BASE.plusMinutes(75).toInstant(ZoneOffset.UTC), resumePoints.get(0));
+        assertEquals(BASE.plusMinutes(15).toInstant(ZoneOffset.UTC), resumePoints.get(1));
+    }
+
+    @Test
+    public void testResumeAfterCheckpointDoesNotDuplicateDiscrepancies() {
+        // Given - un écart de montant et un paiement orphelin proches du point de contrôle
+        List<PaymentLedgerEntry> payments = List.of(
+                payment("pi_3", 30.0, 50),
+                payment("pi_2", 25.0, 44),
+                payment("pi_1", 10.0, 0));
+        List<StripeBalanceEntry> transactions = List.of(
+                transaction("pi_2", 2400, 40),
+                transaction("pi_1", 1000, 1));
+        List<Instant> resumePoints = new ArrayList<>();
+        List<Integer> writtenAtCheckpoint = new ArrayList<>();
+
+        // When - premier passage interrompu après le troisième élément
+        reconciler(DAY_START, DAY_END).run(payments.iterator(), transactions.iterator(), 1,
+                (resumeAt, processedPayments, processedTransactions, count) -> {
+                    resumePoints.add(resumeAt);
+                    writtenAtCheckpoint.add(discrepancies.size());
+                });
+        List<PaymentReconciler.Discrepancy> full = new ArrayList<>(discrepancies);
+        discrepancies.clear();
+        discrepancies.addAll(full.subList(0, writtenAtCheckpoint.get(2)));
+        reconciler(DAY_START, resumePoints.get(2).plusNanos(1))
+                .run(payments.iterator(), transactions.iterator(), 100, null);
+
+        // Then
+        assertEquals(2, full.size());
+        assertEquals(full.size(), discrepancies.size());
+        assertEquals(2, discrepancies.stream().map(PaymentReconciler.Discrepancy::getType).distinct().count());
+    }
+
+    @Test
+    public void testAmountsComparedInCurrencyMinorUnits() {
+        // Given - le yen n'a pas de décimales, Stripe exprime donc le montant en yens
+        List<PaymentLedgerEntry> payments = List.of(
+                new PaymentLedgerEntry(UUID.randomUUID(), "pi_jpy", 1500.0, "JPY", PaymentStatus.COMPLETED, BASE.plusMinutes(10)),
+                new PaymentLedgerEntry(UUID.randomUUID(), "pi_null", 20.0, null, PaymentStatus.COMPLETED, BASE));
+        List<StripeBalanceEntry> transactions = List.of(
+                new StripeBalanceEntry("txn_jpy", "pi_jpy", 1500, "jpy", BASE.plusMinutes(10).toInstant(ZoneOffset.UTC)),
+                transaction("pi_null", 2000, 0));
+
+        // When
+        reconciler(DAY_START, DAY_END).run(payments.iterator(), transactions.iterator(), 100, null);
+
+        // Then
+        assertEquals(1, discrepancies.size());
+        assertEquals(PaymentReconciler.DiscrepancyType.CURRENCY_MISMATCH, discrepancies.get(0).getType());
+        assertEquals(1999, PaymentReconciler.toMinorUnits(19.99, "eur"));
+        assertEquals(1500, PaymentReconciler.toMinorUnits(1500.0, "JPY"));
+    }
+
+    private PaymentReconciler reconciler(Instant reportFrom, Instant reportUntil) {
+        return new PaymentReconciler(Duration.ofMinutes(15), reportFrom, reportUntil, ZoneOffset.UTC, discrepancies::add);
+    }
+
+    private PaymentLedgerEntry payment(String paymentIntentId, double amount, int minutes) {
+        return new PaymentLedgerEntry(UUID.randomUUID(), paymentIntentId, amount, "EUR",
+                PaymentStatus.COMPLETED, BASE.plusMinutes(minutes));
+    }
+
+    private StripeBalanceEntry transaction(String paymentIntentId, long amountCents, int minutes) {
+        return new StripeBalanceEntry("txn_" + paymentIntentId, paymentIntentId, amountCents, "eur",
+                BASE.plusMinutes(minutes).toInstant(ZoneOffset.UTC));
+    }
+}
@@ -0,0 +1,178 @@
+package com.tourflow.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class SessionServiceTest {
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+
+    @Mock
+    private SetOperations<String, Object> setOperations;
+
+    @Mock
+    private ValueOperations<String, Object> valueOperations;
+
+    @InjectMocks
+    private SessionService sessionService;
+
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(sessionService, "migrationEnabled", true);
+        ReflectionTestUtils.setField(sessionService, "scanCount", 500L);
+    }
+
+    @Test
+    public void testSessionAttributesReadInOneCommand() {
+        // Given
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(hashOperations.entries("spring:session:sessions:abc")).thenReturn(Map.of(
+                "sessionAttr:panier", "tour-1",
+                "sessionAttr:langue", "fr",
+                "sessionAttr:userId", UUID.randomUUID().toString(),
+                "creationTime", 1_700_000_000_000L));
+
+        // When
+        Map<String, Object> attributes = sessionService.getSessionAttributes("abc");
+
+        // Then - l'identifiant de l'utilisateur rattaché reste interne
+        assertEquals(Map.of("panier", "tour-1", "langue", "fr"), attributes);
+        verify(redisTemplate, never()).keys(anyString());
+    }
+
+    @Test
+    public void testInvalidateIsASingleDelete() {
+        // When
+        sessionService.invalidateSession("abc");
+
+        // Then
+        verify(redisTemplate).delete("spring:session:sessions:abc");
+        verify(redisTemplate, never()).keys(anyString());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testUserSessionsPruneExpiredEntries() {
+        // Given
+        UUID userId = UUID.randomUUID();
+        String indexKey = "tourflow:sessions:user:" + userId;
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        when(setOperations.members(indexKey)).thenReturn(new LinkedHashSet<>(List.of("active", "expired")));
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenReturn(List.of(true, false));
+
+        // When
+        Set<String> sessions = sessionService.getUserSessions(userId);
+
+        // Then
+        assertEquals(Set.of("active"), sessions);
+        verify(setOperations).remove(indexKey, "expired");
+    }
+
+    @Test
+    public void testInvalidateUserSessionsDeletesSessionsAndIndexTogether() {
+        // Given
+        UUID userId = UUID.randomUUID();
+        String indexKey = "tourflow:sessions:user:" + userId;
+        when(redisTemplate.opsForSet()).thenReturn(setOperations);
+        when(setOperations.members(indexKey)).thenReturn(Set.of("abc"));
+
+        // When
+        sessionService.invalidateUserSessions(userId);
+
+        // Then
+        verify(redisTemplate).delete(List.of(indexKey, "spring:session:sessions:abc"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testBindToUserIndexesSessionAndKeepsUserId() {
+        // Given
+        UUID userId = UUID.randomUUID();
+        String indexKey = "tourflow:sessions:user:" + userId;
+        RedisOperations<String, Object> operations = mock(RedisOperations.class);
+        when(operations.opsForHash()).thenReturn((HashOperations) hashOperations);
+        when(operations.opsForSet()).thenReturn(setOperations);
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenAnswer(invocation -> {
+            invocation.getArgument(0, SessionCallback.class).execute(operations);
+            return List.of();
+        });
+
+        // When
+        sessionService.bindToUser("abc", userId);
+
+        // Then
+        verify(hashOperations).put("spring:session:sessions:abc", "sessionAttr:userId", userId.toString());
+        verify(operations).expire("spring:session:sessions:abc", 1, TimeUnit.HOURS);
+        verify(setOperations).add(indexKey, "abc");
+        verify(operations).expire(indexKey, 1, TimeUnit.HOURS);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testExtendSessionAlsoExtendsUserIndex() {
+        // Given - le pipeline renvoie le résultat d'EXPIRE puis l'identifiant de l'utilisateur
+        UUID userId = UUID.randomUUID();
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenReturn(List.of(true, userId.toString()));
+
+        // When
+        sessionService.extendSession("abc");
+
+        // Then
+        verify(redisTemplate).expire("tourflow:sessions:user:" + userId, 1, TimeUnit.HOURS);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testLegacyAttributesMigratedWithScan() {
+        // Given
+        Cursor<String> cursor = mock(Cursor.class);
+        when(cursor.hasNext()).thenReturn(true, false);
+        when(cursor.next()).thenReturn("spring:session:sessions:abc:sessionAttr:panier");
+        when(redisTemplate.scan(any(ScanOptions.class))).thenReturn(cursor);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(redisTemplate.opsForHash()).thenReturn(hashOperations);
+        when(valueOperations.get("spring:session:sessions:abc:sessionAttr:panier")).thenReturn("tour-1");
+        when(redisTemplate.getExpire("spring:session:sessions:abc:sessionAttr:panier", TimeUnit.SECONDS))
+                .thenReturn(1200L);
+
+        // When
+        sessionService.migrateLegacyAttributes();
+
+        // Then
+        verify(hashOperations).putIfAbsent("spring:session:sessions:abc", "sessionAttr:panier", "tour-1");
+        verify(redisTemplate).expire("spring:session:sessions:abc", 1200L, TimeUnit.SECONDS);
+        verify(redisTemplate).delete("spring:session:sessions:abc:sessionAttr:panier");
+        verify(redisTemplate, never()).keys(anyString());
+        verify(cursor).close();
+    }
+}
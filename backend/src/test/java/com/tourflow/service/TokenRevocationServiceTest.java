@@ -0,0 +1,117 @@
+package com.tourflow.service;
+
+import com.tourflow.model.RevokedToken;
+import com.tourflow.model.Role;
+import com.tourflow.repository.RevokedTokenRepository;
+import com.tourflow.security.JwtPrincipal;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TokenRevocationServiceTest {
+
+    @Mock
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @InjectMocks
+    private TokenRevocationService tokenRevocationService;
+
+    private final UUID userId = UUID.randomUUID();
+
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(tokenRevocationService, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(tokenRevocationService, "jwtExpiration", 86_400_000L);
+        ReflectionTestUtils.setField(tokenRevocationService, "falsePositiveRate", 0.01);
+        ReflectionTestUtils.setField(tokenRevocationService, "minCapacity", 4);
+        ReflectionTestUtils.setField(tokenRevocationService, "pollOverlapSeconds", 30L);
+        tokenRevocationService.init();
+    }
+
+    @Test
+    public void testRevokedTokenIsRejectedOthersAreNot() {
+        // Given
+        when(revokedTokenRepository.save(any(RevokedToken.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        JwtPrincipal revoked = principal(Instant.now());
+        JwtPrincipal other = principal(Instant.now());
+
+        // When
+        tokenRevocationService.revokeToken(revoked.getTokenId(), userId, revoked.getExpiresAt());
+
+        // Then
+        assertTrue(tokenRevocationService.isRevoked(revoked));
+        assertFalse(tokenRevocationService.isRevoked(other));
+    }
+
+    @Test
+    public void testUserRevocationOnlyCoversTokensIssuedBefore() {
+        // Given
+        when(revokedTokenRepository.save(any(RevokedToken.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        JwtPrincipal before = principal(Instant.now().minus(1, ChronoUnit.HOURS));
+
+        // When
+        tokenRevocationService.revokeUserTokens(userId);
+
+        // Then
+        assertTrue(tokenRevocationService.isRevoked(before));
+        assertFalse(tokenRevocationService.isRevoked(principal(Instant.now().plusSeconds(5))));
+    }
+
+    @Test
+    public void testPollAppliesRevocationsFromOtherInstances() {
+        // Given
+        JwtPrincipal revoked = principal(Instant.now());
+        when(revokedTokenRepository.findByRevokedAtAfterOrderByRevokedAtAsc(any(LocalDateTime.class)))
+                .thenReturn(List.of(new RevokedToken(revoked.getTokenId(), userId, null, LocalDateTime.now().plusHours(1))));
+
+        // When
+        assertFalse(tokenRevocationService.isRevoked(revoked));
+        tokenRevocationService.pollChanges();
+
+        // Then
+        assertTrue(tokenRevocationService.isRevoked(revoked));
+    }
+
+    @Test
+    public void testRebuildDropsExpiredRevocationsAndGrowsFilter() {
+        // Given
+        when(revokedTokenRepository.save(any(RevokedToken.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        JwtPrincipal expired = principal(Instant.now());
+        tokenRevocationService.revokeToken(expired.getTokenId(), userId, expired.getExpiresAt());
+        List<JwtPrincipal> active = List.of(principal(Instant.now()), principal(Instant.now()), principal(Instant.now()),
+                principal(Instant.now()), principal(Instant.now()), principal(Instant.now()));
+        when(revokedTokenRepository.findByExpiresAtAfter(any(LocalDateTime.class))).thenReturn(active.stream()
+                .map(p -> new RevokedToken(p.getTokenId(), userId, null, LocalDateTime.now().plusHours(1)))
+                .toList());
+
+        // When
+        tokenRevocationService.rebuild();
+
+        // Then
+        verify(revokedTokenRepository).deleteExpired(any(LocalDateTime.class));
+        assertFalse(tokenRevocationService.isRevoked(expired));
+        active.forEach(p -> assertTrue(tokenRevocationService.isRevoked(p)));
+    }
+
+    private JwtPrincipal principal(Instant issuedAt) {
+        Instant truncated = issuedAt.truncatedTo(ChronoUnit.SECONDS);
+        return new JwtPrincipal(userId, "guide@tourflow.com", "Marie", "Curie", Role.GUIDE,
+                truncated.plus(1, ChronoUnit.DAYS), UUID.randomUUID(), truncated);
+    }
+}
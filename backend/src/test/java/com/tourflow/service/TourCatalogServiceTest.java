@@ -0,0 +1,217 @@
+package com.tourflow.service;
+
+import com.tourflow.cache.ClusterInvalidationBus;
+import com.tourflow.dto.TourCatalogPage;
+import com.tourflow.dto.TourDto;
+import com.tourflow.model.Tour;
+import com.tourflow.repository.TourRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TourCatalogServiceTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2024, 3, 1, 10, 0);
+
+    @Mock
+    private TourRepository tourRepository;
+
+    @Mock
+    private ClusterInvalidationBus clusterInvalidationBus;
+
+    @InjectMocks
+    private TourCatalogService tourCatalogService;
+
+    // Du plus récent au plus ancien, comme la requête du catalogue
+    private final List<TourDto> tours = new ArrayList<>();
+
+    @BeforeEach
+    public void setUp() {
+        ReflectionTestUtils.setField(tourCatalogService, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(tourCatalogService, "maxPageSize", 100);
+        ReflectionTestUtils.setField(tourCatalogService, "maxCachedPages", 100L);
+        ReflectionTestUtils.setField(tourCatalogService, "cacheTtlMinutes", 30L);
+        tourCatalogService.init();
+
+        for (int i = 5; i >= 1; i--) {
+            tours.add(tour(BASE.plusDays(i)));
+        }
+
+        lenient().when(tourRepository.findCatalogFirstPage(any(Pageable.class)))
+                .thenAnswer(invocation -> limit(tours, invocation.getArgument(0)));
+        lenient().when(tourRepository.findCatalogPageAfter(any(LocalDateTime.class), any(UUID.class), any(Pageable.class)))
+                .thenAnswer(invocation -> {
+                    LocalDateTime createdAt = invocation.getArgument(0);
+                    List<TourDto> older = tours.stream().filter(t -> t.getCreatedAt().isBefore(createdAt)).toList();
+                    return limit(older, invocation.getArgument(2));
+                });
+    }
+
+    @Test
+    public void testPagesFollowCursor() {
+        // When
+        TourCatalogPage first = tourCatalogService.getPage(null, 2);
+        TourCatalogPage second = tourCatalogService.getPage(first.getNextCursor(), 2);
+        TourCatalogPage third = tourCatalogService.getPage(second.getNextCursor(), 2);
+
+        // Then
+        assertEquals(List.of(tours.get(0), tours.get(1)), first.getContent());
+        assertTrue(first.isHasMore());
+        assertEquals(List.of(tours.get(2), tours.get(3)), second.getContent());
+        assertEquals(List.of(tours.get(4)), third.getContent());
+        assertFalse(third.isHasMore());
+        assertNull(third.getNextCursor());
+    }
+
+    @Test
+    public void testPagesAreCached() {
+        // When
+        TourCatalogPage first = tourCatalogService.getPage(null, 2);
+        TourCatalogPage again = tourCatalogService.getPage(null, 2);
+
+        // Then
+        assertSame(first, again);
+        verify(tourRepository, times(1)).findCatalogFirstPage(any(Pageable.class));
+    }
+
+    @Test
+    public void testEvictTourOnlyInvalidatesPagesContainingIt() {
+        // Given
+        TourCatalogPage first = tourCatalogService.getPage(null, 2);
+        TourCatalogPage second = tourCatalogService.getPage(first.getNextCursor(), 2);
+        TourCatalogPage third = tourCatalogService.getPage(second.getNextCursor(), 2);
+        TourDto updated = tours.get(2);
+
+        // When
+        tourCatalogService.evictTour(entity(updated));
+
+        tourCatalogService.getPage(null, 2);
+        tourCatalogService.getPage(first.getNextCursor(), 2);
+        tourCatalogService.getPage(second.getNextCursor(), 2);
+
+        // Then : seule la deuxième page est relue
+        verify(tourRepository, times(1)).findCatalogFirstPage(any(Pageable.class));
+        verify(tourRepository, times(2)).findCatalogPageAfter(eq(first.getContent().get(1).getCreatedAt()), any(UUID.class), any(Pageable.class));
+        verify(tourRepository, times(1)).findCatalogPageAfter(eq(second.getContent().get(1).getCreatedAt()), any(UUID.class), any(Pageable.class));
+        assertFalse(third.isHasMore());
+    }
+
+    @Test
+    public void testNewTourOnlyInvalidatesFirstPage() {
+        // Given
+        TourCatalogPage first = tourCatalogService.getPage(null, 2);
+        TourCatalogPage second = tourCatalogService.getPage(first.getNextCursor(), 2);
+        TourDto created = tour(BASE.plusDays(10));
+        tours.add(0, created);
+
+        // When
+        tourCatalogService.evictTour(entity(created));
+
+        TourCatalogPage refreshed = tourCatalogService.getPage(null, 2);
+        TourCatalogPage unchanged = tourCatalogService.getPage(first.getNextCursor(), 2);
+
+        // Then
+        assertEquals(created, refreshed.getContent().get(0));
+        assertEquals(second.getContent(), unchanged.getContent());
+        verify(tourRepository, times(2)).findCatalogFirstPage(any(Pageable.class));
+        verify(tourRepository, times(1)).findCatalogPageAfter(any(LocalDateTime.class), any(UUID.class), any(Pageable.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testEvictionIsBroadcastAndAppliedFromOtherInstances() {
+        // Given
+        ArgumentCaptor<Consumer<String>> handler = ArgumentCaptor.forClass(Consumer.class);
+        verify(clusterInvalidationBus).subscribe(eq("tourCatalog"), handler.capture());
+        TourCatalogPage first = tourCatalogService.getPage(null, 2);
+        Tour updated = entity(tours.get(0));
+
+        // When - l'instance locale diffuse, puis reçoit la même invalidation d'une autre instance
+        tourCatalogService.evictTour(updated);
+        ArgumentCaptor<String> payload = ArgumentCaptor.forClass(String.class);
+        verify(clusterInvalidationBus).publish(eq("tourCatalog"), payload.capture());
+        tourCatalogService.getPage(null, 2);
+        handler.getValue().accept(payload.getValue());
+        tourCatalogService.getPage(null, 2);
+
+        // Then
+        assertTrue(first.isHasMore());
+        verify(tourRepository, times(3)).findCatalogFirstPage(any(Pageable.class));
+    }
+
+    @Test
+    public void testSurvivingPagesReportEvictedVersion() {
+        // Given
+        LocalDateTime loadedVersion = BASE.plusDays(5);
+        when(tourRepository.findLastUpdate()).thenReturn(loadedVersion);
+        TourCatalogPage first = tourCatalogService.getPage(null, 2);
+        Tour updated = entity(tours.get(4));
+
+        // When
+        tourCatalogService.evictTour(updated);
+        TourCatalogPage again = tourCatalogService.getPage(null, 2);
+
+        // Then
+        assertEquals(loadedVersion, first.getCatalogVersion());
+        assertEquals(first.getContent(), again.getContent());
+        assertEquals(updated.getUpdatedAt(), again.getCatalogVersion());
+        verify(tourRepository, times(1)).findCatalogFirstPage(any(Pageable.class));
+    }
+
+    @Test
+    public void testInvalidCursorIsRejected() {
+        // When & Then
+        RuntimeException exception = assertThrows(RuntimeException.class,
+                () -> tourCatalogService.getPage("pas-un-curseur", 2));
+        assertEquals("Curseur de pagination invalide", exception.getMessage());
+        verify(tourRepository, never()).findCatalogPageAfter(any(), any(), any());
+    }
+
+    @Test
+    public void testCompareKeysOrdersUuidsAsUnsigned() {
+        // Given
+        UUID low = UUID.fromString("00000000-0000-0000-0000-000000000001");
+        UUID high = UUID.fromString("ffffffff-0000-0000-0000-000000000000");
+
+        // When & Then
+        assertTrue(TourCatalogService.compareKeys(BASE, low, BASE, high) < 0);
+        assertTrue(TourCatalogService.compareKeys(BASE.plusSeconds(1), low, BASE, high) > 0);
+        assertEquals(0, TourCatalogService.compareKeys(BASE, high, BASE, high));
+    }
+
+    private TourDto tour(LocalDateTime createdAt) {
+        return new TourDto(UUID.randomUUID(), "Tour " + createdAt.getDayOfMonth(), "Paris", 120, 10, 45.0,
+                "Français", UUID.randomUUID(), createdAt);
+    }
+
+    private Tour entity(TourDto dto) {
+        Tour tour = new Tour();
+        tour.setId(dto.getId());
+        tour.setCreatedAt(dto.getCreatedAt());
+        tour.setUpdatedAt(LocalDateTime.now());
+        return tour;
+    }
+
+    private List<TourDto> limit(List<TourDto> source, Pageable pageable) {
+        return new ArrayList<>(source.subList(0, Math.min(source.size(), pageable.getPageSize())));
+    }
+}
@@ -0,0 +1,78 @@
+package com.tourflow.service;
+
+import com.tourflow.repository.UserActivityWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserActivityServiceTest {
+
+    @Mock
+    private UserActivityWriter userActivityWriter;
+
+    @InjectMocks
+    private UserActivityService userActivityService;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        ReflectionTestUtils.setField(userActivityService, "meterRegistry", meterRegistry);
+        userActivityService.initMetrics();
+    }
+
+    @Test
+    public void testFlushWritesLatestLoginPerUserInOneBatch() {
+        // Given
+        UUID serviceAccount = UUID.randomUUID();
+        LocalDateTime first = LocalDateTime.of(2030, 6, 15, 9, 0);
+        for (int i = 0; i < 100; i++) {
+            userActivityService.recordLogin(serviceAccount, first.plusSeconds(i));
+        }
+        when(userActivityWriter.updateLastLogins(anyMap())).thenReturn(1);
+
+        // When
+        userActivityService.flush();
+        userActivityService.flush();
+
+        // Then
+        verify(userActivityWriter, times(1)).updateLastLogins(Map.of(serviceAccount, first.plusSeconds(99)));
+        assertEquals(1, meterRegistry.get("write_behind.flushed").counter().count());
+    }
+
+    @Test
+    public void testFailedFlushIsRetried() {
+        // Given
+        UUID userId = UUID.randomUUID();
+        LocalDateTime loggedInAt = LocalDateTime.of(2030, 6, 15, 9, 0);
+        userActivityService.recordLogin(userId, loggedInAt);
+        when(userActivityWriter.updateLastLogins(anyMap()))
+                .thenThrow(new DataAccessResourceFailureException("Base indisponible"))
+                .thenReturn(1);
+
+        // When
+        userActivityService.flush();
+        assertEquals(1.0, meterRegistry.get("write_behind.pending").gauge().value());
+        userActivityService.flushOnShutdown();
+
+        // Then
+        verify(userActivityWriter, times(2)).updateLastLogins(Map.of(userId, loggedInAt));
+        assertEquals(0.0, meterRegistry.get("write_behind.pending").gauge().value());
+    }
+}
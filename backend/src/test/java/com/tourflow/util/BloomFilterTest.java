@@ -0,0 +1,57 @@
+package com.tourflow.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BloomFilterTest {
+
+    @Test
+    public void testNoFalseNegatives() {
+        // Given
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+        List<UUID> values = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            UUID value = UUID.randomUUID();
+            values.add(value);
+            filter.put(value);
+        }
+
+        // When / Then
+        values.forEach(value -> assertTrue(filter.mightContain(value)));
+    }
+
+    @Test
+    public void testFalsePositiveRateStaysNearTarget() {
+        // Given
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+        for (int i = 0; i < 1000; i++) {
+            filter.put(UUID.randomUUID());
+        }
+
+        // When
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain(UUID.randomUUID())) {
+                falsePositives++;
+            }
+        }
+
+        // Then
+        assertTrue(falsePositives < 2_000, "Taux de faux positifs trop élevé : " + falsePositives);
+        assertEquals(7, filter.getHashCount());
+    }
+
+    @Test
+    public void testEmptyFilterContainsNothing() {
+        // Given
+        BloomFilter filter = new BloomFilter(10, 0.01);
+
+        // When / Then
+        assertFalse(filter.mightContain(UUID.randomUUID()));
+    }
+}
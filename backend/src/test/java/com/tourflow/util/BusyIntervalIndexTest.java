@@ -0,0 +1,43 @@
+package com.tourflow.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BusyIntervalIndexTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2024, 7, 10, 0, 0);
+
+    @Test
+    public void testOverlaps() {
+        // Given - un long bloc commencé tôt et deux blocs courts
+        List<LocalDateTime[]> intervals = List.of(
+                new LocalDateTime[] { DAY.plusHours(14), DAY.plusHours(15) },
+                new LocalDateTime[] { DAY.minusDays(2), DAY.plusHours(9) },
+                new LocalDateTime[] { DAY.plusHours(18), DAY.plusHours(20) });
+
+        // When
+        BusyIntervalIndex index = BusyIntervalIndex.of(intervals, interval -> interval[0], interval -> interval[1]);
+
+        // Then
+        assertEquals(3, index.size());
+        assertTrue(index.overlaps(DAY.plusHours(8), DAY.plusHours(10)));
+        assertTrue(index.overlaps(DAY.plusHours(14).plusMinutes(30), DAY.plusHours(16)));
+        assertFalse(index.overlaps(DAY.plusHours(9), DAY.plusHours(14)));
+        assertFalse(index.overlaps(DAY.plusHours(15), DAY.plusHours(18)));
+        assertFalse(index.overlaps(DAY.plusHours(20), DAY.plusHours(22)));
+    }
+
+    @Test
+    public void testEmptyIndex() {
+        // When
+        BusyIntervalIndex index = BusyIntervalIndex.of(List.<LocalDateTime[]>of(), interval -> interval[0], interval -> interval[1]);
+
+        // Then
+        assertSame(BusyIntervalIndex.EMPTY, index);
+        assertFalse(index.overlaps(DAY, DAY.plusDays(1)));
+    }
+}
@@ -0,0 +1,51 @@
+package com.tourflow.util;
+
+import com.tourflow.dto.BusyPeriod;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BusyPeriodMergerTest {
+
+    private static final LocalDateTime DAY = LocalDateTime.of(2024, 7, 10, 0, 0);
+
+    @Test
+    public void testMergesOverlappingAndAdjacentPeriods() {
+        // Given - réservations, exceptions et blocs externes, chacun trié par début
+        List<BusyPeriod> bookings = List.of(period(9, 11), period(15, 16));
+        List<BusyPeriod> exceptions = List.of(period(10, 12), period(20, 21));
+        List<BusyPeriod> external = List.of(period(12, 13), period(15, 15));
+
+        // When
+        List<BusyPeriod> merged = BusyPeriodMerger.merge(List.of(bookings, exceptions, external), DAY, DAY.plusDays(1));
+
+        // Then
+        assertEquals(3, merged.size());
+        assertEquals(DAY.plusHours(9), merged.get(0).getStart());
+        assertEquals(DAY.plusHours(13), merged.get(0).getEnd());
+        assertEquals(DAY.plusHours(15), merged.get(1).getStart());
+        assertEquals(DAY.plusHours(16), merged.get(1).getEnd());
+        assertEquals(DAY.plusHours(20), merged.get(2).getStart());
+    }
+
+    @Test
+    public void testPeriodsAreClippedToWindow() {
+        // Given
+        List<BusyPeriod> bookings = List.of(period(-5, 2), period(22, 30));
+
+        // When
+        List<BusyPeriod> merged = BusyPeriodMerger.merge(List.of(bookings, List.of()), DAY, DAY.plusDays(1));
+
+        // Then
+        assertEquals(2, merged.size());
+        assertEquals(DAY, merged.get(0).getStart());
+        assertEquals(DAY.plusDays(1), merged.get(1).getEnd());
+    }
+
+    private BusyPeriod period(int startHour, int endHour) {
+        return new BusyPeriod(DAY.plusHours(startHour), DAY.plusHours(endHour));
+    }
+}
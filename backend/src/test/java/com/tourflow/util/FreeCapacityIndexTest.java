@@ -0,0 +1,121 @@
+package com.tourflow.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FreeCapacityIndexTest {
+
+    private static final LocalDate DAY = LocalDate.of(2030, 6, 15);
+    private static final LocalDateTime NOW = LocalDateTime.of(2030, 6, 1, 12, 0);
+
+    private final UUID guideId = UUID.randomUUID();
+
+    @Test
+    public void testFindKeepsSlotsWithEnoughPlaces() {
+        // Given
+        FreeCapacityIndex index = new FreeCapacityIndex();
+        UUID small = UUID.randomUUID();
+        UUID large = UUID.randomUUID();
+        index.replaceTour(small, DAY, DAY, List.of(slot(small, 10, 2, 12)));
+        index.replaceTour(large, DAY, DAY, List.of(slot(large, 14, 8, 12)));
+
+        // When
+        List<FreeCapacityIndex.Slot> slots = index.find(DAY.atTime(9, 0), DAY.atTime(18, 0), 4, NOW);
+
+        // Then
+        assertEquals(1, slots.size());
+        assertEquals(large, slots.get(0).getTourId());
+        assertEquals(8, slots.get(0).getFree());
+    }
+
+    @Test
+    public void testFindFiltersByStartTimeAndSortsChronologically() {
+        // Given
+        FreeCapacityIndex index = new FreeCapacityIndex();
+        UUID tourId = UUID.randomUUID();
+        index.replaceTour(tourId, DAY, DAY.plusDays(1), List.of(
+                slot(tourId, DAY.plusDays(1), 9, 6, 12),
+                slot(tourId, DAY, 16, 6, 12),
+                slot(tourId, DAY, 8, 6, 12)));
+
+        // When
+        List<FreeCapacityIndex.Slot> slots = index.find(DAY.atTime(12, 0), DAY.plusDays(1).atTime(12, 0), 1, NOW);
+
+        // Then
+        assertEquals(2, slots.size());
+        assertEquals(DAY.atTime(16, 0), slots.get(0).getStart());
+        assertEquals(DAY.plusDays(1).atTime(9, 0), slots.get(1).getStart());
+    }
+
+    @Test
+    public void testFindRespectsMinimumBookingNotice() {
+        // Given
+        FreeCapacityIndex index = new FreeCapacityIndex();
+        UUID tourId = UUID.randomUUID();
+        index.replaceTour(tourId, DAY, DAY, List.of(slot(tourId, 10, 6, 48)));
+
+        // When
+        List<FreeCapacityIndex.Slot> tooLate = index.find(DAY.atStartOfDay(), DAY.plusDays(1).atStartOfDay(), 1,
+                DAY.minusDays(1).atTime(12, 0));
+        List<FreeCapacityIndex.Slot> inTime = index.find(DAY.atStartOfDay(), DAY.plusDays(1).atStartOfDay(), 1, NOW);
+
+        // Then
+        assertTrue(tooLate.isEmpty());
+        assertEquals(1, inTime.size());
+    }
+
+    @Test
+    public void testReplaceTourClearsDaysWithoutSlots() {
+        // Given
+        FreeCapacityIndex index = new FreeCapacityIndex();
+        UUID tourId = UUID.randomUUID();
+        index.replaceTour(tourId, DAY, DAY.plusDays(1), List.of(
+                slot(tourId, DAY, 10, 6, 12),
+                slot(tourId, DAY.plusDays(1), 10, 6, 12)));
+
+        // When
+        index.replaceTour(tourId, DAY, DAY.plusDays(1), List.of(slot(tourId, DAY.plusDays(1), 10, 3, 12)));
+        List<FreeCapacityIndex.Slot> slots = index.find(DAY.atStartOfDay(), DAY.plusDays(2).atStartOfDay(), 1, NOW);
+        List<FreeCapacityIndex.Slot> largeGroup = index.find(DAY.atStartOfDay(), DAY.plusDays(2).atStartOfDay(), 4, NOW);
+
+        // Then
+        assertEquals(1, slots.size());
+        assertEquals(DAY.plusDays(1), slots.get(0).getStart().toLocalDate());
+        assertTrue(largeGroup.isEmpty());
+    }
+
+    @Test
+    public void testRemoveTour() {
+        // Given
+        FreeCapacityIndex index = new FreeCapacityIndex();
+        UUID removed = UUID.randomUUID();
+        UUID kept = UUID.randomUUID();
+        index.replaceTour(removed, DAY, DAY, List.of(slot(removed, 10, 6, 12)));
+        index.replaceTour(kept, DAY, DAY.plusDays(1), List.of(
+                slot(kept, DAY, 10, 6, 12),
+                slot(kept, DAY.plusDays(1), 10, 6, 12)));
+
+        // When
+        index.removeTour(removed);
+        List<FreeCapacityIndex.Slot> slots = index.find(DAY.atStartOfDay(), DAY.plusDays(2).atStartOfDay(), 1, NOW);
+
+        // Then
+        assertEquals(2, slots.size());
+        assertTrue(slots.stream().allMatch(slot -> slot.getTourId().equals(kept)));
+    }
+
+    private FreeCapacityIndex.Slot slot(UUID tourId, int hour, int free, int minBookingHours) {
+        return slot(tourId, DAY, hour, free, minBookingHours);
+    }
+
+    private FreeCapacityIndex.Slot slot(UUID tourId, LocalDate day, int hour, int free, int minBookingHours) {
+        LocalDateTime start = day.atTime(hour, 0);
+        return new FreeCapacityIndex.Slot(tourId, guideId, start, start.plusHours(2), free, minBookingHours);
+    }
+}
@@ -0,0 +1,47 @@
+package com.tourflow.util;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GazetteerTest {
+
+    private static Gazetteer gazetteer;
+
+    @BeforeAll
+    public static void load() throws IOException {
+        try (InputStream inputStream = GazetteerTest.class.getResourceAsStream("/geo/gazetteer.csv")) {
+            gazetteer = Gazetteer.load(inputStream);
+        }
+    }
+
+    @Test
+    public void testExactMatchIgnoresCaseAndAccents() {
+        assertArrayEquals(new double[] { 48.8606, 2.3376 }, gazetteer.locate("musee du LOUVRE"), 1e-9);
+        assertArrayEquals(new double[] { 43.8367, 4.3601 }, gazetteer.locate("Nimes"), 1e-9);
+    }
+
+    @Test
+    public void testMostSpecificPartWins() {
+        assertArrayEquals(new double[] { 48.8867, 2.3431 }, gazetteer.locate("Montmartre, Paris"), 1e-9);
+        assertArrayEquals(new double[] { 48.8530, 2.3499 }, gazetteer.locate("Parvis de Notre-Dame de Paris, 75004"), 1e-9);
+    }
+
+    @Test
+    public void testUnknownLocation() {
+        assertNull(gazetteer.locate("Quelque part"));
+        assertNull(gazetteer.locate(null));
+    }
+
+    @Test
+    public void testInvalidFileIsRejected() {
+        byte[] content = "Paris;48.8566\n".getBytes(StandardCharsets.UTF_8);
+        assertThrows(IOException.class, () -> Gazetteer.load(new ByteArrayInputStream(content)));
+    }
+}
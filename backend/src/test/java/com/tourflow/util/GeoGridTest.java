@@ -0,0 +1,117 @@
+package com.tourflow.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GeoGridTest {
+
+    private GeoGrid<String> grid;
+    private final UUID louvre = UUID.randomUUID();
+    private final UUID eiffel = UUID.randomUUID();
+    private final UUID versailles = UUID.randomUUID();
+    private final UUID lyon = UUID.randomUUID();
+
+    @BeforeEach
+    public void setUp() {
+        grid = new GeoGrid<>(0.05);
+        grid.put(louvre, 48.8606, 2.3376, "Louvre");
+        grid.put(eiffel, 48.8584, 2.2945, "Tour Eiffel");
+        grid.put(versailles, 48.8049, 2.1204, "Versailles");
+        grid.put(lyon, 45.7640, 4.8357, "Lyon");
+    }
+
+    @Test
+    public void testWithinRadiusSortedByDistance() {
+        // When
+        List<GeoGrid.Match<String>> matches = grid.withinRadius(48.8566, 2.3522, 5);
+
+        // Then
+        assertEquals(List.of("Louvre", "Tour Eiffel"), matches.stream().map(GeoGrid.Match::getValue).toList());
+        assertTrue(matches.get(0).getDistanceKm() < matches.get(1).getDistanceKm());
+        assertTrue(matches.get(1).getDistanceKm() < 5);
+    }
+
+    @Test
+    public void testRadiusCoversSeveralCells() {
+        // When
+        List<GeoGrid.Match<String>> matches = grid.withinRadius(48.8566, 2.3522, 25);
+
+        // Then
+        assertEquals(3, matches.size());
+        assertEquals("Versailles", matches.get(2).getValue());
+    }
+
+    @Test
+    public void testWholeWorldBoxVisitsOccupiedCellsOnly() {
+        // Given - un point de l'autre côté de l'antiméridien
+        UUID fidji = UUID.randomUUID();
+        grid.put(fidji, -17.7134, 178.0650, "Fidji");
+
+        // When
+        List<GeoGrid.Match<String>> world = grid.withinBox(-90, -180, 90, 180);
+        List<GeoGrid.Match<String>> pacific = grid.withinBox(-60, 170, 60, -170);
+
+        // Then
+        assertEquals(5, world.size());
+        assertEquals(List.of("Fidji"), pacific.stream().map(GeoGrid.Match::getValue).toList());
+    }
+
+    @Test
+    public void testWithinBox() {
+        // When
+        List<GeoGrid.Match<String>> matches = grid.withinBox(48.80, 2.10, 48.86, 2.30);
+
+        // Then
+        assertEquals(2, matches.size());
+        assertTrue(matches.stream().noneMatch(m -> m.getId().equals(louvre)));
+    }
+
+    @Test
+    public void testBoxAcrossAntimeridian() {
+        // Given
+        UUID fiji = UUID.randomUUID();
+        UUID samoa = UUID.randomUUID();
+        grid.put(fiji, -18.14, 178.44, "Suva");
+        grid.put(samoa, -13.83, -171.76, "Apia");
+
+        // When
+        List<GeoGrid.Match<String>> matches = grid.withinBox(-20, 175, -10, -170);
+
+        // Then
+        assertEquals(2, matches.size());
+    }
+
+    @Test
+    public void testMoveAndRemove() {
+        // Given
+        grid.put(louvre, 45.7600, 4.8300, "Louvre déplacé");
+        grid.remove(eiffel);
+
+        // When & Then
+        assertTrue(grid.withinRadius(48.8566, 2.3522, 5).isEmpty());
+        assertEquals(2, grid.withinRadius(45.7640, 4.8357, 2).size());
+        assertEquals(3, grid.size());
+    }
+
+    @Test
+    public void testHaversineDistance() {
+        // Paris - Lyon : environ 392 km à vol d'oiseau
+        assertEquals(392, GeoGrid.distanceKm(48.8566, 2.3522, 45.7640, 4.8357), 3);
+    }
+
+    @Test
+    public void testRetainAllDropsMissingPoints() {
+        // When
+        grid.retainAll(Set.of(louvre, lyon));
+
+        // Then
+        assertEquals(2, grid.size());
+        assertEquals(List.of("Louvre"), grid.withinRadius(48.8566, 2.3522, 5).stream().map(GeoGrid.Match::getValue).toList());
+    }
+}
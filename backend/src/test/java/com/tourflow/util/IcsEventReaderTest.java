@@ -0,0 +1,104 @@
+package com.tourflow.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IcsEventReaderTest {
+
+    private static final ZoneId PARIS = ZoneId.of("Europe/Paris");
+
+    private static final String FEED = String.join("\r\n",
+            "BEGIN:VCALENDAR",
+            "VERSION:2.0",
+            "BEGIN:VEVENT",
+            "UID:weekly-1@example.com",
+            "DTSTART;TZID=Europe/Paris:20240701T090000",
+            "DTEND;TZID=Europe/Paris:20240701T103000",
+            "RRULE:FREQ=WEEKLY;BYDAY=MO,WE;COUNT=1",
+            " 0",
+            "EXDATE;TZID=Europe/Paris:20240703T090000,20240708T090000",
+            "SUMMARY:Cours particulier",
+            "BEGIN:VALARM",
+            "TRIGGER:-PT15M",
+            "DTSTART:19700101T000000Z",
+            "END:VALARM",
+            "END:VEVENT",
+            "BEGIN:VEVENT",
+            "UID:free-2@example.com",
+            "DTSTART:20240702T120000Z",
+            "DURATION:PT2H",
+            "TRANSP:TRANSPARENT",
+            "END:VEVENT",
+            "END:VCALENDAR",
+            "");
+
+    @Test
+    public void testReadsEventsOneByOne() throws IOException {
+        // Given
+        IcsEventReader reader = new IcsEventReader(new StringReader(FEED), 1000, 10);
+
+        // When
+        IcsEventReader.Event first = reader.next();
+        IcsEventReader.Event second = reader.next();
+
+        // Then
+        assertEquals("weekly-1@example.com", first.getUid());
+        assertEquals(LocalDateTime.of(2024, 7, 1, 9, 0), first.getStart().getValue());
+        assertEquals(ZoneId.of("Europe/Paris"), first.getStart().getZone());
+        // La ligne pliée est reconstituée et les propriétés du VALARM sont ignorées
+        assertEquals("FREQ=WEEKLY;BYDAY=MO,WE;COUNT=10", first.getRrule());
+        assertEquals(2, first.getExdates().size());
+        assertEquals(Duration.ofMinutes(90), first.getOccurrenceDuration(PARIS));
+        assertFalse(first.isTransparent());
+
+        assertEquals(ZoneOffset.UTC, second.getStart().getZone());
+        assertEquals(Duration.ofHours(2), second.getOccurrenceDuration(PARIS));
+        assertTrue(second.isTransparent());
+
+        assertNull(reader.next());
+        assertEquals(2, reader.getEventCount());
+    }
+
+    @Test
+    public void testAllDayEvent() throws IOException {
+        // Given
+        String feed = "BEGIN:VEVENT\nUID:day\nDTSTART;VALUE=DATE:20240710\nEND:VEVENT\n";
+
+        // When
+        IcsEventReader.Event event = new IcsEventReader(new StringReader(feed), 1000, 10).next();
+
+        // Then
+        assertTrue(event.getStart().isDate());
+        assertEquals(Duration.ofDays(1), event.getOccurrenceDuration(PARIS));
+    }
+
+    @Test
+    public void testLineLengthIsCapped() {
+        // Given
+        String feed = "BEGIN:VEVENT\nDESCRIPTION:" + "x".repeat(500) + "\nEND:VEVENT\n";
+        IcsEventReader reader = new IcsEventReader(new StringReader(feed), 100, 10);
+
+        // When / Then
+        assertThrows(RuntimeException.class, reader::next);
+    }
+
+    @Test
+    public void testEventCountIsCapped() throws IOException {
+        // Given
+        IcsEventReader reader = new IcsEventReader(new StringReader(FEED), 1000, 1);
+
+        // When
+        reader.next();
+
+        // Then
+        assertThrows(RuntimeException.class, reader::next);
+    }
+}
@@ -0,0 +1,55 @@
+package com.tourflow.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IcsWriterTest {
+
+    @Test
+    public void testEscapeText() {
+        // When
+        String escaped = IcsWriter.escapeText("Visite; Paris, Lyon\\Nice\r\nDépart");
+
+        // Then
+        assertEquals("Visite\\; Paris\\, Lyon\\\\Nice\\nDépart", escaped);
+    }
+
+    @Test
+    public void testLongLinesAreFoldedAt75Octets() throws IOException {
+        // Given
+        StringWriter output = new StringWriter();
+        IcsWriter writer = new IcsWriter(output);
+
+        // When
+        writer.textProperty("DESCRIPTION", "é".repeat(60));
+        writer.flush();
+
+        // Then
+        String[] lines = output.toString().split("\r\n");
+        assertTrue(lines.length > 1);
+        for (String line : lines) {
+            assertTrue(line.getBytes(StandardCharsets.UTF_8).length <= 75);
+        }
+        assertEquals("DESCRIPTION:" + "é".repeat(60), output.toString().replace("\r\n ", "").trim());
+    }
+
+    @Test
+    public void testDateTimeProperties() throws IOException {
+        // Given
+        StringWriter output = new StringWriter();
+        IcsWriter writer = new IcsWriter(output);
+
+        // When
+        writer.localDateTimeProperty("DTSTART", "Europe/Paris", LocalDateTime.of(2024, 7, 14, 9, 30));
+        writer.flush();
+
+        // Then
+        assertEquals("DTSTART;TZID=Europe/Paris:20240714T093000\r\n", output.toString());
+    }
+}
@@ -0,0 +1,123 @@
+package com.tourflow.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RecurrenceIteratorTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 9, 0);
+    private static final Duration ONE_HOUR = Duration.ofHours(1);
+
+    @Test
+    public void testWeeklyRuleIsExpandedOnlyInsideWindow() {
+        // Given - règle sans fin commencée des années avant la fenêtre
+        LocalDateTime windowStart = LocalDateTime.of(2030, 6, 3, 0, 0);
+
+        // When
+        List<LocalDateTime> occurrences = expand(START, "FREQ=WEEKLY;BYDAY=MO,WE", windowStart, windowStart.plusDays(7), Set.of());
+
+        // Then
+        assertEquals(List.of(LocalDateTime.of(2030, 6, 3, 9, 0), LocalDateTime.of(2030, 6, 5, 9, 0)), occurrences);
+    }
+
+    @Test
+    public void testCountUntilAndExdate() {
+        // Given
+        LocalDateTime windowStart = START.minusDays(1);
+        LocalDateTime windowEnd = START.plusYears(1);
+
+        // When
+        List<LocalDateTime> counted = expand(START, "FREQ=DAILY;INTERVAL=2;COUNT=3", windowStart, windowEnd,
+                Set.of(START.plusDays(2)));
+        List<LocalDateTime> until = expand(START, "FREQ=DAILY;UNTIL=20240103T090000", windowStart, windowEnd, Set.of());
+
+        // Then - l'occurrence exclue compte quand même dans COUNT
+        assertEquals(List.of(START, START.plusDays(4)), counted);
+        assertEquals(List.of(START, START.plusDays(1), START.plusDays(2)), until);
+    }
+
+    @Test
+    public void testMonthlyRules() {
+        // Given
+        LocalDateTime jan31 = LocalDateTime.of(2024, 1, 31, 10, 0);
+        LocalDateTime windowEnd = LocalDateTime.of(2024, 5, 1, 0, 0);
+
+        // When
+        List<LocalDateTime> monthDay = expand(jan31, "FREQ=MONTHLY", jan31, windowEnd, Set.of());
+        List<LocalDateTime> lastFriday = expand(START, "FREQ=MONTHLY;BYDAY=-1FR;COUNT=2", START, windowEnd, Set.of());
+
+        // Then - les mois sans 31 sont ignorés
+        assertEquals(List.of(jan31, LocalDateTime.of(2024, 3, 31, 10, 0)), monthDay);
+        assertEquals(List.of(LocalDateTime.of(2024, 1, 26, 9, 0), LocalDateTime.of(2024, 2, 23, 9, 0)), lastFriday);
+    }
+
+    @Test
+    public void testUnsupportedRuleIsDelegated() {
+        // Given - BYSETPOS n'est pas géré directement
+        LocalDateTime windowEnd = LocalDateTime.of(2024, 3, 31, 0, 0);
+
+        // When
+        List<LocalDateTime> occurrences = expand(START, "FREQ=MONTHLY;BYDAY=MO,TU,WE,TH,FR;BYSETPOS=-1", START, windowEnd, Set.of());
+
+        // Then
+        assertEquals(List.of(LocalDateTime.of(2024, 1, 31, 9, 0), LocalDateTime.of(2024, 2, 29, 9, 0),
+                LocalDateTime.of(2024, 3, 29, 9, 0)), occurrences);
+    }
+
+    @Test
+    public void testDelegatedRuleIsCappedAndSubHourlyRulesRejected() {
+        // Given - BYSETPOS délégué à ical4j, une occurrence par jour ouvré sur un an
+        LocalDateTime windowEnd = START.plusYears(1);
+
+        // When / Then - le plafond est atteint avant de tout développer en mémoire
+        assertThrows(RuntimeException.class, () -> new RecurrenceIterator(START, "FREQ=DAILY;BYDAY=MO,TU,WE,TH,FR;BYSETPOS=1",
+                null, ONE_HOUR, START, windowEnd, occurrence -> false, 100));
+        assertThrows(RuntimeException.class, () -> new RecurrenceIterator(START, "FREQ=SECONDLY",
+                null, ONE_HOUR, START, windowEnd, occurrence -> false, 100));
+    }
+
+    @Test
+    public void testSparseRuleIsExpandedUpToWindowEnd() {
+        // Given - 29 février quotidien : près de quatre ans de périodes vides avant la prochaine occurrence
+        LocalDateTime windowStart = LocalDateTime.of(2024, 3, 1, 0, 0);
+        LocalDateTime windowEnd = LocalDateTime.of(2029, 1, 1, 0, 0);
+
+        // When
+        List<LocalDateTime> occurrences = expand(START, "FREQ=DAILY;BYMONTH=2;BYMONTHDAY=29", windowStart, windowEnd, Set.of());
+        List<LocalDateTime> never = expand(START, "FREQ=YEARLY;BYMONTH=2;BYMONTHDAY=30", START, windowEnd, Set.of());
+
+        // Then
+        assertEquals(List.of(LocalDateTime.of(2028, 2, 29, 9, 0)), occurrences);
+        assertTrue(never.isEmpty());
+    }
+
+    @Test
+    public void testUtcUntilIsReadInEventZone() {
+        // Given - 08:00 UTC correspond à 09:00 à Paris en hiver
+        RecurrenceIterator iterator = new RecurrenceIterator(START, "FREQ=DAILY;UNTIL=20240103T080000Z",
+                ZoneId.of("Europe/Paris"), ONE_HOUR, START, START.plusDays(10), occurrence -> false);
+
+        // When
+        List<LocalDateTime> occurrences = new ArrayList<>();
+        iterator.forEachRemaining(occurrences::add);
+
+        // Then
+        assertEquals(List.of(START, START.plusDays(1), START.plusDays(2)), occurrences);
+    }
+
+    private List<LocalDateTime> expand(LocalDateTime dtStart, String rrule, LocalDateTime windowStart,
+                                       LocalDateTime windowEnd, Set<LocalDateTime> exdates) {
+        RecurrenceIterator iterator = new RecurrenceIterator(dtStart, rrule, null, ONE_HOUR, windowStart, windowEnd, exdates::contains);
+        List<LocalDateTime> occurrences = new ArrayList<>();
+        iterator.forEachRemaining(occurrences::add);
+        return occurrences;
+    }
+}
@@ -0,0 +1,43 @@
+package com.tourflow.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenBucketTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    public void testBurstThenRefillAtConfiguredRate() {
+        // Given
+        long now = 1_000 * SECOND;
+        TokenBucket bucket = new TokenBucket(2, 3, now);
+
+        // When / Then
+        assertEquals(0, bucket.tryAcquire(now));
+        assertEquals(0, bucket.tryAcquire(now));
+        assertEquals(0, bucket.tryAcquire(now));
+        assertEquals(SECOND / 2, bucket.tryAcquire(now));
+
+        assertEquals(0, bucket.tryAcquire(now + SECOND / 2));
+        assertTrue(bucket.tryAcquire(now + SECOND / 2) > 0);
+    }
+
+    @Test
+    public void testIdleBucketDoesNotAccumulateBeyondBurst() {
+        // Given
+        long now = -5 * SECOND;
+        TokenBucket bucket = new TokenBucket(1, 2, now);
+
+        // When
+        long later = now + 60 * SECOND;
+
+        // Then
+        assertEquals(0, bucket.tryAcquire(later));
+        assertEquals(0, bucket.tryAcquire(later));
+        assertEquals(SECOND, bucket.tryAcquire(later));
+    }
+}
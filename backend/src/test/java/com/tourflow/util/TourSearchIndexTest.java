@@ -0,0 +1,154 @@
+package com.tourflow.util;
+
+import com.tourflow.dto.TourSearchCriteria;
+import com.tourflow.dto.TourSearchDocument;
+import com.tourflow.dto.TourSearchHit;
+import com.tourflow.dto.TourSearchResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TourSearchIndexTest {
+
+    private static final LocalDateTime CREATED = LocalDateTime.of(2024, 1, 1, 9, 0);
+
+    private TourSearchIndex index;
+    private UUID louvre;
+    private UUID orsay;
+    private UUID montmartre;
+    private UUID lyon;
+
+    @BeforeEach
+    public void setUp() {
+        index = new TourSearchIndex();
+        louvre = put("Visite du Louvre", "Les chefs-d'œuvre du musée", "Paris", "Français", 45, 120, 1);
+        orsay = put("Musée d'Orsay", "Impressionnistes et musées parisiens", "Paris", "English", 60, 90, 2);
+        montmartre = put("Montmartre à pied", "Balade sur la butte", "paris", "Français", 25, 150, 3);
+        lyon = put("Vieux Lyon", "Traboules et musées gallo-romains", "Lyon", "Français", 30, 120, 4);
+    }
+
+    @Test
+    public void testTextSearchIsAccentAndPluralInsensitive() {
+        // When
+        TourSearchResult result = index.search(criteria("musees"));
+
+        // Then
+        assertEquals(3, result.getTotalHits());
+        // Le terme dans le titre pèse plus que dans la description
+        assertEquals(orsay, result.getHits().get(0).getId());
+        assertTrue(result.getHits().stream().map(TourSearchHit::getId).toList().containsAll(List.of(louvre, lyon)));
+    }
+
+    @Test
+    public void testAllTermsAreRequired() {
+        // When
+        TourSearchResult result = index.search(criteria("musée lyon"));
+
+        // Then
+        assertEquals(1, result.getTotalHits());
+        assertEquals(lyon, result.getHits().get(0).getId());
+    }
+
+    @Test
+    public void testFacetsIgnoreTheirOwnFilter() {
+        // Given
+        TourSearchCriteria criteria = criteria(null);
+        criteria.setLocation("PARIS");
+        criteria.setMaxPrice(50.0);
+
+        // When
+        TourSearchResult result = index.search(criteria);
+
+        // Then
+        assertEquals(2, result.getTotalHits());
+        assertEquals(2L, result.getLanguages().get("Français"));
+        assertNull(result.getLanguages().get("English"));
+        assertEquals(2L, result.getLocations().get("Paris"));
+        assertEquals(1L, result.getLocations().get("Lyon"));
+    }
+
+    @Test
+    public void testSortAndPagination() {
+        // Given
+        TourSearchCriteria criteria = criteria(null);
+        criteria.setSort("price_asc");
+        criteria.setSize(2);
+        criteria.setPage(1);
+
+        // When
+        TourSearchResult result = index.search(criteria);
+
+        // Then
+        assertEquals(4, result.getTotalHits());
+        assertEquals(List.of(louvre, orsay), result.getHits().stream().map(TourSearchHit::getId).toList());
+    }
+
+    @Test
+    public void testUpdateReplacesTermsAndRemoveDropsTour() {
+        // Given
+        index.put(new TourSearchDocument(lyon, "Croisière sur la Saône", "Au fil de l'eau", "Lyon", "Français",
+                30, 120, CREATED, CREATED.plusDays(10)));
+        index.remove(louvre);
+
+        // When & Then
+        assertEquals(1, index.search(criteria("musées")).getTotalHits());
+        assertEquals(lyon, index.search(criteria("croisiere")).getHits().get(0).getId());
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    public void testRetainAllDropsToursMissingFromReload() {
+        // Given - tour modifié pendant le rechargement
+        index.put(new TourSearchDocument(montmartre, "Montmartre à pied", null, "Paris", "Français", 25, 150,
+                CREATED, CREATED.plusDays(20)));
+
+        // When
+        index.retainAll(Set.of(orsay, lyon), CREATED.plusDays(10));
+
+        // Then
+        assertEquals(3, index.size());
+        assertEquals(List.of(orsay), index.search(criteria("orsay")).getHits().stream().map(TourSearchHit::getId).toList());
+        assertEquals(0, index.search(criteria("louvre")).getTotalHits());
+    }
+
+    @Test
+    public void testOlderVersionIsIgnored() {
+        // Given
+        index.put(new TourSearchDocument(lyon, "Ancien titre", null, "Lyon", "Français", 30, 120, CREATED, CREATED));
+
+        // When & Then
+        assertEquals(0, index.search(criteria("ancien")).getTotalHits());
+    }
+
+    @Test
+    public void testInvalidCriteria() {
+        TourSearchCriteria criteria = criteria(null);
+        criteria.setSize(500);
+        assertThrows(RuntimeException.class, () -> index.search(criteria));
+
+        TourSearchCriteria ranges = criteria(null);
+        ranges.setMinPrice(80.0);
+        ranges.setMaxPrice(20.0);
+        assertThrows(RuntimeException.class, () -> index.search(ranges));
+    }
+
+    private UUID put(String title, String description, String location, String language, double price,
+                     int duration, int day) {
+        UUID id = UUID.randomUUID();
+        index.put(new TourSearchDocument(id, title, description, location, language, price, duration,
+                CREATED.plusDays(day), CREATED.plusDays(day)));
+        return id;
+    }
+
+    private TourSearchCriteria criteria(String query) {
+        TourSearchCriteria criteria = new TourSearchCriteria();
+        criteria.setQuery(query);
+        return criteria;
+    }
+}
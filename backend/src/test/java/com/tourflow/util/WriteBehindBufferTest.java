@@ -0,0 +1,76 @@
+package com.tourflow.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BinaryOperator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WriteBehindBufferTest {
+
+    @Test
+    public void testKeepsLatestValuePerKey() {
+        // Given
+        WriteBehindBuffer<String, LocalDateTime> buffer =
+                new WriteBehindBuffer<>(BinaryOperator.maxBy(LocalDateTime::compareTo));
+        LocalDateTime nine = LocalDateTime.of(2030, 6, 15, 9, 0);
+        LocalDateTime ten = nine.plusHours(1);
+
+        // When
+        buffer.record("marie", ten);
+        buffer.record("marie", nine);
+        buffer.record("jean", nine);
+        Map<String, LocalDateTime> drained = buffer.drain();
+
+        // Then
+        assertEquals(Map.of("marie", ten, "jean", nine), drained);
+        assertEquals(0, buffer.size());
+        assertTrue(buffer.drain().isEmpty());
+    }
+
+    @Test
+    public void testRestoreMergesWithNewerWrites() {
+        // Given
+        WriteBehindBuffer<String, Long> buffer = new WriteBehindBuffer<>(Long::sum);
+        buffer.record("tour", 3L);
+        Map<String, Long> failed = buffer.drain();
+        buffer.record("tour", 2L);
+
+        // When
+        buffer.restore(failed);
+
+        // Then
+        assertEquals(Map.of("tour", 5L), buffer.drain());
+    }
+
+    @Test
+    public void testNoIncrementLostWhileDraining() throws Exception {
+        // Given
+        WriteBehindBuffer<Integer, Long> buffer = new WriteBehindBuffer<>(Long::sum);
+        ExecutorService writers = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++) {
+            writers.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    buffer.record(i % 10, 1L);
+                }
+            });
+        }
+
+        // When
+        long total = 0;
+        while (!writers.isTerminated()) {
+            total += buffer.drain().values().stream().mapToLong(Long::longValue).sum();
+            writers.shutdown();
+            writers.awaitTermination(1, TimeUnit.MILLISECONDS);
+        }
+        total += buffer.drain().values().stream().mapToLong(Long::longValue).sum();
+
+        // Then
+        assertEquals(40_000, total);
+    }
+}